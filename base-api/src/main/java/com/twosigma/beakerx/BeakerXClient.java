@@ -18,6 +18,7 @@ package com.twosigma.beakerx;
 import java.util.List;
 import java.util.concurrent.SynchronousQueue;
 
+import com.twosigma.beakerx.jvm.threads.CancellationToken;
 import com.twosigma.beakerx.message.Message;
 
 public interface BeakerXClient {
@@ -49,4 +50,15 @@ public interface BeakerXClient {
   void setCurrentMessage(Message currentMessage);
 
   void setExecutionCount(int executionCount);
+
+  /**
+   * Cancellation token of the cell the calling thread works for, e.g. {@code beakerx.cancellationToken.throwIfCancelled()}.
+   */
+  default CancellationToken getCancellationToken() {
+    return CancellationToken.current();
+  }
+
+  default boolean isCancelled() {
+    return getCancellationToken().isCancelled();
+  }
 }
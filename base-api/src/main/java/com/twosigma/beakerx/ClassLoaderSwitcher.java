@@ -17,9 +17,17 @@ package com.twosigma.beakerx;
 
 import com.twosigma.beakerx.evaluator.BaseEvaluator;
 
+import java.util.ArrayList;
+
+/**
+ * Installs the evaluator's class loader as the thread's context class loader and restores the
+ * previous one afterwards. One instance can be shared by all threads and reused for every
+ * evaluation; the loaders to restore are kept per thread, so nested and concurrent start/end pairs
+ * don't overwrite each other.
+ */
 public class ClassLoaderSwitcher {
 
-  private ClassLoader oldld;
+  private final ThreadLocal<ArrayList<ClassLoader>> previous = ThreadLocal.withInitial(() -> new ArrayList<>(2));
   private BaseEvaluator baseEvaluator;
 
   public ClassLoaderSwitcher(BaseEvaluator baseEvaluator) {
@@ -27,11 +35,23 @@ public class ClassLoaderSwitcher {
   }
 
   public void start() {
-    this.oldld = Thread.currentThread().getContextClassLoader();
-    Thread.currentThread().setContextClassLoader(baseEvaluator.getClassLoader());
+    Thread thread = Thread.currentThread();
+    ClassLoader current = thread.getContextClassLoader();
+    previous.get().add(current);
+    ClassLoader loader = baseEvaluator.getClassLoader();
+    if (loader != current) {
+      thread.setContextClassLoader(loader);
+    }
   }
 
   public void end() {
-    Thread.currentThread().setContextClassLoader(oldld);
+    ArrayList<ClassLoader> stack = previous.get();
+    if (stack.isEmpty()) {
+      return;
+    }
+    ClassLoader loader = stack.remove(stack.size() - 1);
+    if (Thread.currentThread().getContextClassLoader() != loader) {
+      Thread.currentThread().setContextClassLoader(loader);
+    }
   }
 }
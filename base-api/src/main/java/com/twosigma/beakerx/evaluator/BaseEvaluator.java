@@ -24,7 +24,12 @@ import com.twosigma.beakerx.autocomplete.MagicCommandAutocompletePatterns;
 import com.twosigma.beakerx.inspect.Inspect;
 import com.twosigma.beakerx.inspect.InspectResult;
 import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.threads.CancellationEscalation;
+import com.twosigma.beakerx.jvm.threads.CellCanceller;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
 import com.twosigma.beakerx.jvm.threads.CellExecutor;
+import com.twosigma.beakerx.jvm.threads.CellExecutors;
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
 import com.twosigma.beakerx.kernel.AddImportStatus;
 import com.twosigma.beakerx.kernel.Classpath;
 import com.twosigma.beakerx.kernel.EvaluatorParameters;
@@ -46,8 +51,7 @@ import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 public abstract class BaseEvaluator implements Evaluator {
 
@@ -70,8 +74,7 @@ public abstract class BaseEvaluator implements Evaluator {
   private ClassLoaderService classLoaderService = new ClassLoaderService();
 
   protected ExecutorService executorService;
-  protected ExecutorService executorBgkService;
-  private ClassLoaderSwitcher classLoaderSwitcher;
+  private final ClassLoaderSwitcher classLoaderSwitcher = new ClassLoaderSwitcher(this);
 
   public BaseEvaluator(String id,
                        String sId,
@@ -84,7 +87,18 @@ public abstract class BaseEvaluator implements Evaluator {
                        Inspect inspect) {
     shellId = id;
     sessionId = sId;
-    executor = cellExecutor;
+    executor = CellExecutors.select(id, cellExecutor);
+    executor.getCanceller().setCancellationEscalation(new CancellationEscalation() {
+      @Override
+      public void isolateClassLoader() {
+        doReloadEvaluator();
+      }
+
+      @Override
+      public void restartEvaluator() {
+        doResetEnvironment();
+      }
+    });
     tempFolder = tempFolderFactory.createTempFolder();
     this.classpathScanner = classpathScanner;
     this.beakerXClient = BeakerXClientManager.register(beakerXClient);
@@ -93,15 +107,13 @@ public abstract class BaseEvaluator implements Evaluator {
     classPath = new Classpath();
     classPath.add(new PathToJar(outDir));
     this.inspect = inspect;
-    executorService = Executors.newCachedThreadPool();
-    executorBgkService = Executors.newCachedThreadPool();
+    executorService = ExecutionResources.executor(ExecutionResources.EVALUATOR);
     this.evaluatorParameters = evaluatorParameters;
     init(evaluatorParameters);
   }
 
   @Override
   public void startEvaluation() {
-    classLoaderSwitcher = new ClassLoaderSwitcher(this);
     classLoaderSwitcher.start();
   }
 
@@ -133,35 +145,70 @@ public abstract class BaseEvaluator implements Evaluator {
     return result;
   }
 
-  CompletableFuture<TryResult> background;
+  // evaluation of a caller without a cell context, evaluations of cells are kept in their context
+  private volatile CompletableFuture<TryResult> background;
 
   protected TryResult evaluate(EvaluationObject seo, Callable<TryResult> callable) {
+    // pool threads do not inherit the cell's context, it is handed to the task explicitly
+    CellExecutionContext context = CellExecutionContext.current();
+    // completed by the task itself, or earlier by putEvaluationInToBackground, so no pool thread waits on another
+    CompletableFuture<TryResult> result = new CompletableFuture<>();
+    CompletableFuture<TryResult> outer = null;
+    if (context != null) {
+      outer = context.getEvaluation();
+      context.setEvaluation(result);
+    } else {
+      background = result;
+    }
     try {
-      background = CompletableFuture.supplyAsync(() -> {
+      executorService.execute(() -> {
         try {
-          InternalVariable.setValue(seo);
-          Future<TryResult> submit = executorService.submit(callable);
-          return submit.get();
-        } catch (Exception e) {
-          throw new RuntimeException(e);
+          result.complete(inContext(context, () -> {
+            InternalVariable.setValue(seo);
+            return callable.call();
+          }));
+        } catch (Throwable e) {
+          result.completeExceptionally(e);
         }
-      }, executorBgkService);
-
-      return background.get();
+      });
+      return result.get();
 
     } catch (Exception e) {
-      return TryResult.createError(e.getLocalizedMessage());
+      return TryResult.createError(rejectionOrSelf(e).getLocalizedMessage());
+    } finally {
+      if (context != null) {
+        context.setEvaluation(outer);
+      }
+    }
+  }
+
+  private static <T> T inContext(CellExecutionContext context, Callable<T> task) throws Exception {
+    return context != null ? context.call(task) : task.call();
+  }
+
+  private static Throwable rejectionOrSelf(Exception e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof RejectedExecutionException) {
+        return cause;
+      }
     }
+    return e;
   }
 
   @Override
   public TryResult evaluate(EvaluationObject seo, String code) {
-    return evaluate(seo, code, new ExecutionOptions(GroupName.generate()));
+    CellExecutionContext context = CellExecutionContext.current();
+    GroupName groupName = context != null ? context.getGroupName() : GroupName.generate();
+    return evaluate(seo, code, new ExecutionOptions(groupName));
   }
 
   @Override
   public void putEvaluationInToBackground() {
-    background.complete(TryResult.createResult("Evaluation in the background"));
+    CellExecutionContext context = CellExecutionContext.current();
+    CompletableFuture<TryResult> evaluation = context != null ? context.getEvaluation() : background;
+    if (evaluation != null) {
+      evaluation.complete(TryResult.createResult("Evaluation in the background"));
+    }
   }
 
   protected abstract void addJarToClassLoader(PathToJar pathToJar);
@@ -289,6 +336,10 @@ public abstract class BaseEvaluator implements Evaluator {
     cancelHooks.runHooks();
   }
 
+  public CellCanceller getCanceller() {
+    return executor.getCanceller();
+  }
+
   @Override
   public void resetEnvironment() {
     executor.killAllThreads();
@@ -16,8 +16,13 @@
 package com.twosigma.beakerx.evaluator;
 
 import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
 import com.twosigma.beakerx.message.Message;
 
+/**
+ * Evaluation object of the cell the calling thread works for, kept in its {@link CellExecutionContext}
+ * so that cells running at the same time do not see each other's. Threads outside a cell see the last one set.
+ */
 public class InternalVariable {
 
   private static EvaluationObject simpleEvaluationObject = null;
@@ -31,10 +36,18 @@ public class InternalVariable {
   }
 
   public static EvaluationObject getSimpleEvaluationObject() {
+    CellExecutionContext context = CellExecutionContext.current();
+    if (context != null && context.getEvaluationObject() != null) {
+      return context.getEvaluationObject();
+    }
     return simpleEvaluationObject;
   }
 
   public static void setValue(EvaluationObject value) {
+    CellExecutionContext context = CellExecutionContext.current();
+    if (context != null) {
+      context.setEvaluationObject(value);
+    }
     simpleEvaluationObject = value;
   }
 
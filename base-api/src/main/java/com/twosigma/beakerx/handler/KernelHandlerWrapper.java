@@ -17,15 +17,62 @@ package com.twosigma.beakerx.handler;
 
 import com.twosigma.beakerx.kernel.KernelFunctionality;
 import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.widget.CommActions;
+
+import java.util.Map;
+
+import static com.twosigma.beakerx.kernel.comm.Comm.DATA;
+import static com.twosigma.beakerx.kernel.comm.Comm.METHOD;
+import static com.twosigma.beakerx.kernel.comm.Comm.UPDATE;
 
 public class KernelHandlerWrapper {
 
+  public static final String SUPPRESS_SYNC_BUSY_IDLE_PROPERTY = "beakerx.comm.suppressSyncBusyIdle";
+
+  private static volatile boolean suppressSyncBusyIdle = Boolean.getBoolean(SUPPRESS_SYNC_BUSY_IDLE_PROPERTY);
+
   public static void wrapBusyIdle(KernelFunctionality kernel, Message message, HandlerAction handlerAction) {
     kernel.sendBusyMessage(message);
     handlerAction.execute();
     kernel.sendIdleMessage(message);
   }
 
+  /**
+   * Like {@link #wrapBusyIdle}, but when suppression is switched on, widget sync messages (state
+   * updates, table row range and chart LOD range requests) are handled without the busy/idle pair.
+   */
+  public static void wrapCommBusyIdle(KernelFunctionality kernel, Message message, HandlerAction handlerAction) {
+    if (suppressSyncBusyIdle && isWidgetSync(message)) {
+      handlerAction.execute();
+    } else {
+      wrapBusyIdle(kernel, message, handlerAction);
+    }
+  }
+
+  public static void setSuppressSyncBusyIdle(boolean suppress) {
+    suppressSyncBusyIdle = suppress;
+  }
+
+  public static boolean isSuppressSyncBusyIdle() {
+    return suppressSyncBusyIdle;
+  }
+
+  public static boolean isWidgetSync(Message message) {
+    Object data = message.getContent() != null ? message.getContent().get(DATA) : null;
+    if (!(data instanceof Map)) {
+      return false;
+    }
+    if (UPDATE.equals(((Map) data).get(METHOD))) {
+      return true;
+    }
+    Object content = ((Map) data).get("content");
+    if (!(content instanceof Map)) {
+      return false;
+    }
+    Object event = ((Map) content).get("event");
+    return CommActions.ROW_RANGE.getAction().equals(event) || CommActions.LOD_RANGE.getAction().equals(event);
+  }
+
   public interface HandlerAction {
     void execute();
   }
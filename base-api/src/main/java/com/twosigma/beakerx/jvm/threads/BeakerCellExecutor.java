@@ -19,15 +19,17 @@ import com.twosigma.beakerx.TryResult;
 import com.twosigma.beakerx.kernel.ExecutionOptions;
 import com.twosigma.beakerx.kernel.GroupName;
 
-import java.lang.Thread.State;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 
 public class BeakerCellExecutor implements CellExecutor {
@@ -37,13 +39,13 @@ public class BeakerCellExecutor implements CellExecutor {
 
   private final String prefix;
   private final ReentrantLock theLock;
-  private ConcurrentLinkedQueue<ThreadGroup> threadGroups = new ConcurrentLinkedQueue<>();
-  private int killThreadSleepInMillis;
+  private final CellCanceller canceller;
+  private Map<ThreadGroup, CellExecutionContext> threadGroups = new ConcurrentHashMap<>();
 
   public BeakerCellExecutor(String prf, int killThreadSleepInMillis) {
     prefix = prf;
     theLock = new ReentrantLock();
-    this.killThreadSleepInMillis = killThreadSleepInMillis;
+    canceller = new CellCanceller(killThreadSleepInMillis);
     reset();
   }
 
@@ -53,7 +55,7 @@ public class BeakerCellExecutor implements CellExecutor {
 
   private void reset() {
     theLock.lock();
-    threadGroups = new ConcurrentLinkedQueue<>();
+    threadGroups = new ConcurrentHashMap<>();
     theLock.unlock();
   }
 
@@ -87,32 +89,48 @@ public class BeakerCellExecutor implements CellExecutor {
   }
 
   private FutureTask<TryResult> executeTaskInNewThread(Callable<TryResult> tsk, GroupName groupName) {
+    removeFinishedThreadGroups();
     ThreadGroup threadGroup = new ThreadGroup(groupName + "_" + prefix + "TG" + count.getAndIncrement());
-    threadGroups.add(threadGroup);
-    FutureTask<TryResult> ret = new FutureTask<>(tsk);
+    CellExecutionContext context = new CellExecutionContext(groupName);
+    threadGroups.put(threadGroup, context);
+    FutureTask<TryResult> ret = new FutureTask<>(() -> context.call(tsk));
     Thread t = new Thread(threadGroup, ret);
     t.start();
     return ret;
   }
 
+  private void removeFinishedThreadGroups() {
+    threadGroups.keySet().removeIf(thg -> thg.activeCount() == 0);
+  }
+
+  int threadGroupCount() {
+    return threadGroups.size();
+  }
+
   @Override
   public void cancelExecution(GroupName groupName) {
     try {
       theLock.lock();
-      threadGroups.stream()
+      List<ThreadGroup> groups = threadGroups.keySet().stream()
               .filter(thg -> thg.getName().contains(groupName.asString()))
-              .forEach(thg -> {
-                List<Thread> tlist = getThreadList(thg);
-                for (Thread t : tlist) {
-                  killThread(t);
-                }
-                threadGroups.remove(thg);
-              });
+              .collect(Collectors.toList());
+      cancel(groups);
     } finally {
       theLock.unlock();
     }
   }
 
+  private void cancel(List<ThreadGroup> groups) {
+    List<CancellationToken> tokens = new ArrayList<>();
+    List<Thread> threads = new ArrayList<>();
+    groups.forEach(thg -> {
+      tokens.add(threadGroups.get(thg).getCancellationToken());
+      threads.addAll(getThreadList(thg));
+    });
+    canceller.cancel(tokens, threads, Thread::isAlive);
+    groups.forEach(threadGroups::remove);
+  }
+
   public List<Thread> getThreadList(ThreadGroup thrGroup) {
     int nAlloc = thrGroup.activeCount();
     if (nAlloc == 0)
@@ -124,34 +142,22 @@ public class BeakerCellExecutor implements CellExecutor {
       threads = new Thread[nAlloc];
       n = thrGroup.enumerate(threads);
     } while (n == nAlloc);
-    return Arrays.asList(threads);
-  }
-
-  private void killThread(Thread thr) {
-    if (null == thr) return;
-    thr.interrupt();
-    try {
-      Thread.sleep(killThreadSleepInMillis);
-    } catch (InterruptedException ex) {
-    }
-    if (!thr.getState().equals(State.TERMINATED)) {
-      thr.stop();
-    }
+    return Arrays.stream(threads).filter(Objects::nonNull).collect(Collectors.toList());
   }
 
   @Override
   public void killAllThreads() {
     try {
       theLock.lock();
-      threadGroups.forEach(y -> {
-        List<Thread> tlist = getThreadList(y);
-        for (Thread t : tlist) {
-          killThread(t);
-        }
-      });
+      cancel(new ArrayList<>(threadGroups.keySet()));
     } finally {
       theLock.unlock();
       reset();
     }
   }
+
+  @Override
+  public CellCanceller getCanceller() {
+    return canceller;
+  }
 }
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Platform thread pool with a fixed thread limit and queue capacity. Idle threads time out, so an unused
+ * pool holds no threads. The pool is shared by the whole kernel and ignores shutdown requests, it is only
+ * stopped by {@link #terminate()}.
+ */
+public class BoundedThreadPool extends ThreadPoolExecutor implements ManagedExecutor {
+
+  private static final long KEEP_ALIVE_SECONDS = 60L;
+
+  private final String name;
+  private final int queueCapacity;
+  private final AtomicLong rejected = new AtomicLong();
+
+  public BoundedThreadPool(String name, int maxThreads, int queueCapacity) {
+    super(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue(queueCapacity), daemonThreads(name));
+    this.name = name;
+    this.queueCapacity = queueCapacity;
+    allowCoreThreadTimeOut(true);
+    setRejectedExecutionHandler((task, executor) -> {
+      rejected.incrementAndGet();
+      throw new RejectedExecutionException(ExecutionResources.saturatedMessage(this));
+    });
+  }
+
+  private static BlockingQueue<Runnable> queue(int queueCapacity) {
+    return queueCapacity > 0 ? new LinkedBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+  }
+
+  private static ThreadFactory daemonThreads(String name) {
+    AtomicInteger count = new AtomicInteger();
+    return r -> {
+      Thread thread = new Thread(CellExecutionContext.detached(r), "beakerx-" + name + "-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  void setMaxThreads(int maxThreads) {
+    if (maxThreads >= getCorePoolSize()) {
+      setMaximumPoolSize(maxThreads);
+      setCorePoolSize(maxThreads);
+    } else {
+      setCorePoolSize(maxThreads);
+      setMaximumPoolSize(maxThreads);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getMaxThreads() {
+    return getMaximumPoolSize();
+  }
+
+  @Override
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  @Override
+  public int getQueuedCount() {
+    return getQueue().size();
+  }
+
+  @Override
+  public long getCompletedCount() {
+    return getCompletedTaskCount();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  @Override
+  public void terminate() {
+    super.shutdownNow();
+  }
+
+  @Override
+  public void shutdown() {
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts a virtual thread per task, but lets at most {@code maxThreads} of them run at once; up to
+ * {@code queueCapacity} further tasks wait for a permit, the rest is rejected.
+ */
+public class BoundedVirtualThreadExecutor extends AbstractExecutorService implements ManagedExecutor {
+
+  private final String name;
+  private final ExecutorService virtualThreads;
+  private final int maxThreads;
+  private final int queueCapacity;
+  private final Semaphore permits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+
+  public BoundedVirtualThreadExecutor(String name, ExecutorService virtualThreads, int maxThreads, int queueCapacity) {
+    this.name = name;
+    this.virtualThreads = virtualThreads;
+    this.maxThreads = maxThreads;
+    this.queueCapacity = queueCapacity;
+    this.permits = new Semaphore(maxThreads, true);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    if (inFlight.incrementAndGet() > maxThreads + queueCapacity) {
+      inFlight.decrementAndGet();
+      rejected.incrementAndGet();
+      throw new RejectedExecutionException(ExecutionResources.saturatedMessage(this));
+    }
+    try {
+      virtualThreads.execute(() -> run(command));
+    } catch (RuntimeException e) {
+      inFlight.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void run(Runnable command) {
+    permits.acquireUninterruptibly();
+    active.incrementAndGet();
+    try {
+      command.run();
+    } finally {
+      active.decrementAndGet();
+      completed.incrementAndGet();
+      permits.release();
+      inFlight.decrementAndGet();
+    }
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public int getMaxThreads() {
+    return maxThreads;
+  }
+
+  @Override
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  @Override
+  public int getActiveCount() {
+    return active.get();
+  }
+
+  @Override
+  public int getQueuedCount() {
+    return Math.max(0, inFlight.get() - active.get());
+  }
+
+  @Override
+  public long getCompletedCount() {
+    return completed.get();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return rejected.get();
+  }
+
+  @Override
+  public void terminate() {
+    virtualThreads.shutdownNow();
+  }
+
+  @Override
+  public void shutdown() {
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return virtualThreads.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return virtualThreads.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return virtualThreads.awaitTermination(timeout, unit);
+  }
+}
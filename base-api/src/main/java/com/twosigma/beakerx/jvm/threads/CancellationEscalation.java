@@ -0,0 +1,40 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+/**
+ * Actions taken when a cancelled cell does not stop after being interrupted. Implemented by the evaluator
+ * that owns the {@link CellExecutor}.
+ */
+public interface CancellationEscalation {
+
+  CancellationEscalation NONE = new CancellationEscalation() {
+    @Override
+    public void isolateClassLoader() {
+    }
+
+    @Override
+    public void restartEvaluator() {
+    }
+  };
+
+  /**
+   * Stops using the class loader the stuck cell runs in, new cells get a fresh one.
+   */
+  void isolateClassLoader();
+
+  void restartEvaluator();
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cooperative cancellation flag of a cell. Long running user code can poll {@link #isCancelled()}
+ * or call {@link #throwIfCancelled()} at safe points, and register {@link #onCancel(Runnable)}
+ * callbacks to release resources, instead of relying on the thread being killed.
+ */
+public class CancellationToken {
+
+  public static final CancellationToken NONE = new CancellationToken() {
+    @Override
+    public void cancel() {
+    }
+  };
+
+  private volatile boolean cancelled = false;
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * @return token of the cell the calling thread works for, {@link #NONE} outside of a cell
+   */
+  public static CancellationToken current() {
+    CellExecutionContext context = CellExecutionContext.current();
+    return context != null ? context.getCancellationToken() : NONE;
+  }
+
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  public void throwIfCancelled() {
+    if (cancelled) {
+      throw new CancellationException("Cell execution cancelled");
+    }
+  }
+
+  public void onCancel(Runnable listener) {
+    listeners.add(listener);
+    if (cancelled && listeners.remove(listener)) {
+      runSafely(listener);
+    }
+  }
+
+  public void cancel() {
+    if (cancelled) {
+      return;
+    }
+    cancelled = true;
+    for (Runnable listener : listeners) {
+      if (listeners.remove(listener)) {
+        runSafely(listener);
+      }
+    }
+  }
+
+  private static void runSafely(Runnable listener) {
+    try {
+      listener.run();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+}
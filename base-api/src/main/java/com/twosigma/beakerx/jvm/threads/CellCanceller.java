@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+
+/**
+ * Cancels cells: marks their {@link CancellationToken}s, interrupts all of their threads at once and
+ * waits for them against one shared deadline. Threads that outlive the deadline go through the
+ * configured {@link Step}s, each step getting the same deadline again.
+ */
+public class CellCanceller {
+
+  public enum Step {
+    INTERRUPT,
+    /**
+     * Legacy {@code Thread.stop}, left out of the escalation on JVMs which no longer support it.
+     */
+    STOP_THREAD,
+    ISOLATE_CLASSLOADER,
+    RESTART_EVALUATOR
+  }
+
+  public static final long DEFAULT_DEADLINE_MILLIS = 2000;
+  private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+  // Thread.stop throws UnsupportedOperationException since JDK 20
+  private static final boolean STOP_THREAD_SUPPORTED = Runtime.version().feature() < 20;
+  private static volatile List<Step> escalation = escalation(Step.STOP_THREAD);
+
+  private final long deadlineMillis;
+  private volatile CancellationEscalation cancellationEscalation = CancellationEscalation.NONE;
+  private final LatencyHistogram interruptLatency = new LatencyHistogram("interrupt");
+  private final Map<Step, AtomicLong> stoppedBy = new EnumMap<>(Step.class);
+  private final AtomicLong unresponsive = new AtomicLong();
+
+  public CellCanceller(long deadlineMillis) {
+    this.deadlineMillis = deadlineMillis;
+    for (Step step : Step.values()) {
+      stoppedBy.put(step, new AtomicLong());
+    }
+  }
+
+  /**
+   * Sets the steps, in order, applied to cells which do not stop. {@link Step#INTERRUPT} is always the first one,
+   * {@link Step#STOP_THREAD} is dropped when the JVM does not support it.
+   */
+  public static void setEscalation(Step... steps) {
+    escalation = escalation(steps);
+  }
+
+  private static List<Step> escalation(Step... steps) {
+    List<Step> list = new ArrayList<>();
+    list.add(Step.INTERRUPT);
+    Arrays.stream(steps)
+            .filter(s -> !list.contains(s))
+            .filter(s -> s != Step.STOP_THREAD || STOP_THREAD_SUPPORTED)
+            .forEach(list::add);
+    return Collections.unmodifiableList(list);
+  }
+
+  public static List<Step> getEscalation() {
+    return escalation;
+  }
+
+  public void setCancellationEscalation(CancellationEscalation cancellationEscalation) {
+    this.cancellationEscalation = cancellationEscalation;
+  }
+
+  /**
+   * @param running tells whether a thread is still working for one of the cancelled cells
+   * @return step which stopped all the threads, or null when some are still running after the last step
+   */
+  public Step cancel(Collection<CancellationToken> tokens, Collection<Thread> threads, Predicate<Thread> running) {
+    long start = System.nanoTime();
+    tokens.forEach(CancellationToken::cancel);
+    for (Step step : escalation) {
+      apply(step, threads, running);
+      if (awaitStopped(threads, running, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMillis))) {
+        if (step == Step.INTERRUPT) {
+          interruptLatency.recordSince(start);
+        }
+        stoppedBy.get(step).incrementAndGet();
+        return step;
+      }
+    }
+    unresponsive.incrementAndGet();
+    return null;
+  }
+
+  private void apply(Step step, Collection<Thread> threads, Predicate<Thread> running) {
+    switch (step) {
+      case INTERRUPT:
+        threads.stream().filter(running).forEach(Thread::interrupt);
+        break;
+      case STOP_THREAD:
+        threads.stream().filter(running).forEach(CellCanceller::stop);
+        break;
+      case ISOLATE_CLASSLOADER:
+        cancellationEscalation.isolateClassLoader();
+        break;
+      case RESTART_EVALUATOR:
+        cancellationEscalation.restartEvaluator();
+        break;
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private static void stop(Thread thread) {
+    try {
+      thread.stop();
+    } catch (UnsupportedOperationException e) {
+      // Thread.stop is gone on this JVM (and never worked for virtual threads)
+    }
+  }
+
+  private boolean awaitStopped(Collection<Thread> threads, Predicate<Thread> running, long deadlineNanos) {
+    while (threads.stream().anyMatch(running)) {
+      long remaining = deadlineNanos - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      LockSupport.parkNanos(Math.min(remaining, POLL_NANOS));
+    }
+    return true;
+  }
+
+  /**
+   * Time from the cancel request until all threads of the cancelled cells reacted to the interrupt.
+   */
+  public LatencyHistogram getInterruptLatency() {
+    return interruptLatency;
+  }
+
+  public long getStoppedBy(Step step) {
+    return stoppedBy.get(step).get();
+  }
+
+  public long getUnresponsive() {
+    return unresponsive.get();
+  }
+
+  @Override
+  public String toString() {
+    return interruptLatency +
+            " stopThread=" + getStoppedBy(Step.STOP_THREAD) +
+            " isolateClassLoader=" + getStoppedBy(Step.ISOLATE_CLASSLOADER) +
+            " restartEvaluator=" + getStoppedBy(Step.RESTART_EVALUATOR) +
+            " unresponsive=" + getUnresponsive();
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.TryResult;
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.kernel.GroupName;
+import com.twosigma.beakerx.util.Preconditions;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The cell a thread is working for. The context is inherited by threads started from a cell,
+ * so stdout/stderr/stdin of background threads keep being routed to the cell that started them.
+ * Pooled threads outlive the cell that happened to create them and start {@link #detached} instead.
+ */
+public final class CellExecutionContext {
+
+  private static final InheritableThreadLocal<CellExecutionContext> CURRENT = new InheritableThreadLocal<>();
+
+  private final GroupName groupName;
+  private final CancellationToken cancellationToken = new CancellationToken();
+  private volatile BeakerOutputHandler outHandler;
+  private volatile BeakerOutputHandler errHandler;
+  private volatile BeakerInputHandler stdinHandler;
+  private volatile EvaluationObject evaluationObject;
+  private volatile CompletableFuture<TryResult> evaluation;
+
+  /**
+   * A context created while another one is current, e.g. by the {@link CellExecutor} an evaluator hands
+   * the cell to, works for the same cell and takes over its evaluation object and pending evaluation.
+   */
+  public CellExecutionContext(GroupName groupName) {
+    this.groupName = Preconditions.checkNotNull(groupName);
+    CellExecutionContext parent = CURRENT.get();
+    if (parent != null) {
+      this.evaluationObject = parent.evaluationObject;
+      this.evaluation = parent.evaluation;
+    }
+  }
+
+  public static CellExecutionContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Makes the context current for the calling thread until {@link #remove()} is called.
+   * Prefer {@link #call(Callable)} when the scope is a single task.
+   */
+  public static CellExecutionContext open(GroupName groupName) {
+    CellExecutionContext context = new CellExecutionContext(groupName);
+    CURRENT.set(context);
+    return context;
+  }
+
+  public static void remove() {
+    CURRENT.remove();
+  }
+
+  /**
+   * For thread factories of pools and shared threads: the thread drops the context it inherited, tasks
+   * it runs for a cell get that cell's context from their executor.
+   */
+  public static Runnable detached(Runnable runnable) {
+    return () -> {
+      CURRENT.remove();
+      runnable.run();
+    };
+  }
+
+  public <T> T call(Callable<T> task) throws Exception {
+    CellExecutionContext previous = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return task.call();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  public GroupName getGroupName() {
+    return groupName;
+  }
+
+  public CancellationToken getCancellationToken() {
+    return cancellationToken;
+  }
+
+  public void setOutputHandlers(BeakerOutputHandler out, BeakerOutputHandler err, BeakerInputHandler stdin) {
+    this.outHandler = out;
+    this.errHandler = err;
+    this.stdinHandler = stdin;
+  }
+
+  public BeakerOutputHandler getOutHandler() {
+    return outHandler;
+  }
+
+  public BeakerOutputHandler getErrHandler() {
+    return errHandler;
+  }
+
+  public BeakerInputHandler getStdinHandler() {
+    return stdinHandler;
+  }
+
+  /**
+   * Evaluation object of the cell, it carries the request message and execution count displays are parented to.
+   */
+  public EvaluationObject getEvaluationObject() {
+    return evaluationObject;
+  }
+
+  public void setEvaluationObject(EvaluationObject evaluationObject) {
+    this.evaluationObject = evaluationObject;
+  }
+
+  /**
+   * Result of the evaluation the cell is waiting for; completing it early puts the evaluation in the background.
+   */
+  public CompletableFuture<TryResult> getEvaluation() {
+    return evaluation;
+  }
+
+  public void setEvaluation(CompletableFuture<TryResult> evaluation) {
+    this.evaluation = evaluation;
+  }
+}
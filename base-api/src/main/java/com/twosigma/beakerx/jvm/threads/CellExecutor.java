@@ -28,4 +28,12 @@ public interface CellExecutor {
   void cancelExecution(GroupName groupName);
 
   void killAllThreads();
+
+  /**
+   * Canceller with the standard escalation and deadline. Executors which use a canceller to stop their
+   * cells should return the same instance every time; the default is a new one for executors which don't.
+   */
+  default CellCanceller getCanceller() {
+    return new CellCanceller(CellCanceller.DEFAULT_DEADLINE_MILLIS);
+  }
 }
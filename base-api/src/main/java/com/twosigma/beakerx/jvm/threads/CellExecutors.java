@@ -0,0 +1,55 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+/**
+ * Picks the {@link CellExecutor} implementation from the {@value #CELL_EXECUTOR_PROPERTY} system property:
+ * {@code thread} (the executor the kernel passes to its evaluator, a new thread per cell; the default),
+ * {@code pool} or {@code virtual}.
+ */
+public class CellExecutors {
+
+  public static final String CELL_EXECUTOR_PROPERTY = "beakerx.cellExecutor";
+  public static final String THREAD = "thread";
+  public static final String POOL = "pool";
+  public static final String VIRTUAL = "virtual";
+
+  private static final int KILL_THREAD_SLEEP_IN_MILLIS = 2000;
+
+  /**
+   * @param kernelExecutor executor the kernel created, used unless the property asks for another one
+   */
+  public static CellExecutor select(String prefix, CellExecutor kernelExecutor) {
+    String kind = System.getProperty(CELL_EXECUTOR_PROPERTY, THREAD);
+    if (kind.equals(THREAD)) {
+      return kernelExecutor;
+    }
+    return create(prefix, kind, KILL_THREAD_SLEEP_IN_MILLIS);
+  }
+
+  public static CellExecutor create(String prefix, String kind, int killThreadSleepInMillis) {
+    switch (kind) {
+      case THREAD:
+        return new BeakerCellExecutor(prefix, killThreadSleepInMillis);
+      case POOL:
+        return new PooledCellExecutor(prefix, killThreadSleepInMillis);
+      case VIRTUAL:
+        return PooledCellExecutor.withVirtualThreads(prefix, killThreadSleepInMillis);
+      default:
+        throw new RuntimeException("Unknown cell executor '" + kind + "', use one of: " + THREAD + ", " + POOL + ", " + VIRTUAL);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Kernel-wide registry of the executors used for evaluation, background work and {@code %%async} cells.
+ * Each executor is bounded by a thread limit and a queue capacity, see {@link #configure(String, int, int)};
+ * with {@link #setVirtualThreads(boolean)} new executors run their tasks on virtual threads when the JVM supports them.
+ * The kernel stops all of them with {@link #shutdown()} when it exits.
+ */
+public class ExecutionResources {
+
+  public static final String EVALUATOR = "evaluator";
+  public static final String ASYNC = "async";
+  public static final String CONCURRENT_CELLS = "concurrent-cells";
+
+  public static final int DEFAULT_MAX_THREADS = 32;
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+  private static final Map<String, ManagedExecutor> executors = new ConcurrentSkipListMap<>();
+  private static final Map<String, int[]> limits = new ConcurrentHashMap<>();
+  private static volatile boolean virtualThreads = false;
+
+  private ExecutionResources() {
+  }
+
+  public static ManagedExecutor executor(String name) {
+    return executors.computeIfAbsent(name, ExecutionResources::create);
+  }
+
+  private static ManagedExecutor create(String name) {
+    int[] limit = limits.getOrDefault(name, new int[]{DEFAULT_MAX_THREADS, DEFAULT_QUEUE_CAPACITY});
+    if (virtualThreads) {
+      ExecutorService perTask = VirtualThreads.newVirtualThreadPerTaskExecutor();
+      if (perTask != null) {
+        return new BoundedVirtualThreadExecutor(name, perTask, limit[0], limit[1]);
+      }
+    }
+    return new BoundedThreadPool(name, limit[0], limit[1]);
+  }
+
+  /**
+   * Sets limits of the executor. The queue capacity applies to executors created afterwards, the thread limit
+   * is also applied to an already running thread pool.
+   */
+  public static void configure(String name, int maxThreads, int queueCapacity) {
+    if (maxThreads < 1 || queueCapacity < 0) {
+      throw new IllegalArgumentException("maxThreads has to be positive and queueCapacity non negative");
+    }
+    limits.put(name, new int[]{maxThreads, queueCapacity});
+    ManagedExecutor executor = executors.get(name);
+    if (executor instanceof BoundedThreadPool) {
+      ((BoundedThreadPool) executor).setMaxThreads(maxThreads);
+    }
+  }
+
+  public static void setVirtualThreads(boolean enabled) {
+    virtualThreads = enabled;
+  }
+
+  /**
+   * Terminates all executors started so far. Executors requested afterwards are created anew.
+   */
+  public static void shutdown() {
+    for (String name : new ArrayList<>(executors.keySet())) {
+      ManagedExecutor executor = executors.remove(name);
+      if (executor != null) {
+        executor.terminate();
+      }
+    }
+  }
+
+  public static Collection<ManagedExecutor> getExecutors() {
+    return new ArrayList<>(executors.values());
+  }
+
+  static String saturatedMessage(ManagedExecutor executor) {
+    return "Executor '" + executor.getName() + "' is saturated (" +
+            executor.getActiveCount() + " running, " + executor.getQueuedCount() + " queued, limit " +
+            executor.getMaxThreads() + " threads + " + executor.getQueueCapacity() + " queued). " +
+            "Wait for running cells to finish or raise the limit with ExecutionResources.configure.";
+  }
+}
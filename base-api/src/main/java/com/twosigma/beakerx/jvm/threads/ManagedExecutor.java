@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Named, bounded executor registered in {@link ExecutionResources}. When both the threads and the queue are
+ * full new tasks are rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+ */
+public interface ManagedExecutor extends ExecutorService {
+
+  String getName();
+
+  int getMaxThreads();
+
+  int getQueueCapacity();
+
+  int getActiveCount();
+
+  int getQueuedCount();
+
+  long getCompletedCount();
+
+  long getRejectedCount();
+
+  /**
+   * Stops the executor for good and interrupts its running tasks. Unlike {@link #shutdown()}, which shared
+   * executors ignore, this is meant for the owner of the executor only, see {@link ExecutionResources#shutdown()}.
+   */
+  void terminate();
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.TryResult;
+import com.twosigma.beakerx.kernel.ExecutionOptions;
+import com.twosigma.beakerx.kernel.GroupName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs cells on reused threads instead of a new thread and thread group per cell. Threads are
+ * taken from a cached pool, or are virtual threads when the JVM supports them (JDK 21+).
+ * Running threads are tracked per {@link GroupName} only while their cell runs, so
+ * {@link #cancelExecution(GroupName)} keeps working and nothing is retained after a cell ends.
+ */
+public class PooledCellExecutor implements CellExecutor {
+
+  private static final int KILL_THREAD_SLEEP_IN_MILLIS = 2000;
+
+  private final ExecutorService pool;
+  private final CellCanceller canceller;
+  private final Map<GroupName, Map<Thread, CellExecutionContext>> running = new ConcurrentHashMap<>();
+
+  public PooledCellExecutor(ExecutorService pool, int killThreadSleepInMillis) {
+    this.pool = pool;
+    this.canceller = new CellCanceller(killThreadSleepInMillis);
+  }
+
+  public PooledCellExecutor(String prefix, int killThreadSleepInMillis) {
+    this(newCachedPool(prefix), killThreadSleepInMillis);
+  }
+
+  public PooledCellExecutor(String prefix) {
+    this(prefix, KILL_THREAD_SLEEP_IN_MILLIS);
+  }
+
+  /**
+   * Uses a virtual thread per cell when available, falls back to the cached pool otherwise.
+   */
+  public static PooledCellExecutor withVirtualThreads(String prefix, int killThreadSleepInMillis) {
+    ExecutorService virtualThreads = VirtualThreads.newVirtualThreadPerTaskExecutor();
+    if (virtualThreads == null) {
+      return new PooledCellExecutor(prefix, killThreadSleepInMillis);
+    }
+    return new PooledCellExecutor(virtualThreads, killThreadSleepInMillis);
+  }
+
+  @Override
+  public TryResult executeTask(Callable<TryResult> tsk, ExecutionOptions executionOptions) {
+    GroupName groupName = executionOptions.getGroupName();
+    CellExecutionContext context = new CellExecutionContext(groupName);
+    Future<TryResult> future;
+    try {
+      future = pool.submit(() -> runInContext(tsk, context));
+    } catch (Throwable t) {
+      t.printStackTrace();
+      return TryResult.createError(t.getMessage());
+    }
+    return getResult(future);
+  }
+
+  private TryResult runInContext(Callable<TryResult> tsk, CellExecutionContext context) throws Exception {
+    Thread thread = Thread.currentThread();
+    GroupName groupName = context.getGroupName();
+    running.computeIfAbsent(groupName, g -> new ConcurrentHashMap<>()).put(thread, context);
+    try {
+      return context.call(tsk);
+    } finally {
+      running.computeIfPresent(groupName, (g, cells) -> {
+        cells.remove(thread);
+        return cells.isEmpty() ? null : cells;
+      });
+      // the thread goes back to the pool, do not leak an interrupt into the next cell
+      Thread.interrupted();
+    }
+  }
+
+  private TryResult getResult(Future<TryResult> future) {
+    try {
+      return future.get();
+    } catch (Exception e) {
+      e.printStackTrace();
+      return TryResult.createError(e.getMessage());
+    }
+  }
+
+  @Override
+  public void cancelExecution(GroupName groupName) {
+    cancel(Collections.singletonList(groupName));
+  }
+
+  @Override
+  public void killAllThreads() {
+    cancel(new ArrayList<>(running.keySet()));
+  }
+
+  private void cancel(List<GroupName> groupNames) {
+    Set<CancellationToken> tokens = new HashSet<>();
+    List<Thread> threads = new ArrayList<>();
+    groupNames.forEach(groupName -> {
+      Map<Thread, CellExecutionContext> cells = running.get(groupName);
+      if (cells != null) {
+        cells.values().forEach(context -> tokens.add(context.getCancellationToken()));
+        threads.addAll(cells.keySet());
+      }
+    });
+    if (!threads.isEmpty()) {
+      // a pooled thread is done with the cell when it leaves it, it does not have to terminate
+      canceller.cancel(tokens, threads, thread -> isStillRunning(thread, groupNames));
+    }
+  }
+
+  private boolean isStillRunning(Thread thread, List<GroupName> groupNames) {
+    return groupNames.stream()
+            .map(running::get)
+            .anyMatch(cells -> cells != null && cells.containsKey(thread));
+  }
+
+  @Override
+  public CellCanceller getCanceller() {
+    return canceller;
+  }
+
+  int runningGroupCount() {
+    return running.size();
+  }
+
+  private static ExecutorService newCachedPool(String prefix) {
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory threadFactory = r -> {
+      Thread thread = new Thread(CellExecutionContext.detached(r), prefix + "-cell-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+    return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+  }
+}
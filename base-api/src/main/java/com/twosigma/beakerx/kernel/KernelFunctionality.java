@@ -45,6 +45,10 @@ public interface KernelFunctionality {
 
   String sendStdIn(Message message);
 
+  default boolean awaitPublishCapacity(long timeoutMillis) {
+    return true;
+  }
+
   String getSessionId();
 
   ResultSender getExecutionResultSender();
@@ -26,4 +26,11 @@ public abstract class KernelSockets extends Thread {
   public abstract void send(Message message);
 
   public abstract String sendStdIn(Message message);
+
+  /**
+   * Blocks while the publish queue is congested. Sockets without a queue never wait.
+   */
+  public boolean awaitPublishCapacity(long timeoutMillis) {
+    return true;
+  }
 }
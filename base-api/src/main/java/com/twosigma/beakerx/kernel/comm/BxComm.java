@@ -284,6 +284,21 @@ public class BxComm implements Comm {
     kernel.publish(singletonList(message));
   }
 
+  @Override
+  public boolean supportsBuffers() {
+    return true;
+  }
+
+  public void sendUpdate(List<ChangeItem> changes, Buffer buffer) {
+    HashMap<String, Serializable> content = new HashMap<>();
+    content.put(METHOD, UPDATE);
+    HashMap<Object, Object> state = new HashMap<>();
+    changes.forEach(x -> state.put(x.getPropertyName(), x.getValue()));
+    content.put(STATE, state);
+    content.put(BUFFER_PATHS, buffer.getBufferPaths());
+    this.send(buffer, new Data(content));
+  }
+
   public Message createMessageWithData(String field, HashMap<String, String> payload) {
     HashMap<String, Serializable> content = new HashMap<>();
     content.put(METHOD, UPDATE);
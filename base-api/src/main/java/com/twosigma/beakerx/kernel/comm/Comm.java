@@ -67,6 +67,26 @@ public interface Comm {
 
   void sendUpdate(List<ChangeItem> changes, Message parent);
 
+  /**
+   * Whether {@link #sendUpdate(List, Buffer)} can attach binary buffers. Callers that can also
+   * send their data as JSON should check this before choosing a binary encoding.
+   */
+  default boolean supportsBuffers() {
+    return false;
+  }
+
+  /**
+   * Sends the changes with binary buffers attached. Implementations that do not support buffers
+   * fall back to a plain update when there is nothing to attach.
+   */
+  default void sendUpdate(List<ChangeItem> changes, Buffer buffer) {
+    if (buffer == null || buffer.isEmpty()) {
+      sendUpdate(changes);
+    } else {
+      throw new UnsupportedOperationException("Binary buffers are not supported by " + getClass().getName());
+    }
+  }
+
   Message createUpdateMessage(List<ChangeItem> changes, Message parent);
 
   Message createUpdateMessage(List<ChangeItem> changes, HashMap<String, Object> state);
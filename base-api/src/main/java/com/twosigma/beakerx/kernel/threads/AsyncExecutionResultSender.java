@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.threads;
+
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.object.EvaluationStatus;
+import com.twosigma.beakerx.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.twosigma.beakerx.util.Preconditions.checkNotNull;
+
+/**
+ * Hands updates to a dedicated sender thread, so threads producing output never build or publish
+ * messages themselves. Updates are dispatched in the order they were requested. Output of a cell
+ * that is still waiting to be sent absorbs later output of the same cell, so a slow consumer sees
+ * one merged update instead of a backlog. The final result of a cell is never merged; the thread
+ * reporting it waits until it and everything before it has been sent.
+ * <p>
+ * The delegate renders results on the sender thread rather than on the cell's thread, so displayers and
+ * {@code toString()} of user objects run there too. It is therefore only used when switched on with the
+ * {@value #ASYNC_PROPERTY} system property.
+ */
+public class AsyncExecutionResultSender implements ResultSender {
+
+  private static final Logger logger = LoggerFactory.getLogger(AsyncExecutionResultSender.class);
+
+  public static final String ASYNC_PROPERTY = "beakerx.resultSender.async";
+
+  private final ResultSender delegate;
+  private final Object lock = new Object();
+  private final ArrayDeque<EvaluationObjectSnapshot> queue = new ArrayDeque<>();
+  private final Map<EvaluationObject, EvaluationObjectSnapshot> pendingOutput = new IdentityHashMap<>();
+  private final Map<EvaluationObject, Boolean> resultQueued = new WeakHashMap<>();
+  private final LatencyHistogram dispatchLatency = new LatencyHistogram("result-sender");
+  private final AtomicLong coalesced = new AtomicLong();
+  private final Thread sender;
+  private boolean closed = false;
+
+  public AsyncExecutionResultSender(ResultSender delegate) {
+    this.delegate = checkNotNull(delegate);
+    this.sender = new Thread(this::dispatchLoop, "beakerx-result-sender");
+    this.sender.setDaemon(true);
+    this.sender.start();
+  }
+
+  /**
+   * Wraps the sender when asynchronous sending was switched on with the system property.
+   */
+  public static ResultSender wrap(ResultSender sender) {
+    if (!Boolean.getBoolean(ASYNC_PROPERTY)) {
+      return sender;
+    }
+    return new AsyncExecutionResultSender(sender);
+  }
+
+  @Override
+  public void update(EvaluationObject seo) {
+    if (seo == null) {
+      return;
+    }
+    EvaluationObjectSnapshot result = null;
+    synchronized (lock) {
+      if (!closed) {
+        boolean terminal = isTerminal(seo.getStatus());
+        EvaluationObjectSnapshot output = EvaluationObjectSnapshot.output(seo);
+        if (output.hasConsoleOutput() || !terminal) {
+          enqueueOutput(seo, output);
+        }
+        if (terminal && resultQueued.put(seo, Boolean.TRUE) == null) {
+          result = EvaluationObjectSnapshot.result(seo);
+          pendingOutput.remove(seo);
+          queue.addLast(result);
+          lock.notifyAll();
+        }
+        if (result == null || Thread.currentThread() == sender) {
+          return;
+        }
+      }
+    }
+    if (result != null) {
+      result.awaitDispatched();
+    } else {
+      delegate.update(seo);
+    }
+  }
+
+  private void enqueueOutput(EvaluationObject seo, EvaluationObjectSnapshot output) {
+    EvaluationObjectSnapshot pending = pendingOutput.get(seo);
+    if (pending != null) {
+      pending.merge(output);
+      coalesced.incrementAndGet();
+    } else {
+      pendingOutput.put(seo, output);
+      queue.addLast(output);
+      lock.notifyAll();
+    }
+  }
+
+  private static boolean isTerminal(EvaluationStatus status) {
+    return status == EvaluationStatus.FINISHED || status == EvaluationStatus.ERROR;
+  }
+
+  private void dispatchLoop() {
+    while (true) {
+      EvaluationObjectSnapshot next;
+      synchronized (lock) {
+        while (queue.isEmpty() && !closed) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        if (queue.isEmpty()) {
+          return;
+        }
+        next = queue.pollFirst();
+        pendingOutput.remove(next.getSource(), next);
+      }
+      dispatch(next);
+    }
+  }
+
+  private void dispatch(EvaluationObjectSnapshot snapshot) {
+    try {
+      delegate.update(snapshot);
+      dispatchLatency.recordSince(snapshot.getCreatedAt());
+    } catch (Exception e) {
+      logger.error("Error while sending result of execution " + snapshot.getExecutionCount(), e);
+    } finally {
+      snapshot.markDispatched();
+    }
+  }
+
+  @Override
+  public boolean awaitCapacity(long timeoutMillis) {
+    return delegate.awaitCapacity(timeoutMillis);
+  }
+
+  public int getQueueDepth() {
+    synchronized (lock) {
+      return queue.size();
+    }
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  /**
+   * Time from an update being requested until its messages were handed to the kernel.
+   */
+  public LatencyHistogram getDispatchLatency() {
+    return dispatchLatency;
+  }
+
+  /**
+   * Sends what is already queued, then falls back to sending on the calling thread.
+   */
+  @Override
+  public void exit() {
+    synchronized (lock) {
+      closed = true;
+      lock.notifyAll();
+    }
+    try {
+      sender.join(TimeUnit.SECONDS.toMillis(5));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    delegate.exit();
+  }
+}
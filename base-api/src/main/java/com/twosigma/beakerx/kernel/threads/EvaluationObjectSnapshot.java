@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.threads;
+
+import com.twosigma.beakerx.jvm.object.ConsoleOutput;
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.object.EvaluationStatus;
+import com.twosigma.beakerx.message.Message;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * State of an {@link EvaluationObject} at the moment an update was requested. Console output is
+ * moved out of the live object, so a snapshot published later still carries exactly the text
+ * written before it was taken.
+ */
+class EvaluationObjectSnapshot implements EvaluationObject {
+
+  private final EvaluationObject source;
+  private final EvaluationStatus status;
+  private final Queue<ConsoleOutput> consoleOutput;
+  private final CountDownLatch dispatched = new CountDownLatch(1);
+  private final long createdAt = System.nanoTime();
+  private Object payload;
+
+  private EvaluationObjectSnapshot(EvaluationObject source, EvaluationStatus status, Object payload, Queue<ConsoleOutput> consoleOutput) {
+    this.source = source;
+    this.status = status;
+    this.payload = payload;
+    this.consoleOutput = consoleOutput;
+  }
+
+  static EvaluationObjectSnapshot output(EvaluationObject source) {
+    return new EvaluationObjectSnapshot(source, EvaluationStatus.RUNNING, source.getPayload(), drain(source.getConsoleOutput()));
+  }
+
+  static EvaluationObjectSnapshot result(EvaluationObject source) {
+    return new EvaluationObjectSnapshot(source, source.getStatus(), source.getPayload(), new ArrayDeque<>(0));
+  }
+
+  private static Queue<ConsoleOutput> drain(Queue<ConsoleOutput> live) {
+    Queue<ConsoleOutput> drained = new ArrayDeque<>();
+    if (live != null) {
+      ConsoleOutput co;
+      while ((co = live.poll()) != null) {
+        drained.add(co);
+      }
+    }
+    return drained;
+  }
+
+  void merge(EvaluationObjectSnapshot later) {
+    consoleOutput.addAll(later.consoleOutput);
+    payload = later.payload;
+  }
+
+  boolean hasConsoleOutput() {
+    return !consoleOutput.isEmpty();
+  }
+
+  EvaluationObject getSource() {
+    return source;
+  }
+
+  long getCreatedAt() {
+    return createdAt;
+  }
+
+  void markDispatched() {
+    dispatched.countDown();
+  }
+
+  void awaitDispatched() {
+    try {
+      dispatched.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Override
+  public boolean isShowResult() {
+    return source.isShowResult();
+  }
+
+  @Override
+  public void started() {
+    source.started();
+  }
+
+  @Override
+  public void finished(Object r) {
+    source.finished(r);
+  }
+
+  @Override
+  public void error(Object r) {
+    source.error(r);
+  }
+
+  @Override
+  public void update(Object r) {
+    source.update(r);
+  }
+
+  @Override
+  public String getExpression() {
+    return source.getExpression();
+  }
+
+  @Override
+  public EvaluationStatus getStatus() {
+    return status;
+  }
+
+  @Override
+  public Object getPayload() {
+    return payload;
+  }
+
+  @Override
+  public void structuredUpdate(String message, int progress) {
+    source.structuredUpdate(message, progress);
+  }
+
+  @Override
+  public void noResult() {
+    source.noResult();
+  }
+
+  @Override
+  public Message getJupyterMessage() {
+    return source.getJupyterMessage();
+  }
+
+  @Override
+  public Queue<ConsoleOutput> getConsoleOutput() {
+    return consoleOutput;
+  }
+
+  @Override
+  public int getExecutionCount() {
+    return source.getExecutionCount();
+  }
+
+  @Override
+  public List<Object> getOutputdata() {
+    return source.getOutputdata();
+  }
+
+  @Override
+  public void setOutputHandler() {
+    source.setOutputHandler();
+  }
+
+  @Override
+  public void clrOutputHandler() {
+    source.clrOutputHandler();
+  }
+
+  @Override
+  public String toString() {
+    return status + " Console messages size = " + consoleOutput.size();
+  }
+}
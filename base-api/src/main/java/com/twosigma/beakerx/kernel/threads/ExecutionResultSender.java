@@ -52,6 +52,11 @@ public class ExecutionResultSender implements ResultSender {
     }
   }
 
+  @Override
+  public boolean awaitCapacity(long timeoutMillis) {
+    return kernel.awaitPublishCapacity(timeoutMillis);
+  }
+
   public void exit() {
   }
 
@@ -20,5 +20,13 @@ import com.twosigma.beakerx.jvm.object.EvaluationObject;
 public interface ResultSender {
   void update(EvaluationObject seo);
 
+  /**
+   * Lets a producer of intermediate output wait for the transport to catch up before its next
+   * update. Senders without a bounded transport return immediately.
+   */
+  default boolean awaitCapacity(long timeoutMillis) {
+    return true;
+  }
+
   void exit();
 }
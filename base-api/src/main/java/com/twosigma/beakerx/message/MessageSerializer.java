@@ -17,16 +17,20 @@ package com.twosigma.beakerx.message;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 public class MessageSerializer {
 
   private static ObjectMapper mapper;
+  private static ObjectWriter writer;
 
   static {
     mapper = new ObjectMapper();
     mapper.disable(SerializationFeature.INDENT_OUTPUT);
     mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    writer = mapper.writer();
   }
 
   private MessageSerializer() {
@@ -43,6 +47,28 @@ public class MessageSerializer {
     return result;
   }
 
+  public static ObjectReader readerFor(Class<?> theClass) {
+    return mapper.readerFor(theClass);
+  }
+
+  public static <T> T parse(byte[] json, ObjectReader reader) {
+    T result = null;
+    try {
+      result = reader.readValue(json);
+    } catch (Exception e) {
+      // Ignored.
+    }
+    return result;
+  }
+
+  public static byte[] toJsonBytes(Object object) {
+    try {
+      return writer.writeValueAsBytes(object);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
   public static String toJson(Object object) {
     try {
       return mapper.writeValueAsString(object);
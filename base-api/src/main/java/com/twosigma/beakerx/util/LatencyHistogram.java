@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Bucket {@code i} counts samples in {@code [2^(i-1), 2^i)} microseconds, bucket 0 counts
+ * samples below one microsecond and the last bucket collects everything from 2^30 microseconds (~18 minutes) up.
+ */
+public class LatencyHistogram {
+
+  private static final int BUCKETS = 32;
+
+  private final String name;
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  public LatencyHistogram(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void record(long nanos) {
+    if (nanos < 0) {
+      return;
+    }
+    buckets.incrementAndGet(bucketOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+    count.incrementAndGet();
+    totalNanos.addAndGet(nanos);
+    long max;
+    while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+    }
+  }
+
+  public void recordSince(long startNanos) {
+    record(System.nanoTime() - startNanos);
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMeanMicros() {
+    long c = count.get();
+    return c == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(totalNanos.get() / c);
+  }
+
+  public long getMaxMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(maxNanos.get());
+  }
+
+  /**
+   * @param percentile value in range (0, 100]
+   * @return upper bound, in microseconds, of the bucket containing the requested percentile
+   */
+  public long getPercentileMicros(double percentile) {
+    long c = count.get();
+    if (c == 0) {
+      return 0;
+    }
+    long threshold = (long) Math.ceil(c * percentile / 100.0);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= threshold) {
+        return Math.min(upperBoundMicros(i), getMaxMicros());
+      }
+    }
+    return getMaxMicros();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    totalNanos.set(0);
+    maxNanos.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return name +
+            " count=" + getCount() +
+            " mean=" + getMeanMicros() + "us" +
+            " p50=" + getPercentileMicros(50) + "us" +
+            " p99=" + getPercentileMicros(99) + "us" +
+            " max=" + getMaxMicros() + "us";
+  }
+
+  static int bucketOf(long micros) {
+    if (micros <= 0) {
+      return 0;
+    }
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+  }
+
+  static long upperBoundMicros(int bucket) {
+    return (1L << bucket) - 1;
+  }
+}
@@ -22,6 +22,8 @@ public enum CommActions {
   ONKEY("onkey"),
   ACTIONDETAILS("actiondetails"),
   CONTEXT_MENU_CLICK("CONTEXT_MENU_CLICK"),
+  ROW_RANGE("rowRange"),
+  LOD_RANGE("lodRange"),
   CLICK("click");
 
   private String action;
@@ -110,6 +110,11 @@ public class BeakerXCommRepositoryMock implements CommRepository {
 
       }
 
+      @Override
+      public void sendUpdate(List<ChangeItem> changes, Buffer buffer) {
+
+      }
+
       @Override
       public Message createUpdateMessage(List<ChangeItem> changes, Message parent) {
         return null;
@@ -62,6 +62,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.twosigma.beakerx.AutotranslationService.BEAKERX;
 import static com.twosigma.beakerx.MessageFactorTest.commMsg;
@@ -518,7 +519,7 @@ public class KernelTest implements KernelFunctionality {
 
   public static class ExecutionResultSenderMock implements ResultSender {
 
-    private List<EvaluationObject> objectList = new LinkedList<>();
+    private List<EvaluationObject> objectList = new CopyOnWriteArrayList<>();
 
     @Override
     public void update(EvaluationObject seo) {
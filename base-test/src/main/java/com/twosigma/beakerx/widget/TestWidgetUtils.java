@@ -15,14 +15,17 @@
  */
 package com.twosigma.beakerx.widget;
 
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.twosigma.beakerx.KernelTest;
 import com.twosigma.beakerx.jupyter.SearchMessages;
 import com.twosigma.beakerx.kernel.comm.Comm;
 import com.twosigma.beakerx.kernel.msg.JupyterMessages;
 import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.message.MessageSerializer;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -117,6 +120,9 @@ public class TestWidgetUtils {
     Map data = TestWidgetUtils.getState(message);
     assertThat(getMethod(message)).isEqualTo(Comm.UPDATE);
     Object o = data.get(propertyName);
+    if (o instanceof RawValue) {
+      o = MessageSerializer.parse(String.valueOf(((RawValue) o).rawValue()), LinkedHashMap.class);
+    }
     return clazz.cast(o);
   }
 
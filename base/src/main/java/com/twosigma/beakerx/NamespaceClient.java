@@ -121,8 +121,11 @@ public class NamespaceClient implements BeakerXClient {
     MagicCommand command = new MagicCommand(pythonMagicFunctionality, magicKernelName, code);
     
     var seof = new SimpleEvaluationObjectFactory();
-    Code codeInst = new CodeFactory(MessageCreator.get(), seof).create(magicKernelName + "\n" + code, this.currentMessage, kernel);
-    codeInst.execute(kernel, executionCount);
+    EvaluationObject cell = InternalVariable.getSimpleEvaluationObject();
+    Message message = cell != null ? cell.getJupyterMessage() : this.currentMessage;
+    int count = cell != null ? cell.getExecutionCount() : this.executionCount;
+    Code codeInst = new CodeFactory(MessageCreator.get(), seof).create(magicKernelName + "\n" + code, message, kernel);
+    codeInst.execute(kernel, count);
   }
 
   @Override
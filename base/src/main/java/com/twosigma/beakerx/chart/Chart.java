@@ -183,6 +183,7 @@ public abstract class Chart extends ChartDetails {
 
   @Override
   protected Map serializeToJsonObject() {
+    beforeModelSerialized();
     return ChartToJson.toJson(this);
   }
 
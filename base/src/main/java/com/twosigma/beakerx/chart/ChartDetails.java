@@ -28,14 +28,21 @@ import com.twosigma.beakerx.chart.categoryplot.CategoryPlot;
 import com.twosigma.beakerx.chart.xychart.CombinedPlot;
 import com.twosigma.beakerx.chart.xychart.XYChart;
 import com.twosigma.beakerx.widget.BeakerxWidget;
+import com.twosigma.beakerx.widget.ChangeItem;
 import com.twosigma.beakerx.handler.Handler;
 import com.twosigma.beakerx.message.Message;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class ChartDetails extends BeakerxWidget {
 
+  public static final String RAW_JSON_MODEL_PROPERTY = "beakerx.chart.rawJsonModel";
+
+  private static volatile boolean rawJsonModel = !"false".equalsIgnoreCase(System.getProperty(RAW_JSON_MODEL_PROPERTY));
+
   private GraphicsActionObject details;
 
   public GraphicsActionObject getDetails() {
@@ -46,21 +53,80 @@ public abstract class ChartDetails extends BeakerxWidget {
     this.details = details;
   }
 
+  /**
+   * Sends the full model as pre-encoded JSON unless switched off, see {@link #setRawJsonModel}.
+   */
+  @Override
+  protected List<ChangeItem> doSendModel() {
+    if (!rawJsonModel) {
+      return super.doSendModel();
+    }
+    beforeModelSerialized();
+    List<ChangeItem> changes = new ArrayList<>();
+    changes.add(new ChangeItem(MODEL, ChartToJson.toRawJson(this)));
+    return changes;
+  }
+
+  /**
+   * Called just before the full model is serialized.
+   */
+  protected void beforeModelSerialized() {
+  }
+
+  /**
+   * With raw JSON models on, the full chart model is encoded straight to JSON text by the chart
+   * serializers instead of being converted to a Map tree and encoded again with the message.
+   */
+  public static void setRawJsonModel(boolean enabled) {
+    rawJsonModel = enabled;
+  }
+
+  public static boolean isRawJsonModel() {
+    return rawJsonModel;
+  }
+
   protected void openComm() {
     super.openComm();
     getComm().addMsgCallbackList((Handler<Message>) this::handleSetDetails, (Handler<Message>) this::handleClick, (Handler<Message>) this::handleKey);
   }
 
   private void handleSetDetails(Message message) {
-    handleCommEventSync(message, CommActions.ACTIONDETAILS, this::onActionDetails);
+    if (isNotLodRange(message)) {
+      handleCommEventSync(message, CommActions.ACTIONDETAILS, this::onActionDetails);
+    }
   }
 
   private void handleClick(Message message) {
-    handleCommEventSync(message, CommActions.ONCLICK, this::onClickAction);
+    if (isNotLodRange(message)) {
+      handleCommEventSync(message, CommActions.ONCLICK, this::onClickAction);
+    }
   }
 
   private void handleKey(Message message) {
-    handleCommEventSync(message, CommActions.ONKEY, this::onKeyAction);
+    if (isNotLodRange(message)) {
+      handleCommEventSync(message, CommActions.ONKEY, this::onKeyAction);
+    }
+  }
+
+  /**
+   * True when the comm message carries the given event.
+   */
+  protected boolean isCommEvent(Message message, CommActions action) {
+    return action.getAction().equals(commEvent(message));
+  }
+
+  /**
+   * The action handlers still see every chart message apart from the chart's own sync requests,
+   * which are handled elsewhere.
+   */
+  private boolean isNotLodRange(Message message) {
+    return !isCommEvent(message, CommActions.LOD_RANGE);
+  }
+
+  private Object commEvent(Message message) {
+    Object data = message.getContent() != null ? message.getContent().get("data") : null;
+    Object content = data instanceof Map ? ((Map) data).get("content") : null;
+    return content instanceof Map ? ((Map) content).get("event") : null;
   }
 
   private void onKeyAction(HashMap content, Message message) {
@@ -46,6 +46,7 @@ import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.util.RawValue;
 import com.twosigma.beakerx.chart.categoryplot.CategoryPlot;
 import com.twosigma.beakerx.chart.categoryplot.plotitem.CategoryArea;
 import com.twosigma.beakerx.chart.categoryplot.plotitem.CategoryBars;
@@ -75,6 +76,7 @@ import com.twosigma.beakerx.chart.serializer.HeatMapSerializer;
 import com.twosigma.beakerx.chart.serializer.HistogramSerializer;
 import com.twosigma.beakerx.chart.serializer.LegendPositionSerializer;
 import com.twosigma.beakerx.chart.serializer.LineSerializer;
+import com.twosigma.beakerx.chart.serializer.NumberArraySerializer;
 import com.twosigma.beakerx.chart.serializer.PointsSerializer;
 import com.twosigma.beakerx.chart.serializer.RastersSerializer;
 import com.twosigma.beakerx.chart.serializer.StemsSerializer;
@@ -87,6 +89,7 @@ import com.twosigma.beakerx.chart.treemap.Mode;
 import com.twosigma.beakerx.chart.treemap.TreeMap;
 import com.twosigma.beakerx.chart.treemap.ValueAccessor;
 import com.twosigma.beakerx.chart.xychart.CombinedPlot;
+import com.twosigma.beakerx.chart.xychart.LodReduction;
 import com.twosigma.beakerx.chart.xychart.XYChart;
 import com.twosigma.beakerx.chart.xychart.plotitem.Area;
 import com.twosigma.beakerx.chart.xychart.plotitem.Bars;
@@ -98,6 +101,7 @@ import com.twosigma.beakerx.chart.xychart.plotitem.PlotOrientationType;
 import com.twosigma.beakerx.chart.xychart.plotitem.Points;
 import com.twosigma.beakerx.chart.xychart.plotitem.Rasters;
 import com.twosigma.beakerx.chart.xychart.plotitem.Stems;
+import com.twosigma.beakerx.chart.xychart.plotitem.StreamingSeries;
 import com.twosigma.beakerx.chart.xychart.plotitem.Text;
 import com.twosigma.beakerx.chart.xychart.plotitem.XYGraphics;
 import com.twosigma.beakerx.chart.xychart.plotitem.YAxis;
@@ -117,6 +121,7 @@ public class ChartToJson {
   static {
 
     serializerMap.put(Color.class, new ColorSerializer());
+    serializerMap.put(NumberArray.class, new NumberArraySerializer());
     serializerMap.put(XYChart.class, new XYChartSerializer());
     serializerMap.put(CombinedPlot.class, new CombinedPlotSerializer());
     serializerMap.put(Line.class, new LineSerializer());
@@ -158,6 +163,18 @@ public class ChartToJson {
     }
   }
 
+  /**
+   * Encodes the item straight to JSON text with the chart serializers, without building the
+   * intermediate Map tree. The text is embedded verbatim when the comm message is encoded.
+   */
+  public static RawValue toRawJson(Object result) {
+    try {
+      return new RawValue(getMapper().writeValueAsString(result));
+    } catch (Exception e) {
+      throw new IllegalStateException(e.getMessage());
+    }
+  }
+
   private static ObjectMapper getMapper() {
     return mapper;
   }
@@ -333,15 +350,49 @@ public class ChartToJson {
   }
 
   public static Map<Object, Object> serializeXYGraphics(List<XYGraphics> xyGraphics) {
-    List result = new ArrayList();
-    for (XYGraphics item : xyGraphics) {
-      result.add(toJson(item));
+    Map<Object, Object> value = new LinkedHashMap<>();
+    value.put(XYChartSerializer.GRAPHICS_LIST, toJsonItems(xyGraphics));
+    return value;
+  }
+
+  /**
+   * Patch for the graphics list: full models of added and changed items, uids of removed items and
+   * the resulting order of uids. Unchanged items are not serialized.
+   */
+  public static Map<Object, Object> serializeXYGraphicsDelta(List<XYGraphics> added, List<XYGraphics> changed, List<String> removed, List<String> order) {
+    Map<Object, Object> delta = new LinkedHashMap<>();
+    delta.put(XYChartSerializer.DELTA_ADDED, toJsonItems(added));
+    delta.put(XYChartSerializer.DELTA_CHANGED, toJsonItems(changed));
+    delta.put(XYChartSerializer.DELTA_REMOVED, removed);
+    delta.put(XYChartSerializer.DELTA_ORDER, order);
+    Map<Object, Object> value = new LinkedHashMap<>();
+    value.put(XYChartSerializer.GRAPHICS_DELTA, delta);
+    return value;
+  }
+
+  public static Map<Object, Object> serializeXYGraphicsTails(Map<String, StreamingSeries.Tail> tails) {
+    List<Map<String, Object>> result = new ArrayList<>(tails.size());
+    for (Map.Entry<String, StreamingSeries.Tail> entry : tails.entrySet()) {
+      Map<String, Object> tail = new LinkedHashMap<>();
+      tail.put("uid", entry.getKey());
+      tail.put("x", entry.getValue().getX());
+      tail.put("y", entry.getValue().getY());
+      tail.put(XYChartSerializer.TAIL_SIZE, entry.getValue().getSize());
+      result.add(tail);
     }
     Map<Object, Object> value = new LinkedHashMap<>();
-    value.put(XYChartSerializer.GRAPHICS_LIST, toJsonList(result));
+    value.put(XYChartSerializer.GRAPHICS_TAIL, result);
     return value;
   }
 
+  private static List<Map> toJsonItems(List<? extends Graphics> items) {
+    List<Map> result = new ArrayList<>(items.size());
+    for (Graphics item : items) {
+      result.add(toJson(item));
+    }
+    return result;
+  }
+
   public static Map<Object, Object> serializeConstantBands(List<ConstantBand> constantBands) {
     List result = new ArrayList();
     for (ConstantBand item : constantBands) {
@@ -404,6 +455,26 @@ public class ChartToJson {
     return value;
   }
 
+  public static Map<Object, Object> serializeLodReduction(LodReduction lodReduction) {
+    Map<Object, Object> value = new LinkedHashMap<>();
+    value.put(XYChartSerializer.LOD_REDUCTION, lodReduction.getText());
+    return value;
+  }
+
+  /**
+   * Graphics list re-reduced for the x range the front-end asked for, with the range and the id
+   * of the request it answers.
+   */
+  public static Map<Object, Object> serializeLodRange(List<XYGraphics> xyGraphics, Object requestId, double lower, double upper) {
+    Map<Object, Object> range = new LinkedHashMap<>();
+    range.put(XYChartSerializer.LOD_REQUEST_ID, requestId);
+    range.put(XYChartSerializer.X_LOWER_BOUND, lower);
+    range.put(XYChartSerializer.X_UPPER_BOUND, upper);
+    Map<Object, Object> value = serializeXYGraphics(xyGraphics);
+    value.put(XYChartSerializer.LOD_RANGE, range);
+    return value;
+  }
+
   public static Map<Object, Object> serializeXTickLabelsVisible(boolean xtickLabelsVisible) {
     Map<Object, Object> value = new LinkedHashMap<>();
     value.put(XYChartSerializer.X_TICK_LABELS_VISIBLE, xtickLabelsVisible);
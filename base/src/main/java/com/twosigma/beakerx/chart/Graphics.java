@@ -42,6 +42,7 @@ public abstract class Graphics implements Serializable, Cloneable {
   private String clickTag;
   private Map<String, GraphicsActionListener> onKeyListeners = new HashMap<String, GraphicsActionListener>();
   private Map<String, String> keyTags = new HashMap<String, String>();
+  private long version = 0;
 
   public Graphics() {
     this.uid = UUID.randomUUID().toString();
@@ -49,6 +50,7 @@ public abstract class Graphics implements Serializable, Cloneable {
 
   public void setVisible(boolean visible) {
     this.visible = visible;
+    markChanged();
   }
 
   public Boolean getVisible() {
@@ -57,10 +59,11 @@ public abstract class Graphics implements Serializable, Cloneable {
 
   public void setYAxis(String yAxisName) {
     this.yAxisName = yAxisName;
+    markChanged();
   }
 
   public void setyAxis(String yAxisName) {
-    this.yAxisName = yAxisName;
+    setYAxis(yAxisName);
   }
 
   public String getYAxis() {
@@ -75,6 +78,21 @@ public abstract class Graphics implements Serializable, Cloneable {
     return uid;
   }
 
+  /**
+   * Incremented on every change made through a setter. Charts compare it with the version they
+   * last sent to decide whether this item needs to be sent again.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Marks this item as changed, e.g. after mutating a list passed to one of its setters in place.
+   */
+  public void markChanged() {
+    version++;
+  }
+
   public boolean hasClickAction() {
     return onClickListener != null || StringUtils.isNotEmpty(clickTag);
   }
@@ -93,11 +111,13 @@ public abstract class Graphics implements Serializable, Cloneable {
 
   public Graphics onClick(GraphicsActionListener onClickListener) {
     this.onClickListener = onClickListener;
+    markChanged();
     return this;
   }
 
   public Graphics onClick(String tag) {
     this.clickTag = tag;
+    markChanged();
     return this;
   }
 
@@ -117,21 +137,25 @@ public abstract class Graphics implements Serializable, Cloneable {
 
   public Graphics onKey(String key, GraphicsActionListener listener) {
     this.onKeyListeners.put(key, listener);
+    markChanged();
     return this;
   }
 
   public Graphics onKey(KeyboardCodes key, GraphicsActionListener listener) {
     this.onKeyListeners.put(key.name(), listener);
+    markChanged();
     return this;
   }
 
   public Graphics onKey(String key, String tag) {
     this.keyTags.put(key, tag);
+    markChanged();
     return this;
   }
 
   public Graphics onKey(KeyboardCodes key, String tag) {
     this.keyTags.put(key.name(), tag);
+    markChanged();
     return this;
   }
 
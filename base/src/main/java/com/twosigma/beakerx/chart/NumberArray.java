@@ -0,0 +1,159 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart;
+
+import java.io.Serializable;
+import java.nio.DoubleBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list view over primitive series data. The wrapped array or buffer is not copied, so
+ * later changes to it are visible to the chart; values are boxed only when read through
+ * {@link #get(int)}. Chart serializers write the primitives directly.
+ */
+public abstract class NumberArray extends AbstractList<Number> implements RandomAccess, Serializable {
+
+  private static final long serialVersionUID = -2749260937722103561L;
+
+  public static NumberArray of(double[] values) {
+    return new Doubles(values);
+  }
+
+  public static NumberArray of(long[] values) {
+    return new Longs(values);
+  }
+
+  /**
+   * Wraps the remaining elements of the buffer; the buffer's position and limit are not changed.
+   */
+  public static NumberArray of(DoubleBuffer values) {
+    return new Buffer(values);
+  }
+
+  public abstract double getDouble(int index);
+
+  public boolean isIntegral() {
+    return false;
+  }
+
+  public long getLong(int index) {
+    return (long) getDouble(index);
+  }
+
+  private static class Doubles extends NumberArray {
+
+    private static final long serialVersionUID = 4470385466396271690L;
+
+    private final double[] values;
+
+    Doubles(double[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return values[index];
+    }
+
+    @Override
+    public Number get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static class Longs extends NumberArray {
+
+    private static final long serialVersionUID = -6022616451284658112L;
+
+    private final long[] values;
+
+    Longs(long[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public double getDouble(int index) {
+      return values[index];
+    }
+
+    @Override
+    public boolean isIntegral() {
+      return true;
+    }
+
+    @Override
+    public long getLong(int index) {
+      return values[index];
+    }
+
+    @Override
+    public Number get(int index) {
+      return values[index];
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+
+  private static class Buffer extends NumberArray {
+
+    private static final long serialVersionUID = 1935081577003826647L;
+
+    private final transient DoubleBuffer values;
+    private final int offset;
+    private final int size;
+
+    Buffer(DoubleBuffer values) {
+      this.values = values;
+      this.offset = values.position();
+      this.size = values.remaining();
+    }
+
+    @Override
+    public double getDouble(int index) {
+      if (index < 0 || index >= size) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+      }
+      return values.get(offset + index);
+    }
+
+    @Override
+    public Number get(int index) {
+      return getDouble(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    private Object writeReplace() {
+      double[] copy = new double[size];
+      for (int i = 0; i < size; i++) {
+        copy[i] = values.get(offset + i);
+      }
+      return new Doubles(copy);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import com.twosigma.beakerx.chart.AbstractChart;
 import com.twosigma.beakerx.chart.ChartToJson;
 import com.twosigma.beakerx.chart.Color;
 import com.twosigma.beakerx.chart.ListColorConverter;
+import com.twosigma.beakerx.chart.NumberArray;
 
 import java.util.List;
 
@@ -189,6 +190,16 @@ public class Histogram extends AbstractChart {
     }
   }
 
+  /**
+   * Uses the array as histogram data without copying it.
+   */
+  public void setData(double[] data) {
+    if (data.length > 0) {
+      this.data = NumberArray.of(data);
+      sendModelUpdate(ChartToJson.serializeHistogramData(this.data));
+    }
+  }
+
   public List<Number> getData() {
     return data;
   }
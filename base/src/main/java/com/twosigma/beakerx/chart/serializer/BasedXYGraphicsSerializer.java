@@ -31,7 +31,7 @@ public class BasedXYGraphicsSerializer<T extends BasedXYGraphics> extends XYGrap
     super.serialize(basedXYGraphics, jgen, sp);
 
     if (basedXYGraphics.getBases() != null) {
-      jgen.writeObjectField("bases", basedXYGraphics.getBases());
+      jgen.writeObjectField("bases", XYGraphicsReducer.select(basedXYGraphics.getBases(), XYGraphicsReducer.current(basedXYGraphics)));
     } else {
       jgen.writeObjectField("base", basedXYGraphics.getBase());
     }
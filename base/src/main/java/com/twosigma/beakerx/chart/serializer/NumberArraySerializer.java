@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.twosigma.beakerx.chart.NumberArray;
+
+import java.io.IOException;
+
+/**
+ * Writes primitive series data without boxing the values.
+ */
+public class NumberArraySerializer extends JsonSerializer<NumberArray> {
+
+  @Override
+  public void serialize(NumberArray array, JsonGenerator jgen, SerializerProvider sp) throws IOException {
+    int size = array.size();
+    jgen.writeStartArray(size);
+    if (array.isIntegral()) {
+      for (int i = 0; i < size; i++) {
+        jgen.writeNumber(array.getLong(i));
+      }
+    } else {
+      for (int i = 0; i < size; i++) {
+        jgen.writeNumber(array.getDouble(i));
+      }
+    }
+    jgen.writeEndArray();
+  }
+
+}
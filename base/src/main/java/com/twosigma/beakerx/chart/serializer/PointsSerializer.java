@@ -39,28 +39,30 @@ public class PointsSerializer extends XYGraphicsSerializer<Points> {
 
     super.serialize(points, jgen, sp);
 
+    int[] lod = XYGraphicsReducer.current(points);
+
     if (points.getSizes() != null) {
-      jgen.writeObjectField("sizes", points.getSizes());
+      jgen.writeObjectField("sizes", XYGraphicsReducer.select(points.getSizes(), lod));
     } else {
       jgen.writeObjectField("size", points.getSize());
     }
     if (points.getShapes() != null) {
-      jgen.writeObjectField("shaps", points.getShapes().stream().map(ShapeType::getText).collect(Collectors.toList()));
+      jgen.writeObjectField("shaps", XYGraphicsReducer.select(points.getShapes(), lod).stream().map(ShapeType::getText).collect(Collectors.toList()));
     } else {
       jgen.writeObjectField("shape", points.getShape().getText());
     }
     if (points.getFills() != null) {
-      jgen.writeObjectField("fills", points.getFills());
+      jgen.writeObjectField("fills", XYGraphicsReducer.select(points.getFills(), lod));
     } else {
       jgen.writeObjectField("fill", points.getFill());
     }
     if (points.getColors() != null) {
-      jgen.writeObjectField("colors", points.getColors());
+      jgen.writeObjectField("colors", XYGraphicsReducer.select(points.getColors(), lod));
     } else {
       jgen.writeObjectField("color", points.getColor());
     }
     if (points.getOutlineColors() != null) {
-      jgen.writeObjectField("outline_colors", points.getOutlineColors());
+      jgen.writeObjectField("outline_colors", XYGraphicsReducer.select(points.getOutlineColors(), lod));
     } else {
       jgen.writeObjectField("outline_color", points.getOutlineColor());
     }
@@ -15,8 +15,12 @@
  */
 package com.twosigma.beakerx.chart.serializer;
 
+import com.twosigma.beakerx.chart.xychart.LodReduction;
 import com.twosigma.beakerx.chart.xychart.XYChart;
+import com.twosigma.beakerx.chart.xychart.plotitem.XYGraphics;
 import java.io.IOException;
+import java.util.Map;
+
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -28,7 +32,17 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 public class XYChartSerializer extends AbstractChartSerializer<XYChart> {
 
   public static final String GRAPHICS_LIST = "graphics_list";
+  public static final String GRAPHICS_DELTA = "graphics_delta";
+  public static final String DELTA_ADDED = "added";
+  public static final String DELTA_CHANGED = "changed";
+  public static final String DELTA_REMOVED = "removed";
+  public static final String DELTA_ORDER = "order";
+  public static final String GRAPHICS_TAIL = "graphics_tail";
+  public static final String TAIL_SIZE = "size";
   public static final String LOD_THRESHOLD = "lodThreshold";
+  public static final String LOD_REDUCTION = "lod_reduction";
+  public static final String LOD_RANGE = "lod_range";
+  public static final String LOD_REQUEST_ID = "requestId";
   public static final String X_AUTO_RANGE = "x_auto_range";
   public static final String X_LOWER_BOUND = "x_lower_bound";
   public static final String X_UPPER_BOUND = "x_upper_bound";
@@ -49,7 +63,12 @@ public class XYChartSerializer extends AbstractChartSerializer<XYChart> {
 
     serialize(xychart, jgen);
 
-    jgen.writeObjectField(GRAPHICS_LIST, xychart.getGraphics());
+    Map<XYGraphics, int[]> previous = XYGraphicsReducer.setCurrent(XYGraphicsReducer.reduce(xychart, xychart.getGraphics()));
+    try {
+      jgen.writeObjectField(GRAPHICS_LIST, xychart.getGraphics());
+    } finally {
+      XYGraphicsReducer.setCurrent(previous);
+    }
     jgen.writeObjectField(CONSTANT_LINES, xychart.getConstantLines());
     jgen.writeObjectField(CONSTANT_BANDS, xychart.getConstantBands());
     jgen.writeObjectField(RASTERS, xychart.getRasters());
@@ -62,6 +81,9 @@ public class XYChartSerializer extends AbstractChartSerializer<XYChart> {
     if (xychart.getLodThreshold() != null) {
       jgen.writeObjectField(LOD_THRESHOLD, xychart.getLodThreshold());
     }
+    if (xychart.getLodReduction() != LodReduction.NONE) {
+      jgen.writeObjectField(LOD_REDUCTION, xychart.getLodReduction().getText());
+    }
     jgen.writeObjectField(X_TICK_LABELS_VISIBLE, xychart.isxTickLabelsVisible());
     jgen.writeObjectField(Y_TICK_LABELS_VISIBLE, xychart.isyTickLabelsVisible());
     jgen.writeEndObject();
@@ -0,0 +1,286 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.serializer;
+
+import com.twosigma.beakerx.chart.NumberArray;
+import com.twosigma.beakerx.chart.xychart.LodReduction;
+import com.twosigma.beakerx.chart.xychart.XYChart;
+import com.twosigma.beakerx.chart.xychart.plotitem.Area;
+import com.twosigma.beakerx.chart.xychart.plotitem.Line;
+import com.twosigma.beakerx.chart.xychart.plotitem.Points;
+import com.twosigma.beakerx.chart.xychart.plotitem.XYGraphics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Level-of-detail reduction of Line, Area and Points data on the kernel. Each series is reduced
+ * to about one bucket per pixel of the chart's initWidth within the visible x range, either with
+ * largest-triangle-three-buckets or by keeping the first, min, max and last point of every bucket.
+ * The result is a list of point indices; serializers pick x, y and per-point attributes with it.
+ */
+public class XYGraphicsReducer {
+
+  private static final ThreadLocal<Map<XYGraphics, int[]>> current = new ThreadLocal<>();
+
+  /**
+   * Reduces the given items of the chart, in parallel across series. Items that don't need
+   * reduction are absent from the result.
+   */
+  public static Map<XYGraphics, int[]> reduce(XYChart chart, List<XYGraphics> items) {
+    LodReduction method = chart.getLodReduction();
+    if (method == null || method == LodReduction.NONE || items.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    double lower = Double.NEGATIVE_INFINITY;
+    double upper = Double.POSITIVE_INFINITY;
+    if (chart.getLodLowerBound() != null && chart.getLodUpperBound() != null) {
+      lower = chart.getLodLowerBound();
+      upper = chart.getLodUpperBound();
+    } else if (!chart.getXAutoRange()) {
+      lower = chart.getXLowerBound();
+      upper = chart.getXUpperBound();
+    }
+    int buckets = Math.max(1, chart.getInitWidth());
+    List<XYGraphics> list = new ArrayList<>(items);
+    int[][] reduced = new int[list.size()][];
+    double rangeLower = lower;
+    double rangeUpper = upper;
+    IntStream range = IntStream.range(0, list.size());
+    (list.size() > 1 ? range.parallel() : range)
+            .forEach(i -> reduced[i] = reduce(list.get(i), method, rangeLower, rangeUpper, buckets));
+    Map<XYGraphics, int[]> result = new IdentityHashMap<>();
+    for (int i = 0; i < list.size(); i++) {
+      if (reduced[i] != null) {
+        result.put(list.get(i), reduced[i]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Runs the serialization with the given reductions visible to the item serializers on this
+   * thread.
+   */
+  public static <T> T withReductions(Map<XYGraphics, int[]> reductions, Supplier<T> serialization) {
+    Map<XYGraphics, int[]> previous = setCurrent(reductions);
+    try {
+      return serialization.get();
+    } finally {
+      setCurrent(previous);
+    }
+  }
+
+  static Map<XYGraphics, int[]> setCurrent(Map<XYGraphics, int[]> reductions) {
+    Map<XYGraphics, int[]> previous = current.get();
+    if (reductions == null) {
+      current.remove();
+    } else {
+      current.set(reductions);
+    }
+    return previous;
+  }
+
+  static int[] current(XYGraphics item) {
+    Map<XYGraphics, int[]> reductions = current.get();
+    return reductions != null ? reductions.get(item) : null;
+  }
+
+  static <T> List<T> select(List<T> list, int[] indices) {
+    if (list == null || indices == null) {
+      return list;
+    }
+    List<T> result = new ArrayList<>(indices.length);
+    for (int index : indices) {
+      if (index < list.size()) {
+        result.add(list.get(index));
+      }
+    }
+    return result;
+  }
+
+  static int[] reduce(XYGraphics item, LodReduction method, double lower, double upper, int buckets) {
+    if (!(item instanceof Line || item instanceof Area || item instanceof Points)) {
+      return null;
+    }
+    List<Number> xList = item.getX();
+    List<Number> yList = item.getY();
+    int size = Math.min(xList.size(), yList.size());
+    int target = method == LodReduction.LTTB ? buckets : 4 * buckets;
+    if (size <= target && lower == Double.NEGATIVE_INFINITY && upper == Double.POSITIVE_INFINITY) {
+      return null;
+    }
+    double[] xs = new double[size];
+    double[] ys = new double[size];
+    boolean primitive = xList instanceof NumberArray && yList instanceof NumberArray;
+    for (int i = 0; i < size; i++) {
+      if (primitive) {
+        xs[i] = ((NumberArray) xList).getDouble(i);
+        ys[i] = ((NumberArray) yList).getDouble(i);
+      } else {
+        Number x = xList.get(i);
+        Number y = yList.get(i);
+        if (x == null || y == null) {
+          return null;
+        }
+        xs[i] = x.doubleValue();
+        ys[i] = y.doubleValue();
+      }
+      if (i > 0 && xs[i] < xs[i - 1]) {
+        return null;
+      }
+    }
+    int from = Math.max(0, lowerIndex(xs, lower) - 1);
+    int to = Math.min(size, upperIndex(xs, upper) + 1);
+    if (from == 0 && to == size && size <= target) {
+      return null;
+    }
+    if (to - from <= target) {
+      return IntStream.range(from, to).toArray();
+    }
+    return method == LodReduction.LTTB
+            ? lttb(xs, ys, from, to, buckets)
+            : minMaxFirstLast(xs, ys, from, to, buckets);
+  }
+
+  /**
+   * Largest-triangle-three-buckets over [from, to): keeps the first and last point and, for every
+   * bucket in between, the point forming the largest triangle with the previously kept point and
+   * the average of the next bucket.
+   */
+  public static int[] lttb(double[] xs, double[] ys, int from, int to, int threshold) {
+    int n = to - from;
+    if (threshold >= n || threshold < 3) {
+      return IntStream.range(from, to).toArray();
+    }
+    int[] sampled = new int[threshold];
+    int count = 0;
+    double every = (double) (n - 2) / (threshold - 2);
+    int a = from;
+    sampled[count++] = a;
+    for (int i = 0; i < threshold - 2; i++) {
+      int avgStart = from + (int) Math.floor((i + 1) * every) + 1;
+      int avgEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+      double avgX = 0;
+      double avgY = 0;
+      for (int j = avgStart; j < avgEnd; j++) {
+        avgX += xs[j];
+        avgY += ys[j];
+      }
+      avgX /= avgEnd - avgStart;
+      avgY /= avgEnd - avgStart;
+      int rangeStart = from + (int) Math.floor(i * every) + 1;
+      int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+      double maxArea = -1;
+      int next = rangeStart;
+      for (int j = rangeStart; j < rangeEnd; j++) {
+        double area = Math.abs((xs[a] - avgX) * (ys[j] - ys[a]) - (xs[a] - xs[j]) * (avgY - ys[a]));
+        if (area > maxArea) {
+          maxArea = area;
+          next = j;
+        }
+      }
+      sampled[count++] = next;
+      a = next;
+    }
+    sampled[count] = to - 1;
+    return sampled;
+  }
+
+  /**
+   * Splits the x range of [from, to) into equally wide buckets and keeps the first, minimum,
+   * maximum and last point of each, so that every pixel column still shows its full y extent.
+   */
+  public static int[] minMaxFirstLast(double[] xs, double[] ys, int from, int to, int buckets) {
+    double start = xs[from];
+    double width = (xs[to - 1] - start) / buckets;
+    if (!(width > 0)) {
+      return from == to - 1 ? new int[]{from} : new int[]{from, to - 1};
+    }
+    int[] result = new int[Math.min(to - from, 4 * buckets)];
+    int count = 0;
+    int bucket = -1;
+    int first = from;
+    int min = from;
+    int max = from;
+    int last = from;
+    int[] kept = new int[4];
+    for (int j = from; j <= to; j++) {
+      int b = j < to ? Math.min(buckets - 1, (int) ((xs[j] - start) / width)) : -2;
+      if (b != bucket) {
+        if (bucket != -1) {
+          kept[0] = first;
+          kept[1] = min;
+          kept[2] = max;
+          kept[3] = last;
+          Arrays.sort(kept);
+          for (int k = 0; k < kept.length; k++) {
+            if (k == 0 || kept[k] != kept[k - 1]) {
+              result[count++] = kept[k];
+            }
+          }
+        }
+        if (j == to) {
+          break;
+        }
+        bucket = b;
+        first = min = max = j;
+      }
+      if (ys[j] < ys[min]) {
+        min = j;
+      }
+      if (ys[j] > ys[max]) {
+        max = j;
+      }
+      last = j;
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  private static int lowerIndex(double[] xs, double lower) {
+    int low = 0;
+    int high = xs.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (xs[mid] < lower) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static int upperIndex(double[] xs, double upper) {
+    int low = 0;
+    int high = xs.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (xs[mid] <= upper) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -42,16 +42,18 @@ public class XYGraphicsSerializer<T extends XYGraphics> extends GraphicsSerializ
 
     super.serialize(xyGraphics, jgen, sp);
 
+    int[] lod = XYGraphicsReducer.current(xyGraphics);
+    List<Number> xs = XYGraphicsReducer.select(xyGraphics.getX(), lod);
     boolean isNanoPlot = NanoPlot.isNanoPlotClass(xyGraphics.getPlotType());
-    jgen.writeObjectField("x", isNanoPlot ? processLargeNumbers(xyGraphics.getX()) : xyGraphics.getX());
-    jgen.writeObjectField("y", xyGraphics.getY());
+    jgen.writeObjectField("x", isNanoPlot ? processLargeNumbers(xs) : xs);
+    jgen.writeObjectField("y", XYGraphicsReducer.select(xyGraphics.getY(), lod));
     jgen.writeObjectField(DISPLAY_NAME, xyGraphics.getDisplayName());
     if (xyGraphics.getLodFilter() != null){
       jgen.writeObjectField("lod_filter", xyGraphics.getLodFilter().getText());
     }
     List<String> toolTips = xyGraphics.getToolTips();
     if (toolTips != null) {
-      jgen.writeObjectField("tooltips", toolTips);
+      jgen.writeObjectField("tooltips", XYGraphicsReducer.select(toolTips, lod));
     }
   }
 
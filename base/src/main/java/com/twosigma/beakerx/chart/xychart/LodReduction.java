@@ -0,0 +1,38 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.xychart;
+
+/**
+ * How the kernel reduces Line, Area and Points data before sending it, see
+ * {@link XYChart#setLodReduction(LodReduction)}.
+ */
+public enum LodReduction {
+
+  NONE("none"),
+  LTTB("lttb"),
+  MIN_MAX("minmax");
+
+  private String text;
+
+  LodReduction(String text) {
+    this.text = text;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+}
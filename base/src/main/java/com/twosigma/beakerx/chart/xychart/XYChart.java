@@ -18,18 +18,64 @@ package com.twosigma.beakerx.chart.xychart;
 
 import com.twosigma.beakerx.chart.AbstractChart;
 import com.twosigma.beakerx.chart.ChartToJson;
+import com.twosigma.beakerx.chart.serializer.XYChartSerializer;
+import com.twosigma.beakerx.chart.serializer.XYGraphicsReducer;
 import com.twosigma.beakerx.chart.xychart.plotitem.ConstantBand;
 import com.twosigma.beakerx.chart.xychart.plotitem.ConstantLine;
 import com.twosigma.beakerx.chart.xychart.plotitem.Rasters;
+import com.twosigma.beakerx.chart.xychart.plotitem.StreamingSeries;
 import com.twosigma.beakerx.chart.xychart.plotitem.Text;
 import com.twosigma.beakerx.chart.xychart.plotitem.XYGraphics;
+import com.twosigma.beakerx.handler.Handler;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.widget.CommActions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 abstract public class XYChart extends AbstractChart {
 
+  private static final Logger logger = LoggerFactory.getLogger(XYChart.class);
+
+  public static final String DELTA_MODEL_UPDATES_PROPERTY = "beakerx.chart.deltaModelUpdates";
+
+  private static volatile boolean deltaModelUpdates = Boolean.getBoolean(DELTA_MODEL_UPDATES_PROPERTY);
+
+  public static final String TAIL_MODEL_UPDATES_PROPERTY = "beakerx.chart.tailModelUpdates";
+
+  private static volatile boolean tailModelUpdates = Boolean.getBoolean(TAIL_MODEL_UPDATES_PROPERTY);
+
+  public static final long DEFAULT_STREAM_FLUSH_INTERVAL_MILLIS = 100;
+
+  private static final ScheduledExecutorService streamFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(CellExecutionContext.detached(r), "beakerx-chart-stream-flush");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // guards xyGraphics, sentGraphicsVersions and appendListeners; streaming updates are flushed on
+  // the beakerx-chart-stream-flush thread while the cell adds and removes graphics
+  private final Object graphicsLock = new Object();
   private final List<XYGraphics> xyGraphics = new ArrayList<>();
+  private final Map<String, Long> sentGraphicsVersions = new HashMap<>();
+  private final Map<XYGraphics, Runnable> appendListeners = new IdentityHashMap<>();
+  private final Set<XYGraphics> pendingTails = new LinkedHashSet<>();
+  private ScheduledFuture<?> scheduledTailFlush;
+  private long streamFlushIntervalMillis = DEFAULT_STREAM_FLUSH_INTERVAL_MILLIS;
   private final List<ConstantLine> constantLines = new ArrayList<>();
   private final List<ConstantBand> constantBands = new ArrayList<>();
   private final List<Rasters> rasters = new ArrayList<>();
@@ -40,16 +86,222 @@ abstract public class XYChart extends AbstractChart {
   private boolean logX = false;
   private double xLogBase = 10;
   private Integer lodThreshold = null;
+  private LodReduction lodReduction = LodReduction.NONE;
+  private Double lodLowerBound;
+  private Double lodUpperBound;
   private boolean xTickLabelsVisible = true;
   private boolean yTickLabelsVisible = true;
 
   public XYChart add(XYGraphics graphics) {
     graphics.setPlotType(this.getClass());
-    this.xyGraphics.add(graphics);
-    sendModelUpdate(ChartToJson.serializeXYGraphics(this.xyGraphics));
+    synchronized (graphicsLock) {
+      if (!appendListeners.containsKey(graphics)) {
+        Runnable listener = () -> tailAppended(graphics);
+        appendListeners.put(graphics, listener);
+        graphics.addAppendListener(listener);
+      }
+      this.xyGraphics.add(graphics);
+      sendGraphicsUpdate();
+    }
+    return this;
+  }
+
+  public XYChart remove(XYGraphics graphics) {
+    synchronized (graphicsLock) {
+      if (this.xyGraphics.remove(graphics)) {
+        if (!this.xyGraphics.contains(graphics)) {
+          graphics.removeAppendListener(appendListeners.remove(graphics));
+          synchronized (pendingTails) {
+            pendingTails.remove(graphics);
+          }
+        }
+        sendGraphicsUpdate();
+      }
+    }
+    return this;
+  }
+
+  private void tailAppended(XYGraphics graphics) {
+    synchronized (pendingTails) {
+      pendingTails.add(graphics);
+      if (scheduledTailFlush == null) {
+        scheduledTailFlush = streamFlusher.schedule(this::flushStreamingUpdates, streamFlushIntervalMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+  }
+
+  /**
+   * Sends the points appended to streaming graphics since the last flush. Called periodically
+   * while points are being appended. With tail updates switched on each update carries only the
+   * new tail of every series and the number of points the front-end should retain; otherwise the
+   * appended graphics are sent through {@link #sendGraphicsUpdate()}.
+   */
+  public void flushStreamingUpdates() {
+    boolean sendTails = tailModelUpdates;
+    Map<String, StreamingSeries.Tail> tails = new LinkedHashMap<>();
+    boolean appended;
+    synchronized (graphicsLock) {
+      synchronized (pendingTails) {
+        if (scheduledTailFlush != null) {
+          scheduledTailFlush.cancel(false);
+          scheduledTailFlush = null;
+        }
+        appended = !pendingTails.isEmpty();
+        for (XYGraphics item : pendingTails) {
+          if (!sendTails) {
+            item.markChanged();
+            continue;
+          }
+          StreamingSeries.Tail tail = item.isStreaming() ? item.getStreamingSeries().drainTail() : null;
+          if (tail != null) {
+            tails.put(item.getUid(), tail);
+          }
+        }
+        pendingTails.clear();
+      }
+      if (!sendTails && appended) {
+        sendGraphicsUpdate();
+      } else if (!tails.isEmpty()) {
+        sendModelUpdate(ChartToJson.serializeXYGraphicsTails(tails));
+      }
+    }
+  }
+
+  public long getStreamFlushIntervalMillis() {
+    return streamFlushIntervalMillis;
+  }
+
+  public XYChart setStreamFlushIntervalMillis(long streamFlushIntervalMillis) {
+    this.streamFlushIntervalMillis = streamFlushIntervalMillis;
     return this;
   }
 
+  /**
+   * Sends graphics that were added, removed or changed since the model was last sent. With delta
+   * updates switched on only those items are serialized; otherwise the whole graphics list is.
+   */
+  public void sendGraphicsUpdate() {
+    synchronized (graphicsLock) {
+      if (!deltaModelUpdates) {
+        markTailsSent(this.xyGraphics);
+        sendModelUpdate(reduced(this.xyGraphics, () -> ChartToJson.serializeXYGraphics(this.xyGraphics)));
+        return;
+      }
+      List<XYGraphics> added = new ArrayList<>();
+      List<XYGraphics> changed = new ArrayList<>();
+      List<String> order = new ArrayList<>(xyGraphics.size());
+      Map<String, Long> previous = new HashMap<>(sentGraphicsVersions);
+      for (XYGraphics item : xyGraphics) {
+        Long sent = previous.remove(item.getUid());
+        if (sent == null) {
+          added.add(item);
+        } else if (sent != item.getVersion()) {
+          changed.add(item);
+        }
+        order.add(item.getUid());
+      }
+      List<String> removed = new ArrayList<>(previous.keySet());
+      if (added.isEmpty() && changed.isEmpty() && removed.isEmpty()) {
+        return;
+      }
+      recordSentGraphics();
+      markTailsSent(added);
+      markTailsSent(changed);
+      List<XYGraphics> sent = new ArrayList<>(added);
+      sent.addAll(changed);
+      sendModelUpdate(reduced(sent, () -> ChartToJson.serializeXYGraphicsDelta(added, changed, removed, order)));
+    }
+  }
+
+  private Map<Object, Object> reduced(List<XYGraphics> items, Supplier<Map<Object, Object>> serialization) {
+    return XYGraphicsReducer.withReductions(XYGraphicsReducer.reduce(this, items), serialization);
+  }
+
+  private void recordSentGraphics() {
+    sentGraphicsVersions.clear();
+    for (XYGraphics item : xyGraphics) {
+      sentGraphicsVersions.put(item.getUid(), item.getVersion());
+    }
+  }
+
+  private static void markTailsSent(List<XYGraphics> items) {
+    for (XYGraphics item : items) {
+      if (item.isStreaming()) {
+        item.getStreamingSeries().markSent();
+      }
+    }
+  }
+
+  @Override
+  protected void beforeModelSerialized() {
+    synchronized (graphicsLock) {
+      recordSentGraphics();
+      markTailsSent(this.xyGraphics);
+    }
+  }
+
+  @Override
+  protected void openComm() {
+    super.openComm();
+    getComm().addMsgCallbackList((Handler<Message>) this::handleLodRange);
+  }
+
+  private void handleLodRange(Message message) {
+    if (isCommEvent(message, CommActions.LOD_RANGE)) {
+      handleCommEventSync(message, CommActions.LOD_RANGE, (c, m) -> {
+        Object lower = c.get(XYChartSerializer.X_LOWER_BOUND);
+        Object upper = c.get(XYChartSerializer.X_UPPER_BOUND);
+        if (!isValidRange(lower, upper)) {
+          logger.warn("Ignoring lod range request with bounds {} and {}", lower, upper);
+          return;
+        }
+        reduceRange(c.get(XYChartSerializer.LOD_REQUEST_ID), ((Number) lower).doubleValue(), ((Number) upper).doubleValue());
+      });
+    }
+  }
+
+  private static boolean isValidRange(Object lower, Object upper) {
+    if (!(lower instanceof Number) || !(upper instanceof Number)) {
+      return false;
+    }
+    double l = ((Number) lower).doubleValue();
+    double u = ((Number) upper).doubleValue();
+    return Double.isFinite(l) && Double.isFinite(u) && l <= u;
+  }
+
+  /**
+   * Re-reduces the graphics for the x range the front-end zoomed to and sends them together with
+   * the range and request id. Further updates are reduced for this range until the x bound or
+   * auto range is set again.
+   */
+  public void reduceRange(Object requestId, double lower, double upper) {
+    this.lodLowerBound = lower;
+    this.lodUpperBound = upper;
+    synchronized (graphicsLock) {
+      sendModelUpdate(reduced(this.xyGraphics, () -> ChartToJson.serializeLodRange(this.xyGraphics, requestId, lower, upper)));
+    }
+  }
+
+  public static void setDeltaModelUpdates(boolean enabled) {
+    deltaModelUpdates = enabled;
+  }
+
+  public static boolean isDeltaModelUpdates() {
+    return deltaModelUpdates;
+  }
+
+  /**
+   * Sends appended points as "graphics_tail" model updates. The front-end has to support them, so
+   * they are off by default and appends are sent as graphics updates instead.
+   */
+  public static void setTailModelUpdates(boolean enabled) {
+    tailModelUpdates = enabled;
+  }
+
+  public static boolean isTailModelUpdates() {
+    return tailModelUpdates;
+  }
+
   public XYChart leftShift(XYGraphics graphics) {
     return add(graphics);
   }
@@ -137,6 +389,7 @@ abstract public class XYChart extends AbstractChart {
 
   public XYChart setXAutoRange(boolean xAutoRange) {
     this.xAutoRange = xAutoRange;
+    clearLodRange();
     sendModelUpdate(ChartToJson.serializeXAutoRange(this.xAutoRange));
     return this;
   }
@@ -157,6 +410,7 @@ abstract public class XYChart extends AbstractChart {
     this.xAutoRange = false;
     this.xLowerBound = lower;
     this.xUpperBound = upper;
+    clearLodRange();
     sendModelUpdate(ChartToJson.serializeXBound(this));
     return this;
   }
@@ -233,6 +487,38 @@ abstract public class XYChart extends AbstractChart {
     sendModelUpdate(ChartToJson.serializeLodThreshold(this.lodThreshold));
   }
 
+  /**
+   * Reduces Line, Area and Points data on the kernel to about one bucket per pixel of the initial
+   * width before sending it. The front-end can ask for the visible range to be reduced again with
+   * a "lodRange" comm event when the user zooms.
+   */
+  public XYChart setLodReduction(LodReduction lodReduction) {
+    this.lodReduction = lodReduction;
+    Map<Object, Object> update = ChartToJson.serializeLodReduction(lodReduction);
+    synchronized (graphicsLock) {
+      update.putAll(reduced(this.xyGraphics, () -> ChartToJson.serializeXYGraphics(this.xyGraphics)));
+      sendModelUpdate(update);
+    }
+    return this;
+  }
+
+  public LodReduction getLodReduction() {
+    return lodReduction;
+  }
+
+  public Double getLodLowerBound() {
+    return lodLowerBound;
+  }
+
+  public Double getLodUpperBound() {
+    return lodUpperBound;
+  }
+
+  private void clearLodRange() {
+    this.lodLowerBound = null;
+    this.lodUpperBound = null;
+  }
+
   public boolean isxTickLabelsVisible() {
     return xTickLabelsVisible;
   }
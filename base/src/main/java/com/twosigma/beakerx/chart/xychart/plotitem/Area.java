@@ -34,6 +34,7 @@ public class Area extends BasedXYGraphics {
     }
 
     this.interpolation = interpolation;
+    markChanged();
   }
 
   public Integer getInterpolation() {
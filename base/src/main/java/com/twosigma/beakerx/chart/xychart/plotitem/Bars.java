@@ -35,6 +35,7 @@ public class Bars extends BasedXYGraphics {
 
   public void setWidth(Number width) {
     this.baseWidth = width.floatValue();
+    markChanged();
   }
 
   public void setWidth(List<Number> width) {
@@ -43,6 +44,7 @@ public class Bars extends BasedXYGraphics {
 
   private void setWidths(List<Number> widths) {
     this.widths = widths;
+    markChanged();
   }
 
   public Number getWidth() {
@@ -55,10 +57,12 @@ public class Bars extends BasedXYGraphics {
 
   public void setOutlineColor(Color color) {
     this.baseOutlineColor = color;
+    markChanged();
   }
 
   public void setOutlineColor(java.awt.Color color) {
     this.baseOutlineColor = new Color(color);
+    markChanged();
   }
 
   public void setOutlineColor(List<Object> colors) {
@@ -80,6 +84,7 @@ public class Bars extends BasedXYGraphics {
     } else {
       this.outlineColors = null;
     }
+    markChanged();
   }
 
   public Color getOutlineColor() {
@@ -15,6 +15,8 @@
  */
 package com.twosigma.beakerx.chart.xychart.plotitem;
 
+import com.twosigma.beakerx.chart.NumberArray;
+
 import java.util.List;
 
 public abstract class BasedXYGraphics extends XYGraphics {
@@ -31,8 +33,16 @@ public abstract class BasedXYGraphics extends XYGraphics {
     super.setBase(base);
   }
 
+  /**
+   * Uses the array as per-point bases without copying it.
+   */
+  public void setBase(double[] base) {
+    setBase(NumberArray.of(base));
+  }
+
   private void setBases(List<Number> bases) {
     this.bases = bases;
+    markChanged();
   }
 
   public Number getBase() {
@@ -47,6 +47,7 @@ public class Line extends XYGraphics {
 
   public void setWidth(Float width) {
     this.width = width;
+    markChanged();
   }
 
   public Float getWidth() {
@@ -55,6 +56,7 @@ public class Line extends XYGraphics {
 
   public void setStyle(StrokeType style) {
     this.style = style;
+    markChanged();
   }
 
   public StrokeType getStyle() {
@@ -68,6 +70,7 @@ public class Line extends XYGraphics {
     }
 
     this.interpolation = interpolation;
+    markChanged();
   }
 
   public Integer getInterpolation() {
@@ -40,6 +40,7 @@ public class Points extends XYGraphics {
 
   public void setSize(Number size) {
     this.baseSize = size.floatValue();
+    markChanged();
   }
 
   public void setSize(List<Number> sizes) {
@@ -48,6 +49,7 @@ public class Points extends XYGraphics {
 
   private void setSizes(List<Number> sizes) {
     this.sizes = sizes;
+    markChanged();
   }
 
   public float getSize() {
@@ -60,6 +62,7 @@ public class Points extends XYGraphics {
 
   public void setShape(ShapeType shape) {
     this.baseShape = shape;
+    markChanged();
   }
 
   public void setShape(List<ShapeType> shapes) {
@@ -68,6 +71,7 @@ public class Points extends XYGraphics {
 
   private void setShapes(List<ShapeType> shapes) {
     this.shapes = shapes;
+    markChanged();
   }
 
   public ShapeType getShape() {
@@ -80,6 +84,7 @@ public class Points extends XYGraphics {
 
   public void setFill(Boolean fill) {
     this.baseFill = fill;
+    markChanged();
   }
 
   public void setFill(List<Boolean> fill) {
@@ -88,6 +93,7 @@ public class Points extends XYGraphics {
 
   private void setFills(List<Boolean> fills) {
     this.fills = fills;
+    markChanged();
   }
 
   public Boolean getFill() {
@@ -100,10 +106,12 @@ public class Points extends XYGraphics {
 
   public void setOutlineColor(Color color) {
     this.baseOutlineColor = color;
+    markChanged();
   }
 
   public void setOutlineColor(java.awt.Color color) {
     this.baseOutlineColor = new Color(color);
+    markChanged();
   }
 
   public void setOutlineColor(List<Object> colors) {
@@ -125,6 +133,7 @@ public class Points extends XYGraphics {
     } else {
       this.outlineColors = null;
     }
+    markChanged();
   }
 
   public Color getOutlineColor() {
@@ -19,6 +19,7 @@ package com.twosigma.beakerx.chart.xychart.plotitem;
 import com.twosigma.beakerx.chart.Color;
 import com.twosigma.beakerx.chart.Graphics;
 import com.twosigma.beakerx.chart.Filter;
+import com.twosigma.beakerx.chart.NumberArray;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
@@ -47,6 +48,12 @@ public class Rasters extends XYGraphics {
 
   public void setOpacity(List<Number> opacity) {
     this.opacity = new ArrayList<Number>(opacity);
+    markChanged();
+  }
+
+  public void setOpacity(double[] opacity) {
+    this.opacity = NumberArray.of(opacity);
+    markChanged();
   }
 
   public List<Number> getWidth() {
@@ -55,6 +62,12 @@ public class Rasters extends XYGraphics {
 
   public void setWidth(List<Number> width) {
     this.width = new ArrayList<Number>(width);
+    markChanged();
+  }
+
+  public void setWidth(double[] width) {
+    this.width = NumberArray.of(width);
+    markChanged();
   }
 
   public List<Number> getHeight() {
@@ -63,6 +76,12 @@ public class Rasters extends XYGraphics {
 
   public void setHeight(List<Number> height) {
     this.height = new ArrayList<Number>(height);
+    markChanged();
+  }
+
+  public void setHeight(double[] height) {
+    this.height = NumberArray.of(height);
+    markChanged();
   }
 
   public String getFilePath() {
@@ -71,6 +90,7 @@ public class Rasters extends XYGraphics {
 
   public void setFilePath(String filePath) {
     this.filePath = filePath;
+    markChanged();
   }
 
   public String getFileUrl() {
@@ -79,6 +99,7 @@ public class Rasters extends XYGraphics {
 
   public void setFileUrl(String fileUrl) {
     this.fileUrl = fileUrl;
+    markChanged();
   }
 
   public String getPosition() {
@@ -87,6 +108,7 @@ public class Rasters extends XYGraphics {
 
   public void setPosition(String position) {
     this.position = position;
+    markChanged();
   }
 
   public byte[] getDataString() {
@@ -95,6 +117,7 @@ public class Rasters extends XYGraphics {
 
   public void setDataString(byte[] dataString) {
     this.dataString = dataString;
+    markChanged();
   }
 
   @Override
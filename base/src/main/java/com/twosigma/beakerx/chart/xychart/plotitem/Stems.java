@@ -35,6 +35,7 @@ public class Stems extends BasedXYGraphics {
 
   public void setWidth(Float width) {
     this.width = width;
+    markChanged();
   }
 
   public Float getWidth() {
@@ -43,6 +44,7 @@ public class Stems extends BasedXYGraphics {
 
   public void setStyle(StrokeType style) {
     this.baseStyle = style;
+    markChanged();
   }
 
   public void setStyle(List<StrokeType> styles) {
@@ -51,6 +53,7 @@ public class Stems extends BasedXYGraphics {
 
   private void setStyles(List<StrokeType> styles) {
     this.styles = styles;
+    markChanged();
   }
 
   public StrokeType getStyle() {
@@ -0,0 +1,216 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.xychart.plotitem;
+
+import com.twosigma.beakerx.chart.NumberArray;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Append-only x/y points kept in a primitive ring buffer. Retention is bounded by a maximum number
+ * of points and/or by an x window measured back from the newest point; older points are evicted
+ * as new ones arrive. The series also remembers how many points were appended since the last
+ * {@link #drainTail()}, so that only the new tail has to be sent to the front-end.
+ */
+public class StreamingSeries implements Serializable {
+
+  private static final long serialVersionUID = 4168290532875946120L;
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private double[] xs;
+  private double[] ys;
+  private int head;
+  private int size;
+  private int pending;
+  private int maxPoints = Integer.MAX_VALUE;
+  private double window = Double.POSITIVE_INFINITY;
+
+  public StreamingSeries() {
+    this.xs = new double[INITIAL_CAPACITY];
+    this.ys = new double[INITIAL_CAPACITY];
+  }
+
+  public synchronized void append(double x, double y) {
+    if (size == maxPoints) {
+      evictFirst();
+    } else if (size == xs.length) {
+      grow(size + 1);
+    }
+    int index = physical(size);
+    xs[index] = x;
+    ys[index] = y;
+    size++;
+    pending++;
+    evictOutsideWindow();
+  }
+
+  public synchronized void appendAll(double[] x, double[] y) {
+    if (x.length != y.length) {
+      throw new IllegalArgumentException("x and y should have the same length");
+    }
+    int from = Math.max(0, x.length - maxPoints);
+    if (size + x.length - from > xs.length && xs.length < maxPoints) {
+      grow(size + x.length - from);
+    }
+    for (int i = from; i < x.length; i++) {
+      append(x[i], y[i]);
+    }
+  }
+
+  public synchronized int size() {
+    return size;
+  }
+
+  public synchronized int getMaxPoints() {
+    return maxPoints;
+  }
+
+  public synchronized void setMaxPoints(int maxPoints) {
+    if (maxPoints < 1) {
+      throw new IllegalArgumentException("maxPoints should be positive");
+    }
+    this.maxPoints = maxPoints;
+    while (size > maxPoints) {
+      evictFirst();
+    }
+  }
+
+  public synchronized double getWindow() {
+    return window;
+  }
+
+  public synchronized void setWindow(double window) {
+    if (!(window > 0)) {
+      throw new IllegalArgumentException("window should be positive");
+    }
+    this.window = window;
+    evictOutsideWindow();
+  }
+
+  public synchronized double[] getXs() {
+    return copy(xs, 0, size);
+  }
+
+  public synchronized double[] getYs() {
+    return copy(ys, 0, size);
+  }
+
+  /**
+   * Returns the points appended since the previous call, or null when there are none. Points
+   * appended and evicted in between are not included.
+   */
+  public synchronized Tail drainTail() {
+    if (pending == 0) {
+      return null;
+    }
+    Tail tail = new Tail(copy(xs, size - pending, size), copy(ys, size - pending, size), size);
+    pending = 0;
+    return tail;
+  }
+
+  /**
+   * Forgets the pending tail, e.g. because the whole series has just been sent.
+   */
+  public synchronized void markSent() {
+    pending = 0;
+  }
+
+  List<Number> xList() {
+    return NumberArray.of(getXs());
+  }
+
+  List<Number> yList() {
+    return NumberArray.of(getYs());
+  }
+
+  private void evictOutsideWindow() {
+    if (size == 0 || window == Double.POSITIVE_INFINITY) {
+      return;
+    }
+    double oldest = xs[physical(size - 1)] - window;
+    while (size > 1 && xs[head] < oldest) {
+      evictFirst();
+    }
+  }
+
+  private void evictFirst() {
+    head = (head + 1) % xs.length;
+    size--;
+    pending = Math.min(pending, size);
+  }
+
+  private void grow(int required) {
+    int capacity = (int) Math.min((long) maxPoints, Math.max((long) required, 2L * xs.length));
+    xs = resize(xs, capacity);
+    ys = resize(ys, capacity);
+    head = 0;
+  }
+
+  private double[] resize(double[] values, int capacity) {
+    double[] resized = new double[capacity];
+    copyInto(values, 0, size, resized);
+    return resized;
+  }
+
+  private double[] copy(double[] values, int from, int to) {
+    double[] result = new double[to - from];
+    copyInto(values, from, to, result);
+    return result;
+  }
+
+  private void copyInto(double[] values, int from, int to, double[] target) {
+    int start = (head + from) % values.length;
+    int count = to - from;
+    int firstPart = Math.min(count, values.length - start);
+    System.arraycopy(values, start, target, 0, firstPart);
+    System.arraycopy(values, 0, target, firstPart, count - firstPart);
+  }
+
+  private int physical(int index) {
+    return (head + index) % xs.length;
+  }
+
+  public static class Tail {
+
+    private final double[] x;
+    private final double[] y;
+    private final int size;
+
+    Tail(double[] x, double[] y, int size) {
+      this.x = x;
+      this.y = y;
+      this.size = size;
+    }
+
+    public double[] getX() {
+      return x;
+    }
+
+    public double[] getY() {
+      return y;
+    }
+
+    /**
+     * Number of points retained after this tail was appended; the front-end keeps that many of the
+     * newest points.
+     */
+    public int getSize() {
+      return size;
+    }
+  }
+}
@@ -20,12 +20,15 @@ import com.twosigma.beakerx.chart.Color;
 import com.twosigma.beakerx.chart.Filter;
 import com.twosigma.beakerx.chart.Graphics;
 import com.twosigma.beakerx.chart.ListColorConverter;
+import com.twosigma.beakerx.chart.NumberArray;
 import com.twosigma.beakerx.util.DateUtil;
 import com.twosigma.beakerx.widget.RunWidgetClosure;
 
+import java.nio.DoubleBuffer;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 abstract public class XYGraphics extends Graphics {
   private List<Number> xs;
@@ -37,6 +40,8 @@ abstract public class XYGraphics extends Graphics {
   private Filter lodFilter;
   private Object toolTipBuilder;
   private List<String> toolTips;
+  private StreamingSeries series;
+  private transient List<Runnable> appendListeners;
 
   protected List<Number> getBases() {
     return null;
@@ -47,6 +52,7 @@ abstract public class XYGraphics extends Graphics {
   }
 
   protected void setBase(Object base) {
+    markChanged();
     reinit();
   }
 
@@ -56,6 +62,7 @@ abstract public class XYGraphics extends Graphics {
 
   public void setToolTip(Object toolTip) {
     toolTipBuilder = toolTip;
+    markChanged();
     reinit();
   }
 
@@ -67,9 +74,11 @@ abstract public class XYGraphics extends Graphics {
       }
     }
     this.toolTips = toolTips;
+    markChanged();
   }
 
   public void setX(List<Object> xs) {
+    this.series = null;
     this.xs = new ArrayList<>();
     if (xs != null) {
       for (Object x : xs) {
@@ -80,10 +89,39 @@ abstract public class XYGraphics extends Graphics {
         }
       }
     }
+    markChanged();
+    reinit();
+  }
+
+  /**
+   * Uses the array as x values without copying it.
+   */
+  public void setX(double[] xs) {
+    setXValues(NumberArray.of(xs));
+  }
+
+  /**
+   * Uses the array as x values without copying it, e.g. for timestamps that don't fit a double.
+   */
+  public void setX(long[] xs) {
+    setXValues(NumberArray.of(xs));
+  }
+
+  public void setX(DoubleBuffer xs) {
+    setXValues(NumberArray.of(xs));
+  }
+
+  private void setXValues(NumberArray xs) {
+    this.series = null;
+    this.xs = xs;
+    markChanged();
     reinit();
   }
 
   public List<Number> getX() {
+    if (series != null) {
+      return series.xList();
+    }
     if (xs == null || xs.isEmpty()) {
       generateXs();
     }
@@ -91,16 +129,129 @@ abstract public class XYGraphics extends Graphics {
   }
 
   public void setY(List<Number> ys) {
+    this.series = null;
     this.ys = new ArrayList<>(ys);//to make it serializable
+    markChanged();
+    reinit();
+  }
+
+  /**
+   * Uses the array as y values without copying it.
+   */
+  public void setY(double[] ys) {
+    setYValues(NumberArray.of(ys));
+  }
+
+  public void setY(DoubleBuffer ys) {
+    setYValues(NumberArray.of(ys));
+  }
+
+  private void setYValues(NumberArray ys) {
+    this.series = null;
+    this.ys = ys;
+    markChanged();
     reinit();
   }
 
   public List<Number> getY() {
+    if (series != null) {
+      return series.yList();
+    }
     return this.ys;
   }
 
+  /**
+   * Appends a point to this item, switching it to a streaming series seeded with the current x and
+   * y values. Points added this way are sent to a displayed chart as periodic tail updates rather
+   * than by re-sending the whole item. Streaming items carry only x and y; per-point attributes
+   * such as colors or sizes are not extended.
+   */
+  public XYGraphics append(Object x, Number y) {
+    streaming().append(toDouble(x), y.doubleValue());
+    fireAppended();
+    return this;
+  }
+
+  public XYGraphics appendAll(double[] xs, double[] ys) {
+    streaming().appendAll(xs, ys);
+    fireAppended();
+    return this;
+  }
+
+  /**
+   * Keeps at most the given number of the newest streamed points.
+   */
+  public XYGraphics setRetention(int maxPoints) {
+    streaming().setMaxPoints(maxPoints);
+    return this;
+  }
+
+  /**
+   * Keeps only streamed points whose x lies within the given distance of the newest x, e.g. a
+   * number of milliseconds on a time plot.
+   */
+  public XYGraphics setRetentionWindow(double window) {
+    streaming().setWindow(window);
+    return this;
+  }
+
+  public boolean isStreaming() {
+    return series != null;
+  }
+
+  public StreamingSeries getStreamingSeries() {
+    return series;
+  }
+
+  /**
+   * Called by each chart this item is added to; listeners are notified after every append.
+   */
+  public synchronized void addAppendListener(Runnable appendListener) {
+    if (appendListeners == null) {
+      appendListeners = new CopyOnWriteArrayList<>();
+    }
+    appendListeners.add(appendListener);
+  }
+
+  public synchronized void removeAppendListener(Runnable appendListener) {
+    if (appendListeners != null) {
+      appendListeners.remove(appendListener);
+    }
+  }
+
+  private synchronized StreamingSeries streaming() {
+    if (series == null) {
+      StreamingSeries seeded = new StreamingSeries();
+      List<Number> currentXs = getX();
+      for (int i = 0; i < Math.min(currentXs.size(), ys.size()); i++) {
+        seeded.append(currentXs.get(i).doubleValue(), ys.get(i).doubleValue());
+      }
+      seeded.markSent();
+      series = seeded;
+    }
+    return series;
+  }
+
+  private void fireAppended() {
+    List<Runnable> listeners;
+    synchronized (this) {
+      listeners = appendListeners;
+    }
+    if (listeners != null) {
+      listeners.forEach(Runnable::run);
+    }
+  }
+
+  private static double toDouble(Object x) {
+    if (x instanceof Number) {
+      return ((Number) x).doubleValue();
+    }
+    return DateUtil.dateToLong(x);
+  }
+
   public void setDisplayName(String displayName) {
     this.displayName = displayName;
+    markChanged();
     reinit();
   }
 
@@ -110,10 +261,11 @@ abstract public class XYGraphics extends Graphics {
 
 
   private void generateXs() {
-    this.xs = new ArrayList<>(this.ys.size());
-    for (int i = 0; i < ys.size(); ++i) {
-      this.xs.add(i);
+    long[] indices = new long[ys.size()];
+    for (int i = 0; i < indices.length; ++i) {
+      indices[i] = i;
     }
+    this.xs = NumberArray.of(indices);
   }
 
   public Filter getLodFilter() {
@@ -123,6 +275,7 @@ abstract public class XYGraphics extends Graphics {
   public void setLodFilter(Filter lodFilter) {
     if (getPossibleFilters().contains(lodFilter)) {
       this.lodFilter = lodFilter;
+      markChanged();
     } else {
       throw new RuntimeException(String.format("%s doesn't not support '%s' filter.",
               getClass().getSimpleName(),
@@ -133,6 +286,7 @@ abstract public class XYGraphics extends Graphics {
 
   public void setColor(Color color) {
     this.baseColor = color;
+    markChanged();
   }
 
   public void setColor(java.awt.Color color) {
@@ -145,6 +299,7 @@ abstract public class XYGraphics extends Graphics {
     } else {
       this.colors = null;
     }
+    markChanged();
   }
 
   public List<Color> getColors() {
@@ -154,6 +309,7 @@ abstract public class XYGraphics extends Graphics {
   @Override
   public void setColori(Color color) {
     this.baseColor = color;
+    markChanged();
   }
 
   @Override
@@ -169,6 +325,7 @@ abstract public class XYGraphics extends Graphics {
 
   public void setPlotType(Class plotType) {
     this.plotType = plotType;
+    markChanged();
   }
 
   private void reinit() {
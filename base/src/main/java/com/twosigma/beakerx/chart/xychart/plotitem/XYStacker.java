@@ -41,6 +41,9 @@ public class XYStacker {
         BasedXYGraphics current = graphicsList.get(gIndex);
         padYs(current, graphicsWithMaxElements);
         BasedXYGraphics previous = graphicsList.get(gIndex - 1);
+        if (!(current.getY() instanceof ArrayList)) {
+          current.setY(new ArrayList<>(current.getY()));
+        }
         List<Number> currentYs = current.getY();
         List<Number> previousYs = previous.getY();
 
@@ -59,6 +62,12 @@ public class XYStacker {
     int currentSize = graphics.getY().size();
     int diff = maxSize - currentSize;
     if (diff > 0) {
+      if (!(graphics.getY() instanceof ArrayList)) {
+        graphics.setY(new ArrayList<>(graphics.getY()));
+      }
+      if (!(graphics.getX() instanceof ArrayList)) {
+        graphics.setX(new ArrayList<Object>(graphics.getX()));
+      }
       Number[] ys = new Number[diff];
       Arrays.fill(ys, graphics.getY().get(currentSize - 1));
       graphics.getY().addAll(Arrays.asList(ys));
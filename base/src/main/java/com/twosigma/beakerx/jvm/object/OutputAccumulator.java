@@ -0,0 +1,201 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.object;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Assembles a cell's stdout/stderr into wrapped lines and keeps the most recent ones in a ring of
+ * fixed-size chunks, grouped into runs of the same stream. Once the retained text exceeds the
+ * per-cell limit the oldest chunks are dropped and replaced by a single truncation marker.
+ */
+class OutputAccumulator {
+
+  static final int FLUSH_SIZE = 8192;
+  static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+  private static final int CHUNK_SIZE = 8192;
+
+  private final int maxLineLength;
+  private final long maxRetained;
+  private final int chunkSize;
+  private final StringBuilder partialOut = new StringBuilder();
+  private final StringBuilder partialErr = new StringBuilder();
+  private final ArrayDeque<Run> runs = new ArrayDeque<>();
+  private int chunkCount = 0;
+  private long retained = 0;
+  private long truncated = 0;
+  private int unflushed = 0;
+  private long lastFlush = System.nanoTime() - FLUSH_INTERVAL_NANOS;
+  private int modCount = 0;
+
+  OutputAccumulator(int maxLineLength, long maxRetained) {
+    this.maxLineLength = maxLineLength;
+    this.maxRetained = maxRetained > 0 ? maxRetained : Long.MAX_VALUE;
+    this.chunkSize = (int) Math.max(maxLineLength + 1, Math.min(CHUNK_SIZE, this.maxRetained / 4));
+  }
+
+  synchronized void append(CharSequence s, boolean error) {
+    StringBuilder partial = error ? partialErr : partialOut;
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c == '\n') {
+        completeLine(partial, error);
+      } else {
+        if (partial.length() == maxLineLength) {
+          completeLine(partial, error);
+        }
+        partial.append(c);
+      }
+    }
+  }
+
+  /**
+   * Emits lines that are still waiting for their newline, e.g. when the cell ends.
+   */
+  synchronized void completePartialLines() {
+    if (partialOut.length() > 0) {
+      completeLine(partialOut, false);
+    }
+    if (partialErr.length() > 0) {
+      completeLine(partialErr, true);
+    }
+  }
+
+  /**
+   * @return true, and resets the counters, when enough text has been completed since the last
+   * flush or the flush interval has passed
+   */
+  synchronized boolean flushDue() {
+    if (unflushed == 0) {
+      return false;
+    }
+    long now = System.nanoTime();
+    if (unflushed >= FLUSH_SIZE || now - lastFlush >= FLUSH_INTERVAL_NANOS) {
+      unflushed = 0;
+      lastFlush = now;
+      return true;
+    }
+    return false;
+  }
+
+  synchronized boolean hasUnflushed() {
+    return unflushed > 0;
+  }
+
+  synchronized int getModCount() {
+    return modCount;
+  }
+
+  synchronized long getTruncatedLength() {
+    return truncated;
+  }
+
+  /**
+   * One segment per run of the same stream. Segments are kept between calls and only the runs
+   * changed since the last call are rebuilt, so the same functions must be passed every time.
+   */
+  @SuppressWarnings("unchecked")
+  synchronized <T> List<T> segments(Function<String, T> out, Function<String, T> err) {
+    List<T> result = new ArrayList<>(Math.max(runs.size(), 1));
+    for (Run run : runs) {
+      if (run.segment == null) {
+        StringBuilder text = new StringBuilder();
+        if (run == runs.peekFirst() && truncated > 0) {
+          text.append(truncationMarker(truncated));
+        }
+        run.chunks.forEach(text::append);
+        run.segment = run.error ? err.apply(text.toString()) : out.apply(text.toString());
+      }
+      result.add((T) run.segment);
+    }
+    if (result.isEmpty() && truncated > 0) {
+      result.add(out.apply(truncationMarker(truncated)));
+    }
+    return result;
+  }
+
+  static String truncationMarker(long length) {
+    return "... " + length + " characters of earlier output truncated ...\n";
+  }
+
+  private void completeLine(StringBuilder partial, boolean error) {
+    if (!(error && isUndesirable(partial))) {
+      addLine(partial, error);
+    }
+    partial.setLength(0);
+  }
+
+  private void addLine(CharSequence line, boolean error) {
+    int length = line.length() + 1;
+    Run run = runs.peekLast();
+    if (run == null || run.error != error) {
+      run = new Run(error);
+      runs.addLast(run);
+    }
+    StringBuilder tail = run.chunks.peekLast();
+    if (tail == null || tail.length() + length > chunkSize) {
+      tail = new StringBuilder(Math.min(chunkSize, Math.max(length, 64)));
+      run.chunks.addLast(tail);
+      chunkCount++;
+    }
+    tail.append(line).append('\n');
+    run.segment = null;
+    retained += length;
+    unflushed += length;
+    modCount++;
+    while (retained > maxRetained && chunkCount > 1) {
+      dropOldestChunk();
+    }
+  }
+
+  private void dropOldestChunk() {
+    Run head = runs.peekFirst();
+    int dropped = head.chunks.pollFirst().length();
+    chunkCount--;
+    retained -= dropped;
+    truncated += dropped;
+    if (head.chunks.isEmpty()) {
+      runs.pollFirst();
+    }
+    // the truncation marker heads the first run
+    runs.peekFirst().segment = null;
+  }
+
+  /*
+   * HACK to remove annoying stderr messages from third party libraries
+   */
+  private static boolean isUndesirable(StringBuilder line) {
+    return line.indexOf("JavaSourceCompilerImpl compile") >= 0 ||
+            (line.indexOf("org.antlr.v4.runtime.misc.NullUsageProcessor") >= 0 && line.indexOf("'RELEASE_6'") >= 0);
+  }
+
+  private static class Run {
+    private final boolean error;
+    private final ArrayDeque<StringBuilder> chunks = new ArrayDeque<>();
+    /**
+     * Segment built from this run, null when the run changed since it was built.
+     */
+    private Object segment;
+
+    private Run(boolean error) {
+      this.error = error;
+    }
+  }
+}
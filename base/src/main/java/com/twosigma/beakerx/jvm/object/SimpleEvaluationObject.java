@@ -18,6 +18,7 @@ package com.twosigma.beakerx.jvm.object;
 import com.twosigma.beakerx.jvm.threads.BeakerInputHandler;
 import com.twosigma.beakerx.jvm.threads.BeakerOutputHandler;
 import com.twosigma.beakerx.jvm.threads.BeakerStdInOutErrHandler;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
 import com.twosigma.beakerx.kernel.threads.ResultSender;
 import com.twosigma.beakerx.message.Message;
 
@@ -25,6 +26,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Abstraction around an evaluation, for communication of the state over REST to the plugin.
@@ -33,7 +38,7 @@ public class SimpleEvaluationObject implements EvaluationObject {
 
   private Message jupyterMessage;
   private int executionCount;
-  private EvaluationStatus status;
+  private volatile EvaluationStatus status;
   private final String expression;
   private Object payload;
   private ResultSender resultSender;
@@ -67,15 +72,21 @@ public class SimpleEvaluationObject implements EvaluationObject {
 
   public void finished(Object r) {
     clrOutputHandler();
-    this.status = EvaluationStatus.FINISHED;
-    payload = r;
+    output.completePartialLines();
+    synchronized (statusLock) {
+      this.status = EvaluationStatus.FINISHED;
+      payload = r;
+    }
     resultSender.update(this);
   }
 
   public void error(Object r) {
     clrOutputHandler();
-    this.status = EvaluationStatus.ERROR;
-    payload = r;
+    output.completePartialLines();
+    synchronized (statusLock) {
+      this.status = EvaluationStatus.ERROR;
+      payload = r;
+    }
     resultSender.update(this);
   }
 
@@ -153,147 +164,76 @@ public class SimpleEvaluationObject implements EvaluationObject {
     return status.toString() + " Console messages size = " + consoleOutput.size();
   }
 
-  private static final int OUTPUT_QUEUE_SIZE = 20;
+  public static final String MAX_OUTPUT_PER_CELL_PROPERTY = "beakerx.output.max_per_cell";
   private static final int MAX_LINE_LENGTH = 240;
-  private int outputdataCount = 0;
-  private String buildingout = "";
-  private List<Object> outputdata = new ArrayList<Object>();
-  private String buildingerr = "";
-
-  public List<Object> getOutputdata() {
+  private static final long BACKPRESSURE_TIMEOUT_MILLIS = 1000;
+  private static volatile long maxOutputPerCell = Long.getLong(MAX_OUTPUT_PER_CELL_PROPERTY, 1 << 20);
+  private static final ScheduledExecutorService pendingOutputFlusher = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(CellExecutionContext.detached(r), "beakerx-pending-output-flush");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final OutputAccumulator output = new OutputAccumulator(MAX_LINE_LENGTH, maxOutputPerCell);
+  private final AtomicBoolean flushScheduled = new AtomicBoolean();
+  private final Object statusLock = new Object();
+  private List<Object> outputdata = new ArrayList<>();
+  private int outputdataModCount = 0;
+
+  /**
+   * Limits the characters of appended output kept per cell; older output is replaced by a
+   * truncation marker. Zero or less keeps everything.
+   */
+  public static void setMaxOutputPerCell(long chars) {
+    maxOutputPerCell = chars;
+  }
+
+  public static long getMaxOutputPerCell() {
+    return maxOutputPerCell;
+  }
+
+  public synchronized List<Object> getOutputdata() {
+    int modCount = output.getModCount();
+    if (modCount != outputdataModCount) {
+      outputdata = output.segments(EvaluationStdOutput::new, EvaluationStdError::new);
+      outputdataModCount = modCount;
+    }
     return outputdata;
   }
 
-  public void appendOutput(String s) {
-    if (getSize() > OUTPUT_QUEUE_SIZE) {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-      }
-    }
-    if (getSize() > OUTPUT_QUEUE_SIZE) {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-      }
-    }
-    doAppendOutput(s);
+  public long getTruncatedOutputLength() {
+    return output.getTruncatedLength();
   }
 
-  private int getSize() {
-    return outputdataCount;
+  public void appendOutput(String s) {
+    output.append(s, false);
+    flushOutput();
   }
 
-  private void doAppendOutput(String s) {
-    buildingout += s;
-    String add = null;
-    if (s.contains("\n")) {
-      if (s.endsWith("\n")) {
-        add = buildingout;
-        buildingout = "";
-      } else {
-        add = buildingout.substring(0, buildingout.lastIndexOf('\n') + 1);
-        buildingout = buildingout.substring(buildingout.lastIndexOf('\n') + 1);
-      }
-    }
-    if (buildingout.length() > MAX_LINE_LENGTH) {
-      add = buildingout;
-      buildingout = "";
-    }
-    if (add != null) {
-      String[] v = add.split("\n");
-      for (String sv : v) {
-        while (sv.length() > MAX_LINE_LENGTH) {
-          String t = sv.substring(0, MAX_LINE_LENGTH);
-          sv = sv.substring(MAX_LINE_LENGTH);
-          if (outputdata.size() == 0 || !(outputdata.get(outputdata.size() - 1) instanceof EvaluationStdOutput)) {
-            outputdata.add(new EvaluationStdOutput(t + "\n"));
-          } else {
-            EvaluationStdOutput st = (EvaluationStdOutput) outputdata.get(outputdata.size() - 1);
-            st.payload += t + "\n";
-          }
-          outputdataCount++;
-        }
-        if (outputdata.size() == 0 || !(outputdata.get(outputdata.size() - 1) instanceof EvaluationStdOutput)) {
-          outputdata.add(new EvaluationStdOutput(sv + "\n"));
-        } else {
-          EvaluationStdOutput st = (EvaluationStdOutput) outputdata.get(outputdata.size() - 1);
-          st.payload += sv + "\n";
-        }
-        outputdataCount++;
-      }
-      resultSender.update(this);
-    }
+  public void appendError(String s) {
+    output.append(s, true);
+    flushOutput();
   }
 
-  public void appendError(String s) {
-    if (getSize() > OUTPUT_QUEUE_SIZE) {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-      }
-    }
-    if (getSize() > OUTPUT_QUEUE_SIZE) {
-      try {
-        Thread.sleep(500);
-      } catch (InterruptedException e) {
-      }
+  private void flushOutput() {
+    if (output.flushDue()) {
+      resultSender.awaitCapacity(BACKPRESSURE_TIMEOUT_MILLIS);
+      resultSender.update(this);
+    } else if (output.hasUnflushed() && flushScheduled.compareAndSet(false, true)) {
+      pendingOutputFlusher.schedule(this::flushPendingOutput, OutputAccumulator.FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS);
     }
-    doAppendError(s);
   }
 
-  private void doAppendError(String s) {
-    buildingerr += s;
-    String add = null;
-    if (s.contains("\n")) {
-      if (s.endsWith("\n")) {
-        add = buildingerr;
-        buildingerr = "";
-      } else {
-        add = buildingerr.substring(0, buildingerr.lastIndexOf('\n') + 1);
-        buildingerr = buildingerr.substring(buildingerr.lastIndexOf('\n') + 1);
+  /**
+   * Publishes text that was appended too soon after the previous flush, in case the cell appends nothing more
+   * for a while. Once the cell has finished its result carries the output instead.
+   */
+  private void flushPendingOutput() {
+    flushScheduled.set(false);
+    synchronized (statusLock) {
+      if (status == EvaluationStatus.RUNNING && output.flushDue()) {
+        resultSender.update(this);
       }
     }
-    if (buildingerr.length() > MAX_LINE_LENGTH) {
-      add = buildingerr;
-      buildingerr = "";
-    }
-    if (add != null) {
-      /*
-       * HACK to remove annoying stderr messages from third party libraries
-       */
-      if ((add.contains("org.antlr.v4.runtime.misc.NullUsageProcessor") && add.contains("'RELEASE_6'")) ||
-              (add.contains("JavaSourceCompilerImpl compile"))) {
-        String[] v = add.split("\n");
-        add = "";
-        for (String s2 : v) {
-          if (!s2.contains("org.antlr.v4.runtime.misc.NullUsageProcessor") && !s2.contains("JavaSourceCompilerImpl compile"))
-            add += s2 + "\n";
-        }
-      }
-      String[] v = add.split("\n");
-      for (String sv : v) {
-        while (sv.length() > MAX_LINE_LENGTH) {
-          String t = sv.substring(0, MAX_LINE_LENGTH);
-          sv = sv.substring(MAX_LINE_LENGTH);
-          if (outputdata.size() == 0 || !(outputdata.get(outputdata.size() - 1) instanceof EvaluationStdError)) {
-            outputdata.add(new EvaluationStdError(t + "\n"));
-          } else {
-            EvaluationStdError st = (EvaluationStdError) outputdata.get(outputdata.size() - 1);
-            st.payload += t + "\n";
-          }
-          outputdataCount++;
-        }
-        if (outputdata.size() == 0 || !(outputdata.get(outputdata.size() - 1) instanceof EvaluationStdError)) {
-          outputdata.add(new EvaluationStdError(sv + "\n"));
-        } else {
-          EvaluationStdError st = (EvaluationStdError) outputdata.get(outputdata.size() - 1);
-          st.payload += sv + "\n";
-        }
-        outputdataCount++;
-      }
-      resultSender.update(this);
-    }
   }
 
   public class EvaluationStdOutput {
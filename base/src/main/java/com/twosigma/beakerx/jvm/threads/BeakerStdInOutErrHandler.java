@@ -15,6 +15,7 @@
  */
 package com.twosigma.beakerx.jvm.threads;
 
+import com.twosigma.beakerx.kernel.GroupName;
 import com.twosigma.beakerx.widget.OutputManager;
 
 import java.io.IOException;
@@ -23,15 +24,30 @@ import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
-public class BeakerStdInOutErrHandler {
+/**
+ * Routes System.out, System.err and System.in to the handlers of the cell the calling thread works for.
+ * Every thread writes into its own {@link CellOutputBuffer}, so printing takes no shared lock; buffered text
+ * reaches the cell on a newline, when the buffer fills up, on flush, or after {@link #FLUSH_INTERVAL_MILLIS}.
+ */
+public class BeakerStdInOutErrHandler implements CellOutputBuffer.Sink {
+
+  public static final long FLUSH_INTERVAL_MILLIS = 20;
 
   private static BeakerStdInOutErrHandler instance;
-  private ConcurrentHashMap<ThreadGroup, BeakerOutputHandlers> handlers = new ConcurrentHashMap<>();
   private PrintStream orig_out;
   private PrintStream orig_err;
   private InputStream orig_in;
+  private final ThreadLocal<CellOutputBuffer> outBuffers = ThreadLocal.withInitial(() -> new CellOutputBuffer(true, this));
+  private final ThreadLocal<CellOutputBuffer> errBuffers = ThreadLocal.withInitial(() -> new CellOutputBuffer(false, this));
+  private final Queue<CellOutputBuffer> waitingForFlush = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<CellExecutionContext> openedContext = new ThreadLocal<>();
+  private ScheduledExecutorService flusher;
 
   private BeakerStdInOutErrHandler() {
   }
@@ -52,7 +68,7 @@ public class BeakerStdInOutErrHandler {
 
   static synchronized public void setOutputHandler(BeakerOutputHandler out, BeakerOutputHandler err, BeakerInputHandler stdin) {
     if (instance != null) {
-      instance.theSetOutputHandler(out, err, stdin, Thread.currentThread().getThreadGroup());
+      instance.theSetOutputHandler(out, err, stdin);
     }
   }
 
@@ -65,9 +81,15 @@ public class BeakerStdInOutErrHandler {
     orig_out = System.out;
     orig_err = System.err;
     orig_in = System.in;
+    flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(CellExecutionContext.detached(r), "beakerx-output-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(this::flushWaiting, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
     try {
-      System.setOut(new PrintStream(new ProxyOutputStream(true), false, StandardCharsets.UTF_8.name()));
-      System.setErr(new PrintStream(new ProxyOutputStream(false), false, StandardCharsets.UTF_8.name()));
+      System.setOut(new ProxyPrintStream(true));
+      System.setErr(new ProxyPrintStream(false));
       System.setIn(new ProxyInputStream());
     } catch (UnsupportedEncodingException e) {
       throw new RuntimeException(e);
@@ -75,59 +97,95 @@ public class BeakerStdInOutErrHandler {
   }
 
   private void thefini() {
+    flusher.shutdownNow();
+    flushWaiting(0);
     System.setOut(orig_out);
     System.setErr(orig_err);
     System.setIn(orig_in);
   }
 
+  private void theSetOutputHandler(BeakerOutputHandler out, BeakerOutputHandler err, BeakerInputHandler stdin) {
+    flushCurrentThread();
+    CellExecutionContext context = CellExecutionContext.current();
+    if (context == null) {
+      // not started by a CellExecutor, the calling thread becomes its own cell until clrOutputHandler
+      context = CellExecutionContext.open(GroupName.generate());
+      openedContext.set(context);
+    }
+    context.setOutputHandlers(out, err, stdin);
+  }
 
-  private synchronized void theSetOutputHandler(BeakerOutputHandler out, BeakerOutputHandler err, BeakerInputHandler stdin, ThreadGroup threadGroup) {
-    removeGroupsWithAllNoAliveThreads();
-    handlers.put(threadGroup, new BeakerOutputHandlers(out, err, stdin));
+  private void theClrOutputHandler() {
+    // handlers live in the cell's execution context, threads the cell started keep writing to the cell
+    // until they finish; a context opened by setOutputHandler is closed here
+    flushCurrentThread();
+    CellExecutionContext opened = openedContext.get();
+    if (opened != null) {
+      openedContext.remove();
+      if (opened == CellExecutionContext.current()) {
+        CellExecutionContext.remove();
+      }
+    }
   }
 
-  private synchronized void removeGroupsWithAllNoAliveThreads() {
-    handlers.entrySet().stream()
-            .filter(x -> x.getKey().activeCount() == 0)
-            .forEach(y -> {
-              BeakerOutputHandlers hrs = handlers.get(y.getKey());
-              hrs.out_handler = null;
-              hrs.err_handler = null;
-              handlers.remove(y.getKey());
-            });
+  private void flushCurrentThread() {
+    outBuffers.get().flush();
+    errBuffers.get().flush();
+  }
+
+  private void flushWaiting() {
+    flushWaiting(TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MILLIS));
+  }
+
+  private void flushWaiting(long olderThanNanos) {
+    for (int i = waitingForFlush.size(); i > 0; i--) {
+      CellOutputBuffer buffer = waitingForFlush.poll();
+      if (buffer == null) {
+        return;
+      }
+      if (buffer.flushIfOlderThan(olderThanNanos)) {
+        waitingForFlush.add(buffer);
+      }
+    }
   }
 
-  private synchronized void theClrOutputHandler() {
-    removeGroupsWithAllNoAliveThreads();
+  @Override
+  public void flushLater(CellOutputBuffer buffer) {
+    waitingForFlush.add(buffer);
   }
 
-  private synchronized void writeStdout(String text) throws IOException {
+  @Override
+  public void deliver(boolean isOut, CellExecutionContext context, String text) {
+    // one cell's text is delivered in order, different cells do not wait for each other
+    synchronized (context != null ? context : this) {
+      try {
+        if (isOut) {
+          writeStdout(context, text);
+        } else {
+          writeStderr(context, text);
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private void writeStdout(CellExecutionContext context, String text) throws IOException {
     boolean sendStdout = OutputManager.sendStdout(text);
     if (!sendStdout) {
-      BeakerOutputHandlers hrs = getHandlersByThreadGroup();
-      if (hrs != null && hrs.out_handler != null) {
-        hrs.out_handler.write(text);
+      if (context != null && context.getOutHandler() != null) {
+        context.getOutHandler().write(text);
       } else {
         orig_out.write(text.getBytes(StandardCharsets.UTF_8));
       }
     }
   }
 
-  private BeakerOutputHandlers getHandlersByThreadGroup() {
-    ThreadGroup threadGroup = Thread.currentThread().getThreadGroup();
-    BeakerOutputHandlers beakerOutputHandlers = handlers.get(threadGroup);
-    if (beakerOutputHandlers != null) {
-      return beakerOutputHandlers;
-    }
-    return handlers.get(threadGroup.getParent());
-  }
-
-  private synchronized void writeStderr(String text) throws IOException {
+  private void writeStderr(CellExecutionContext context, String text) throws IOException {
     boolean sendStderr = OutputManager.sendStderr(text);
     if (!sendStderr) {
-      BeakerOutputHandlers hrs = getHandlersByThreadGroup();
-      if (hrs != null && hrs.err_handler != null) {
-        hrs.err_handler.write(text);
+      if (context != null && context.getErrHandler() != null) {
+        context.getErrHandler().write(text);
       } else {
         orig_err.write(text.getBytes(StandardCharsets.UTF_8));
       }
@@ -142,61 +200,172 @@ public class BeakerStdInOutErrHandler {
   }
 
   private int readStdin() {
-    BeakerOutputHandlers hrs = getHandlersByThreadGroup();
-    if (hrs != null && hrs.stdin_handler != null) {
-      return hrs.stdin_handler.read();
+    flushCurrentThread();
+    CellExecutionContext context = CellExecutionContext.current();
+    if (context != null && context.getStdinHandler() != null) {
+      return context.getStdinHandler().read();
     }
     return 0;
   }
 
-
   private class ProxyOutputStream extends OutputStream {
 
-    private boolean is_out;
+    private final boolean is_out;
 
-    public ProxyOutputStream(boolean isout) {
+    ProxyOutputStream(boolean isout) {
       is_out = isout;
     }
 
-    @Override
-    public void write(int b) throws IOException {
-      byte[] ba = new byte[1];
-      ba[0] = (byte) b;
-      String s = new String(ba, StandardCharsets.UTF_8);
-      write(s);
+    private CellOutputBuffer buffer() {
+      return is_out ? outBuffers.get() : errBuffers.get();
     }
 
     @Override
-    public void write(byte[] b) throws IOException {
-      String s = new String(b, StandardCharsets.UTF_8);
-      write(s);
+    public void write(int b) {
+      buffer().write(b, CellExecutionContext.current());
     }
 
     @Override
-    public void write(byte[] b, int off, int len) throws IOException {
-      String s = new String(b, off, len, StandardCharsets.UTF_8);
-      write(s);
+    public void write(byte[] b, int off, int len) {
+      buffer().write(b, off, len, CellExecutionContext.current());
     }
 
-    private void write(String s) throws IOException {
-      if (is_out) {
-        instance.writeStdout(s);
-      } else {
-        instance.writeStderr(s);
-      }
+    @Override
+    public void flush() {
+      buffer().flush();
     }
   }
 
-  static class BeakerOutputHandlers {
-    BeakerOutputHandler out_handler;
-    BeakerOutputHandler err_handler;
-    BeakerInputHandler stdin_handler;
+  /**
+   * Text goes straight to the thread's buffer, without the PrintStream lock and without an encode/decode round trip.
+   */
+  private class ProxyPrintStream extends PrintStream {
 
-    BeakerOutputHandlers(BeakerOutputHandler out, BeakerOutputHandler err, BeakerInputHandler stdin) {
-      out_handler = out;
-      err_handler = err;
-      stdin_handler = stdin;
+    private final ProxyOutputStream proxy;
+
+    ProxyPrintStream(boolean isOut) throws UnsupportedEncodingException {
+      this(new ProxyOutputStream(isOut));
+    }
+
+    private ProxyPrintStream(ProxyOutputStream proxy) throws UnsupportedEncodingException {
+      super(proxy, false, StandardCharsets.UTF_8.name());
+      this.proxy = proxy;
+    }
+
+    @Override
+    public void write(int b) {
+      proxy.write(b);
+    }
+
+    @Override
+    public void write(byte[] buf, int off, int len) {
+      proxy.write(buf, off, len);
+    }
+
+    @Override
+    public void flush() {
+      proxy.flush();
+    }
+
+    @Override
+    public void print(String s) {
+      proxy.buffer().write(s != null ? s : "null", CellExecutionContext.current());
+    }
+
+    @Override
+    public void print(char c) {
+      print(String.valueOf(c));
+    }
+
+    @Override
+    public void print(char[] s) {
+      print(new String(s));
+    }
+
+    @Override
+    public void print(Object obj) {
+      print(String.valueOf(obj));
+    }
+
+    @Override
+    public void print(int i) {
+      print(String.valueOf(i));
+    }
+
+    @Override
+    public void print(long l) {
+      print(String.valueOf(l));
+    }
+
+    @Override
+    public void print(double d) {
+      print(String.valueOf(d));
+    }
+
+    @Override
+    public void print(float f) {
+      print(String.valueOf(f));
+    }
+
+    @Override
+    public void print(boolean b) {
+      print(String.valueOf(b));
+    }
+
+    @Override
+    public void println() {
+      println("");
+    }
+
+    @Override
+    public void println(String x) {
+      proxy.buffer().writeLine(x != null ? x : "null", CellExecutionContext.current());
+    }
+
+    @Override
+    public void println(Object x) {
+      println(String.valueOf(x));
     }
-  }
 
+    @Override
+    public void println(char[] x) {
+      println(new String(x));
+    }
+
+    @Override
+    public void println(char x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public void println(int x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public void println(long x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public void println(double x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public void println(float x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public void println(boolean x) {
+      println(String.valueOf(x));
+    }
+
+    @Override
+    public PrintStream append(CharSequence csq) {
+      print(String.valueOf(csq));
+      return this;
+    }
+  }
 }
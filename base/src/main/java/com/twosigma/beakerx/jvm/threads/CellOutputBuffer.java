@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Output of one thread to stdout or stderr. Bytes are decoded with a reusable decoder which keeps
+ * incomplete UTF-8 sequences for the next write, text collects in a reusable builder and is handed over
+ * to the {@link Sink} on a newline, when {@link #FLUSH_SIZE} is reached, or by a timer.
+ * <p>
+ * Only the owning thread writes; the lock is taken by the timer flush, so it is practically uncontended.
+ */
+class CellOutputBuffer {
+
+  static final int FLUSH_SIZE = 8192;
+  private static final int BYTES = 1024;
+
+  interface Sink {
+    void deliver(boolean isOut, CellExecutionContext context, String text);
+
+    void flushLater(CellOutputBuffer buffer);
+  }
+
+  private final boolean isOut;
+  private final Sink sink;
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+  private final ByteBuffer bytes = ByteBuffer.allocate(BYTES);
+  private final CharBuffer chars = CharBuffer.allocate(BYTES);
+  private final StringBuilder pending = new StringBuilder();
+  private CellExecutionContext target;
+  private long pendingSinceNanos;
+  private boolean scheduled;
+
+  CellOutputBuffer(boolean isOut, Sink sink) {
+    this.isOut = isOut;
+    this.sink = sink;
+  }
+
+  synchronized void write(int b, CellExecutionContext context) {
+    switchTarget(context);
+    int from = pending.length();
+    bytes.put((byte) b);
+    decode(false);
+    appended(from);
+  }
+
+  synchronized void write(byte[] b, int off, int len, CellExecutionContext context) {
+    switchTarget(context);
+    int from = pending.length();
+    while (len > 0) {
+      int n = Math.min(len, bytes.remaining());
+      bytes.put(b, off, n);
+      off += n;
+      len -= n;
+      decode(false);
+    }
+    appended(from);
+  }
+
+  synchronized void write(CharSequence text, CellExecutionContext context) {
+    switchTarget(context);
+    if (bytes.position() > 0) {
+      decode(true);
+    }
+    int from = pending.length();
+    pending.append(text);
+    appended(from);
+  }
+
+  synchronized void writeLine(CharSequence text, CellExecutionContext context) {
+    switchTarget(context);
+    if (bytes.position() > 0) {
+      decode(true);
+    }
+    pending.append(text).append(System.lineSeparator());
+    flush();
+  }
+
+  synchronized void flush() {
+    if (pending.length() > 0) {
+      String text = pending.toString();
+      pending.setLength(0);
+      sink.deliver(isOut, target, text);
+    }
+    if (bytes.position() == 0) {
+      // nothing left for the cell, the buffer lives as long as its (possibly pooled) thread
+      target = null;
+    }
+  }
+
+  /**
+   * @return true when the buffer still waits for a timed flush
+   */
+  synchronized boolean flushIfOlderThan(long nanos) {
+    if (pending.length() == 0) {
+      flush();
+      scheduled = false;
+      return false;
+    }
+    if (System.nanoTime() - pendingSinceNanos >= nanos) {
+      flush();
+      scheduled = false;
+      return false;
+    }
+    return true;
+  }
+
+  private void switchTarget(CellExecutionContext context) {
+    if (target != context) {
+      flush();
+      target = context;
+    }
+  }
+
+  private void decode(boolean endOfInput) {
+    bytes.flip();
+    CoderResult result;
+    do {
+      result = decoder.decode(bytes, chars, endOfInput);
+      drainChars();
+    } while (result.isOverflow());
+    if (endOfInput) {
+      decoder.flush(chars);
+      drainChars();
+      decoder.reset();
+    }
+    bytes.compact();
+  }
+
+  private void drainChars() {
+    chars.flip();
+    pending.append(chars);
+    chars.clear();
+  }
+
+  private void appended(int from) {
+    if (pending.length() >= FLUSH_SIZE || containsNewLine(from)) {
+      flush();
+    } else if (pending.length() > 0) {
+      if (from == 0) {
+        pendingSinceNanos = System.nanoTime();
+      }
+      if (!scheduled) {
+        scheduled = true;
+        sink.flushLater(this);
+      }
+    }
+  }
+
+  private boolean containsNewLine(int from) {
+    for (int i = pending.length() - 1; i >= from; i--) {
+      if (pending.charAt(i) == '\n') {
+        return true;
+      }
+    }
+    return false;
+  }
+}
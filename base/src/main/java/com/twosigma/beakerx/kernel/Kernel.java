@@ -27,6 +27,7 @@ import com.twosigma.beakerx.handler.Handler;
 import com.twosigma.beakerx.handler.KernelHandler;
 import com.twosigma.beakerx.inspect.InspectResult;
 import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
 import com.twosigma.beakerx.kernel.comm.Comm;
 import com.twosigma.beakerx.kernel.handler.CommOpenHandler;
 import com.twosigma.beakerx.kernel.handler.ExecuteRequestHandler;
@@ -35,6 +36,7 @@ import com.twosigma.beakerx.kernel.magic.command.MagicCommandType;
 import com.twosigma.beakerx.kernel.msg.JupyterMessages;
 import com.twosigma.beakerx.kernel.msg.MessageCreator;
 import com.twosigma.beakerx.kernel.restserver.BeakerXServer;
+import com.twosigma.beakerx.kernel.threads.AsyncExecutionResultSender;
 import com.twosigma.beakerx.kernel.threads.ExecutionResultSender;
 import com.twosigma.beakerx.kernel.threads.ResultSender;
 import com.twosigma.beakerx.message.Message;
@@ -87,7 +89,7 @@ public abstract class Kernel implements KernelFunctionality {
     this.commRepository = configuration.getCommRepository();
     this.beakerXServer = configuration.getBeakerXServer();
     this.beakerXJson = configuration.getBeakerXJson();
-    this.executionResultSender = new ExecutionResultSender(this, MessageCreator.get());
+    this.executionResultSender = AsyncExecutionResultSender.wrap(new ExecutionResultSender(this, MessageCreator.get()));
     this.evaluator = evaluator;
     this.handlers = new KernelHandlers(this, getCommOpenHandler(this), getKernelInfoHandler(this));
     this.magicKernels = new HashMap<>();
@@ -139,6 +141,7 @@ public abstract class Kernel implements KernelFunctionality {
     this.evaluator.exit();
     this.handlers.exit();
     this.executionResultSender.exit();
+    ExecutionResources.shutdown();
     this.closeKernelAction.close();
   }
 
@@ -179,6 +182,9 @@ public abstract class Kernel implements KernelFunctionality {
 
   @Override
   public void cancelExecution(GroupName groupName) {
+    if (handlers.getExecuteRequestHandler().cancelQueued(groupName)) {
+      return;
+    }
     evaluator.cancelExecution(groupName);
   }
 
@@ -214,6 +220,11 @@ public abstract class Kernel implements KernelFunctionality {
     return this.kernelSockets.sendStdIn(message);
   }
 
+  @Override
+  public boolean awaitPublishCapacity(long timeoutMillis) {
+    return this.kernelSockets.awaitPublishCapacity(timeoutMillis);
+  }
+
   public Handler<Message> getHandler(JupyterMessages type) {
     return handlers.get(type);
   }
@@ -20,40 +20,59 @@ import com.twosigma.beakerx.kernel.KernelFunctionality;
 import com.twosigma.beakerx.kernel.MagicKernelManager;
 import com.twosigma.beakerx.kernel.comm.Comm;
 import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.util.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import static com.twosigma.beakerx.handler.KernelHandlerWrapper.wrapBusyIdle;
+import static com.twosigma.beakerx.handler.KernelHandlerWrapper.wrapCommBusyIdle;
 import static com.twosigma.beakerx.kernel.comm.Comm.COMM_ID;
 
 public class CommMsgHandler extends KernelHandler<Message> {
 
   private final static Logger logger = LoggerFactory.getLogger(CommMsgHandler.class);
+  private static final String UNKNOWN_TARGET = "undefined";
+
+  private final Map<String, LatencyHistogram> latencyByTarget = new ConcurrentHashMap<>();
 
   public CommMsgHandler(final KernelFunctionality kernel) {
     super(kernel);
   }
 
   public void handle(Message message) {
-    wrapBusyIdle(kernel, message, () -> {
+    wrapCommBusyIdle(kernel, message, () -> {
+      long start = System.nanoTime();
+      String target = UNKNOWN_TARGET;
       try {
         kernel.startEvaluation();
-        handleMsg(message);
+        target = handleMsg(message);
       } finally {
         kernel.endEvaluation();
+        latencyByTarget.computeIfAbsent(target, LatencyHistogram::new).recordSince(start);
       }
     });
   }
 
-  private void handleMsg(Message message) {
+  /**
+   * Time spent handling comm messages, per comm target name.
+   */
+  public Map<String, LatencyHistogram> getLatencyByTarget() {
+    return Collections.unmodifiableMap(latencyByTarget);
+  }
+
+  private String handleMsg(Message message) {
     Map<String, Serializable> commMap = message.getContent();
     String commId = getString(commMap, COMM_ID);
     Comm comm = kernel.getComm(commId);
-    logger.debug("Comm message handling, target name: " + (comm != null ? comm.getTargetName() : "undefined"));
+    String target = comm != null && comm.getTargetName() != null ? comm.getTargetName() : UNKNOWN_TARGET;
+    if (logger.isDebugEnabled()) {
+      logger.debug("Comm message handling, target name: " + target);
+    }
     if (comm != null) {
       comm.handleMsg(message);
     } else {
@@ -62,11 +81,12 @@ public class CommMsgHandler extends KernelHandler<Message> {
         List<Message> messages = magicKernelManager.handleMsg(message);
         if (!messages.isEmpty()) {
           kernel.publish(messages);
-          return;
+          return target;
         }
       }
       logger.warn("No such comm: " + getString(commMap, COMM_ID));
     }
+    return target;
   }
 
   public static String getString(Map<String, Serializable> map, String name) {
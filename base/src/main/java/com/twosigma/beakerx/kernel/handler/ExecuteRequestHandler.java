@@ -15,67 +15,94 @@
  */
 package com.twosigma.beakerx.kernel.handler;
 
-import com.twosigma.beakerx.NamespaceClient;
 import com.twosigma.beakerx.evaluator.SimpleEvaluationObjectFactory;
 import com.twosigma.beakerx.handler.KernelHandler;
 import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
 import com.twosigma.beakerx.kernel.Code;
+import com.twosigma.beakerx.kernel.GroupName;
 import com.twosigma.beakerx.kernel.KernelFunctionality;
 import com.twosigma.beakerx.kernel.magic.command.CodeFactory;
 import com.twosigma.beakerx.kernel.msg.MessageCreator;
 import com.twosigma.beakerx.message.Header;
 import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.util.LatencyHistogram;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.twosigma.beakerx.kernel.msg.JupyterMessages.EXECUTE_INPUT;
 import static java.util.Collections.singletonList;
 
 /**
  * Does the actual work of executing user code.
+ * <p>
+ * Cells wait in a priority queue and run one at a time: interactive cells go ahead of cells sent with
+ * {@code "beakerx_priority": "batch"} metadata. Cells sent with {@code "beakerx_concurrent": true}
+ * metadata skip the queue and run next to it. Every cell runs in its own {@link GroupName}, generated or
+ * taken from {@code "beakerx_group"} metadata, so it can be cancelled before it starts as well as while it runs.
  *
  * @author konst
  */
 public class ExecuteRequestHandler extends KernelHandler<Message> {
 
+  public static final String PRIORITY = "beakerx_priority";
+  public static final String CONCURRENT = "beakerx_concurrent";
+  public static final String GROUP = "beakerx_group";
+
   private final SimpleEvaluationObjectFactory seof;
-  private int executionCount;
-  private ExecutorService executorService = Executors.newFixedThreadPool(1);
+  private final AtomicInteger executionCount = new AtomicInteger();
+  private final AtomicLong sequence = new AtomicLong();
+  private final PriorityBlockingQueue<Runnable> queue = new PriorityBlockingQueue<>();
+  private final ThreadPoolExecutor executorService = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, queue);
+  private final ExecutorService concurrentExecutorService = ExecutionResources.executor(ExecutionResources.CONCURRENT_CELLS);
+  private final Set<ScheduledCell> running = ConcurrentHashMap.newKeySet();
+  private final LatencyHistogram queueWait = new LatencyHistogram("queueWait");
 
   public ExecuteRequestHandler(KernelFunctionality kernel) {
     super(kernel);
-    this.executionCount = 0;
     this.seof = new SimpleEvaluationObjectFactory();
   }
 
-  private FutureTask<String> current;
-
   @Override
   public void handle(Message message) {
     try {
-      executorService.execute(() -> handleMsg(message));
+      ScheduledCell cell = new ScheduledCell(message, sequence.getAndIncrement(), this::handleMsg);
+      if (cell.isConcurrent()) {
+        concurrentExecutorService.execute(cell);
+      } else {
+        executorService.execute(cell);
+      }
     } catch (Exception e) {
       handleException(message, e);
     }
   }
 
-
-  private void handleMsg(Message message) {
-    current = new FutureTask<>(() -> {
-      try {
-        runCode(message);
-      } catch (Exception e) {
-        handleException(message, e);
-      }
-      return "ok";
-    });
-    current.run();
+  private void handleMsg(ScheduledCell cell) {
+    queueWait.recordSince(cell.getEnqueuedNanos());
+    running.add(cell);
+    try {
+      new CellExecutionContext(cell.getGroupName()).call(() -> {
+        runCode(cell.getMessage());
+        return null;
+      });
+    } catch (Exception e) {
+      handleException(cell.getMessage(), e);
+    } finally {
+      running.remove(cell);
+    }
   }
 
   private void runCode(Message message) {
@@ -84,15 +111,11 @@ public class ExecuteRequestHandler extends KernelHandler<Message> {
       kernel.send(abortedReply);
     } else {
       kernel.sendBusyMessage(message);
-      executionCount += 1;
+      int count = executionCount.incrementAndGet();
       String codeString = takeCodeFrom(message);
-      announceTheCode(message, codeString);
+      announceTheCode(message, codeString, count);
       Code code = new CodeFactory(MessageCreator.get(), seof).create(codeString, message, kernel);
-      
-      NamespaceClient.getBeakerX().setCurrentMessage(message);
-      NamespaceClient.getBeakerX().setExecutionCount(executionCount);
-      
-      code.execute(kernel, executionCount);
+      code.execute(kernel, count);
       kernel.sendIdleMessage(message);
     }
   }
@@ -105,40 +128,66 @@ public class ExecuteRequestHandler extends KernelHandler<Message> {
     return code;
   }
 
-  private void announceTheCode(Message message, String code) {
+  private void announceTheCode(Message message, String code, int count) {
     Message reply = new Message(new Header(EXECUTE_INPUT, message.getHeader().getSession()));
     reply.setParentHeader(message.getHeader());
     reply.setIdentities(message.getIdentities());
     Map<String, Serializable> map1 = new HashMap<>(2);
-    map1.put("execution_count", executionCount);
+    map1.put("execution_count", count);
     map1.put("code", code);
     reply.setContent(map1);
     kernel.publish(singletonList(reply));
   }
 
   private void handleException(Message message, Exception e) {
-    EvaluationObject seo = seof.createSeo(takeCodeFrom(message), kernel, message, executionCount);
+    EvaluationObject seo = seof.createSeo(takeCodeFrom(message), kernel, message, executionCount.get());
     seo.error(e);
   }
 
+  /**
+   * Removes a cell which has not started yet from the queue and replies to it as aborted.
+   *
+   * @return false when no queued cell belongs to the group
+   */
+  public boolean cancelQueued(GroupName groupName) {
+    for (Runnable queued : queue) {
+      ScheduledCell cell = (ScheduledCell) queued;
+      if (cell.getGroupName().equals(groupName) && queue.remove(cell)) {
+        kernel.send(MessageCreator.buildAbortedReply(cell.getMessage()));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int getQueueSize() {
+    return queue.size();
+  }
+
+  public int getRunningCount() {
+    return running.size();
+  }
+
+  /**
+   * Time cells spent in the queue before they started, one sample per cell.
+   */
+  public LatencyHistogram getQueueWait() {
+    return queueWait;
+  }
+
   @Override
   public void exit() {
   }
 
+  /**
+   * Replies to all queued cells as aborted. Running cells are stopped by the evaluator; this runs on the
+   * control thread, so it does not wait for them.
+   */
   public void interruptKernel() {
-    waitForTheEndOfTheCurrentCell();
-    List<Runnable> cells = executorService.shutdownNow();
-    cells.forEach(Runnable::run);
-    executorService = Executors.newFixedThreadPool(1);
-  }
-
-  private void waitForTheEndOfTheCurrentCell() {
-    if (current != null) {
-      try {
-        current.get();
-      } catch (Exception e) {
-        throw new RuntimeException(e);
-      }
+    List<Runnable> cells = new ArrayList<>();
+    queue.drainTo(cells);
+    for (Runnable queued : cells) {
+      kernel.send(MessageCreator.buildAbortedReply(((ScheduledCell) queued).getMessage()));
     }
   }
 }
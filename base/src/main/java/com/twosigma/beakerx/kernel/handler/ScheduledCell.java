@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.handler;
+
+import com.twosigma.beakerx.kernel.GroupName;
+import com.twosigma.beakerx.message.Message;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.FutureTask;
+
+/**
+ * An execute_request waiting in, or taken from, the {@link ExecuteRequestHandler} queue.
+ * Cells are ordered by priority and then by arrival.
+ */
+class ScheduledCell implements Runnable, Comparable<ScheduledCell> {
+
+  enum Priority {
+    INTERACTIVE,
+    BATCH
+  }
+
+  private final Message message;
+  private final GroupName groupName;
+  private final Priority priority;
+  private final boolean concurrent;
+  private final long sequence;
+  private final long enqueuedNanos;
+  private final FutureTask<String> task;
+
+  interface Body {
+    void run(ScheduledCell cell);
+  }
+
+  ScheduledCell(Message message, long sequence, Body body) {
+    this.message = message;
+    this.groupName = groupNameOf(message);
+    this.priority = priorityOf(message);
+    this.concurrent = concurrentOf(message);
+    this.sequence = sequence;
+    this.enqueuedNanos = System.nanoTime();
+    this.task = new FutureTask<>(() -> {
+      body.run(this);
+      return "ok";
+    });
+  }
+
+  @Override
+  public void run() {
+    task.run();
+  }
+
+  private static Priority priorityOf(Message message) {
+    Object priority = metadata(message).get(ExecuteRequestHandler.PRIORITY);
+    if (priority != null && Priority.BATCH.name().equalsIgnoreCase(priority.toString())) {
+      return Priority.BATCH;
+    }
+    return Priority.INTERACTIVE;
+  }
+
+  private static GroupName groupNameOf(Message message) {
+    Object groupName = metadata(message).get(ExecuteRequestHandler.GROUP);
+    return groupName != null ? GroupName.of(groupName.toString()) : GroupName.generate();
+  }
+
+  private static boolean concurrentOf(Message message) {
+    Object concurrent = metadata(message).get(ExecuteRequestHandler.CONCURRENT);
+    return concurrent != null && Boolean.parseBoolean(concurrent.toString());
+  }
+
+  private static Map<String, Serializable> metadata(Message message) {
+    Map<String, Serializable> metadata = message.getMetadata();
+    return metadata != null ? metadata : Collections.emptyMap();
+  }
+
+  Message getMessage() {
+    return message;
+  }
+
+  GroupName getGroupName() {
+    return groupName;
+  }
+
+  Priority getPriority() {
+    return priority;
+  }
+
+  boolean isConcurrent() {
+    return concurrent;
+  }
+
+  long getEnqueuedNanos() {
+    return enqueuedNanos;
+  }
+
+  @Override
+  public int compareTo(ScheduledCell other) {
+    int byPriority = priority.compareTo(other.priority);
+    return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+  }
+}
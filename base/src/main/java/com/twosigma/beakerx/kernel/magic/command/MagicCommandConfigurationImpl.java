@@ -31,6 +31,7 @@ import com.twosigma.beakerx.kernel.magic.command.functionality.ClasspathAddMvnMa
 import com.twosigma.beakerx.kernel.magic.command.functionality.ClasspathAddRepoMagicCommand;
 import com.twosigma.beakerx.kernel.magic.command.functionality.ClasspathResetMagicCommand;
 import com.twosigma.beakerx.kernel.magic.command.functionality.ClasspathShowMagicCommand;
+import com.twosigma.beakerx.kernel.magic.command.functionality.ExecutorsMagicCommand;
 import com.twosigma.beakerx.kernel.magic.command.functionality.FileService;
 import com.twosigma.beakerx.kernel.magic.command.functionality.HtmlAliasMagicCommand;
 import com.twosigma.beakerx.kernel.magic.command.functionality.HtmlMagicCommand;
@@ -90,6 +91,7 @@ public class MagicCommandConfigurationImpl implements MagicCommandConfiguration
                     HTML(),
                     bash(),
                     lsmagic(magicCommandTypes),
+                    executors(),
                     addJar(kernel),
                     addJarByMvn(kernel),
                     addJarByMvnCell(kernel),
@@ -195,6 +197,10 @@ public class MagicCommandConfigurationImpl implements MagicCommandConfiguration
     return new MagicCommandType(LsMagicCommand.LSMAGIC, "", new LsMagicCommand(magicCommandTypes));
   }
 
+  private MagicCommandType executors() {
+    return new MagicCommandType(ExecutorsMagicCommand.EXECUTORS, "", new ExecutorsMagicCommand());
+  }
+
   private MagicCommandType bash() {
     return new MagicCommandType(BashMagicCommand.BASH, "", new BashMagicCommand());
   }
@@ -18,6 +18,7 @@ package com.twosigma.beakerx.kernel.magic.command.functionality;
 import com.twosigma.beakerx.TryResult;
 import com.twosigma.beakerx.evaluator.EvaluationObjectFactory;
 import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
 import com.twosigma.beakerx.kernel.ExecutionOptions;
 import com.twosigma.beakerx.kernel.GroupName;
 import com.twosigma.beakerx.kernel.KernelFunctionality;
@@ -36,7 +37,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import static com.twosigma.beakerx.kernel.CodeFrame.handleResult;
 import static com.twosigma.beakerx.kernel.magic.command.outcome.MagicCommandOutcomeItem.Status.OK;
@@ -49,7 +50,7 @@ public class AsyncMagicCommand implements MagicCommandFunctionality {
   public static final String CANCEL_EXECUTION = "cancel/execution/";
   private KernelFunctionality kernel;
   private EvaluationObjectFactory objectFactory;
-  private ExecutorService executorService = Executors.newCachedThreadPool();
+  private ExecutorService executorService = ExecutionResources.executor(ExecutionResources.ASYNC);
   private AsyncMagicCommandOptions asyncMagicCommandOptions;
 
   public AsyncMagicCommand(KernelFunctionality kernel, EvaluationObjectFactory objectFactory) {
@@ -77,6 +78,16 @@ public class AsyncMagicCommand implements MagicCommandFunctionality {
     Message parentMessage = param.getCode().getMessage();
     HBox panel = createCancelPanel(parentMessage, groupName.asString());
     panel.display();
+    try {
+      submit(param, optionsResult, groupName, parentMessage, panel);
+    } catch (RejectedExecutionException e) {
+      panel.close();
+      return new MagicCommandOutput(MagicCommandOutput.Status.ERROR, e.getMessage(), MessageCreator.get());
+    }
+    return new MagicCommandOutput(OK, MessageCreator.get());
+  }
+
+  private void submit(MagicCommandExecutionParam param, AsyncMagicCommandOptions.OptionsResult optionsResult, GroupName groupName, Message parentMessage, HBox panel) {
     executorService.submit(() -> {
       int executionCount = param.getExecutionCount();
       EvaluationObject seo = objectFactory.createSeo(param.getCommandCodeBlock(), kernel, parentMessage, executionCount);
@@ -87,7 +98,6 @@ public class AsyncMagicCommand implements MagicCommandFunctionality {
         optionsResult.options().forEach(AsyncOptionCommand::run);
       }
     });
-    return new MagicCommandOutput(OK, MessageCreator.get());
   }
 
   private String[] getOptions(MagicCommandExecutionParam param) {
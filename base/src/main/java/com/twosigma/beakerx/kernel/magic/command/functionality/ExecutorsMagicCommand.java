@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.magic.command.functionality;
+
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
+import com.twosigma.beakerx.jvm.threads.ManagedExecutor;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandExecutionParam;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandFunctionality;
+import com.twosigma.beakerx.kernel.magic.command.outcome.MagicCommandOutcomeItem;
+import com.twosigma.beakerx.kernel.magic.command.outcome.MagicCommandOutput;
+import com.twosigma.beakerx.kernel.msg.MessageCreator;
+
+import java.util.Collection;
+
+public class ExecutorsMagicCommand implements MagicCommandFunctionality {
+
+  public static final String EXECUTORS = "%executors";
+
+  @Override
+  public String getMagicCommandName() {
+    return EXECUTORS;
+  }
+
+  @Override
+  public MagicCommandOutcomeItem execute(MagicCommandExecutionParam param) {
+    return new MagicCommandOutput(MagicCommandOutput.Status.OK, report(ExecutionResources.getExecutors()), MessageCreator.get());
+  }
+
+  static String report(Collection<ManagedExecutor> executors) {
+    if (executors.isEmpty()) {
+      return "No executors started yet.";
+    }
+    StringBuilder report = new StringBuilder(String.format("%-20s %8s %8s %10s %8s %12s %10s%n",
+            "executor", "active", "queued", "completed", "rejected", "maxThreads", "maxQueued"));
+    executors.forEach(e -> report.append(String.format("%-20s %8d %8d %10d %8d %12d %10d%n",
+            e.getName(), e.getActiveCount(), e.getQueuedCount(), e.getCompletedCount(), e.getRejectedCount(),
+            e.getMaxThreads(), e.getQueueCapacity())));
+    return report.toString();
+  }
+}
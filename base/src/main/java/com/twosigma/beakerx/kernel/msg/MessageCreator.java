@@ -34,6 +34,7 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.stream.Collectors;
 
 import static com.twosigma.beakerx.kernel.Utils.timestamp;
@@ -218,11 +219,26 @@ public class MessageCreator implements MessageCreatorService {
     return seo.getConsoleOutput() != null && !seo.getConsoleOutput().isEmpty();
   }
 
+  /**
+   * Publishes only the text queued since the previous update. Consecutive writes to the same stream
+   * are merged into one message, so a burst of writes costs one message and one copy of the new text.
+   */
   private List<MessageHolder> createConsoleResult(EvaluationObject seo, Message message) {
     List<MessageHolder> result = new ArrayList<>();
-    while (!seo.getConsoleOutput().isEmpty()) {
-      ConsoleOutput co = seo.getConsoleOutput().poll(); //FIFO : peek to see, poll -- removes the data
-      result.add(new MessageHolder(SocketEnum.IOPUB_SOCKET, buildOutputMessage(message, co.getText(), co.isError())));
+    Queue<ConsoleOutput> consoleOutput = seo.getConsoleOutput();
+    StringBuilder text = new StringBuilder();
+    boolean isError = false;
+    ConsoleOutput co;
+    while ((co = consoleOutput.poll()) != null) { //FIFO : poll removes the data
+      if (co.isError() != isError && text.length() > 0) {
+        result.add(new MessageHolder(SocketEnum.IOPUB_SOCKET, buildOutputMessage(message, text.toString(), isError)));
+        text.setLength(0);
+      }
+      isError = co.isError();
+      text.append(co.getText());
+    }
+    if (text.length() > 0) {
+      result.add(new MessageHolder(SocketEnum.IOPUB_SOCKET, buildOutputMessage(message, text.toString(), isError)));
     }
     return result;
   }
@@ -284,15 +300,15 @@ public class MessageCreator implements MessageCreatorService {
   }
 
   private static String outputdataResult(List<Object> outputdata) {
-    String result = "";
+    StringBuilder result = new StringBuilder();
     for (Object o : outputdata) {
       if (o instanceof SimpleEvaluationObject.EvaluationStdOutput) {
-        result += "\n" + (((SimpleEvaluationObject.EvaluationStdOutput) o).payload);
+        result.append("\n").append(((SimpleEvaluationObject.EvaluationStdOutput) o).payload);
       } else if (o instanceof SimpleEvaluationObject.EvaluationStdError) {
-        result += "\n" + (((SimpleEvaluationObject.EvaluationStdError) o).payload);
+        result.append("\n").append(((SimpleEvaluationObject.EvaluationStdError) o).payload);
       }
     }
-    return result;
+    return result.toString();
   }
 
   private static boolean showResult(EvaluationObject seo) {
@@ -17,6 +17,7 @@ package com.twosigma.beakerx.security;
 
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -24,19 +25,24 @@ import java.util.stream.Collectors;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
-import org.apache.commons.codec.binary.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.twosigma.beakerx.util.Preconditions.checkNotNull;
 
+/**
+ * Signs and verifies messages with HmacSHA256. Each thread keeps its own initialised {@link Mac},
+ * so there is no provider lookup or key schedule per message.
+ */
 public class HashedMessageAuthenticationCode {
 
   private static final String TYPE = "HmacSHA256";
   private static final String INVALID_HMAC_EXCEPTION = "Invalid key exception while converting to " + TYPE;
+  private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
   private static Logger logger = LoggerFactory.getLogger(HashedMessageAuthenticationCode.class);
 
   private SecretKeySpec spec;
+  private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
 
   public HashedMessageAuthenticationCode(String key) {
     checkNotNull(key);
@@ -50,12 +56,44 @@ public class HashedMessageAuthenticationCode {
   }
 
   public String signBytes(List<byte[]> msg) {
+    return new String(signToHex(msg), StandardCharsets.US_ASCII);
+  }
+
+  /**
+   * @return lowercase hex digest as ASCII bytes, ready to be sent as the signature frame
+   */
+  public byte[] signToHex(List<byte[]> msg) {
+    Mac mac = macs.get();
+    mac.reset();
+    msg.forEach(mac::update);
+    return toHexBytes(mac.doFinal());
+  }
+
+  /**
+   * Compares the expected hex signature with the digest of {@code msg} in constant time.
+   */
+  public boolean verify(byte[] expectedHexSignature, List<byte[]> msg) {
+    return MessageDigest.isEqual(signToHex(msg), expectedHexSignature);
+  }
+
+  public String toHex(byte[] buffer) {
+    return new String(toHexBytes(buffer), StandardCharsets.US_ASCII);
+  }
+
+  private static byte[] toHexBytes(byte[] buffer) {
+    byte[] hex = new byte[buffer.length * 2];
+    for (int i = 0; i < buffer.length; i++) {
+      hex[2 * i] = HEX[(buffer[i] >> 4) & 0xF];
+      hex[2 * i + 1] = HEX[buffer[i] & 0xF];
+    }
+    return hex;
+  }
+
+  private Mac newMac() {
     try {
-      final Mac mac = Mac.getInstance(TYPE);
+      Mac mac = Mac.getInstance(TYPE);
       mac.init(spec);
-      msg.forEach(it -> mac.update(it));
-      byte[] digest = mac.doFinal();
-      return toHex(digest);
+      return mac;
     } catch (InvalidKeyException e) {
       throw new RuntimeException(INVALID_HMAC_EXCEPTION, e);
     } catch (NoSuchAlgorithmException e) {
@@ -63,8 +101,4 @@ public class HashedMessageAuthenticationCode {
     }
   }
 
-  public String toHex(byte[] buffer) {
-    return Hex.encodeHexString(buffer);
-  }
-
 }
@@ -0,0 +1,365 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.socket;
+
+import com.twosigma.beakerx.kernel.msg.JupyterMessages;
+import com.twosigma.beakerx.message.Header;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.twosigma.beakerx.kernel.msg.MessageCreator.NAME;
+import static com.twosigma.beakerx.kernel.msg.MessageCreator.TEXT;
+import static com.twosigma.beakerx.util.Preconditions.checkNotNull;
+
+/**
+ * Bounded multi-producer queue in front of the IOPub socket. A snapshot of each message is queued,
+ * so callers may reuse or mutate them once {@link #publish} returns; a single writer thread encodes
+ * and sends, so evaluator threads never serialize, sign or wait on the socket.
+ */
+public class IOPubPublisher<E> {
+
+  private static final Logger logger = LoggerFactory.getLogger(IOPubPublisher.class);
+
+  public static final String QUEUE_SIZE_PROPERTY = "beakerx.iopub.queue_size";
+  public static final String BACKPRESSURE_PROPERTY = "beakerx.iopub.backpressure";
+  public static final int DEFAULT_QUEUE_SIZE = 10_000;
+  private static final int DRAIN_BATCH = 256;
+
+  public enum Backpressure {
+    /**
+     * Publishing thread waits until the writer makes room.
+     */
+    BLOCK,
+    /**
+     * When full, the oldest queued stream message is dropped; other messages still block.
+     */
+    DROP_OLDEST_STREAM,
+    /**
+     * Stream text is appended to a queued stream message of the same cell and name when possible.
+     */
+    COALESCE
+  }
+
+  private final Function<Message, E> encoder;
+  private final Consumer<E> sink;
+  private final int capacity;
+  private final Backpressure backpressure;
+  private final ArrayDeque<Entry> queue;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+  private final LatencyHistogram publishLatency = new LatencyHistogram("iopub");
+  private final AtomicLong published = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final Thread writer;
+  private volatile boolean closed = false;
+
+  public IOPubPublisher(Function<Message, E> encoder, Consumer<E> sink, int capacity, Backpressure backpressure) {
+    this.encoder = checkNotNull(encoder);
+    this.sink = checkNotNull(sink);
+    this.capacity = capacity;
+    this.backpressure = checkNotNull(backpressure);
+    this.queue = new ArrayDeque<>(Math.min(capacity, DRAIN_BATCH));
+    this.writer = new Thread(this::drain, "beakerx-iopub");
+    this.writer.setDaemon(true);
+  }
+
+  public static <E> IOPubPublisher<E> fromSystemProperties(Function<Message, E> encoder, Consumer<E> sink) {
+    int size = Integer.getInteger(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE);
+    String policy = System.getProperty(BACKPRESSURE_PROPERTY, Backpressure.COALESCE.name());
+    return new IOPubPublisher<>(encoder, sink, size, Backpressure.valueOf(policy.toUpperCase()));
+  }
+
+  public void start() {
+    writer.start();
+  }
+
+  public void publish(List<Message> messages) {
+    List<Entry> entries = new ArrayList<>(messages.size());
+    for (Message message : messages) {
+      entries.add(new Entry(snapshot(message)));
+    }
+    lock.lock();
+    try {
+      for (Entry entry : entries) {
+        enqueue(entry);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void enqueue(Entry entry) throws InterruptedException {
+    if (closed) {
+      return;
+    }
+    if (backpressure == Backpressure.COALESCE && coalesceWithTail(entry)) {
+      coalesced.incrementAndGet();
+      return;
+    }
+    while (queue.size() >= capacity && !closed) {
+      if (backpressure == Backpressure.DROP_OLDEST_STREAM && dropOldestStream()) {
+        dropped.incrementAndGet();
+        break;
+      }
+      notFull.await();
+    }
+    queue.addLast(entry);
+    notEmpty.signal();
+  }
+
+  private boolean coalesceWithTail(Entry entry) {
+    Entry tail = queue.peekLast();
+    if (tail == null || !tail.stream || !entry.stream) {
+      return false;
+    }
+    Map<String, Serializable> tailContent = tail.message.getContent();
+    Map<String, Serializable> content = entry.message.getContent();
+    if (!Objects.equals(tailContent.get(NAME), content.get(NAME)) ||
+            !Objects.equals(msgId(tail.message.getParentHeader()), msgId(entry.message.getParentHeader()))) {
+      return false;
+    }
+    if (tail.text == null) {
+      tail.text = new StringBuilder(String.valueOf(tailContent.get(TEXT)));
+    }
+    tail.text.append(content.get(TEXT));
+    return true;
+  }
+
+  private boolean dropOldestStream() {
+    Iterator<Entry> it = queue.iterator();
+    while (it.hasNext()) {
+      if (it.next().stream) {
+        it.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void drain() {
+    List<Entry> batch = new ArrayList<>(DRAIN_BATCH);
+    while (true) {
+      lock.lock();
+      try {
+        while (queue.isEmpty() && !closed) {
+          notEmpty.await();
+        }
+        if (queue.isEmpty()) {
+          return;
+        }
+        while (!queue.isEmpty() && batch.size() < DRAIN_BATCH) {
+          batch.add(queue.pollFirst());
+        }
+        notFull.signalAll();
+      } catch (InterruptedException e) {
+        return;
+      } finally {
+        lock.unlock();
+      }
+      for (Entry entry : batch) {
+        send(entry);
+      }
+      batch.clear();
+    }
+  }
+
+  private void send(Entry entry) {
+    try {
+      if (entry.text != null) {
+        entry.message.getContent().put(TEXT, entry.text.toString());
+      }
+      sink.accept(encoder.apply(entry.message));
+      published.incrementAndGet();
+      publishLatency.recordSince(entry.enqueuedAt);
+    } catch (Exception e) {
+      logger.error("Error while publishing message on iopub", e);
+    }
+  }
+
+  /**
+   * Stops accepting messages and waits for the writer to flush what is already queued.
+   */
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      notEmpty.signalAll();
+      notFull.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    if (writer.isAlive()) {
+      try {
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /**
+   * Waits until the queue has drained below half its capacity, so producers that can buffer on
+   * their side slow down before {@link #publish} would have to block or drop.
+   *
+   * @return false if the queue was still above the low-water mark when the timeout elapsed
+   */
+  public boolean awaitCapacity(long timeoutMillis) {
+    long remaining = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    lock.lock();
+    try {
+      while (queue.size() > capacity / 2 && !closed) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = notFull.awaitNanos(remaining);
+      }
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getQueueDepth() {
+    lock.lock();
+    try {
+      return queue.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public LatencyHistogram getPublishLatency() {
+    return publishLatency;
+  }
+
+  public long getPublishedCount() {
+    return published.get();
+  }
+
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public Backpressure getBackpressure() {
+    return backpressure;
+  }
+
+  /**
+   * Copies the mutable parts of a message; the header is shared, as it is not changed once the
+   * message is built.
+   */
+  private static Message snapshot(Message message) {
+    Header header = message.getHeader();
+    String date = header.getDate();
+    Message copy = new Message(header, message.getIdentities() != null ? new ArrayList<>(message.getIdentities()) : null);
+    header.setDate(date);
+    copy.setParentHeader(message.getParentHeader());
+    copy.setMetadata(copyMap(message.getMetadata()));
+    copy.setContent(copyMap(message.getContent()));
+    if (message.getBuffers() != null) {
+      copy.setBuffers(new ArrayList<>(message.getBuffers()));
+    }
+    return copy;
+  }
+
+  private static Map<String, Serializable> copyMap(Map<String, Serializable> map) {
+    if (map == null) {
+      return null;
+    }
+    Map<String, Serializable> copy = new LinkedHashMap<>(map.size() * 2);
+    for (Map.Entry<String, Serializable> e : map.entrySet()) {
+      copy.put(e.getKey(), (Serializable) copyValue(e.getValue()));
+    }
+    return copy;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object copyValue(Object value) {
+    if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      for (Map.Entry<Object, Object> e : ((Map<Object, Object>) value).entrySet()) {
+        copy.put(e.getKey(), copyValue(e.getValue()));
+      }
+      return copy;
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>(((List<Object>) value).size());
+      for (Object item : (List<Object>) value) {
+        copy.add(copyValue(item));
+      }
+      return copy;
+    }
+    return value;
+  }
+
+  private static boolean isStream(Message message) {
+    return message.type() == JupyterMessages.STREAM && message.getContent() != null;
+  }
+
+  private static String msgId(Header header) {
+    return header != null ? header.getId() : null;
+  }
+
+  private static class Entry {
+    /**
+     * Snapshot of the published message, owned by the queue.
+     */
+    private final Message message;
+    private final boolean stream;
+    private final long enqueuedAt = System.nanoTime();
+    /**
+     * Text of coalesced stream messages, encoded once when the entry is sent.
+     */
+    private StringBuilder text;
+
+    private Entry(Message message) {
+      this.message = message;
+      this.stream = isStream(message);
+    }
+  }
+}
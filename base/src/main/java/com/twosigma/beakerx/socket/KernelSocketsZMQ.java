@@ -23,25 +23,18 @@ import com.twosigma.beakerx.kernel.SocketCloseAction;
 import com.twosigma.beakerx.kernel.msg.JupyterMessages;
 import com.twosigma.beakerx.message.Header;
 import com.twosigma.beakerx.message.Message;
-import com.twosigma.beakerx.message.MessageSerializer;
 import com.twosigma.beakerx.security.HashedMessageAuthenticationCode;
+import com.twosigma.beakerx.util.LatencyHistogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.zeromq.ZFrame;
 import org.zeromq.ZMQ;
 import org.zeromq.ZMsg;
 
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
 
 import static com.twosigma.beakerx.kernel.msg.JupyterMessages.SHUTDOWN_REPLY;
 import static com.twosigma.beakerx.kernel.msg.JupyterMessages.SHUTDOWN_REQUEST;
-import static com.twosigma.beakerx.message.MessageSerializer.toJson;
-import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 
 public class KernelSocketsZMQ extends KernelSockets {
@@ -49,10 +42,13 @@ public class KernelSocketsZMQ extends KernelSockets {
   public static final Logger logger = LoggerFactory.getLogger(KernelSocketsZMQ.class);
 
   public static final String DELIM = "<IDS|MSG>";
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+  private static final long JOIN_TIMEOUT_MILLIS = 5000;
 
   private KernelFunctionality kernel;
   private SocketCloseAction closeAction;
-  private HashedMessageAuthenticationCode hmac;
+  private MessageCodec codec;
+  private IOPubPublisher<ZMsg> iopubPublisher;
   private ZMQ.Socket hearbeatSocket;
   private ZMQ.Socket controlSocket;
   private ZMQ.Socket shellSocket;
@@ -60,15 +56,22 @@ public class KernelSocketsZMQ extends KernelSockets {
   private ZMQ.Socket stdinSocket;
   private ZMQ.Poller sockets;
   private ZMQ.Context context;
+  private Thread heartbeatThread;
+  private Thread controlThread;
+  private final LatencyHistogram heartbeatLatency = new LatencyHistogram("heartbeat");
+  private final LatencyHistogram shellLatency = new LatencyHistogram("shell");
+  private final LatencyHistogram controlLatency = new LatencyHistogram("control");
 
-  private boolean shutdownSystem = false;
+  private volatile boolean shutdownSystem = false;
 
   public KernelSocketsZMQ(KernelFunctionality kernel, Config configuration, SocketCloseAction closeAction) {
     this.closeAction = closeAction;
     this.kernel = kernel;
-    this.hmac = new HashedMessageAuthenticationCode(configuration.getKey());
+    this.codec = new MessageCodec(new HashedMessageAuthenticationCode(configuration.getKey()));
     this.context = ZMQ.context(1);
     configureSockets(configuration);
+    this.iopubPublisher = IOPubPublisher.fromSystemProperties(codec::encode, zmsg -> zmsg.send(iopubSocket));
+    this.iopubPublisher.start();
   }
 
   private void configureSockets(Config configuration) {
@@ -80,14 +83,12 @@ public class KernelSocketsZMQ extends KernelSockets {
     stdinSocket = getNewSocket(ZMQ.ROUTER, configuration.getStdin(), connection, context);
     shellSocket = getNewSocket(ZMQ.ROUTER, configuration.getShell(), connection, context);
 
-    sockets = new ZMQ.Poller(3);
-    sockets.register(hearbeatSocket, ZMQ.Poller.POLLIN);
+    sockets = new ZMQ.Poller(1);
     sockets.register(shellSocket, ZMQ.Poller.POLLIN);
-    sockets.register(controlSocket, ZMQ.Poller.POLLIN);
   }
 
   public void publish(List<Message> message) {
-    sendMsg(this.iopubSocket, message);
+    iopubPublisher.publish(message);
   }
 
   public void send(Message message) {
@@ -101,74 +102,37 @@ public class KernelSocketsZMQ extends KernelSockets {
 
   private synchronized void sendMsg(ZMQ.Socket socket, List<Message> messages) {
     if (!isShutdown()) {
-      messages.forEach(message -> {
-        String header = toJson(message.getHeader());
-        String parent = toJson(message.getParentHeader());
-        String meta = toJson(message.getMetadata());
-        String content = toJson(message.getContent());
-        String digest = hmac.sign(Arrays.asList(header, parent, meta, content));
-
-        ZMsg newZmsg = new ZMsg();
-        message.getIdentities().forEach(newZmsg::add);
-        newZmsg.add(DELIM);
-        newZmsg.add(digest.getBytes(StandardCharsets.UTF_8));
-        newZmsg.add(header.getBytes(StandardCharsets.UTF_8));
-        newZmsg.add(parent.getBytes(StandardCharsets.UTF_8));
-        newZmsg.add(meta.getBytes(StandardCharsets.UTF_8));
-        newZmsg.add(content.getBytes(StandardCharsets.UTF_8));
-        message.getBuffers().forEach(x -> newZmsg.add(x));
-        newZmsg.send(socket);
-      });
+      messages.forEach(message -> sendMessage(socket, message));
     }
   }
 
+  private void sendMessage(ZMQ.Socket socket, Message message) {
+    codec.encode(message).send(socket);
+  }
+
   private Message readMessage(ZMQ.Socket socket) {
     ZMsg zmsg = null;
-    Message message = null;
     try {
       zmsg = ZMsg.recvMsg(socket);
-      ZFrame[] parts = new ZFrame[zmsg.size()];
-      zmsg.toArray(parts);
-      byte[] uuid = parts[MessageParts.UUID].getData();
-      byte[] header = parts[MessageParts.HEADER].getData();
-      byte[] parent = parts[MessageParts.PARENT].getData();
-      byte[] metadata = parts[MessageParts.METADATA].getData();
-      byte[] content = parts[MessageParts.CONTENT].getData();
-      byte[] expectedSig = parts[MessageParts.HMAC].getData();
-
-      verifyDelim(parts[MessageParts.DELIM]);
-      verifySignatures(expectedSig, header, parent, metadata, content);
-
-      message = new Message(parse(header, Header.class));
-      if (uuid != null) {
-        message.getIdentities().add(uuid);
-      }
-      message.setParentHeader(parse(parent, Header.class));
-      message.setMetadata(parse(metadata, LinkedHashMap.class));
-      message.setContent(parse(content, LinkedHashMap.class));
-
+      return codec.decode(zmsg);
     } finally {
       if (zmsg != null) {
         zmsg.destroy();
       }
     }
-
-    return message;
   }
 
   @Override
   public void run() {
     try {
+      startHeartbeatThread();
+      startControlThread();
       while (!this.isShutdown()) {
-        sockets.poll();
-        if (isControlMsg()) {
-          handleControlMsg();
-        } else if (isHeartbeatMsg()) {
-          handleHeartbeat();
-        } else if (isShellMsg()) {
+        sockets.poll(POLL_TIMEOUT_MILLIS);
+        if (isShellMsg()) {
+          long start = System.nanoTime();
           handleShell();
-        } else {
-          logger.error("not handled message from sockets");
+          shellLatency.recordSince(start);
         }
       }
     } catch (Exception e) {
@@ -176,10 +140,93 @@ public class KernelSocketsZMQ extends KernelSockets {
     } catch (Error e) {
       logger.error(e.toString());
     } finally {
+      shutdown();
+      joinSocketThreads();
       close();
     }
   }
 
+  /**
+   * Heartbeats are echoed on their own thread so that a slow shell handler never delays them.
+   * Frames are sent back as received, without copying, like a zmq QUEUE device over one socket.
+   */
+  private void startHeartbeatThread() {
+    heartbeatThread = new Thread(() -> {
+      ZMQ.Poller poller = new ZMQ.Poller(1);
+      poller.register(hearbeatSocket, ZMQ.Poller.POLLIN);
+      while (!isShutdown()) {
+        poller.poll(POLL_TIMEOUT_MILLIS);
+        if (poller.pollin(0)) {
+          long start = System.nanoTime();
+          handleHeartbeat();
+          heartbeatLatency.recordSince(start);
+        }
+      }
+    }, "beakerx-heartbeat");
+    heartbeatThread.setDaemon(true);
+    heartbeatThread.start();
+  }
+
+  /**
+   * Control messages (interrupt, shutdown) are handled on their own thread so they get through
+   * while the shell thread is busy.
+   */
+  private void startControlThread() {
+    controlThread = new Thread(() -> {
+      ZMQ.Poller poller = new ZMQ.Poller(1);
+      poller.register(controlSocket, ZMQ.Poller.POLLIN);
+      while (!isShutdown()) {
+        poller.poll(POLL_TIMEOUT_MILLIS);
+        if (poller.pollin(0)) {
+          long start = System.nanoTime();
+          try {
+            handleControlMsg();
+          } catch (Exception e) {
+            logger.error("Error while handling control message", e);
+          }
+          controlLatency.recordSince(start);
+        }
+      }
+    }, "beakerx-control");
+    controlThread.setDaemon(true);
+    controlThread.start();
+  }
+
+  private void joinSocketThreads() {
+    try {
+      if (heartbeatThread != null) {
+        heartbeatThread.join(JOIN_TIMEOUT_MILLIS);
+      }
+      if (controlThread != null) {
+        controlThread.join(JOIN_TIMEOUT_MILLIS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    logger.debug("{}, {}, {}", heartbeatLatency, shellLatency, controlLatency);
+  }
+
+  public LatencyHistogram getHeartbeatLatency() {
+    return heartbeatLatency;
+  }
+
+  public LatencyHistogram getShellLatency() {
+    return shellLatency;
+  }
+
+  public LatencyHistogram getControlLatency() {
+    return controlLatency;
+  }
+
+  @Override
+  public boolean awaitPublishCapacity(long timeoutMillis) {
+    return iopubPublisher.awaitCapacity(timeoutMillis);
+  }
+
+  public IOPubPublisher<ZMsg> getIOPubPublisher() {
+    return iopubPublisher;
+  }
+
   private String handleStdIn() {
     Message msg = readMessage(stdinSocket);
     return (String) msg.getContent().get("value");
@@ -194,8 +241,12 @@ public class KernelSocketsZMQ extends KernelSockets {
   }
 
   private void handleHeartbeat() {
-    byte[] buffer = hearbeatSocket.recv(0);
-    hearbeatSocket.send(buffer);
+    boolean more;
+    do {
+      byte[] frame = hearbeatSocket.recv(0);
+      more = hearbeatSocket.hasReceiveMore();
+      hearbeatSocket.send(frame, more ? ZMQ.SNDMORE : 0);
+    } while (more);
   }
 
   private void handleControlMsg() {
@@ -222,6 +273,7 @@ public class KernelSocketsZMQ extends KernelSockets {
 
   private void close() {
     closeAction.close();
+    iopubPublisher.close();
     closeSockets();
   }
 
@@ -247,32 +299,8 @@ public class KernelSocketsZMQ extends KernelSockets {
     }
   }
 
-  private void verifySignatures(byte[] expectedSig, byte[] header, byte[] parent, byte[] metadata, byte[] content) {
-    String actualSig = hmac.signBytes(new ArrayList<>(asList(header, parent, metadata, content)));
-    String expectedSigAsString = new String(expectedSig, StandardCharsets.UTF_8);
-    if (!expectedSigAsString.equals(actualSig)) {
-      throw new RuntimeException("Signatures do not match.");
-    }
-  }
-
-  private String verifyDelim(ZFrame zframe) {
-    String delim = new String(zframe.getData(), StandardCharsets.UTF_8);
-    if (!DELIM.equals(delim)) {
-      throw new RuntimeException("Delimiter <IDS|MSG> not found");
-    }
-    return delim;
-  }
-
-  private boolean isHeartbeatMsg() {
-    return sockets.pollin(0);
-  }
-
   private boolean isShellMsg() {
-    return sockets.pollin(1);
-  }
-
-  private boolean isControlMsg() {
-    return sockets.pollin(2);
+    return sockets.pollin(0);
   }
 
   private void shutdown() {
@@ -283,8 +311,4 @@ public class KernelSocketsZMQ extends KernelSockets {
   private boolean isShutdown() {
     return this.shutdownSystem;
   }
-
-  private <T> T parse(byte[] bytes, Class<T> theClass) {
-    return bytes != null ? MessageSerializer.parse(new String(bytes, StandardCharsets.UTF_8), theClass) : null;
-  }
 }
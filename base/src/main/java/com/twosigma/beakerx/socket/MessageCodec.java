@@ -0,0 +1,103 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.socket;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.twosigma.beakerx.message.Header;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.security.HashedMessageAuthenticationCode;
+import org.zeromq.ZFrame;
+import org.zeromq.ZMsg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+import static com.twosigma.beakerx.message.MessageSerializer.parse;
+import static com.twosigma.beakerx.message.MessageSerializer.readerFor;
+import static com.twosigma.beakerx.message.MessageSerializer.toJsonBytes;
+import static com.twosigma.beakerx.util.Preconditions.checkNotNull;
+
+/**
+ * Encodes and decodes Jupyter wire messages directly between {@link Message} parts and frame bytes.
+ * The same encoded bytes are signed and sent, so no intermediate Strings are built.
+ */
+public class MessageCodec {
+
+  private static final byte[] DELIM_BYTES = KernelSocketsZMQ.DELIM.getBytes(StandardCharsets.UTF_8);
+  private static final ObjectReader HEADER_READER = readerFor(Header.class);
+  private static final ObjectReader MAP_READER = readerFor(LinkedHashMap.class);
+
+  private final HashedMessageAuthenticationCode hmac;
+
+  public MessageCodec(HashedMessageAuthenticationCode hmac) {
+    this.hmac = checkNotNull(hmac);
+  }
+
+  public ZMsg encode(Message message) {
+    byte[] header = toJsonBytes(message.getHeader());
+    byte[] parent = toJsonBytes(message.getParentHeader());
+    byte[] meta = toJsonBytes(message.getMetadata());
+    byte[] content = toJsonBytes(message.getContent());
+    byte[] digest = hmac.signToHex(Arrays.asList(header, parent, meta, content));
+
+    ZMsg zmsg = new ZMsg();
+    message.getIdentities().forEach(zmsg::add);
+    zmsg.add(DELIM_BYTES);
+    zmsg.add(digest);
+    zmsg.add(header);
+    zmsg.add(parent);
+    zmsg.add(meta);
+    zmsg.add(content);
+    message.getBuffers().forEach(zmsg::add);
+    return zmsg;
+  }
+
+  public Message decode(ZMsg zmsg) {
+    ZFrame[] parts = new ZFrame[zmsg.size()];
+    zmsg.toArray(parts);
+    byte[] uuid = parts[MessageParts.UUID].getData();
+    byte[] header = parts[MessageParts.HEADER].getData();
+    byte[] parent = parts[MessageParts.PARENT].getData();
+    byte[] metadata = parts[MessageParts.METADATA].getData();
+    byte[] content = parts[MessageParts.CONTENT].getData();
+    byte[] expectedSig = parts[MessageParts.HMAC].getData();
+
+    verifyDelim(parts[MessageParts.DELIM]);
+    verifySignatures(expectedSig, header, parent, metadata, content);
+
+    Message message = new Message(parse(header, HEADER_READER));
+    if (uuid != null) {
+      message.getIdentities().add(uuid);
+    }
+    message.setParentHeader(parse(parent, HEADER_READER));
+    message.setMetadata(parse(metadata, MAP_READER));
+    message.setContent(parse(content, MAP_READER));
+    return message;
+  }
+
+  private void verifySignatures(byte[] expectedSig, byte[] header, byte[] parent, byte[] metadata, byte[] content) {
+    if (!hmac.verify(expectedSig, Arrays.asList(header, parent, metadata, content))) {
+      throw new RuntimeException("Signatures do not match.");
+    }
+  }
+
+  private void verifyDelim(ZFrame zframe) {
+    if (!Arrays.equals(DELIM_BYTES, zframe.getData())) {
+      throw new RuntimeException("Delimiter <IDS|MSG> not found");
+    }
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.jvm.serialization.BeakerObjectConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer.TYPE_STRING;
+
+/**
+ * Finds the beakerx type of map model columns. A column gets the type of its last non null value in
+ * the sample, or string as soon as one string value is found. Types are looked up once per value
+ * class, and wide tables are inferred column by column on the fork-join pool.
+ */
+public class ColumnTypeInference {
+
+  public enum Sampling {
+    FIRST_N,
+    RESERVOIR,
+    FULL_SCAN
+  }
+
+  private static Sampling sampling = Sampling.FULL_SCAN;
+  private static int sampleSize = 1000;
+  private static int parallelColumnThreshold = 64;
+
+  private final BeakerObjectConverter serializer;
+  private final Map<Class<?>, String> types = new ConcurrentHashMap<>();
+
+  public ColumnTypeInference(BeakerObjectConverter serializer) {
+    this.serializer = serializer;
+  }
+
+  public static Sampling getSampling() {
+    return sampling;
+  }
+
+  public static int getSampleSize() {
+    return sampleSize;
+  }
+
+  /**
+   * @param size number of rows looked at by {@link Sampling#FIRST_N} and {@link Sampling#RESERVOIR}
+   */
+  public static void setSampling(Sampling strategy, int size) {
+    sampling = strategy;
+    sampleSize = size;
+  }
+
+  public static void setParallelColumnThreshold(int columns) {
+    parallelColumnThreshold = columns;
+  }
+
+  public List<String> inferTypes(List<Map<String, Object>> rows, List<String> columns) {
+    List<Map<String, Object>> sample = sample(rows);
+    if (columns.size() >= parallelColumnThreshold) {
+      return IntStream.range(0, columns.size())
+              .parallel()
+              .mapToObj(col -> inferType(sample, columns.get(col)))
+              .collect(Collectors.toList());
+    }
+    List<String> result = new ArrayList<>(columns.size());
+    for (String column : columns) {
+      result.add(inferType(sample, column));
+    }
+    return result;
+  }
+
+  public String typeOf(Object value) {
+    return types.computeIfAbsent(value.getClass(), clazz -> serializer.convertType(clazz.getName()));
+  }
+
+  private String inferType(List<Map<String, Object>> rows, String column) {
+    String type = null;
+    for (Map<String, Object> row : rows) {
+      Object value = row.get(column);
+      if (value != null) {
+        type = typeOf(value);
+        if (TYPE_STRING.equals(type)) {
+          return type;
+        }
+      }
+    }
+    return type;
+  }
+
+  private List<Map<String, Object>> sample(List<Map<String, Object>> rows) {
+    if (rows.size() <= sampleSize || sampling.equals(Sampling.FULL_SCAN)) {
+      return rows;
+    }
+    if (sampling.equals(Sampling.FIRST_N)) {
+      return rows.subList(0, sampleSize);
+    }
+    return reservoir(rows);
+  }
+
+  /**
+   * Algorithm R, the sampled rows are kept in their original order.
+   */
+  private List<Map<String, Object>> reservoir(List<Map<String, Object>> rows) {
+    Random random = new Random();
+    int[] picked = new int[sampleSize];
+    for (int i = 0; i < sampleSize; i++) {
+      picked[i] = i;
+    }
+    for (int i = sampleSize; i < rows.size(); i++) {
+      int j = random.nextInt(i + 1);
+      if (j < sampleSize) {
+        picked[j] = i;
+      }
+    }
+    Arrays.sort(picked);
+    List<Map<String, Object>> sample = new ArrayList<>(sampleSize);
+    for (int index : picked) {
+      sample.add(rows.get(index));
+    }
+    return sample;
+  }
+}
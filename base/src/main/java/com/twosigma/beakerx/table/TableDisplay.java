@@ -22,13 +22,18 @@ import com.twosigma.beakerx.jvm.serialization.BeakerObjectConverter;
 import com.twosigma.beakerx.message.Message;
 import com.twosigma.beakerx.mimetype.MIMEContainer;
 import com.twosigma.beakerx.table.action.TableActionDetails;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
 import com.twosigma.beakerx.table.format.TableDisplayStringFormat;
 import com.twosigma.beakerx.table.format.TimeStringFormat;
 import com.twosigma.beakerx.table.format.ValueStringFormat;
 import com.twosigma.beakerx.table.handlers.ValueChangeMsgCallbackHandler;
 import com.twosigma.beakerx.table.highlight.TableDisplayCellHighlighter;
 import com.twosigma.beakerx.table.highlight.ValueHighlighter;
+import com.twosigma.beakerx.table.paging.RowRangeRequest;
+import com.twosigma.beakerx.table.paging.RowWindow;
+import com.twosigma.beakerx.table.paging.TableDisplayRowSelection;
 import com.twosigma.beakerx.table.renderer.TableDisplayCellRenderer;
+import com.twosigma.beakerx.table.serializer.TableDisplaySerializer;
 import com.twosigma.beakerx.widget.BeakerxWidget;
 import com.twosigma.beakerx.widget.ChangeItem;
 import com.twosigma.beakerx.widget.RunWidgetClosure;
@@ -38,15 +43,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.BINARY;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.BINARY_VALUES;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.VALUES_ENCODING;
 import static com.twosigma.beakerx.table.TableDisplayUtils.transformToIndex;
 import static com.twosigma.beakerx.util.Preconditions.checkState;
 import static com.twosigma.beakerx.widget.CompiledCodeRunner.runCompiledCode;
+import static java.util.Collections.singletonList;
 
 public class TableDisplay extends BeakerxWidget {
 
@@ -89,9 +99,12 @@ public class TableDisplay extends BeakerxWidget {
   private Map<String, String> contextMenuTags = new HashMap<>();
   private TableActionDetails details;
   private TableDisplayActions displayActions = new TableDisplayActions(this);
+  private TableDisplayRowSelection rowSelection = new TableDisplayRowSelection(this);
   private String timeZone;
 
   private static TableDisplayLoadingMode loadingMode = TableDisplayLoadingMode.ALL;
+  private static TableDisplayValuesEncoding valuesEncoding = TableDisplayValuesEncoding.JSON;
+  private static boolean windowedPaging = false;
   private static String timeZoneGlobal;
   public static int PAGE_SIZE = 1000;
   private TableDisplayModel model;
@@ -139,6 +152,14 @@ public class TableDisplay extends BeakerxWidget {
     this.model.initValues();
   }
 
+  public TableDisplay(List<String> columnNames, List<TableDisplayColumn> columns) {
+    super();
+    this.model = new TableDisplayColumnarModel(columnNames, columns);
+    openComm();
+    this.init();
+    this.model.initValues();
+  }
+
   public TableDisplay(Stream<Map<String, Object>> v, BeakerObjectConverter serializer) {
     super();
     this.model = new TableDisplayMapModel(v, serializer);
@@ -155,6 +176,21 @@ public class TableDisplay extends BeakerxWidget {
     this.model.initValues();
   }
 
+  /**
+   * Streams rows from the iterator, see {@link TableDisplayStreamingModel}.
+   */
+  public TableDisplay(Iterator<Map<String, Object>> v, BeakerObjectConverter serializer) {
+    super();
+    this.model = new TableDisplayStreamingModel(v, serializer);
+    openComm();
+    this.init();
+    this.model.initValues();
+  }
+
+  public TableDisplay(Iterator<Map<String, Object>> v) {
+    this(v, new BasicObjectSerializer());
+  }
+
   private void init() {
     if (timeZoneGlobal != null) {
       setTimeZone(timeZoneGlobal);
@@ -201,6 +237,12 @@ public class TableDisplay extends BeakerxWidget {
     getComm().addMsgCallbackList(new ValueChangeMsgCallbackHandler(() -> setLoadMoreRows("loadMoreServerDone")));
   }
 
+  @Override
+  public void close() {
+    super.close();
+    this.model.close();
+  }
+
   @Override
   public void stateRequestHandler() {
     super.stateRequestHandler();
@@ -213,6 +255,7 @@ public class TableDisplay extends BeakerxWidget {
     getComm().addMsgCallbackList((Handler<Message>) message -> displayActions.handleSetDetails(message));
     getComm().addMsgCallbackList((Handler<Message>) message -> displayActions.handleOnContextMenu(message));
     getComm().addMsgCallbackList((Handler<Message>) message -> displayActions.handleDoubleClick(message));
+    getComm().addMsgCallbackList((Handler<Message>) message -> displayActions.handleRowRange(message));
   }
 
   public static TableDisplayLoadingMode getLoadingMode() {
@@ -223,19 +266,84 @@ public class TableDisplay extends BeakerxWidget {
     loadingMode = lm;
   }
 
+  /**
+   * Loading mode used for this table. Streaming tables are always shown page by page, since
+   * {@link TableDisplayLoadingMode#ALL} would read the whole, possibly unbounded, source on display.
+   */
+  public TableDisplayLoadingMode getDisplayLoadingMode() {
+    return model instanceof TableDisplayStreamingModel ? TableDisplayLoadingMode.ENDLESS : loadingMode;
+  }
+
+  public static TableDisplayValuesEncoding getValuesEncoding() {
+    return valuesEncoding;
+  }
+
+  public static void setValuesEncoding(TableDisplayValuesEncoding encoding) {
+    valuesEncoding = encoding;
+  }
+
+  /**
+   * Values are sent as comm buffers only when binary encoding is on and the comm can attach
+   * buffers; otherwise they are sent as JSON.
+   */
+  public boolean isBinaryValues() {
+    return valuesEncoding.equals(TableDisplayValuesEncoding.BINARY) && getComm().supportsBuffers();
+  }
+
+  public static boolean isWindowedPaging() {
+    return windowedPaging;
+  }
+
+  /**
+   * In {@link TableDisplayLoadingMode#ALL} mode, tables over {@link #ROWS_LIMIT} rows are no longer cut to
+   * a preview: the front-end requests row windows and sorting and filtering run on the kernel.
+   */
+  public static void setWindowedPaging(boolean windowed) {
+    windowedPaging = windowed;
+  }
+
   public String getLoadMoreRows() {
     return loadMoreRows;
   }
 
   void setLoadMoreRows(String loadMoreRows) {
     this.loadMoreRows = loadMoreRows;
-    int start = this.model.values.size();
+    int start = this.model.getRowCount();
     List values = this.takeNextPage();
+    Map<Object, Object> update;
     if (this.fontColorProviderClosure != null) {
-      List<List<Color>> fontColors = createFontColors(this.fontColorProviderClosure, start, this.model.values.size());
-      sendModelUpdate(serializer.serializeValuesWithFonts(values, serializer.serializeFontColor(fontColors)));
+      List<List<Color>> fontColors = createFontColors(this.fontColorProviderClosure, start, this.model.getRowCount());
+      update = serializer.serializeValuesWithFonts(values, serializer.serializeFontColor(fontColors));
+    } else {
+      update = serializer.serializeValues(values);
+    }
+    if (isBinaryValues()) {
+      TableDisplayBinaryValues binaryValues = TableDisplayBinaryValues.encode(values, getTypes(), singletonList(MODEL_UPDATE));
+      update.remove(TableDisplaySerializer.VALUES);
+      update.put(VALUES_ENCODING, BINARY);
+      update.put(BINARY_VALUES, binaryValues.getMetadata());
+      sendModelUpdate(update, binaryValues.getBuffer());
+    } else {
+      sendModelUpdate(update);
+    }
+  }
+
+  public RowWindow getRowWindow(RowRangeRequest request) {
+    return rowSelection.window(request);
+  }
+
+  public void sendRowWindow(RowRangeRequest request) {
+    RowWindow window = getRowWindow(request);
+    Map<Object, Object> update = serializer.serializeRowWindow(window);
+    if (isBinaryValues() && window.getValues() != null) {
+      Map<Object, Object> rowWindow = (Map<Object, Object>) update.get(TableDisplaySerializer.ROW_WINDOW);
+      TableDisplayBinaryValues binaryValues = TableDisplayBinaryValues.encode(window.getValues(), getTypes(), Arrays.asList(MODEL_UPDATE, TableDisplaySerializer.ROW_WINDOW));
+      rowWindow.remove(TableDisplaySerializer.VALUES);
+      rowWindow.put(VALUES_ENCODING, BINARY);
+      rowWindow.put(BINARY_VALUES, binaryValues.getMetadata());
+      sendModelUpdate(update, binaryValues.getBuffer());
     } else {
-      sendModelUpdate(serializer.serializeValues(values));
+      sendModelUpdate(update);
     }
   }
 
@@ -285,8 +393,9 @@ public class TableDisplay extends BeakerxWidget {
     }
     List<String> formattedValues = new ArrayList<>();
     try {
-      for (int row = 0; row < this.model.values.size(); row++) {
-        Object value = this.model.values.get(row).get(colIndex);
+      TableDisplayColumn values = this.model.getColumn(colIndex);
+      for (int row = 0; row < values.size(); row++) {
+        Object value = values.get(row);
         Object[] params = new Object[]{value, row, colIndex, this};
         formattedValues.add((String) runClosure(closure, params));
       }
@@ -366,11 +475,11 @@ public class TableDisplay extends BeakerxWidget {
 
   public void addCellHighlighter(Object closure) {
     try {
-      int rowSize = this.model.values.get(0).size();
-      for (int colInd = 0; colInd < rowSize; colInd++) {
+      int rowCount = this.model.getRowCount();
+      for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
         boolean hasHighlightedValues = false;
-        List<Color> columnColors = new ArrayList<>();
-        for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
+        List<Color> columnColors = new ArrayList<>(rowCount);
+        for (int rowInd = 0; rowInd < rowCount; rowInd++) {
           Object[] params = new Object[]{rowInd, colInd, this};
           Color color = (Color) runClosure(closure, params);
           if (color != null) {
@@ -389,11 +498,11 @@ public class TableDisplay extends BeakerxWidget {
 
   public void addCellHighlighter(CellHighlighter cellHighlighter) {
     try {
-      int rowSize = this.model.values.get(0).size();
-      for (int colInd = 0; colInd < rowSize; colInd++) {
+      int rowCount = this.model.getRowCount();
+      for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
         boolean hasHighlightedValues = false;
-        List<Color> columnColors = new ArrayList<>();
-        for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
+        List<Color> columnColors = new ArrayList<>(rowCount);
+        for (int rowInd = 0; rowInd < rowCount; rowInd++) {
           Color color = cellHighlighter.apply(rowInd, colInd, this);
           if (color != null) {
             hasHighlightedValues = true;
@@ -421,10 +530,9 @@ public class TableDisplay extends BeakerxWidget {
 
   public void setToolTip(Object closure) {
     try {
-      for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
-        List<?> row = this.model.values.get(rowInd);
+      for (int rowInd = 0; rowInd < this.model.getRowCount(); rowInd++) {
         List<String> rowToolTips = new ArrayList<>();
-        for (int colInd = 0; colInd < row.size(); colInd++) {
+        for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
           Object[] params = new Object[]{rowInd, colInd, this};
           rowToolTips.add((String) runClosure(closure, params));
         }
@@ -438,10 +546,9 @@ public class TableDisplay extends BeakerxWidget {
 
   public void setTooltip(TooltipAction tooltip) {
     try {
-      for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
-        List<?> row = this.model.values.get(rowInd);
+      for (int rowInd = 0; rowInd < this.model.getRowCount(); rowInd++) {
         List<String> rowToolTips = new ArrayList<>();
-        for (int colInd = 0; colInd < row.size(); colInd++) {
+        for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
           rowToolTips.add(tooltip.apply(rowInd, colInd, this));
         }
         tooltips.add(rowToolTips);
@@ -480,7 +587,7 @@ public class TableDisplay extends BeakerxWidget {
 
   public void setFontColorProvider(Object closure) {
     this.fontColorProviderClosure = closure;
-    setFontColorProvider(this.fontColorProviderClosure, 0, this.model.values.size());
+    setFontColorProvider(this.fontColorProviderClosure, 0, this.model.getRowCount());
   }
 
   private void setFontColorProvider(Object closure, int start, int end) {
@@ -494,9 +601,8 @@ public class TableDisplay extends BeakerxWidget {
     }
     try {
       for (int rowInd = start; rowInd < end; rowInd++) {
-        List<?> row = this.model.values.get(rowInd);
         List<Color> rowFontColors = new ArrayList<>();
-        for (int colInd = 0; colInd < row.size(); colInd++) {
+        for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
           Object[] params = new Object[]{rowInd, colInd, this};
           rowFontColors.add((Color) runClosure(closure, params));
         }
@@ -510,10 +616,9 @@ public class TableDisplay extends BeakerxWidget {
 
   public void setFontColorProvider(FontColorProvider fontColorProvider) {
     try {
-      for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
-        List<?> row = this.model.values.get(rowInd);
+      for (int rowInd = 0; rowInd < this.model.getRowCount(); rowInd++) {
         List<Color> rowFontColors = new ArrayList<>();
-        for (int colInd = 0; colInd < row.size(); colInd++) {
+        for (int colInd = 0; colInd < this.model.getColumnCount(); colInd++) {
           rowFontColors.add(fontColorProvider.apply(rowInd, colInd, this));
         }
         this.fontColor.add(rowFontColors);
@@ -527,7 +632,7 @@ public class TableDisplay extends BeakerxWidget {
   public void setRowFilter(Object closure) {
     List<List<?>> filteredValues = new ArrayList<>();
     try {
-      for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
+      for (int rowInd = 0; rowInd < this.model.getRowCount(); rowInd++) {
         Object[] params = new Object[]{rowInd, this.model.values};
         if ((boolean) runClosure(closure, params)) {
           filteredValues.add(this.model.values.get(rowInd));
@@ -543,7 +648,7 @@ public class TableDisplay extends BeakerxWidget {
   public void setRowFilter(RowFilter rowFilter) {
     List<List<?>> filteredValues = new ArrayList<>();
     try {
-      for (int rowInd = 0; rowInd < this.model.values.size(); rowInd++) {
+      for (int rowInd = 0; rowInd < this.model.getRowCount(); rowInd++) {
         if (rowFilter.apply(rowInd, this.model.values)) {
           filteredValues.add(this.model.values.get(rowInd));
         }
@@ -641,6 +746,14 @@ public class TableDisplay extends BeakerxWidget {
     return this.model.values;
   }
 
+  public int getRowCount() {
+    return this.model.getRowCount();
+  }
+
+  public TableDisplayColumn getColumn(String columnName) {
+    return this.model.getColumn(getColumnIndex(columnName));
+  }
+
   public List<String> getColumnNames() {
     return this.model.columns;
   }
@@ -748,18 +861,18 @@ public class TableDisplay extends BeakerxWidget {
   }
 
   public String getRowLimitMsg() {
-    return String.format(rowLimitMsg, ROWS_LIMIT, this.model.values.size(), ROW_LIMIT_TO_INDEX);
+    return String.format(rowLimitMsg, ROWS_LIMIT, this.model.getRowCount(), ROW_LIMIT_TO_INDEX);
   }
 
   public interface Element {
     String get(int columnIndex, int rowIndex);
   }
 
-  @SuppressWarnings("unchecked")
   public void updateCell(int row, String columnName, Object value) {
-    int index = getColumnIndex(columnName);
-    List<Object> rowList = (List<Object>) this.model.values.get(row);
-    rowList.set(index, value);
+    TableDisplayColumn column = getColumn(columnName);
+    boolean wasNull = column.isNull(row);
+    column.set(row, value);
+    rowSelection.cellUpdated(row, columnName, wasNull);
   }
 
   private int getColumnIndex(String columnName) {
@@ -783,6 +896,28 @@ public class TableDisplay extends BeakerxWidget {
     return rowsToShow;
   }
 
+  @Override
+  public void sendModel() {
+    if (isBinaryValues()) {
+      List<ChangeItem> changeItems = doSendModel();
+      TableDisplayBinaryValues binaryValues = TableDisplayBinaryValues.encode(this.model.getColumns(), 0, displayedRowCount(), singletonList(MODEL));
+      changeItems.stream()
+              .filter(x -> x.getPropertyName().equals(MODEL))
+              .forEach(x -> ((Map<Object, Object>) x.getValue()).put(BINARY_VALUES, binaryValues.getMetadata()));
+      sendModel(changeItems, binaryValues.getBuffer());
+    } else {
+      super.sendModel();
+    }
+  }
+
+  private int displayedRowCount() {
+    int rowCount = this.model.getRowCount();
+    if (getDisplayLoadingMode().equals(TableDisplayLoadingMode.ALL) && rowCount > ROWS_LIMIT) {
+      return ROW_LIMIT_TO_INDEX;
+    }
+    return rowCount;
+  }
+
   @Override
   protected List<ChangeItem> doSendModel() {
     List<ChangeItem> changeItems = super.doSendModel();
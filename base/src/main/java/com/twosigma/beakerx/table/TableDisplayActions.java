@@ -18,7 +18,10 @@ package com.twosigma.beakerx.table;
 import com.twosigma.beakerx.BeakerXClientManager;
 import com.twosigma.beakerx.message.Message;
 import com.twosigma.beakerx.table.action.TableActionDetails;
+import com.twosigma.beakerx.table.paging.RowRangeRequest;
 import com.twosigma.beakerx.widget.CommActions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -27,6 +30,8 @@ import java.util.List;
 
 public class TableDisplayActions {
 
+  private static final Logger logger = LoggerFactory.getLogger(TableDisplayActions.class);
+
   private TableDisplay tableDisplay;
 
   public TableDisplayActions(TableDisplay tableDisplay) {
@@ -96,6 +101,41 @@ public class TableDisplayActions {
     }
   }
 
+  void handleRowRange(Message message) {
+    if (isCorrectEvent(message, CommActions.ROW_RANGE)) {
+      tableDisplay.handleCommEventSync(message, CommActions.ROW_RANGE, this::onRowRange);
+    }
+  }
+
+  private void onRowRange(HashMap content, Message message) {
+    RowRangeRequest request;
+    try {
+      request = RowRangeRequest.fromContent(content);
+    } catch (IllegalArgumentException e) {
+      logger.warn("Ignoring row range request: {}", e.getMessage());
+      return;
+    }
+    List<String> unknown = unknownColumns(request);
+    if (!unknown.isEmpty()) {
+      logger.warn("Ignoring row range request for unknown columns: {}", unknown);
+      return;
+    }
+    tableDisplay.sendRowWindow(request);
+  }
+
+  private List<String> unknownColumns(RowRangeRequest request) {
+    List<String> unknown = new ArrayList<>();
+    request.getSort().forEach(key -> addIfUnknown(key.getColumn(), unknown));
+    request.getFilters().forEach(filter -> addIfUnknown(filter.getColumn(), unknown));
+    return unknown;
+  }
+
+  private void addIfUnknown(String column, List<String> unknown) {
+    if (!tableDisplay.getColumnNames().contains(column)) {
+      unknown.add(column);
+    }
+  }
+
   void handleDoubleClick(Message message) {
     if (isCorrectEvent(message, CommActions.DOUBLE_CLICK)) {
       tableDisplay.handleCommEventSync(message, CommActions.DOUBLE_CLICK, this::onDoubleClickAction);
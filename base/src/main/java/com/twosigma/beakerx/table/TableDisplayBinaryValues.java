@@ -0,0 +1,280 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer;
+import com.twosigma.beakerx.kernel.comm.Buffer;
+import com.twosigma.beakerx.table.column.RowListColumn;
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar binary encoding of table values, sent as comm buffers instead of JSON rows.
+ * <p>
+ * Numeric and boolean columns become little-endian typed arrays ({@code float64}, {@code int32},
+ * {@code int64}, {@code uint8}) with an optional null bitmap (bit set = null). String columns are
+ * dictionary encoded as {@code int32} codes, -1 meaning null. Columns of other types, or whose values
+ * do not match the declared type, are kept as a JSON array.
+ * <p>
+ * Cells are read through {@link TableDisplayColumn}, so primitive-backed columns are copied
+ * straight into the buffers without boxing.
+ */
+public class TableDisplayBinaryValues {
+
+  public static final String VALUES_ENCODING = "valuesEncoding";
+  public static final String BINARY_VALUES = "binaryValues";
+  public static final String BINARY = "binary";
+  public static final String ROW_COUNT = "rowCount";
+  public static final String COLUMNS = "columns";
+  public static final String ENCODING = "encoding";
+  public static final String DATA = "data";
+  public static final String NULLS = "nulls";
+  public static final String DICTIONARY = "dictionary";
+
+  public static final String FLOAT64 = "float64";
+  public static final String INT32 = "int32";
+  public static final String INT64 = "int64";
+  public static final String UINT8 = "uint8";
+  public static final String DICT = "dict";
+  public static final String JSON = "json";
+
+  private final Map<String, Object> metadata;
+  private final Buffer buffer;
+
+  private TableDisplayBinaryValues(Map<String, Object> metadata, Buffer buffer) {
+    this.metadata = metadata;
+    this.buffer = buffer;
+  }
+
+  public Map<String, Object> getMetadata() {
+    return metadata;
+  }
+
+  public Buffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @param pathPrefix path of the widget state property the metadata is put in, e.g. {@code ["model"]}
+   */
+  public static TableDisplayBinaryValues encode(List<List<?>> values, List<String> types, List<String> pathPrefix) {
+    List<TableDisplayColumn> columns = new ArrayList<>();
+    for (int col = 0; col < types.size(); col++) {
+      columns.add(new RowListColumn(values, col, types.get(col)));
+    }
+    return encode(columns, 0, values.size(), pathPrefix);
+  }
+
+  /**
+   * Encodes rows {@code [fromRow, toRow)} of the given columns.
+   */
+  public static TableDisplayBinaryValues encode(List<TableDisplayColumn> columns, int fromRow, int toRow, List<String> pathPrefix) {
+    List<byte[]> buffers = new ArrayList<>();
+    ArrayList<List<String>> bufferPaths = new ArrayList<>();
+    List<Map<String, Object>> encodedColumns = new ArrayList<>();
+    for (int col = 0; col < columns.size(); col++) {
+      Map<String, Object> column = encodeColumn(columns.get(col), fromRow, toRow);
+      for (String part : new String[]{DATA, NULLS}) {
+        Object data = column.get(part);
+        if (data instanceof byte[]) {
+          column.remove(part);
+          buffers.add((byte[]) data);
+          bufferPaths.add(path(pathPrefix, String.valueOf(col), part));
+        }
+      }
+      encodedColumns.add(column);
+    }
+    Map<String, Object> metadata = new LinkedHashMap<>();
+    metadata.put(ROW_COUNT, toRow - fromRow);
+    metadata.put(COLUMNS, encodedColumns);
+    return new TableDisplayBinaryValues(metadata, new Buffer(buffers, bufferPaths));
+  }
+
+  private static List<String> path(List<String> prefix, String column, String part) {
+    List<String> path = new ArrayList<>(prefix);
+    path.add(BINARY_VALUES);
+    path.add(COLUMNS);
+    path.add(column);
+    path.add(part);
+    return path;
+  }
+
+  private static Map<String, Object> encodeColumn(TableDisplayColumn column, int from, int to) {
+    String type = column.getType();
+    try {
+      switch (type == null ? "" : type.toLowerCase()) {
+        case BasicObjectSerializer.TYPE_DOUBLE:
+          return encodeDoubles(column, from, to);
+        case BasicObjectSerializer.TYPE_INTEGER:
+          return encodeInts(column, from, to);
+        case BasicObjectSerializer.TYPE_LONG:
+          return encodeLongs(column, from, to);
+        case BasicObjectSerializer.TYPE_BOOLEAN:
+          return encodeBooleans(column, from, to);
+        case BasicObjectSerializer.TYPE_STRING:
+          return encodeDictionary(column, from, to);
+        default:
+          return encodeJson(column, from, to);
+      }
+    } catch (ClassCastException | NumberFormatException | ArithmeticException e) {
+      return encodeJson(column, from, to);
+    }
+  }
+
+  private static Map<String, Object> encodeDoubles(TableDisplayColumn column, int from, int to) {
+    int rows = to - from;
+    ByteBuffer data = allocate(rows * Double.BYTES);
+    byte[] nulls = new byte[(rows + 7) / 8];
+    boolean hasNulls = false;
+    for (int row = 0; row < rows; row++) {
+      if (column.isNull(from + row)) {
+        hasNulls = setNull(nulls, row);
+        data.putDouble(0);
+      } else {
+        data.putDouble(column.getDouble(from + row));
+      }
+    }
+    return column(FLOAT64, data, hasNulls ? nulls : null);
+  }
+
+  private static Map<String, Object> encodeInts(TableDisplayColumn column, int from, int to) {
+    int rows = to - from;
+    ByteBuffer data = allocate(rows * Integer.BYTES);
+    byte[] nulls = new byte[(rows + 7) / 8];
+    boolean hasNulls = false;
+    for (int row = 0; row < rows; row++) {
+      if (column.isNull(from + row)) {
+        hasNulls = setNull(nulls, row);
+        data.putInt(0);
+      } else {
+        data.putInt(Math.toIntExact(column.getLong(from + row)));
+      }
+    }
+    return column(INT32, data, hasNulls ? nulls : null);
+  }
+
+  private static Map<String, Object> encodeLongs(TableDisplayColumn column, int from, int to) {
+    int rows = to - from;
+    ByteBuffer data = allocate(rows * Long.BYTES);
+    byte[] nulls = new byte[(rows + 7) / 8];
+    boolean hasNulls = false;
+    for (int row = 0; row < rows; row++) {
+      if (column.isNull(from + row)) {
+        hasNulls = setNull(nulls, row);
+        data.putLong(0);
+      } else {
+        data.putLong(column.getLong(from + row));
+      }
+    }
+    return column(INT64, data, hasNulls ? nulls : null);
+  }
+
+  private static Map<String, Object> encodeBooleans(TableDisplayColumn column, int from, int to) {
+    int rows = to - from;
+    byte[] data = new byte[rows];
+    byte[] nulls = new byte[(rows + 7) / 8];
+    boolean hasNulls = false;
+    for (int row = 0; row < rows; row++) {
+      if (column.isNull(from + row)) {
+        hasNulls = setNull(nulls, row);
+      } else {
+        data[row] = (byte) (column.getBoolean(from + row) ? 1 : 0);
+      }
+    }
+    return column(UINT8, data, hasNulls ? nulls : null);
+  }
+
+  private static Map<String, Object> encodeDictionary(TableDisplayColumn column, int from, int to) {
+    if (column instanceof StringDictionaryColumn) {
+      return encodeDictionary((StringDictionaryColumn) column, from, to);
+    }
+    int rows = to - from;
+    ByteBuffer data = allocate(rows * Integer.BYTES);
+    Map<String, Integer> codes = new HashMap<>();
+    List<String> dictionary = new ArrayList<>();
+    for (int row = 0; row < rows; row++) {
+      Object value = column.get(from + row);
+      if (value == null) {
+        data.putInt(-1);
+      } else {
+        String text = value.toString();
+        Integer code = codes.get(text);
+        if (code == null) {
+          code = dictionary.size();
+          codes.put(text, code);
+          dictionary.add(text);
+        }
+        data.putInt(code);
+      }
+    }
+    Map<String, Object> encoded = column(DICT, data, null);
+    encoded.put(DICTIONARY, dictionary);
+    return encoded;
+  }
+
+  private static Map<String, Object> encodeDictionary(StringDictionaryColumn column, int from, int to) {
+    ByteBuffer data = allocate((to - from) * Integer.BYTES);
+    int[] codes = column.getCodes();
+    for (int row = from; row < to; row++) {
+      data.putInt(codes[row]);
+    }
+    Map<String, Object> encoded = column(DICT, data, null);
+    encoded.put(DICTIONARY, new ArrayList<>(column.getDictionary()));
+    return encoded;
+  }
+
+  private static Map<String, Object> encodeJson(TableDisplayColumn column, int from, int to) {
+    List<Object> data = new ArrayList<>(to - from);
+    for (int row = from; row < to; row++) {
+      data.add(column.get(row));
+    }
+    Map<String, Object> encoded = new LinkedHashMap<>();
+    encoded.put(ENCODING, JSON);
+    encoded.put(DATA, data);
+    return encoded;
+  }
+
+  private static Map<String, Object> column(String encoding, ByteBuffer data, byte[] nulls) {
+    return column(encoding, data.array(), nulls);
+  }
+
+  private static Map<String, Object> column(String encoding, byte[] data, byte[] nulls) {
+    Map<String, Object> column = new LinkedHashMap<>();
+    column.put(ENCODING, encoding);
+    column.put(DATA, data);
+    if (nulls != null) {
+      column.put(NULLS, nulls);
+    }
+    return column;
+  }
+
+  private static boolean setNull(byte[] nulls, int row) {
+    nulls[row >> 3] |= 1 << (row & 7);
+    return true;
+  }
+
+  private static ByteBuffer allocate(int size) {
+    return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+  }
+}
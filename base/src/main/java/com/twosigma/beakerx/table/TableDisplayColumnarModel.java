@@ -0,0 +1,127 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer.TYPE_LONG;
+import static com.twosigma.beakerx.table.TableDisplay.TABLE_DISPLAY_SUBTYPE;
+import static com.twosigma.beakerx.util.Preconditions.checkState;
+
+/**
+ * Table model backed by primitive columns. Cells are never stored boxed: {@code values} is a
+ * read-through row view over the columns, so code written against rows keeps working.
+ */
+public class TableDisplayColumnarModel extends TableDisplayModel {
+
+  public static final String COLUMN_NAMES_AND_COLUMNS_SHOULD_HAVE_SAME_SIZE = "The number of column names should be same as number of columns.";
+  public static final String COLUMNS_SHOULD_HAVE_SAME_LENGTH = "All columns should have the same length.";
+
+  private final List<TableDisplayColumn> data;
+  private final int rowCount;
+
+  public TableDisplayColumnarModel(List<String> columnNames, List<TableDisplayColumn> columns) {
+    checkState(columnNames.size() == columns.size(), COLUMN_NAMES_AND_COLUMNS_SHOULD_HAVE_SAME_SIZE);
+    this.rowCount = columns.isEmpty() ? 0 : columns.get(0).size();
+    for (TableDisplayColumn column : columns) {
+      checkState(column.size() == rowCount, COLUMNS_SHOULD_HAVE_SAME_LENGTH);
+    }
+    this.data = new ArrayList<>(columns);
+    this.columns = new ArrayList<>(columnNames);
+    this.classes = new ArrayList<>();
+    for (TableDisplayColumn column : columns) {
+      this.classes.add(column.getType());
+    }
+    this.values = new Rows();
+    this.subtype = TABLE_DISPLAY_SUBTYPE;
+  }
+
+  @Override
+  public List<List<?>> takeNextPage() {
+    return values;
+  }
+
+  @Override
+  public List<List<?>> takeAllData() {
+    return values;
+  }
+
+  @Override
+  public void initValues() {
+  }
+
+  @Override
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  @Override
+  public TableDisplayColumn getColumn(int index) {
+    return data.get(index);
+  }
+
+  private class Rows extends AbstractList<List<?>> {
+
+    @Override
+    public List<?> get(int row) {
+      if (row < 0 || row >= rowCount) {
+        throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + rowCount);
+      }
+      return new Row(row);
+    }
+
+    @Override
+    public int size() {
+      return rowCount;
+    }
+  }
+
+  private class Row extends AbstractList<Object> {
+
+    private final int row;
+
+    Row(int row) {
+      this.row = row;
+    }
+
+    @Override
+    public Object get(int col) {
+      TableDisplayColumn column = data.get(col);
+      Object value = column.get(row);
+      // same as getValueForSerializer for the row models
+      if (value != null && TYPE_LONG.equals(column.getType())) {
+        return value.toString();
+      }
+      return value;
+    }
+
+    @Override
+    public Object set(int col, Object value) {
+      Object previous = get(col);
+      data.get(col).set(row, value);
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return data.size();
+    }
+  }
+}
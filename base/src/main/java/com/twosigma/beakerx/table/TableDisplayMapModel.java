@@ -15,14 +15,18 @@
  */
 package com.twosigma.beakerx.table;
 
+import com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer;
 import com.twosigma.beakerx.jvm.serialization.BeakerObjectConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.twosigma.beakerx.table.TableDisplay.LIST_OF_MAPS_SUBTYPE;
@@ -30,21 +34,30 @@ import static com.twosigma.beakerx.table.TableDisplay.PAGE_SIZE;
 
 public class TableDisplayMapModel extends TableDisplayModel {
 
-  private Stream<Map<String, Object>> v;
+  private static final Logger logger = LoggerFactory.getLogger(TableDisplayMapModel.class);
+
   private Iterator<Map<String, Object>> valuesIterator;
-  private BeakerObjectConverter serializer;
   private List<Map<String, Object>> initValues = new ArrayList<>();
+  private final ColumnTypeInference typeInference;
+  private final Set<String> ignoredColumns = new HashSet<>();
 
   public TableDisplayMapModel(Stream<Map<String, Object>> v, BeakerObjectConverter serializer) {
-    this.v = v;
-    this.valuesIterator = v.iterator();
-    this.serializer = serializer;
+    this(v.iterator(), serializer);
+  }
+
+  /**
+   * Reads the first page from the iterator to find the columns and their types. The columns are
+   * fixed from then on, keys first seen in later rows are ignored.
+   */
+  protected TableDisplayMapModel(Iterator<Map<String, Object>> valuesIterator, BeakerObjectConverter serializer) {
+    this.valuesIterator = valuesIterator;
     this.values = new ArrayList<>();
     this.columns = new ArrayList<>();
     this.classes = new ArrayList<>();
     this.subtype = LIST_OF_MAPS_SUBTYPE;
-    this.initValues = nextValuesPage();
-    createColumnNameAndType(initValues, serializer);
+    this.typeInference = new ColumnTypeInference(serializer);
+    this.initValues = nextValuesPage(valuesIterator);
+    createColumnNameAndType(initValues);
   }
 
   public void initValues() {
@@ -73,25 +86,48 @@ public class TableDisplayMapModel extends TableDisplayModel {
     return items;
   }
 
-  private void addToValues(List<List<?>> items) {
+  protected void addToValues(List<List<?>> items) {
     values.addAll(items);
   }
 
-  private List<List<?>> buildValues(List<Map<String, Object>> v) {
-    List<List<?>> values = new ArrayList<>();
+  protected List<List<?>> buildValues(List<Map<String, Object>> v) {
+    List<List<?>> values = new ArrayList<>(v.size());
     for (Map<String, Object> m : v) {
-      List<Object> vals = new ArrayList<>();
+      List<Object> vals = new ArrayList<>(columns.size());
+      int found = 0;
       for (String cn : columns) {
         if (m.containsKey(cn)) {
-          vals.add(getValueForSerializer(m.get(cn), serializer));
+          vals.add(getValueForSerializer(m.get(cn)));
+          found++;
         } else
           vals.add(null);
       }
+      if (found < m.size()) {
+        warnIgnoredColumns(m);
+      }
       values.add(vals);
     }
     return values;
   }
 
+  private void warnIgnoredColumns(Map<String, Object> row) {
+    for (String columnName : row.keySet()) {
+      if (!columns.contains(columnName) && ignoredColumns.add(columnName)) {
+        logger.warn("Column '{}' is not in the first {} rows of the table and is ignored", columnName, PAGE_SIZE);
+      }
+    }
+  }
+
+  private Object getValueForSerializer(Object value) {
+    if (value != null) {
+      String clazz = typeInference.typeOf(value);
+      if (BasicObjectSerializer.TYPE_LONG.equals(clazz) || BasicObjectSerializer.TYPE_BIGINT.equals(clazz)) {
+        return value.toString();
+      }
+    }
+    return value;
+  }
+
   private List<Map<String, Object>> nextValuesPage(Iterator<Map<String, Object>> valuesIterator) {
     List<Map<String, Object>> list = new ArrayList<>();
     int i = 0;
@@ -102,65 +138,21 @@ public class TableDisplayMapModel extends TableDisplayModel {
     return list;
   }
 
-  private List<Map<String, Object>> nextValuesPage() {
+  protected List<Map<String, Object>> nextValuesPage() {
     return nextValuesPage(valuesIterator);
   }
 
 
-  private void createColumnNameAndType(List<Map<String, Object>> values, BeakerObjectConverter serializer) {
-    // create columns
-    if (values.size() > 0) {
-      // Every column gets inspected at least once, so put every column in
-      // a list with null for the initial type
-      ArrayList<String> columnOrder = new ArrayList<String>();
-      ArrayList<String> columnsToCheck = new ArrayList<String>();
-      Map<String, String> typeTracker = new LinkedHashMap<String, String>();
-
-      Map<String, Object> firstRow = values.get(0);
-      for (String columnName : firstRow.keySet()) {
-        columnOrder.add(columnName);
-        columnsToCheck.add(columnName);
-        typeTracker.put(columnName, null);
-      }
-
-      // Visit each row and track the row's type. If some value is found to
-      // contain a string, the column is marked as string based and is no
-      // longer typechecked
-      List<String> columnsToRemove = new ArrayList<String>();
-      for (Map<String, Object> row : values) {
-        // Remove any columns requested from prior iteration
-        for (String columnToRemove : columnsToRemove) {
-          columnsToCheck.remove(columnToRemove);
-        }
-        columnsToRemove = new ArrayList<String>();
-
-        ListIterator<String> columnCheckIterator = columnsToCheck.listIterator();
-        while (columnCheckIterator.hasNext()) {
-          String columnToCheck = columnCheckIterator.next();
-          String currentType = typeTracker.get(columnToCheck);
-
-          if (currentType == null || !currentType.equals("string")) {
-            Object rowItem = row.get(columnToCheck);
-            if (rowItem != null) {
-              String colType = rowItem.getClass().getName();
-              String beakerColType = serializer.convertType(colType);
-              typeTracker.put(columnToCheck, beakerColType);
-
-              if (beakerColType.equals("string")) {
-                columnsToRemove.add(columnToCheck);
-              }
-            }
-          }
-        }
-      }
-
-      // Put results of type checking into `columns` and `classes`
-      for (String columnName : columnOrder) {
-        String columnType = typeTracker.get(columnName);
-        columns.add(columnName);
-        classes.add(columnType);
-      }
+  /**
+   * Takes the columns of all rows of the first page, in the order they are found.
+   */
+  private void createColumnNameAndType(List<Map<String, Object>> values) {
+    Set<String> names = new LinkedHashSet<>();
+    for (Map<String, Object> row : values) {
+      names.addAll(row.keySet());
     }
+    columns.addAll(names);
+    classes.addAll(typeInference.inferTypes(values, columns));
   }
 
 }
@@ -17,7 +17,10 @@ package com.twosigma.beakerx.table;
 
 import com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer;
 import com.twosigma.beakerx.jvm.serialization.BeakerObjectConverter;
+import com.twosigma.beakerx.table.column.RowListColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class TableDisplayModel {
@@ -31,6 +34,32 @@ public abstract class TableDisplayModel {
   public abstract List<List<?>> takeAllData();
   public abstract void initValues();
 
+  public int getRowCount() {
+    return values.size();
+  }
+
+  public int getColumnCount() {
+    return columns.size();
+  }
+
+  public TableDisplayColumn getColumn(int index) {
+    return new RowListColumn(values, index, index < classes.size() ? classes.get(index) : null);
+  }
+
+  /**
+   * Releases what the model holds outside the heap, called when the widget is closed.
+   */
+  public void close() {
+  }
+
+  public List<TableDisplayColumn> getColumns() {
+    List<TableDisplayColumn> result = new ArrayList<>();
+    for (int i = 0; i < getColumnCount(); i++) {
+      result.add(getColumn(i));
+    }
+    return result;
+  }
+
   protected Object getValueForSerializer(Object value, BeakerObjectConverter serializer) {
     if (value != null) {
       String clazz = serializer.convertType(value.getClass().getName());
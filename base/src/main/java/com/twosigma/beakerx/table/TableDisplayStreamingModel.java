@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.jvm.serialization.BeakerObjectConverter;
+import com.twosigma.beakerx.table.stream.DiskPageStore;
+import com.twosigma.beakerx.table.stream.PagePrefetcher;
+import com.twosigma.beakerx.table.stream.PagedRows;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.twosigma.beakerx.table.TableDisplay.PAGE_SIZE;
+
+/**
+ * Map model for large or unbounded sources. The next page is read on a background thread while the
+ * current one is shown, and only the most recently used pages are kept on the heap; older pages
+ * are spilled to disk and read back from there, the source is never read twice.
+ */
+public class TableDisplayStreamingModel extends TableDisplayMapModel {
+
+  private static int maxPagesInMemory = 10;
+
+  private final PagedRows rows;
+  private final DiskPageStore store;
+  private final PagePrefetcher<Map<String, Object>> prefetcher;
+
+  public TableDisplayStreamingModel(Iterator<Map<String, Object>> v, BeakerObjectConverter serializer) {
+    super(v, serializer);
+    this.store = new DiskPageStore();
+    this.rows = new PagedRows(PAGE_SIZE, maxPagesInMemory, store);
+    this.values = rows;
+    this.prefetcher = new PagePrefetcher<>(v, PAGE_SIZE);
+  }
+
+  public static int getMaxPagesInMemory() {
+    return maxPagesInMemory;
+  }
+
+  public static void setMaxPagesInMemory(int pages) {
+    maxPagesInMemory = pages;
+  }
+
+  @Override
+  public void initValues() {
+    super.initValues();
+    prefetcher.prefetch();
+  }
+
+  @Override
+  protected List<Map<String, Object>> nextValuesPage() {
+    List<Map<String, Object>> page = prefetcher.next();
+    prefetcher.prefetch();
+    return page;
+  }
+
+  @Override
+  protected void addToValues(List<List<?>> items) {
+    rows.addPage(items);
+  }
+
+  /**
+   * Reads the rest of the source page by page, so it goes through the page store instead of the heap.
+   * Display never calls this, streaming tables are shown in {@link TableDisplayLoadingMode#ENDLESS} mode.
+   */
+  @Override
+  public List<List<?>> takeAllData() {
+    while (prefetcher.hasMore()) {
+      addToValues(buildValues(nextValuesPage()));
+    }
+    return values;
+  }
+
+  public PagedRows getRows() {
+    return rows;
+  }
+
+  @Override
+  public void close() {
+    prefetcher.close();
+    store.close();
+  }
+}
@@ -33,6 +33,8 @@ import com.twosigma.beakerx.table.highlight.TableDisplayCellHighlighter;
 import com.twosigma.beakerx.table.highlight.ThreeColorHeatmapHighlighter;
 import com.twosigma.beakerx.table.highlight.UniqueEntriesHighlighter;
 import com.twosigma.beakerx.table.highlight.ValueHighlighter;
+import com.twosigma.beakerx.table.paging.RowRangeRequest;
+import com.twosigma.beakerx.table.paging.RowWindow;
 import com.twosigma.beakerx.table.renderer.DataBarsRenderer;
 import com.twosigma.beakerx.table.renderer.TableDisplayCellRenderer;
 import com.twosigma.beakerx.table.serializer.DataBarsRendererSerializer;
@@ -72,6 +74,9 @@ import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.HEADE
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.RENDERER_FOR_COLUMN;
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.RENDERER_FOR_TYPE;
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROWS_TO_SHOW;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROW_COUNT;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROW_IDS;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROW_WINDOW;
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.STRING_FORMAT_FOR_COLUMN;
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.STRING_FORMAT_FOR_TYPE;
 import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.TIME_ZONE;
@@ -300,6 +305,21 @@ public class TableDisplayToJson {
     return result;
   }
 
+  public Map<Object, Object> serializeRowWindow(RowWindow window) {
+    Map<Object, Object> value = new LinkedHashMap<>();
+    value.put(RowRangeRequest.REQUEST_ID, window.getRequestId());
+    value.put(RowRangeRequest.START, window.getStart());
+    value.put(RowRangeRequest.END, window.getEnd());
+    value.put(ROW_COUNT, window.getRowCount());
+    value.put(ROW_IDS, window.getRowIds());
+    if (window.getValues() != null) {
+      value.put(VALUES, window.getValues());
+    }
+    Map<Object, Object> result = new LinkedHashMap<>();
+    result.put(ROW_WINDOW, value);
+    return result;
+  }
+
   public Map<Object, Object> serializeValuesWithFonts(List values, Map<Object, Object> fonts) {
     Map<Object, Object> result = new LinkedHashMap<>();
     result.put(VALUES, values);
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+import static com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer.TYPE_INTEGER;
+
+public class IntColumn extends PrimitiveColumn {
+
+  private final int[] values;
+
+  public IntColumn(int[] values) {
+    this(values, null);
+  }
+
+  public IntColumn(int[] values, NullBitmap nulls) {
+    super(values.length, nulls);
+    this.values = values;
+  }
+
+  public int[] getValues() {
+    return values;
+  }
+
+  @Override
+  public String getType() {
+    return TYPE_INTEGER;
+  }
+
+  @Override
+  public double getDouble(int row) {
+    return values[row];
+  }
+
+  @Override
+  public long getLong(int row) {
+    return values[row];
+  }
+
+  @Override
+  protected Object box(int row) {
+    return values[row];
+  }
+
+  @Override
+  protected void put(int row, Object value) {
+    values[row] = Math.toIntExact(((Number) value).longValue());
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+/**
+ * One bit per row, set when the row holds null.
+ */
+public class NullBitmap {
+
+  private final long[] words;
+
+  public NullBitmap(int size) {
+    this.words = new long[(size + 63) >>> 6];
+  }
+
+  public boolean isNull(int row) {
+    return (words[row >>> 6] & (1L << row)) != 0;
+  }
+
+  public void setNull(int row) {
+    words[row >>> 6] |= 1L << row;
+  }
+
+  public void clear(int row) {
+    words[row >>> 6] &= ~(1L << row);
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
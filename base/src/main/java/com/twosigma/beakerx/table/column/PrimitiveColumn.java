@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+abstract class PrimitiveColumn implements TableDisplayColumn {
+
+  protected final NullBitmap nulls;
+  private final int size;
+
+  PrimitiveColumn(int size, NullBitmap nulls) {
+    this.size = size;
+    this.nulls = (nulls != null) ? nulls : new NullBitmap(size);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isNull(int row) {
+    return nulls.isNull(row);
+  }
+
+  @Override
+  public Object get(int row) {
+    return isNull(row) ? null : box(row);
+  }
+
+  @Override
+  public void set(int row, Object value) {
+    if (value == null) {
+      nulls.setNull(row);
+    } else {
+      put(row, value);
+      nulls.clear(row);
+    }
+  }
+
+  protected abstract Object box(int row);
+
+  protected abstract void put(int row, Object value);
+}
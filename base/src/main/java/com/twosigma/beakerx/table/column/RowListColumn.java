@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+import java.util.List;
+
+/**
+ * Column view over row-oriented values, as held by the list and map table models.
+ */
+public class RowListColumn implements TableDisplayColumn {
+
+  private final List<List<?>> values;
+  private final int index;
+  private final String type;
+
+  public RowListColumn(List<List<?>> values, int index, String type) {
+    this.values = values;
+    this.index = index;
+    this.type = type;
+  }
+
+  @Override
+  public int size() {
+    return values.size();
+  }
+
+  @Override
+  public String getType() {
+    return type;
+  }
+
+  @Override
+  public boolean isNull(int row) {
+    return get(row) == null;
+  }
+
+  @Override
+  public Object get(int row) {
+    List<?> items = values.get(row);
+    return index < items.size() ? items.get(index) : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void set(int row, Object value) {
+    ((List<Object>) values.get(row)).set(index, value);
+  }
+
+  /**
+   * Long values are held as strings by the row models, see {@code TableDisplayModel.getValueForSerializer}.
+   */
+  @Override
+  public long getLong(int row) {
+    Object value = get(row);
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    return Long.parseLong((String) value);
+  }
+}
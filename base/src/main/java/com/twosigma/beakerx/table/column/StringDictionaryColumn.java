@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer.TYPE_STRING;
+
+/**
+ * String column stored as int codes into a dictionary of distinct values, -1 meaning null.
+ */
+public class StringDictionaryColumn implements TableDisplayColumn {
+
+  public static final int NULL_CODE = -1;
+
+  private final int[] codes;
+  private final List<String> dictionary;
+  private Map<String, Integer> index;
+
+  public StringDictionaryColumn(int[] codes, List<String> dictionary) {
+    this.codes = codes;
+    this.dictionary = dictionary;
+  }
+
+  public StringDictionaryColumn(String[] values) {
+    this.codes = new int[values.length];
+    this.dictionary = new ArrayList<>();
+    for (int row = 0; row < values.length; row++) {
+      codes[row] = codeOf(values[row]);
+    }
+  }
+
+  public int[] getCodes() {
+    return codes;
+  }
+
+  public List<String> getDictionary() {
+    return dictionary;
+  }
+
+  @Override
+  public int size() {
+    return codes.length;
+  }
+
+  @Override
+  public String getType() {
+    return TYPE_STRING;
+  }
+
+  @Override
+  public boolean isNull(int row) {
+    return codes[row] == NULL_CODE;
+  }
+
+  @Override
+  public String get(int row) {
+    int code = codes[row];
+    return code == NULL_CODE ? null : dictionary.get(code);
+  }
+
+  @Override
+  public void set(int row, Object value) {
+    codes[row] = codeOf(value == null ? null : value.toString());
+  }
+
+  private int codeOf(String value) {
+    if (value == null) {
+      return NULL_CODE;
+    }
+    if (index == null) {
+      index = new HashMap<>();
+      for (int i = 0; i < dictionary.size(); i++) {
+        index.put(dictionary.get(i), i);
+      }
+    }
+    Integer code = index.get(value);
+    if (code == null) {
+      code = dictionary.size();
+      dictionary.add(value);
+      index.put(value, code);
+    }
+    return code;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.column;
+
+/**
+ * Read/write access to one column of a table, by row index.
+ * <p>
+ * Primitive-backed columns override the typed getters so callers can read cells without boxing.
+ */
+public interface TableDisplayColumn {
+
+  int size();
+
+  /**
+   * @return the beakerx type name of the column, e.g. {@code "double"} or {@code "string"}
+   */
+  String getType();
+
+  boolean isNull(int row);
+
+  Object get(int row);
+
+  void set(int row, Object value);
+
+  default double getDouble(int row) {
+    return ((Number) get(row)).doubleValue();
+  }
+
+  default long getLong(int row) {
+    return ((Number) get(row)).longValue();
+  }
+
+  default boolean getBoolean(int row) {
+    return (Boolean) get(row);
+  }
+
+}
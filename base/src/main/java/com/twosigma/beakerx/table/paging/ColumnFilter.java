@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.util.Objects;
+
+import static com.twosigma.beakerx.table.paging.RowComparators.compareValues;
+import static com.twosigma.beakerx.table.paging.RowComparators.valueOf;
+
+public class ColumnFilter {
+
+  private final String column;
+  private final FilterOperator operator;
+  private final Object value;
+
+  public ColumnFilter(String column, FilterOperator operator, Object value) {
+    this.column = column;
+    this.operator = operator;
+    this.value = value;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public FilterOperator getOperator() {
+    return operator;
+  }
+
+  public Object getValue() {
+    return value;
+  }
+
+  public boolean matches(TableDisplayColumn values, int row) {
+    Object cell = valueOf(values, row);
+    if (cell == null || value == null) {
+      boolean same = cell == value;
+      return operator.equals(FilterOperator.NE) ? !same : same && operator.equals(FilterOperator.EQ);
+    }
+    switch (operator) {
+      case CONTAINS:
+        return cell.toString().toLowerCase().contains(value.toString().toLowerCase());
+      case EQ:
+        return compareValues(cell, value) == 0;
+      case NE:
+        return compareValues(cell, value) != 0;
+      case LT:
+        return compareValues(cell, value) < 0;
+      case LE:
+        return compareValues(cell, value) <= 0;
+      case GT:
+        return compareValues(cell, value) > 0;
+      default:
+        return compareValues(cell, value) >= 0;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ColumnFilter that = (ColumnFilter) o;
+    return Objects.equals(column, that.column) && operator == that.operator && Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(column, operator, value);
+  }
+}
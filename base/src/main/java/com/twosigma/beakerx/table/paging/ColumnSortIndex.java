@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+import com.twosigma.beakerx.table.paging.RowComparators.RowComparator;
+
+import java.util.BitSet;
+
+/**
+ * Rows of one column in ascending order, nulls last, ties by row id. Kept up to date on cell
+ * updates by moving the changed row instead of sorting again.
+ */
+class ColumnSortIndex {
+
+  private final TableDisplayColumn column;
+  private RowComparator cells;
+  private RowComparator total;
+  private int dictionarySize;
+  private final int[] order;
+  private final int[] positions;
+  private int nullCount;
+
+  private ColumnSortIndex(TableDisplayColumn column) {
+    this.column = column;
+    initComparators();
+    int rows = column.size();
+    this.order = new int[rows];
+    this.positions = new int[rows];
+    for (int row = 0; row < rows; row++) {
+      order[row] = row;
+      if (column.isNull(row)) {
+        nullCount++;
+      }
+    }
+  }
+
+  static ColumnSortIndex build(TableDisplayColumn column) {
+    ColumnSortIndex index = new ColumnSortIndex(column);
+    RowIdSort.parallelSort(index.order, index.total);
+    for (int i = 0; i < index.order.length; i++) {
+      index.positions[index.order[i]] = i;
+    }
+    return index;
+  }
+
+  private void initComparators() {
+    RowComparator cells = RowComparators.cells(column);
+    this.cells = cells;
+    this.total = (a, b) -> {
+      int result = cells.compare(a, b);
+      return result != 0 ? result : Integer.compare(a, b);
+    };
+    if (column instanceof StringDictionaryColumn) {
+      dictionarySize = ((StringDictionaryColumn) column).getDictionary().size();
+    }
+  }
+
+  /**
+   * @param rows rows to keep, or null for all of them
+   * @return the kept rows, ordered by this column; equal values stay in row id order also when descending
+   */
+  int[] select(boolean ascending, BitSet rows, int count) {
+    int[] result = new int[count];
+    int size = 0;
+    int nonNull = order.length - nullCount;
+    if (ascending) {
+      for (int i = 0; i < nonNull; i++) {
+        size = add(result, size, order[i], rows);
+      }
+    } else {
+      int i = nonNull - 1;
+      while (i >= 0) {
+        int first = i;
+        while (first > 0 && cells.compare(order[first - 1], order[i]) == 0) {
+          first--;
+        }
+        for (int j = first; j <= i; j++) {
+          size = add(result, size, order[j], rows);
+        }
+        i = first - 1;
+      }
+    }
+    for (int i = nonNull; i < order.length; i++) {
+      size = add(result, size, order[i], rows);
+    }
+    return result;
+  }
+
+  private static int add(int[] result, int size, int row, BitSet rows) {
+    if (rows == null || rows.get(row)) {
+      result[size++] = row;
+    }
+    return size;
+  }
+
+  /**
+   * Called after the value of {@code row} changed.
+   */
+  void update(int row, boolean wasNull) {
+    if (column instanceof StringDictionaryColumn
+            && ((StringDictionaryColumn) column).getDictionary().size() != dictionarySize) {
+      initComparators();
+    }
+    nullCount += (column.isNull(row) ? 1 : 0) - (wasNull ? 1 : 0);
+    int last = order.length - 1;
+    int from = positions[row];
+    System.arraycopy(order, from + 1, order, from, last - from);
+    int low = 0;
+    int high = last;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (total.compare(order[mid], row) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    System.arraycopy(order, low, order, low + 1, last - low);
+    order[low] = row;
+    for (int i = Math.min(from, low); i <= Math.max(from, low); i++) {
+      positions[order[i]] = i;
+    }
+  }
+}
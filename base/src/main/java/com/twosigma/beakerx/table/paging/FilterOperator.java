@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+public enum FilterOperator {
+  EQ("=="),
+  NE("!="),
+  LT("<"),
+  LE("<="),
+  GT(">"),
+  GE(">="),
+  CONTAINS("contains");
+
+  private final String symbol;
+
+  FilterOperator(String symbol) {
+    this.symbol = symbol;
+  }
+
+  public String getSymbol() {
+    return symbol;
+  }
+
+  public static FilterOperator getBySymbol(String symbol) {
+    for (FilterOperator operator : values()) {
+      if (operator.symbol.equalsIgnoreCase(symbol)) {
+        return operator;
+      }
+    }
+    throw new IllegalArgumentException("Unknown filter operator: " + symbol);
+  }
+}
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.column.BooleanColumn;
+import com.twosigma.beakerx.table.column.DoubleColumn;
+import com.twosigma.beakerx.table.column.IntColumn;
+import com.twosigma.beakerx.table.column.LongColumn;
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer.TYPE_LONG;
+
+/**
+ * Row comparators reading cells through {@link TableDisplayColumn}. Nulls sort last.
+ */
+public class RowComparators {
+
+  @FunctionalInterface
+  public interface RowComparator {
+    int compare(int rowA, int rowB);
+  }
+
+  public static RowComparator forColumn(TableDisplayColumn column, boolean ascending) {
+    RowComparator cells = cellComparator(column);
+    return nullsLast(column, ascending ? cells : (a, b) -> cells.compare(b, a));
+  }
+
+  /**
+   * Ascending cell order, nulls last, without the direction applied.
+   */
+  static RowComparator cells(TableDisplayColumn column) {
+    return nullsLast(column, cellComparator(column));
+  }
+
+  public static RowComparator forKeys(List<RowComparator> comparators) {
+    return (a, b) -> {
+      for (RowComparator comparator : comparators) {
+        int result = comparator.compare(a, b);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return Integer.compare(a, b);
+    };
+  }
+
+  private static RowComparator nullsLast(TableDisplayColumn column, RowComparator comparator) {
+    return (a, b) -> {
+      boolean nullA = column.isNull(a);
+      boolean nullB = column.isNull(b);
+      if (nullA || nullB) {
+        return nullA == nullB ? 0 : (nullA ? 1 : -1);
+      }
+      return comparator.compare(a, b);
+    };
+  }
+
+  private static RowComparator cellComparator(TableDisplayColumn column) {
+    if (column instanceof DoubleColumn) {
+      double[] values = ((DoubleColumn) column).getValues();
+      return (a, b) -> Double.compare(values[a], values[b]);
+    }
+    if (column instanceof LongColumn) {
+      long[] values = ((LongColumn) column).getValues();
+      return (a, b) -> Long.compare(values[a], values[b]);
+    }
+    if (column instanceof IntColumn) {
+      int[] values = ((IntColumn) column).getValues();
+      return (a, b) -> Integer.compare(values[a], values[b]);
+    }
+    if (column instanceof BooleanColumn) {
+      boolean[] values = ((BooleanColumn) column).getValues();
+      return (a, b) -> Boolean.compare(values[a], values[b]);
+    }
+    if (column instanceof StringDictionaryColumn) {
+      int[] codes = ((StringDictionaryColumn) column).getCodes();
+      int[] ranks = dictionaryRanks(((StringDictionaryColumn) column).getDictionary());
+      return (a, b) -> Integer.compare(ranks[codes[a]], ranks[codes[b]]);
+    }
+    return (a, b) -> compareValues(valueOf(column, a), valueOf(column, b));
+  }
+
+  private static int[] dictionaryRanks(List<String> dictionary) {
+    Integer[] order = new Integer[dictionary.size()];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+    Arrays.sort(order, (a, b) -> dictionary.get(a).compareTo(dictionary.get(b)));
+    int[] ranks = new int[order.length];
+    for (int rank = 0; rank < order.length; rank++) {
+      ranks[order[rank]] = rank;
+    }
+    return ranks;
+  }
+
+  /**
+   * Row models keep int64 values as strings, they are compared as numbers.
+   */
+  static Object valueOf(TableDisplayColumn column, int row) {
+    Object value = column.get(row);
+    if (value instanceof String && TYPE_LONG.equals(column.getType())) {
+      try {
+        return Long.parseLong((String) value);
+      } catch (NumberFormatException e) {
+        return value;
+      }
+    }
+    return value;
+  }
+
+  @SuppressWarnings("unchecked")
+  static int compareValues(Object a, Object b) {
+    if (a == null || b == null) {
+      return a == b ? 0 : (a == null ? 1 : -1);
+    }
+    if (a instanceof Number && b instanceof Number) {
+      return Double.compare(((Number) a).doubleValue(), ((Number) b).doubleValue());
+    }
+    if (a instanceof Comparable && a.getClass().equals(b.getClass())) {
+      return ((Comparable<Object>) a).compareTo(b);
+    }
+    return a.toString().compareTo(b.toString());
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.paging.RowComparators.RowComparator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of row ids, avoiding boxed {@code Integer[]} for large tables.
+ */
+public class RowIdSort {
+
+  private static final int INSERTION_SORT_THRESHOLD = 32;
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  public static void sort(int[] rowIds, RowComparator comparator) {
+    int[] buffer = rowIds.clone();
+    mergeSort(buffer, rowIds, 0, rowIds.length, comparator);
+  }
+
+  /**
+   * Same as {@link #sort}, with the halves sorted on the common fork-join pool. The comparator is
+   * called from several threads at once.
+   */
+  public static void parallelSort(int[] rowIds, RowComparator comparator) {
+    if (rowIds.length <= PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+      sort(rowIds, comparator);
+      return;
+    }
+    int[] buffer = rowIds.clone();
+    ForkJoinPool.commonPool().invoke(new ParallelMergeSort(buffer, rowIds, 0, rowIds.length, comparator));
+  }
+
+  /**
+   * Sorts {@code dst[from, to)}, using {@code src} (a copy of the same range) as scratch space.
+   */
+  static void mergeSort(int[] src, int[] dst, int from, int to, RowComparator comparator) {
+    if (to - from <= INSERTION_SORT_THRESHOLD) {
+      insertionSort(dst, from, to, comparator);
+      return;
+    }
+    int mid = (from + to) >>> 1;
+    mergeSort(dst, src, from, mid, comparator);
+    mergeSort(dst, src, mid, to, comparator);
+    merge(src, dst, from, mid, to, comparator);
+  }
+
+  static void merge(int[] src, int[] dst, int from, int mid, int to, RowComparator comparator) {
+    if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+      System.arraycopy(src, from, dst, from, to - from);
+      return;
+    }
+    int left = from;
+    int right = mid;
+    for (int i = from; i < to; i++) {
+      if (right >= to || (left < mid && comparator.compare(src[left], src[right]) <= 0)) {
+        dst[i] = src[left++];
+      } else {
+        dst[i] = src[right++];
+      }
+    }
+  }
+
+  private static void insertionSort(int[] a, int from, int to, RowComparator comparator) {
+    for (int i = from + 1; i < to; i++) {
+      int value = a[i];
+      int j = i - 1;
+      while (j >= from && comparator.compare(a[j], value) > 0) {
+        a[j + 1] = a[j];
+        j--;
+      }
+      a[j + 1] = value;
+    }
+  }
+
+  private static class ParallelMergeSort extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int[] src;
+    private final int[] dst;
+    private final int from;
+    private final int to;
+    private final RowComparator comparator;
+
+    ParallelMergeSort(int[] src, int[] dst, int from, int to, RowComparator comparator) {
+      this.src = src;
+      this.dst = dst;
+      this.from = from;
+      this.to = to;
+      this.comparator = comparator;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= PARALLEL_THRESHOLD) {
+        mergeSort(src, dst, from, to, comparator);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ParallelMergeSort(dst, src, from, mid, comparator),
+              new ParallelMergeSort(dst, src, mid, to, comparator));
+      merge(src, dst, from, mid, to, comparator);
+    }
+  }
+}
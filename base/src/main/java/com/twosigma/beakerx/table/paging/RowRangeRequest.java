@@ -0,0 +1,161 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A window of rows requested by the front-end, after sorting and filtering on the kernel.
+ */
+public class RowRangeRequest {
+
+  public static final String REQUEST_ID = "requestId";
+  public static final String START = "start";
+  public static final String END = "end";
+  public static final String SORT = "sort";
+  public static final String FILTERS = "filters";
+  public static final String COLUMN = "column";
+  public static final String ASCENDING = "ascending";
+  public static final String OPERATOR = "operator";
+  public static final String VALUE = "value";
+  public static final String SEARCH = "search";
+  public static final String ROW_IDS_ONLY = "rowIdsOnly";
+
+  private final Object requestId;
+  private final int start;
+  private final int end;
+  private final List<SortKey> sort;
+  private final List<ColumnFilter> filters;
+  private final String search;
+  private final boolean rowIdsOnly;
+
+  public RowRangeRequest(int start, int end) {
+    this(null, start, end, Collections.emptyList(), Collections.emptyList());
+  }
+
+  public RowRangeRequest(Object requestId, int start, int end, List<SortKey> sort, List<ColumnFilter> filters) {
+    this(requestId, start, end, sort, filters, null, false);
+  }
+
+  public RowRangeRequest(Object requestId, int start, int end, List<SortKey> sort, List<ColumnFilter> filters, String search, boolean rowIdsOnly) {
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException("Invalid row range: " + start + " - " + end);
+    }
+    this.requestId = requestId;
+    this.start = start;
+    this.end = end;
+    this.sort = sort;
+    this.filters = filters;
+    this.search = search;
+    this.rowIdsOnly = rowIdsOnly;
+  }
+
+  /**
+   * @throws IllegalArgumentException if the content is not a well formed row range request
+   */
+  public static RowRangeRequest fromContent(Map content) {
+    List<SortKey> sort = new ArrayList<>();
+    for (Map key : maps(content, SORT)) {
+      sort.add(new SortKey(string(key, COLUMN, true), !Boolean.FALSE.equals(key.get(ASCENDING))));
+    }
+    List<ColumnFilter> filters = new ArrayList<>();
+    for (Map filter : maps(content, FILTERS)) {
+      filters.add(new ColumnFilter(
+              string(filter, COLUMN, true),
+              FilterOperator.getBySymbol(string(filter, OPERATOR, true)),
+              filter.get(VALUE)));
+    }
+    return new RowRangeRequest(
+            content.get(REQUEST_ID),
+            integer(content, START),
+            integer(content, END),
+            sort,
+            filters,
+            string(content, SEARCH, false),
+            Boolean.TRUE.equals(content.get(ROW_IDS_ONLY)));
+  }
+
+  private static int integer(Map content, String key) {
+    Object value = content.get(key);
+    if (!(value instanceof Number)) {
+      throw new IllegalArgumentException("Row range request needs a numeric '" + key + "', got: " + value);
+    }
+    return ((Number) value).intValue();
+  }
+
+  private static String string(Map content, String key, boolean required) {
+    Object value = content.get(key);
+    if (value == null && !required) {
+      return null;
+    }
+    if (!(value instanceof String)) {
+      throw new IllegalArgumentException("Row range request needs a string '" + key + "', got: " + value);
+    }
+    return (String) value;
+  }
+
+  private static List<Map> maps(Map content, String key) {
+    Object value = content.get(key);
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    if (!(value instanceof List)) {
+      throw new IllegalArgumentException("Row range request needs a list '" + key + "', got: " + value);
+    }
+    List<Map> maps = new ArrayList<>();
+    for (Object item : (List<?>) value) {
+      if (!(item instanceof Map)) {
+        throw new IllegalArgumentException("Row range request needs objects in '" + key + "', got: " + item);
+      }
+      maps.add((Map) item);
+    }
+    return maps;
+  }
+
+  public Object getRequestId() {
+    return requestId;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  public List<SortKey> getSort() {
+    return sort;
+  }
+
+  public List<ColumnFilter> getFilters() {
+    return filters;
+  }
+
+  public String getSearch() {
+    return search;
+  }
+
+  /**
+   * The front-end already holds the rows and only needs their order.
+   */
+  public boolean isRowIdsOnly() {
+    return rowIdsOnly;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import java.util.List;
+
+/**
+ * Rows {@code [start, end)} of the sorted and filtered table. {@code rowIds} are indexes into the
+ * unsorted table, {@code rowCount} is the number of rows left after filtering. {@code values} is null
+ * when only the row ids were requested.
+ */
+public class RowWindow {
+
+  private final Object requestId;
+  private final int start;
+  private final int end;
+  private final int rowCount;
+  private final int[] rowIds;
+  private final List<List<?>> values;
+
+  public RowWindow(Object requestId, int start, int end, int rowCount, int[] rowIds, List<List<?>> values) {
+    this.requestId = requestId;
+    this.start = start;
+    this.end = end;
+    this.rowCount = rowCount;
+    this.rowIds = rowIds;
+    this.values = values;
+  }
+
+  public Object getRequestId() {
+    return requestId;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int[] getRowIds() {
+    return rowIds;
+  }
+
+  public List<List<?>> getValues() {
+    return values;
+  }
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import java.util.Objects;
+
+public class SortKey {
+
+  private final String column;
+  private final boolean ascending;
+
+  public SortKey(String column, boolean ascending) {
+    this.column = column;
+    this.ascending = ascending;
+  }
+
+  public String getColumn() {
+    return column;
+  }
+
+  public boolean isAscending() {
+    return ascending;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SortKey sortKey = (SortKey) o;
+    return ascending == sortKey.ascending && Objects.equals(column, sortKey.column);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(column, ascending);
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Case-insensitive substring search over the text of all cells. Each column is dictionary encoded
+ * once, so a search tests every distinct text once and then only compares int codes per row.
+ * A query that extends the previous one only looks at the rows the previous one matched.
+ */
+class StringSearchIndex {
+
+  private static final int NULL_CODE = -1;
+
+  private final List<TableDisplayColumn> columns;
+  private final ColumnText[] texts;
+  private final int rowCount;
+  private String lastQuery;
+  private BitSet lastResult;
+
+  StringSearchIndex(List<TableDisplayColumn> columns, int rowCount) {
+    this.columns = columns;
+    this.texts = new ColumnText[columns.size()];
+    this.rowCount = rowCount;
+  }
+
+  synchronized BitSet search(String query) {
+    String text = query.toLowerCase();
+    if (text.equals(lastQuery)) {
+      return lastResult;
+    }
+    BitSet candidates = null;
+    if (lastQuery != null && text.startsWith(lastQuery)) {
+      candidates = lastResult;
+    }
+    BitSet result = new BitSet(rowCount);
+    for (int col = 0; col < columns.size(); col++) {
+      ColumnText columnText = text(col);
+      BitSet matchingCodes = columnText.matching(text);
+      if (matchingCodes.isEmpty()) {
+        continue;
+      }
+      int[] codes = columnText.codes();
+      if (candidates == null) {
+        for (int row = 0; row < rowCount; row++) {
+          if (codes[row] != NULL_CODE && matchingCodes.get(codes[row])) {
+            result.set(row);
+          }
+        }
+      } else {
+        for (int row = candidates.nextSetBit(0); row >= 0; row = candidates.nextSetBit(row + 1)) {
+          if (codes[row] != NULL_CODE && matchingCodes.get(codes[row])) {
+            result.set(row);
+          }
+        }
+      }
+    }
+    lastQuery = text;
+    lastResult = result;
+    return result;
+  }
+
+  synchronized void update(int row, int col) {
+    if (texts[col] != null) {
+      texts[col].update(row);
+    }
+    lastQuery = null;
+    lastResult = null;
+  }
+
+  private ColumnText text(int col) {
+    if (texts[col] == null) {
+      TableDisplayColumn column = columns.get(col);
+      texts[col] = column instanceof StringDictionaryColumn
+              ? new DictionaryText((StringDictionaryColumn) column)
+              : new EncodedText(column);
+    }
+    return texts[col];
+  }
+
+  private interface ColumnText {
+
+    int[] codes();
+
+    BitSet matching(String text);
+
+    void update(int row);
+  }
+
+  private static BitSet matching(List<String> distinct, String text) {
+    BitSet result = new BitSet(distinct.size());
+    for (int code = 0; code < distinct.size(); code++) {
+      if (distinct.get(code).contains(text)) {
+        result.set(code);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reuses the codes of a dictionary column, only the lower case dictionary is kept here.
+   */
+  private static class DictionaryText implements ColumnText {
+
+    private final StringDictionaryColumn column;
+    private final List<String> lowerCase = new ArrayList<>();
+
+    DictionaryText(StringDictionaryColumn column) {
+      this.column = column;
+    }
+
+    @Override
+    public int[] codes() {
+      return column.getCodes();
+    }
+
+    @Override
+    public BitSet matching(String text) {
+      List<String> dictionary = column.getDictionary();
+      for (int code = lowerCase.size(); code < dictionary.size(); code++) {
+        lowerCase.add(dictionary.get(code).toLowerCase());
+      }
+      return StringSearchIndex.matching(lowerCase, text);
+    }
+
+    @Override
+    public void update(int row) {
+    }
+  }
+
+  private static class EncodedText implements ColumnText {
+
+    private final TableDisplayColumn column;
+    private final int[] codes;
+    private final List<String> distinct = new ArrayList<>();
+    private final Map<String, Integer> index = new HashMap<>();
+
+    EncodedText(TableDisplayColumn column) {
+      this.column = column;
+      this.codes = new int[column.size()];
+      for (int row = 0; row < codes.length; row++) {
+        update(row);
+      }
+    }
+
+    @Override
+    public int[] codes() {
+      return codes;
+    }
+
+    @Override
+    public BitSet matching(String text) {
+      return StringSearchIndex.matching(distinct, text);
+    }
+
+    @Override
+    public void update(int row) {
+      Object value = column.get(row);
+      if (value == null) {
+        codes[row] = NULL_CODE;
+        return;
+      }
+      String text = value.toString().toLowerCase();
+      Integer code = index.get(text);
+      if (code == null) {
+        code = distinct.size();
+        distinct.add(text);
+        index.put(text, code);
+      }
+      codes[row] = code;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.TableDisplay;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kernel-side indexes of a table: a sorted permutation of the rows per column and a string
+ * search index. Both are built on first use and updated in place by {@link #update}.
+ */
+public class TableDisplayIndex {
+
+  private final TableDisplay tableDisplay;
+  private final Map<String, ColumnSortIndex> sortIndexes = new HashMap<>();
+  private StringSearchIndex searchIndex;
+  private int rowCount = -1;
+
+  public TableDisplayIndex(TableDisplay tableDisplay) {
+    this.tableDisplay = tableDisplay;
+  }
+
+  /**
+   * @param rows rows to keep, or null for all of them
+   */
+  public synchronized int[] sorted(String column, boolean ascending, BitSet rows) {
+    checkRowCount();
+    ColumnSortIndex index = sortIndexes.computeIfAbsent(column, name -> ColumnSortIndex.build(tableDisplay.getColumn(name)));
+    return index.select(ascending, rows, rows == null ? rowCount : rows.cardinality());
+  }
+
+  public synchronized BitSet search(String query) {
+    checkRowCount();
+    if (searchIndex == null) {
+      List<TableDisplayColumn> columns = new ArrayList<>();
+      for (String name : tableDisplay.getColumnNames()) {
+        columns.add(tableDisplay.getColumn(name));
+      }
+      searchIndex = new StringSearchIndex(columns, rowCount);
+    }
+    return searchIndex.search(query);
+  }
+
+  /**
+   * Called after a cell changed, {@code wasNull} tells if it held null before.
+   */
+  public synchronized void update(int row, String column, boolean wasNull) {
+    if (rowCount != tableDisplay.getRowCount()) {
+      return;
+    }
+    ColumnSortIndex index = sortIndexes.get(column);
+    if (index != null) {
+      index.update(row, wasNull);
+    }
+    if (searchIndex != null) {
+      searchIndex.update(row, tableDisplay.getColumnNames().indexOf(column));
+    }
+  }
+
+  /**
+   * Rows are added while pages are loaded, the indexes are built again for the new rows.
+   */
+  private void checkRowCount() {
+    int current = tableDisplay.getRowCount();
+    if (current != rowCount) {
+      sortIndexes.clear();
+      searchIndex = null;
+      rowCount = current;
+    }
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.table.TableDisplay;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+import com.twosigma.beakerx.table.paging.RowComparators.RowComparator;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Sorts, filters and searches a table on the kernel and cuts windows out of the result. The row ids
+ * of the last request are kept, so scrolling through the same view does not select again.
+ */
+public class TableDisplayRowSelection {
+
+  private final TableDisplay tableDisplay;
+  private final TableDisplayIndex index;
+  private List<SortKey> sort;
+  private List<ColumnFilter> filters;
+  private String search;
+  private int[] rowIds;
+
+  public TableDisplayRowSelection(TableDisplay tableDisplay) {
+    this.tableDisplay = tableDisplay;
+    this.index = new TableDisplayIndex(tableDisplay);
+  }
+
+  public synchronized RowWindow window(RowRangeRequest request) {
+    int[] selected = select(request.getSort(), request.getFilters(), request.getSearch());
+    int rowCount = selected == null ? tableDisplay.getRowCount() : selected.length;
+    int start = Math.min(request.getStart(), rowCount);
+    int end = Math.min(request.getEnd(), rowCount);
+    int[] windowIds = new int[end - start];
+    for (int i = start; i < end; i++) {
+      windowIds[i - start] = selected == null ? i : selected[i];
+    }
+    List<List<?>> rows = null;
+    if (!request.isRowIdsOnly()) {
+      rows = new ArrayList<>(windowIds.length);
+      List<List<?>> values = tableDisplay.getValues();
+      for (int rowId : windowIds) {
+        rows.add(values.get(rowId));
+      }
+    }
+    return new RowWindow(request.getRequestId(), start, end, rowCount, windowIds, rows);
+  }
+
+  /**
+   * Called after a cell changed, {@code wasNull} tells if it held null before.
+   */
+  public synchronized void cellUpdated(int row, String column, boolean wasNull) {
+    index.update(row, column, wasNull);
+    this.rowIds = null;
+  }
+
+  /**
+   * @return row ids in display order, or null when the table is neither sorted, filtered nor searched
+   */
+  private int[] select(List<SortKey> sort, List<ColumnFilter> filters, String search) {
+    boolean searching = search != null && !search.isEmpty();
+    if (sort.isEmpty() && filters.isEmpty() && !searching) {
+      return null;
+    }
+    if (rowIds == null || !sort.equals(this.sort) || !filters.equals(this.filters) || !Objects.equals(search, this.search)) {
+      BitSet rows = searching ? (BitSet) index.search(search).clone() : null;
+      rows = filter(filters, rows);
+      this.rowIds = sort(sort, rows);
+      this.sort = sort;
+      this.filters = filters;
+      this.search = search;
+    }
+    return rowIds;
+  }
+
+  /**
+   * @param rows rows left by the search, or null for all of them
+   */
+  private BitSet filter(List<ColumnFilter> filters, BitSet rows) {
+    if (filters.isEmpty()) {
+      return rows;
+    }
+    int rowCount = tableDisplay.getRowCount();
+    List<TableDisplayColumn> columns = new ArrayList<>();
+    for (ColumnFilter filter : filters) {
+      columns.add(tableDisplay.getColumn(filter.getColumn()));
+    }
+    BitSet result = new BitSet(rowCount);
+    for (int row = 0; row < rowCount; row++) {
+      if ((rows == null || rows.get(row)) && matches(filters, columns, row)) {
+        result.set(row);
+      }
+    }
+    return result;
+  }
+
+  private boolean matches(List<ColumnFilter> filters, List<TableDisplayColumn> columns, int row) {
+    for (int i = 0; i < filters.size(); i++) {
+      if (!filters.get(i).matches(columns.get(i), row)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * A single sort key is read from the column index. More keys sort the selected rows, on the
+   * fork-join pool when there are many.
+   */
+  private int[] sort(List<SortKey> sort, BitSet rows) {
+    if (sort.size() == 1) {
+      SortKey key = sort.get(0);
+      return index.sorted(key.getColumn(), key.isAscending(), rows);
+    }
+    int[] ids = rows == null ? allRows() : rows.stream().toArray();
+    if (!sort.isEmpty()) {
+      List<RowComparator> comparators = new ArrayList<>();
+      for (SortKey key : sort) {
+        comparators.add(RowComparators.forColumn(tableDisplay.getColumn(key.getColumn()), key.isAscending()));
+      }
+      RowIdSort.parallelSort(ids, RowComparators.forKeys(comparators));
+    }
+    return ids;
+  }
+
+  private int[] allRows() {
+    int[] ids = new int[tableDisplay.getRowCount()];
+    for (int row = 0; row < ids.length; row++) {
+      ids[row] = row;
+    }
+    return ids;
+  }
+}
@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.BINARY;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.VALUES_ENCODING;
+
 public class TableDisplaySerializer extends ObservableTableDisplaySerializer<TableDisplay> {
 
   private TableSettings settings;
@@ -51,6 +54,8 @@ public class TableDisplaySerializer extends ObservableTableDisplaySerializer<Tab
   public static final String TIME_ZONE = "timeZone";
   public static final String VALUES = "values";
   public static final String TYPE = "type";
+  public static final String COLUMN_NAMES = "columnNames";
+  public static final String TYPES = "types";
   public static final String TABLE_DISPLAY = "TableDisplay";
   public static final String CELL_HIGHLIGHTERS = "cellHighlighters";
   public static final String TOOLTIPS = "tooltips";
@@ -58,6 +63,11 @@ public class TableDisplaySerializer extends ObservableTableDisplaySerializer<Tab
   public static final String ROWS_TO_SHOW = "rowsToShow";
   public static final String AUTO_LINK_TABLE_LINKS = "auto_link_table_links";
   public static final String SHOW_PUBLICATION = "show_publication";
+  public static final String WINDOWED = "windowed";
+  public static final String ROW_LENGTH = "rowLength";
+  public static final String ROW_WINDOW = "rowWindow";
+  public static final String ROW_COUNT = "rowCount";
+  public static final String ROW_IDS = "rowIds";
 
 
   @Override
@@ -70,8 +80,8 @@ public class TableDisplaySerializer extends ObservableTableDisplaySerializer<Tab
       jgen.writeStartObject();
       super.serialize(tableDisplay, jgen);
       jgen.writeObjectField(TYPE, TABLE_DISPLAY);
-      jgen.writeObjectField("columnNames", tableDisplay.getColumnNames());
-      jgen.writeObjectField("types", tableDisplay.getTypes());
+      jgen.writeObjectField(COLUMN_NAMES, tableDisplay.getColumnNames());
+      jgen.writeObjectField(TYPES, tableDisplay.getTypes());
       jgen.writeObjectField("subtype", tableDisplay.getSubtype());
       jgen.writeObjectField(STRING_FORMAT_FOR_TYPE, tableDisplay.getStringFormatForType());
       jgen.writeObjectField(STRING_FORMAT_FOR_COLUMN, tableDisplay.getStringFormatForColumn());
@@ -95,35 +105,51 @@ public class TableDisplaySerializer extends ObservableTableDisplaySerializer<Tab
       jgen.writeBooleanField(HEADERS_VERTICAL, tableDisplay.getHeadersVertical());
       jgen.writeObjectField(HAS_INDEX, tableDisplay.getHasIndex());
       jgen.writeObjectField(TIME_ZONE, tableDisplay.getTimeZone());
-      jgen.writeObjectField(LOADING_MODE, TableDisplay.getLoadingMode());
+      jgen.writeObjectField(LOADING_MODE, tableDisplay.getDisplayLoadingMode());
 
       Map<String, Object> options = settings.options();
       for (String k : options.keySet()) {
         jgen.writeObjectField(k, options.get(k));
       }
-      if (TableDisplay.getLoadingMode().equals(TableDisplayLoadingMode.ALL)) {
+      if (tableDisplay.getDisplayLoadingMode().equals(TableDisplayLoadingMode.ALL)) {
         loadingAllMode(tableDisplay, jgen, tableDisplay.takeAllData());
       } else {
-        loadingPageMode(jgen, tableDisplay.getValues());
+        loadingPageMode(tableDisplay, jgen, tableDisplay.getValues());
       }
       jgen.writeEndObject();
     }
   }
 
-  private void loadingPageMode(JsonGenerator jgen, List<List<?>> values) throws IOException {
-    jgen.writeObjectField(VALUES, values);
+  private void loadingPageMode(TableDisplay tableDisplay, JsonGenerator jgen, List<List<?>> values) throws IOException {
+    writeValues(tableDisplay, jgen, values);
   }
 
   private void loadingAllMode(TableDisplay tableDisplay, JsonGenerator jgen, List<List<?>> values) throws IOException {
-    if (values.size() > tableDisplay.ROWS_LIMIT) {
-      jgen.writeObjectField(VALUES, values.subList(0, tableDisplay.ROW_LIMIT_TO_INDEX));
+    if (values.size() > tableDisplay.ROWS_LIMIT && TableDisplay.isWindowedPaging()) {
+      writeValues(tableDisplay, jgen, values.subList(0, tableDisplay.ROW_LIMIT_TO_INDEX));
+      jgen.writeBooleanField("tooManyRows", false);
+      jgen.writeBooleanField(WINDOWED, true);
+      jgen.writeObjectField(ROW_LENGTH, values.size());
+    } else if (values.size() > tableDisplay.ROWS_LIMIT) {
+      writeValues(tableDisplay, jgen, values.subList(0, tableDisplay.ROW_LIMIT_TO_INDEX));
       jgen.writeBooleanField("tooManyRows", true);
-      jgen.writeObjectField("rowLength", values.size());
+      jgen.writeObjectField(ROW_LENGTH, values.size());
       jgen.writeObjectField("rowLimit", tableDisplay.ROWS_LIMIT);
       jgen.writeObjectField("rowLimitMsg", tableDisplay.getRowLimitMsg());
     } else {
-      jgen.writeObjectField("values", values);
+      writeValues(tableDisplay, jgen, values);
       jgen.writeBooleanField("tooManyRows", false);
     }
   }
+
+  /**
+   * With binary encoding the values are not written here, TableDisplay attaches them as comm buffers.
+   */
+  private void writeValues(TableDisplay tableDisplay, JsonGenerator jgen, List<List<?>> values) throws IOException {
+    if (tableDisplay.isBinaryValues()) {
+      jgen.writeStringField(VALUES_ENCODING, BINARY);
+    } else {
+      jgen.writeObjectField(VALUES, values);
+    }
+  }
 }
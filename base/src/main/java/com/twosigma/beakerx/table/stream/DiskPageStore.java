@@ -0,0 +1,200 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.stream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages of rows written with Java serialization to a temporary file. A page written again goes
+ * back into its old slot when it fits; otherwise the old slot is freed and reused by a later page.
+ * Rows are read back with the class loader that was the context class loader when the store was
+ * created, so classes defined in the notebook can be resolved.
+ */
+public class DiskPageStore implements Closeable {
+
+  private final Map<Integer, Slot> locations = new HashMap<>();
+  private final List<Slot> free = new ArrayList<>();
+  private final ClassLoader classLoader;
+  private Path path;
+  private RandomAccessFile file;
+
+  public DiskPageStore() {
+    this(Thread.currentThread().getContextClassLoader());
+  }
+
+  public DiskPageStore(ClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  public synchronized boolean contains(int page) {
+    return locations.containsKey(page);
+  }
+
+  /**
+   * @return false when the rows can not be serialized, the caller has to keep the page in memory
+   */
+  public synchronized boolean write(int page, List<List<?>> rows) {
+    byte[] bytes;
+    try {
+      bytes = serialize(rows);
+    } catch (IOException e) {
+      return false;
+    }
+    try {
+      RandomAccessFile out = file();
+      Slot slot = slotFor(page, bytes.length);
+      out.seek(slot.offset);
+      out.write(bytes);
+      slot.length = bytes.length;
+      locations.put(page, slot);
+      return true;
+    } catch (IOException e) {
+      throw new RuntimeException("Can not write table page to " + path, e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  public synchronized List<List<?>> read(int page) {
+    Slot slot = locations.get(page);
+    if (slot == null) {
+      throw new IllegalArgumentException("Page " + page + " is not stored");
+    }
+    try {
+      byte[] bytes = new byte[slot.length];
+      file.seek(slot.offset);
+      file.readFully(bytes);
+      try (ObjectInputStream in = new PageInputStream(new ByteArrayInputStream(bytes), classLoader)) {
+        return (List<List<?>>) in.readObject();
+      }
+    } catch (IOException | ClassNotFoundException e) {
+      throw new RuntimeException("Can not read table page from " + path, e);
+    }
+  }
+
+  public synchronized long size() {
+    try {
+      return file == null ? 0 : file.length();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    locations.clear();
+    free.clear();
+    if (file != null) {
+      try {
+        file.close();
+        Files.deleteIfExists(path);
+      } catch (IOException e) {
+        // the file is also deleted on exit
+      }
+      file = null;
+    }
+  }
+
+  private RandomAccessFile file() throws IOException {
+    if (file == null) {
+      path = Files.createTempFile("beakerx-table", ".pages");
+      path.toFile().deleteOnExit();
+      file = new RandomAccessFile(path.toFile(), "rw");
+    }
+    return file;
+  }
+
+  /**
+   * The page's own slot when the bytes fit, else the first free slot large enough, else a new
+   * slot at the end of the file.
+   */
+  private Slot slotFor(int page, int length) throws IOException {
+    Slot current = locations.remove(page);
+    if (current != null) {
+      if (length <= current.capacity) {
+        return current;
+      }
+      free.add(current);
+    }
+    Iterator<Slot> it = free.iterator();
+    while (it.hasNext()) {
+      Slot slot = it.next();
+      if (length <= slot.capacity) {
+        it.remove();
+        return slot;
+      }
+    }
+    return new Slot(file.length(), length);
+  }
+
+  private static byte[] serialize(List<List<?>> rows) throws IOException {
+    ArrayList<ArrayList<?>> copy = new ArrayList<>(rows.size());
+    for (List<?> row : rows) {
+      copy.add(new ArrayList<>(row));
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(copy);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static class Slot {
+    private final long offset;
+    private final int capacity;
+    private int length;
+
+    private Slot(long offset, int capacity) {
+      this.offset = offset;
+      this.capacity = capacity;
+    }
+  }
+
+  private static class PageInputStream extends ObjectInputStream {
+    private final ClassLoader classLoader;
+
+    private PageInputStream(InputStream in, ClassLoader classLoader) throws IOException {
+      super(in);
+      this.classLoader = classLoader;
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+      if (classLoader != null) {
+        try {
+          return Class.forName(desc.getName(), false, classLoader);
+        } catch (ClassNotFoundException e) {
+          // primitive types and classes only the default loader knows
+        }
+      }
+      return super.resolveClass(desc);
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.stream;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads pages from a source iterator on a background thread, one page ahead of the reader. The
+ * iterator is only touched from that thread. The thread stops when idle and is started again for
+ * the next page.
+ */
+public class PagePrefetcher<T> implements Closeable {
+
+  private final Iterator<T> iterator;
+  private final int pageSize;
+  private final ThreadPoolExecutor executor;
+  private Future<List<T>> next;
+  private volatile boolean exhausted;
+
+  public PagePrefetcher(Iterator<T> iterator, int pageSize) {
+    this.iterator = iterator;
+    this.pageSize = pageSize;
+    this.executor = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "beakerx-table-prefetch");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Starts reading the next page unless it is already read or the source has no more rows.
+   */
+  public synchronized void prefetch() {
+    if (next == null && !exhausted) {
+      next = executor.submit(this::read);
+    }
+  }
+
+  /**
+   * @return the next page, empty when the source has no more rows
+   */
+  public synchronized List<T> next() {
+    prefetch();
+    if (next == null) {
+      return new ArrayList<>();
+    }
+    try {
+      return next.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Can not read table rows", e.getCause());
+    } finally {
+      next = null;
+    }
+  }
+
+  public synchronized boolean hasMore() {
+    return !exhausted || next != null;
+  }
+
+  @Override
+  public synchronized void close() {
+    exhausted = true;
+    if (next != null) {
+      next.cancel(true);
+      next = null;
+    }
+    executor.shutdownNow();
+  }
+
+  private List<T> read() {
+    List<T> page = new ArrayList<>(pageSize);
+    while (page.size() < pageSize && iterator.hasNext()) {
+      page.add(iterator.next());
+    }
+    if (!iterator.hasNext()) {
+      exhausted = true;
+    }
+    return page;
+  }
+}
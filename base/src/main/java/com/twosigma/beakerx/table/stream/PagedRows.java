@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.stream;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rows held as fixed size pages, at most {@code maxPagesInMemory} of them on the heap. The least
+ * recently used page is spilled to a {@link DiskPageStore} and read back when a row of it is needed.
+ * Pages that can not be serialized stay in memory.
+ */
+public class PagedRows extends AbstractList<List<?>> {
+
+  private final int pageSize;
+  private final int maxPagesInMemory;
+  private final DiskPageStore store;
+  private final LinkedHashMap<Integer, Page> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<Integer, Page> pinned = new HashMap<>();
+  private int rowCount;
+  private int pageCount;
+  private long pageReads;
+
+  public PagedRows(int pageSize, int maxPagesInMemory, DiskPageStore store) {
+    this.pageSize = pageSize;
+    this.maxPagesInMemory = Math.max(1, maxPagesInMemory);
+    this.store = store;
+  }
+
+  /**
+   * Every page but the last one has to hold {@code pageSize} rows.
+   */
+  public synchronized void addPage(List<List<?>> rows) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    if (rowCount % pageSize != 0) {
+      throw new IllegalStateException("The last page is not full, no page can be added after it");
+    }
+    cache(pageCount, new Page(rows, true));
+    pageCount++;
+    rowCount += rows.size();
+  }
+
+  @Override
+  public synchronized List<?> get(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row: " + row + ", rows: " + rowCount);
+    }
+    Page page = page(row / pageSize);
+    return new PageRow(page, page.rows.get(row % pageSize));
+  }
+
+  @Override
+  public synchronized int size() {
+    return rowCount;
+  }
+
+  public synchronized int getPagesInMemory() {
+    return cache.size() + pinned.size();
+  }
+
+  /**
+   * Number of pages read back from disk.
+   */
+  public synchronized long getPageReads() {
+    return pageReads;
+  }
+
+  private Page page(int index) {
+    Page page = cache.get(index);
+    if (page == null) {
+      page = pinned.get(index);
+    }
+    if (page == null) {
+      page = new Page(store.read(index), false);
+      pageReads++;
+      cache(index, page);
+    }
+    return page;
+  }
+
+  private void cache(int index, Page page) {
+    cache.put(index, page);
+    Iterator<Map.Entry<Integer, Page>> eldest = cache.entrySet().iterator();
+    while (cache.size() > maxPagesInMemory && eldest.hasNext()) {
+      Map.Entry<Integer, Page> entry = eldest.next();
+      if (entry.getKey() == index) {
+        continue;
+      }
+      eldest.remove();
+      spill(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private void spill(int index, Page page) {
+    if (!page.dirty && store.contains(index)) {
+      return;
+    }
+    if (store.write(index, page.rows)) {
+      page.dirty = false;
+    } else {
+      pinned.put(index, page);
+    }
+  }
+
+  private static class Page {
+    private final List<List<?>> rows;
+    private boolean dirty;
+
+    Page(List<List<?>> rows, boolean dirty) {
+      this.rows = rows;
+      this.dirty = dirty;
+    }
+  }
+
+  /**
+   * Marks the page dirty on change, so the change is written out when the page is spilled.
+   */
+  private static class PageRow extends AbstractList<Object> {
+    private final Page page;
+    private final List<?> row;
+
+    PageRow(Page page, List<?> row) {
+      this.page = page;
+      this.row = row;
+    }
+
+    @Override
+    public Object get(int index) {
+      return row.get(index);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object set(int index, Object element) {
+      page.dirty = true;
+      return ((List<Object>) row).set(index, element);
+    }
+
+    @Override
+    public int size() {
+      return row.size();
+    }
+  }
+}
@@ -15,6 +15,7 @@
  */
 package com.twosigma.beakerx.widget;
 
+import com.twosigma.beakerx.kernel.comm.Buffer;
 import com.twosigma.beakerx.kernel.comm.Comm;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +39,7 @@ public abstract class BeakerxWidget extends Widget implements BeakerxWidgetInfo
   public BeakerxWidget() {
   }
 
-  private UpdateModel updateModel = (List<ChangeItem> changes) -> {
+  private UpdateModel updateModel = (List<ChangeItem> changes, Buffer buffer) -> {
     //empty function
   };
 
@@ -66,7 +67,11 @@ public abstract class BeakerxWidget extends Widget implements BeakerxWidgetInfo
   }
 
   public void sendModel() {
-    this.updateModel.update(doSendModel());
+    this.updateModel.update(doSendModel(), Buffer.EMPTY);
+  }
+
+  protected void sendModel(List<ChangeItem> changes, Buffer buffer) {
+    this.updateModel.update(changes, buffer);
   }
 
   protected List<ChangeItem> doSendModel(){
@@ -78,19 +83,29 @@ public abstract class BeakerxWidget extends Widget implements BeakerxWidgetInfo
   }
 
   protected void sendModelUpdate(Object item) {
-    this.updateModel.update(asList(new ChangeItem(MODEL_UPDATE, serializeToJsonObject(item))));
+    this.updateModel.update(asList(new ChangeItem(MODEL_UPDATE, serializeToJsonObject(item))), Buffer.EMPTY);
+  }
+
+  protected void sendModelUpdate(Object item, Buffer buffer) {
+    this.updateModel.update(asList(new ChangeItem(MODEL_UPDATE, serializeToJsonObject(item))), buffer);
   }
 
   protected void sendModelUpdate() {
-    this.updateModel.update(asList(new ChangeItem(MODEL_UPDATE, serializeToJsonObject())));
+    this.updateModel.update(asList(new ChangeItem(MODEL_UPDATE, serializeToJsonObject())), Buffer.EMPTY);
   }
 
   private void enableModelUpdate() {
-    updateModel = (changeItems) -> sendUpdate(changeItems);
+    updateModel = (changeItems, buffer) -> {
+      if (buffer.isEmpty()) {
+        sendUpdate(changeItems);
+      } else {
+        getComm().sendUpdate(changeItems, buffer);
+      }
+    };
   }
 
   interface UpdateModel {
-    void update(List<ChangeItem> changes);
+    void update(List<ChangeItem> changes, Buffer buffer);
   }
 
   @Override
@@ -16,9 +16,12 @@
 package com.twosigma.beakerx.widget;
 
 import com.twosigma.beakerx.kernel.comm.Buffer;
+import com.twosigma.beakerx.kernel.comm.BxComm;
 import com.twosigma.beakerx.kernel.comm.Data;
+import com.twosigma.beakerx.kernel.msg.JupyterMessages;
 import com.twosigma.beakerx.message.Message;
 import com.twosigma.beakerx.mimetype.MIMEContainer;
+import com.twosigma.beakerx.util.LatencyHistogram;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -26,6 +29,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.twosigma.beakerx.kernel.msg.JupyterMessages.DISPLAY_DATA;
 import static com.twosigma.beakerx.message.Header.MSG_ID;
@@ -47,7 +51,12 @@ public class Output extends DOMWidget {
   public static final String STDERR = "stderr";
   public static final String STDOUT = "stdout";
 
+  public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 50;
+  public static final int DEFAULT_FLUSH_SIZE = 64 * 1024;
+
   private List<Map<String, Serializable>> outputs = Collections.synchronizedList(new ArrayList<>());
+  private final FlushStatistics flushStatistics = new FlushStatistics();
+  private volatile OutputBatcher batcher;
 
   public Output() {
     super();
@@ -116,7 +125,70 @@ public class Output extends DOMWidget {
     sendStderr(text + "\n");
   }
 
-  private synchronized void send(boolean isError, String text) {
+  /**
+   * Buffers text sent to this widget and publishes it as one batch per flush interval, or sooner
+   * once the flush size is reached. Each batch sets msg_id once, sends one stream output per run of
+   * stdout or stderr text and then clears msg_id again.
+   */
+  public void enableBatching(long flushIntervalMillis, int flushSize) {
+    OutputBatcher previous = batcher;
+    batcher = new OutputBatcher(this::publishBatch, flushIntervalMillis, flushSize, flushStatistics);
+    if (previous != null) {
+      previous.flush();
+    }
+  }
+
+  public void enableBatching() {
+    enableBatching(DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_FLUSH_SIZE);
+  }
+
+  public void disableBatching() {
+    OutputBatcher previous = batcher;
+    batcher = null;
+    if (previous != null) {
+      previous.flush();
+    }
+  }
+
+  public boolean isBatching() {
+    return batcher != null;
+  }
+
+  /**
+   * Publishes text buffered in batching mode right away.
+   */
+  public void flush() {
+    OutputBatcher current = batcher;
+    if (current != null) {
+      current.flush();
+    }
+  }
+
+  public FlushStatistics getFlushStatistics() {
+    return flushStatistics;
+  }
+
+  private void send(boolean isError, String text) {
+    OutputBatcher current = batcher;
+    if (current != null) {
+      current.write(getComm().getParentMessage(), isError, text);
+    } else {
+      sendNow(isError, text);
+    }
+  }
+
+  private synchronized void publishBatch(Message parent, List<OutputBatcher.Run> batch) {
+    List<Message> list = new ArrayList<>(batch.size() + 2);
+    list.add(getComm().createUpdateMessage(asList(new ChangeItem(MSG_ID, parent.getHeader().getId())), parent));
+    for (OutputBatcher.Run run : batch) {
+      Map<String, Serializable> asMap = addOutput(run.isError, run.text.toString());
+      list.add(BxComm.messageMessage(JupyterMessages.STREAM, Buffer.EMPTY, asMap, parent));
+    }
+    list.add(getComm().createUpdateMessage(asList(new ChangeItem(MSG_ID, "")), parent));
+    getComm().publish(list);
+  }
+
+  private synchronized void sendNow(boolean isError, String text) {
     List<Message> list = new ArrayList<>();
     list.add(getComm().createUpdateMessage(asList(new ChangeItem(MSG_ID, getComm().getParentMessage().getHeader().getId())), new HashMap<>()));
     Map<String, Serializable> asMap = addOutput(isError, text);
@@ -125,6 +197,7 @@ public class Output extends DOMWidget {
   }
 
   private void display(HashMap<String, Serializable> content) {
+    flush();
     List<Message> list = new ArrayList<>();
     list.add(getComm().createUpdateMessage(asList(new ChangeItem(MSG_ID, getComm().getParentMessage().getHeader().getId())), new HashMap<>()));
     list.add(getComm().createMessage(DISPLAY_DATA, Buffer.EMPTY, new Data(content)));
@@ -138,6 +211,7 @@ public class Output extends DOMWidget {
   }
 
   public void clearOutput() {
+    flush();
     outputs = Collections.synchronizedList(new ArrayList<>());
     sendUpdate(OUTPUTS, emptyList());
   }
@@ -179,4 +253,30 @@ public class Output extends DOMWidget {
     sendDisplay();
   }
 
+  public static class FlushStatistics {
+    final AtomicLong writes = new AtomicLong();
+    final AtomicLong flushes = new AtomicLong();
+    final AtomicLong flushedChars = new AtomicLong();
+    final LatencyHistogram batchDelay = new LatencyHistogram("output-widget-batch");
+
+    public long getWriteCount() {
+      return writes.get();
+    }
+
+    public long getFlushCount() {
+      return flushes.get();
+    }
+
+    public long getFlushedChars() {
+      return flushedChars.get();
+    }
+
+    /**
+     * Time from the first buffered write of a batch until the batch was published.
+     */
+    public LatencyHistogram getBatchDelay() {
+      return batchDelay;
+    }
+  }
+
 }
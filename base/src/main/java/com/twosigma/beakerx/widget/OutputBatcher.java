@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.widget;
+
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
+import com.twosigma.beakerx.message.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers text written to an {@link Output} widget and hands it back as one batch per flush
+ * interval or once the buffered text reaches the flush size. Consecutive writes to the same stream
+ * are merged into one run.
+ */
+class OutputBatcher {
+
+  private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(CellExecutionContext.detached(r), "beakerx-output-widget-flush");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  interface Publisher {
+    void publish(Message parent, List<Run> batch);
+  }
+
+  static class Run {
+    final boolean isError;
+    final StringBuilder text = new StringBuilder();
+
+    Run(boolean isError) {
+      this.isError = isError;
+    }
+  }
+
+  private final Publisher publisher;
+  private final long flushIntervalMillis;
+  private final int flushSize;
+  private final Output.FlushStatistics statistics;
+  private List<Run> runs = new ArrayList<>();
+  private Message parent;
+  private int buffered = 0;
+  private long firstWrite;
+  private ScheduledFuture<?> scheduledFlush;
+
+  OutputBatcher(Publisher publisher, long flushIntervalMillis, int flushSize, Output.FlushStatistics statistics) {
+    this.publisher = publisher;
+    this.flushIntervalMillis = flushIntervalMillis;
+    this.flushSize = flushSize;
+    this.statistics = statistics;
+  }
+
+  synchronized void write(Message parent, boolean isError, String text) {
+    if (this.parent != null && this.parent != parent) {
+      flush();
+    }
+    if (runs.isEmpty()) {
+      this.parent = parent;
+      firstWrite = System.nanoTime();
+    }
+    Run last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+    if (last == null || last.isError != isError) {
+      last = new Run(isError);
+      runs.add(last);
+    }
+    last.text.append(text);
+    buffered += text.length();
+    statistics.writes.incrementAndGet();
+    if (buffered >= flushSize) {
+      flush();
+    } else if (scheduledFlush == null) {
+      scheduledFlush = scheduler.schedule(this::flush, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Publishes the buffered batch while holding the lock, so batches leave in the order they were
+   * written even when a scheduled flush races a size-triggered one.
+   */
+  synchronized void flush() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    if (runs.isEmpty()) {
+      return;
+    }
+    List<Run> batch = runs;
+    runs = new ArrayList<>();
+    publisher.publish(parent, batch);
+    statistics.batchDelay.recordSince(firstWrite);
+    statistics.flushedChars.addAndGet(buffered);
+    statistics.flushes.incrementAndGet();
+    buffered = 0;
+    parent = null;
+  }
+}
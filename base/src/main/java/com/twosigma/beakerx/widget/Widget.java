@@ -162,7 +162,7 @@ public abstract class Widget implements CommFunctionality, DisplayableWidget, Wi
   }
 
   public void handleCommEventSync(Message message, CommActions action, ActionPerformed handlerAction) {
-    KernelHandlerWrapper.wrapBusyIdle(KernelManager.get(), message, () -> CompiledCodeRunner.runCommEvent(message, action, handlerAction));
+    KernelHandlerWrapper.wrapCommBusyIdle(KernelManager.get(), message, () -> CompiledCodeRunner.runCommEvent(message, action, handlerAction));
   }
 
   public interface ActionPerformed {
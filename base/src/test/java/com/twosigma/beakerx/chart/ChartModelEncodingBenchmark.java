@@ -0,0 +1,101 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.chart.xychart.Plot;
+import com.twosigma.beakerx.chart.xychart.plotitem.Line;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.message.MessageSerializer;
+import com.twosigma.beakerx.widget.BeakerxWidgetInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding the model of a 1M point {@link Plot} through a Map tree, as
+ * {@link ChartToJson#toJson} does, with encoding it as raw JSON via {@link ChartToJson#toRawJson}.
+ * Run with {@code gradle :base:jmh -PjmhIncludes=ChartModelEncodingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ChartModelEncodingBenchmark {
+
+  private static final int POINTS = 1_000_000;
+
+  private KernelTest kernel;
+  private Plot plot;
+
+  @Setup
+  public void setUp() {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    double[] ys = new double[POINTS];
+    for (int i = 0; i < POINTS; i++) {
+      ys[i] = Math.sin(i / 1000.0);
+    }
+    Line line = new Line();
+    line.setY(ys);
+    plot = new Plot();
+    plot.add(line);
+  }
+
+  @TearDown
+  public void tearDown() {
+    kernel.exit();
+    KernelManager.register(null);
+  }
+
+  @Benchmark
+  public byte[] encodeMapModel() {
+    return MessageSerializer.toJsonBytes(state(ChartToJson.toJson(plot)));
+  }
+
+  @Benchmark
+  public byte[] encodeRawModel() {
+    return MessageSerializer.toJsonBytes(state(ChartToJson.toRawJson(plot)));
+  }
+
+  private static Map<String, Object> state(Object model) {
+    Map<String, Object> state = new HashMap<>();
+    state.put(BeakerxWidgetInfo.MODEL, model);
+    return state;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ChartModelEncodingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
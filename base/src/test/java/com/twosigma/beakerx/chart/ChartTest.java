@@ -25,7 +25,9 @@ import com.twosigma.beakerx.chart.serializer.LegendPositionSerializer;
 import com.twosigma.beakerx.chart.xychart.XYChart;
 import com.twosigma.beakerx.kernel.KernelManager;
 import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.message.MessageSerializer;
 import com.twosigma.beakerx.widget.BeakerxPlot;
+import com.twosigma.beakerx.widget.BeakerxWidgetInfo;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -70,6 +72,19 @@ public abstract class ChartTest<T extends Chart> {
 
   public abstract T createWidget();
 
+  @Test
+  public void sendModel_rawJsonModelIsEncodedLikeMapModel() throws Exception {
+    //given
+    Chart chart = createWidget();
+    Map expected = MessageSerializer.parse(MessageSerializer.toJson(ChartToJson.toJson(chart)), LinkedHashMap.class);
+    //when
+    chart.sendModel();
+    //then
+    Map content = MessageSerializer.parse(MessageSerializer.toJson(kernel.getPublishedMessages().get(0).getContent()), LinkedHashMap.class);
+    Map state = (Map) ((Map) content.get("data")).get("state");
+    assertThat(state.get(BeakerxWidgetInfo.MODEL)).isEqualTo(expected);
+  }
+
   @Test
   public void shouldSendCommMsgWhenLegendPositionChange() throws Exception {
     //given
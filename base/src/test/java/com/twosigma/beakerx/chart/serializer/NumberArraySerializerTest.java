@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.twosigma.beakerx.chart.ChartToJson;
+import com.twosigma.beakerx.chart.NumberArray;
+import com.twosigma.beakerx.chart.xychart.plotitem.Line;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.DoubleBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NumberArraySerializerTest {
+
+  private JsonGenerator jgen;
+  private StringWriter sw;
+
+  @Before
+  public void setUp() throws IOException {
+    sw = new StringWriter();
+    jgen = new ObjectMapper().getFactory().createGenerator(sw);
+  }
+
+  @Test
+  public void serializeDoubles_resultJsonIsArrayOfNumbers() throws IOException {
+    //when
+    new NumberArraySerializer().serialize(NumberArray.of(new double[]{1.5, 2, -3}), jgen, new DefaultSerializerProvider.Impl());
+    jgen.flush();
+    //then
+    assertThat(sw.toString()).isEqualTo("[1.5,2.0,-3.0]");
+  }
+
+  @Test
+  public void serializeLongs_resultJsonKeepsFullPrecision() throws IOException {
+    //when
+    new NumberArraySerializer().serialize(NumberArray.of(new long[]{1511000000000000001L, 2}), jgen, new DefaultSerializerProvider.Impl());
+    jgen.flush();
+    //then
+    assertThat(sw.toString()).isEqualTo("[1511000000000000001,2]");
+  }
+
+  @Test
+  public void serializeBuffer_resultJsonHasRemainingElements() throws IOException {
+    //given
+    DoubleBuffer buffer = DoubleBuffer.wrap(new double[]{1, 2, 3, 4});
+    buffer.position(2);
+    //when
+    new NumberArraySerializer().serialize(NumberArray.of(buffer), jgen, new DefaultSerializerProvider.Impl());
+    jgen.flush();
+    //then
+    assertThat(sw.toString()).isEqualTo("[3.0,4.0]");
+  }
+
+  @Test
+  public void lineWithPrimitiveData_isSerializedByChartToJson() {
+    //given
+    Line line = new Line();
+    line.setX(new long[]{10, 20, 30});
+    line.setY(new double[]{1, 2, 3});
+    //when
+    Map actual = ChartToJson.toJson(line);
+    //then
+    assertThat((List) actual.get("x")).containsExactly(10L, 20L, 30L);
+    assertThat((List) actual.get("y")).containsExactly(1.0, 2.0, 3.0);
+  }
+}
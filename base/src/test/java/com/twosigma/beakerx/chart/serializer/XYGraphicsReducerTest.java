@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.serializer;
+
+import com.twosigma.beakerx.chart.xychart.LodReduction;
+import com.twosigma.beakerx.chart.xychart.plotitem.Bars;
+import com.twosigma.beakerx.chart.xychart.plotitem.Line;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class XYGraphicsReducerTest {
+
+  @Test
+  public void lttbShouldKeepFirstLastAndPeak() {
+    //given
+    double[] xs = range(1000);
+    double[] ys = new double[1000];
+    ys[500] = 100;
+    //when
+    int[] indices = XYGraphicsReducer.lttb(xs, ys, 0, xs.length, 20);
+    //then
+    assertThat(indices).hasSize(20);
+    assertThat(indices[0]).isEqualTo(0);
+    assertThat(indices[19]).isEqualTo(999);
+    assertThat(indices).contains(500);
+    assertThat(indices).isSorted();
+  }
+
+  @Test
+  public void minMaxShouldKeepExtremesOfEveryBucket() {
+    //given
+    double[] xs = range(1000);
+    double[] ys = new double[1000];
+    for (int i = 0; i < ys.length; i++) {
+      ys[i] = i % 7;
+    }
+    ys[123] = -5;
+    ys[877] = 50;
+    //when
+    int[] indices = XYGraphicsReducer.minMaxFirstLast(xs, ys, 0, xs.length, 10);
+    //then
+    assertThat(indices.length).isLessThanOrEqualTo(40);
+    assertThat(indices).contains(0, 123, 877, 999);
+    assertThat(indices).isSorted();
+  }
+
+  @Test
+  public void shouldReduceOnlyVisibleRangeWithNeighbours() {
+    //given
+    Line line = line(1000);
+    //when
+    int[] indices = XYGraphicsReducer.reduce(line, LodReduction.MIN_MAX, 100, 199, 200);
+    //then
+    assertThat(indices[0]).isEqualTo(99);
+    assertThat(indices[indices.length - 1]).isEqualTo(200);
+    assertThat(indices).hasSize(102);
+  }
+
+  @Test
+  public void shouldNotReduceSmallSeries() {
+    //given
+    Line line = line(100);
+    //when
+    int[] indices = XYGraphicsReducer.reduce(line, LodReduction.LTTB, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 640);
+    //then
+    assertThat(indices).isNull();
+  }
+
+  @Test
+  public void shouldNotReduceBars() {
+    //given
+    Bars bars = new Bars();
+    bars.setY(numbers(5000));
+    //when
+    int[] indices = XYGraphicsReducer.reduce(bars, LodReduction.LTTB, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, 10);
+    //then
+    assertThat(indices).isNull();
+  }
+
+  private static Line line(int size) {
+    Line line = new Line();
+    line.setY(numbers(size));
+    return line;
+  }
+
+  private static List<Number> numbers(int size) {
+    List<Number> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add(Math.sin(i));
+    }
+    return result;
+  }
+
+  private static double[] range(int size) {
+    double[] result = new double[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = i;
+    }
+    return result;
+  }
+}
@@ -27,18 +27,37 @@ import com.twosigma.beakerx.chart.xychart.plotitem.ConstantLine;
 import com.twosigma.beakerx.chart.xychart.plotitem.Line;
 import com.twosigma.beakerx.chart.xychart.plotitem.Rasters;
 import com.twosigma.beakerx.chart.xychart.plotitem.Text;
+import com.twosigma.beakerx.chart.xychart.plotitem.XYGraphics;
+import com.twosigma.beakerx.kernel.handler.CommMsgHandler;
+import com.twosigma.beakerx.kernel.msg.JupyterMessages;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.widget.CommActions;
 import org.junit.Test;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static com.twosigma.beakerx.MessageFactoryTestMock.initHeader;
 import static com.twosigma.beakerx.chart.serializer.AbstractChartSerializer.Y_AUTO_RANGE;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.CONSTANT_BANDS;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.CONSTANT_LINES;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.DELTA_ADDED;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.DELTA_CHANGED;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.DELTA_ORDER;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.DELTA_REMOVED;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.GRAPHICS_DELTA;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.GRAPHICS_LIST;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.GRAPHICS_TAIL;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.TAIL_SIZE;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.LOD_RANGE;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.LOD_REDUCTION;
+import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.LOD_REQUEST_ID;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.LOD_THRESHOLD;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.LOG_X;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.RASTERS;
@@ -49,6 +68,7 @@ import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.X_LOWER_BO
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.X_TICK_LABELS_VISIBLE;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.X_UPPER_BOUND;
 import static com.twosigma.beakerx.chart.serializer.XYChartSerializer.Y_TICK_LABELS_VISIBLE;
+import static com.twosigma.beakerx.kernel.comm.Comm.COMM_ID;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public abstract class XYChartTest<T extends XYChart> extends AbstractChartTest<XYChart> {
@@ -179,6 +199,267 @@ public abstract class XYChartTest<T extends XYChart> extends AbstractChartTest<X
     assertThat(actual.get(GraphicsSerializer.TYPE)).isEqualTo(Line.class.getSimpleName());
   }
 
+  @Test
+  public void deltaModelUpdateShouldSendOnlyAddedAndChangedGraphics() throws Exception {
+    //given
+    XYChart.setDeltaModelUpdates(true);
+    try {
+      XYChart xyChart = createWidget();
+      Line first = line();
+      Line unchanged = line();
+      xyChart.add(first);
+      xyChart.add(unchanged);
+      kernel.clearMessages();
+      //when
+      first.setDisplayName("changed");
+      Line added = line();
+      xyChart.add(added);
+      //then
+      Map delta = (Map) getModelUpdate().get(GRAPHICS_DELTA);
+      assertThat(((List<Map>) delta.get(DELTA_ADDED)).stream().map(m -> m.get("uid"))).containsExactly(added.getUid());
+      assertThat(((List<Map>) delta.get(DELTA_CHANGED)).stream().map(m -> m.get("uid"))).containsExactly(first.getUid());
+      assertThat((List) delta.get(DELTA_REMOVED)).isEmpty();
+      assertThat((List) delta.get(DELTA_ORDER)).endsWith(first.getUid(), unchanged.getUid(), added.getUid());
+    } finally {
+      XYChart.setDeltaModelUpdates(false);
+    }
+  }
+
+  @Test
+  public void deltaModelUpdateShouldSendUidOfRemovedGraphics() throws Exception {
+    //given
+    XYChart.setDeltaModelUpdates(true);
+    try {
+      XYChart xyChart = createWidget();
+      Line line = line();
+      xyChart.add(line);
+      kernel.clearMessages();
+      //when
+      xyChart.remove(line);
+      //then
+      Map delta = (Map) getModelUpdate().get(GRAPHICS_DELTA);
+      assertThat((List) delta.get(DELTA_ADDED)).isEmpty();
+      assertThat((List) delta.get(DELTA_REMOVED)).containsExactly(line.getUid());
+      assertThat(xyChart.getGraphics()).doesNotContain(line);
+    } finally {
+      XYChart.setDeltaModelUpdates(false);
+    }
+  }
+
+  @Test
+  public void shouldSendOnlyTailOfAppendedPoints() throws Exception {
+    //given
+    XYChart.setTailModelUpdates(true);
+    try {
+      XYChart xyChart = createWidget();
+      Line line = line();
+      line.setRetention(2);
+      xyChart.add(line);
+      kernel.clearMessages();
+      //when
+      line.append(2, 2);
+      line.appendAll(new double[]{3, 4}, new double[]{3, 4});
+      xyChart.flushStreamingUpdates();
+      //then
+      List<Map> tails = (List<Map>) getModelUpdate().get(GRAPHICS_TAIL);
+      assertThat(tails).hasSize(1);
+      assertThat(tails.get(0).get("uid")).isEqualTo(line.getUid());
+      assertThat((List) tails.get(0).get("x")).containsExactly(3.0, 4.0);
+      assertThat(tails.get(0).get(TAIL_SIZE)).isEqualTo(2);
+      assertThat(line.getY()).containsExactly(3.0, 4.0);
+    } finally {
+      XYChart.setTailModelUpdates(false);
+    }
+  }
+
+  @Test
+  public void shouldBatchAppendsIntoPeriodicUpdate() throws Exception {
+    //given
+    XYChart.setTailModelUpdates(true);
+    try {
+      XYChart xyChart = createWidget();
+      xyChart.setStreamFlushIntervalMillis(200);
+      Line line = line();
+      xyChart.add(line);
+      kernel.clearMessages();
+      //when
+      for (int i = 2; i < 100; i++) {
+        line.append(i, i);
+      }
+      //then
+      long deadline = System.currentTimeMillis() + 5000;
+      while (kernel.getPublishedMessages().isEmpty() && System.currentTimeMillis() < deadline) {
+        Thread.sleep(5);
+      }
+      List<Map> tails = (List<Map>) getModelUpdate().get(GRAPHICS_TAIL);
+      assertThat((List) tails.get(0).get("x")).hasSize(98);
+    } finally {
+      XYChart.setTailModelUpdates(false);
+    }
+  }
+
+  @Test
+  public void shouldSendGraphicsUpdateForAppendedPointsUnlessTailUpdatesSwitchedOn() throws Exception {
+    //given
+    XYChart xyChart = createWidget();
+    Line line = line();
+    xyChart.add(line);
+    kernel.clearMessages();
+    //when
+    line.append(2, 2);
+    xyChart.flushStreamingUpdates();
+    //then
+    LinkedHashMap model = getModelUpdate();
+    assertThat(model.get(GRAPHICS_TAIL)).isNull();
+    Map graphics = (Map) ((List) model.get(GRAPHICS_LIST)).get(0);
+    assertThat((List) graphics.get("x")).hasSize(line.getX().size());
+  }
+
+  @Test
+  public void shouldFlushStreamingUpdatesWhileGraphicsAreAddedAndRemoved() throws Exception {
+    //given
+    XYChart xyChart = createWidget();
+    Line line = line();
+    xyChart.add(line);
+    List<XYGraphics> graphics = new ArrayList<>(xyChart.getGraphics());
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread flusher = new Thread(() -> {
+      try {
+        for (int i = 0; !done.get(); i++) {
+          line.append(i, i);
+          xyChart.flushStreamingUpdates();
+        }
+      } catch (Throwable e) {
+        failure.set(e);
+      }
+    });
+    flusher.start();
+    //when
+    for (int i = 0; i < 500; i++) {
+      Line other = line();
+      xyChart.add(other);
+      xyChart.remove(other);
+    }
+    done.set(true);
+    flusher.join(10_000);
+    //then
+    assertThat(failure.get()).isNull();
+    assertThat(xyChart.getGraphics()).containsExactlyElementsOf(graphics);
+  }
+
+  @Test
+  public void shouldNotifyEveryChartTheGraphicsIsAddedTo() throws Exception {
+    //given
+    XYChart first = createWidget();
+    XYChart second = createWidget();
+    Line line = line();
+    first.add(line);
+    second.add(line);
+    first.remove(line);
+    kernel.clearMessages();
+    //when
+    line.append(2, 2);
+    first.flushStreamingUpdates();
+    second.flushStreamingUpdates();
+    //then
+    List<Message> updates = kernel.getPublishedMessages();
+    assertThat(updates).hasSize(1);
+    assertThat(updates.get(0).getContent().get(COMM_ID)).isEqualTo(second.getComm().getCommId());
+  }
+
+  @Test
+  public void shouldSendReducedGraphicsWhenLodReductionSet() throws Exception {
+    //given
+    XYChart xyChart = createWidget();
+    xyChart.setInitWidth(10);
+    Line line = sine(1000);
+    xyChart.add(line);
+    kernel.clearMessages();
+    //when
+    xyChart.setLodReduction(LodReduction.MIN_MAX);
+    //then
+    LinkedHashMap model = getModelUpdate();
+    assertThat(model.get(LOD_REDUCTION)).isEqualTo(LodReduction.MIN_MAX.getText());
+    Map actual = graphicsByUid((List<Map>) model.get(GRAPHICS_LIST), line.getUid());
+    assertThat(((List) actual.get("x")).size()).isBetween(2, 40);
+  }
+
+  @Test
+  public void shouldReduceRangeRequestedOverComm() throws Exception {
+    //given
+    XYChart xyChart = createWidget();
+    xyChart.setInitWidth(10);
+    Line line = sine(1000);
+    xyChart.add(line);
+    xyChart.setLodReduction(LodReduction.LTTB);
+    kernel.clearMessages();
+    //when
+    new CommMsgHandler(kernel).handle(lodRangeMessage(xyChart, 100, 199));
+    //then
+    LinkedHashMap model = getModelUpdate();
+    assertThat(((Map) model.get(LOD_RANGE)).get(LOD_REQUEST_ID)).isEqualTo(7);
+    List x = (List) graphicsByUid((List<Map>) model.get(GRAPHICS_LIST), line.getUid()).get("x");
+    assertThat(x).hasSize(10);
+    assertThat(Double.parseDouble(x.get(0).toString())).isEqualTo(99);
+    assertThat(Double.parseDouble(x.get(9).toString())).isEqualTo(200);
+  }
+
+  @Test
+  public void shouldIgnoreMalformedLodRangeRequest() throws Exception {
+    //given
+    XYChart xyChart = createWidget();
+    xyChart.add(sine(1000));
+    kernel.clearMessages();
+    //when
+    new CommMsgHandler(kernel).handle(lodRangeMessage(xyChart, null, "199"));
+    new CommMsgHandler(kernel).handle(lodRangeMessage(xyChart, 200.0, 100.0));
+    //then
+    assertThat(kernel.getPublishedMessages().stream().noneMatch(m -> m.type() == JupyterMessages.COMM_MSG)).isTrue();
+  }
+
+  private Map graphicsByUid(List<Map> graphics, String uid) {
+    for (Map item : graphics) {
+      if (uid.equals(item.get("uid"))) {
+        return item;
+      }
+    }
+    throw new AssertionError("No graphics with uid " + uid);
+  }
+
+  private Line sine(int size) {
+    List<Number> ys = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      ys.add(Math.sin(i / 10.0));
+    }
+    Line line = new Line();
+    line.setY(ys);
+    return line;
+  }
+
+  private Message lodRangeMessage(XYChart xyChart, Serializable lower, Serializable upper) {
+    Message message = new Message(initHeader(JupyterMessages.COMM_MSG));
+    Map<String, Serializable> content = new LinkedHashMap<>();
+    content.put(COMM_ID, xyChart.getComm().getCommId());
+    Map<String, Serializable> dataContent = new LinkedHashMap<>();
+    dataContent.put("event", CommActions.LOD_RANGE.getAction());
+    dataContent.put(LOD_REQUEST_ID, 7);
+    dataContent.put(X_LOWER_BOUND, lower);
+    dataContent.put(X_UPPER_BOUND, upper);
+    Map<String, Serializable> data = new LinkedHashMap<>();
+    data.put("content", (Serializable) dataContent);
+    content.put("data", (Serializable) data);
+    message.setContent(content);
+    return message;
+  }
+
+  private Line line() {
+    Line line = new Line();
+    line.setX(Collections.singletonList(1));
+    line.setY(Collections.singletonList(1));
+    return line;
+  }
+
   @Test
   public void shouldSendCommMsgWhenAddConstantLineByLeftShift() throws Exception {
     //given
@@ -65,4 +65,15 @@ public class AreaTest {
     Assertions.assertThat(area.getPossibleFilters()).isNotEmpty();
   }
 
+  @Test
+  public void serializedPropertySetters_bumpVersion() {
+    //given
+    Area area = new Area();
+    long version = area.getVersion();
+    //when
+    area.setInterpolation(1);
+    //then
+    Assertions.assertThat(area.getVersion()).isEqualTo(version + 1);
+  }
+
 }
@@ -142,4 +142,19 @@ public class BarsTest {
     Assertions.assertThat(bars.getX()).isNotEmpty();
   }
 
+  @Test
+  public void serializedPropertySetters_bumpVersion() {
+    //given
+    Bars bars = new Bars();
+    long version = bars.getVersion();
+    //when
+    bars.setWidth(5);
+    bars.setWidth(Arrays.asList(1, 2));
+    bars.setOutlineColor(Color.BLUE);
+    bars.setOutlineColor(java.awt.Color.GREEN);
+    bars.setOutlineColor(Arrays.asList(Color.BLUE, Color.GREEN));
+    //then
+    Assertions.assertThat(bars.getVersion()).isEqualTo(version + 5);
+  }
+
 }
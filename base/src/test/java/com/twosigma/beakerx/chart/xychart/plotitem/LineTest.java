@@ -61,4 +61,31 @@ public class LineTest {
     //then
     Assertions.assertThat(line.getColor() instanceof Color).isTrue();
   }
+
+  @Test
+  public void setYWithDoubleArray_lineUsesArrayWithoutCopying() {
+    //given
+    double[] ys = {1, 2, 3};
+    Line line = new Line();
+    //when
+    line.setY(ys);
+    ys[1] = 5;
+    //then
+    Assertions.assertThat(line.getY()).containsExactly(1.0, 5.0, 3.0);
+    Assertions.assertThat(line.getX()).containsExactly(0L, 1L, 2L);
+  }
+
+  @Test
+  public void serializedPropertySetters_bumpVersion() {
+    //given
+    Line line = new Line();
+    long version = line.getVersion();
+    //when
+    line.setWidth(2f);
+    line.setStyle(StrokeType.DASH);
+    line.setInterpolation(1);
+    //then
+    Assertions.assertThat(line.getVersion()).isEqualTo(version + 3);
+  }
+
 }
@@ -97,4 +97,23 @@ public class PointsTest {
     Assertions.assertThat(points.getPossibleFilters()).isNotEmpty();
   }
 
+  @Test
+  public void serializedPropertySetters_bumpVersion() {
+    //given
+    Points points = new Points();
+    long version = points.getVersion();
+    //when
+    points.setSize(5);
+    points.setSize(Arrays.asList(1, 2));
+    points.setShape(ShapeType.CIRCLE);
+    points.setShape(Arrays.asList(ShapeType.CIRCLE, ShapeType.DIAMOND));
+    points.setFill(true);
+    points.setFill(Arrays.asList(true, false));
+    points.setOutlineColor(Color.BLUE);
+    points.setOutlineColor(java.awt.Color.GREEN);
+    points.setOutlineColor(Arrays.asList(Color.BLUE, Color.GREEN));
+    //then
+    Assertions.assertThat(points.getVersion()).isEqualTo(version + 9);
+  }
+
 }
@@ -56,4 +56,17 @@ public class StemsTest {
     Assertions.assertThat(stems.getPossibleFilters()).isNotEmpty();
   }
 
+  @Test
+  public void serializedPropertySetters_bumpVersion() {
+    //given
+    Stems stems = new Stems();
+    long version = stems.getVersion();
+    //when
+    stems.setWidth(2f);
+    stems.setStyle(StrokeType.DASH);
+    stems.setStyle(Arrays.asList(StrokeType.DASH, StrokeType.DOT));
+    //then
+    Assertions.assertThat(stems.getVersion()).isEqualTo(version + 3);
+  }
+
 }
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.chart.xychart.plotitem;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamingSeriesTest {
+
+  @Test
+  public void shouldKeepNewestPointsWhenMaxPointsReached() {
+    //given
+    StreamingSeries series = new StreamingSeries();
+    series.setMaxPoints(3);
+    //when
+    for (int i = 0; i < 10; i++) {
+      series.append(i, i * 10);
+    }
+    //then
+    assertThat(series.getXs()).containsExactly(7, 8, 9);
+    assertThat(series.getYs()).containsExactly(70, 80, 90);
+  }
+
+  @Test
+  public void shouldEvictPointsOutsideWindow() {
+    //given
+    StreamingSeries series = new StreamingSeries();
+    series.setWindow(5);
+    //when
+    series.appendAll(new double[]{0, 2, 4, 6, 8}, new double[]{1, 1, 1, 1, 1});
+    //then
+    assertThat(series.getXs()).containsExactly(4, 6, 8);
+  }
+
+  @Test
+  public void shouldGrowPastInitialCapacity() {
+    //given
+    StreamingSeries series = new StreamingSeries();
+    double[] xs = new double[1000];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = i;
+    }
+    //when
+    series.append(-1, 0);
+    series.appendAll(xs, xs);
+    //then
+    assertThat(series.size()).isEqualTo(1001);
+    assertThat(series.getXs()[0]).isEqualTo(-1);
+    assertThat(series.getYs()[1000]).isEqualTo(999);
+  }
+
+  @Test
+  public void drainTailShouldReturnOnlyPointsAppendedSinceLastDrain() {
+    //given
+    StreamingSeries series = new StreamingSeries();
+    series.setMaxPoints(4);
+    series.appendAll(new double[]{1, 2}, new double[]{10, 20});
+    series.drainTail();
+    //when
+    series.appendAll(new double[]{3, 4, 5}, new double[]{30, 40, 50});
+    StreamingSeries.Tail tail = series.drainTail();
+    //then
+    assertThat(tail.getX()).containsExactly(3, 4, 5);
+    assertThat(tail.getY()).containsExactly(30, 40, 50);
+    assertThat(tail.getSize()).isEqualTo(4);
+    assertThat(series.drainTail()).isNull();
+  }
+
+  @Test
+  public void drainTailShouldNotReturnEvictedPoints() {
+    //given
+    StreamingSeries series = new StreamingSeries();
+    series.setMaxPoints(2);
+    //when
+    series.appendAll(new double[]{1, 2, 3, 4, 5}, new double[]{1, 2, 3, 4, 5});
+    //then
+    assertThat(series.drainTail().getX()).containsExactly(4, 5);
+  }
+
+  @Test
+  public void appendShouldSeedSeriesWithExistingPoints() {
+    //given
+    Line line = new Line();
+    line.setX(Arrays.asList(1, 2));
+    line.setY(Arrays.asList(10, 20));
+    //when
+    line.append(3, 30);
+    //then
+    assertThat(line.isStreaming()).isTrue();
+    assertThat(line.getX()).containsExactly(1.0, 2.0, 3.0);
+    assertThat(line.getY()).containsExactly(10.0, 20.0, 30.0);
+    assertThat(line.getStreamingSeries().drainTail().getX()).containsExactly(3);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.evaluator;
+
+import com.twosigma.beakerx.TryResult;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
+import com.twosigma.beakerx.kernel.GroupName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BaseEvaluatorTest {
+
+  private EvaluatorTest evaluator;
+  private ExecutorService cells = Executors.newFixedThreadPool(2);
+  private CountDownLatch release = new CountDownLatch(1);
+
+  @Before
+  public void setUp() {
+    evaluator = new EvaluatorTest();
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    cells.shutdownNow();
+    evaluator.exit();
+  }
+
+  @Test
+  public void shouldPutOnlyEvaluationOfCallingCellInBackground() throws Exception {
+    //given
+    CountDownLatch otherStarted = new CountDownLatch(1);
+    Future<TryResult> other = cells.submit(() -> evaluateInCell(() -> {
+      otherStarted.countDown();
+      release.await(10, TimeUnit.SECONDS);
+      return TryResult.createResult("other done");
+    }));
+    otherStarted.await(10, TimeUnit.SECONDS);
+    //when
+    Future<TryResult> backgrounded = cells.submit(() -> evaluateInCell(() -> {
+      evaluator.putEvaluationInToBackground();
+      release.await(10, TimeUnit.SECONDS);
+      return TryResult.createResult("backgrounded done");
+    }));
+    //then
+    assertThat(backgrounded.get(10, TimeUnit.SECONDS).result()).isEqualTo("Evaluation in the background");
+    assertThat(other.isDone()).isFalse();
+    release.countDown();
+    assertThat(other.get(10, TimeUnit.SECONDS).result()).isEqualTo("other done");
+  }
+
+  private TryResult evaluateInCell(java.util.concurrent.Callable<TryResult> code) throws Exception {
+    return new CellExecutionContext(GroupName.generate()).call(() -> evaluator.evaluate(null, code));
+  }
+}
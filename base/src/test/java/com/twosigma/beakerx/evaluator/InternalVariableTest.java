@@ -0,0 +1,83 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.evaluator;
+
+import com.twosigma.beakerx.KernelTest.SeoConfigurationFactoryMock;
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.object.SimpleEvaluationObject;
+import com.twosigma.beakerx.jvm.threads.CellExecutionContext;
+import com.twosigma.beakerx.kernel.GroupName;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandConfigurationMock;
+import com.twosigma.beakerx.kernel.msg.MessageCreator;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InternalVariableTest {
+
+  private ExecutorService executor = Executors.newFixedThreadPool(2);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+    InternalVariable.setValue(null);
+  }
+
+  @Test
+  public void concurrentCellsShouldSeeTheirOwnEvaluationObject() throws Exception {
+    //given
+    CountDownLatch bothSet = new CountDownLatch(2);
+    //when
+    Future<Integer> first = executor.submit(() -> executionCountSeenBy(1, bothSet));
+    Future<Integer> second = executor.submit(() -> executionCountSeenBy(2, bothSet));
+    //then
+    assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(2);
+  }
+
+  @Test
+  public void contextCreatedWithinCellShouldTakeOverItsEvaluationObject() throws Exception {
+    //given
+    EvaluationObject seo = evaluationObject(7);
+    //when
+    EvaluationObject seen = new CellExecutionContext(GroupName.generate()).call(() -> {
+      InternalVariable.setValue(seo);
+      return new CellExecutionContext(GroupName.generate()).call(InternalVariable::getSimpleEvaluationObject);
+    });
+    //then
+    assertThat(seen).isSameAs(seo);
+  }
+
+  private Integer executionCountSeenBy(int executionCount, CountDownLatch bothSet) throws Exception {
+    return new CellExecutionContext(GroupName.generate()).call(() -> {
+      InternalVariable.setValue(evaluationObject(executionCount));
+      bothSet.countDown();
+      bothSet.await(5, TimeUnit.SECONDS);
+      return InternalVariable.getSimpleEvaluationObject().getExecutionCount();
+    });
+  }
+
+  private static EvaluationObject evaluationObject(int executionCount) {
+    return new SimpleEvaluationObject("code", new SeoConfigurationFactoryMock(executionCount, MessageCreator.get(), new MagicCommandConfigurationMock()));
+  }
+}
@@ -19,13 +19,19 @@ package com.twosigma.beakerx.jupyter.handler;
 import com.twosigma.beakerx.KernelTest;
 import com.twosigma.beakerx.KernelTestFactory;
 import com.twosigma.beakerx.MessageFactoryTestMock;
+import com.twosigma.beakerx.handler.KernelHandlerWrapper;
+import com.twosigma.beakerx.kernel.comm.Comm;
 import com.twosigma.beakerx.kernel.msg.JupyterMessages;
 import com.twosigma.beakerx.kernel.handler.CommMsgHandler;
 import org.assertj.core.api.Assertions;
+import org.junit.After;
 import org.junit.Before;
 import com.twosigma.beakerx.message.Message;
 import org.junit.Test;
 
+import java.io.Serializable;
+import java.util.HashMap;
+
 public class CommMsgHandlerTest {
 
   private KernelTest kernel;
@@ -40,6 +46,45 @@ public class CommMsgHandlerTest {
     JupyterHandlerTest.initKernelCommMapWithOneComm(kernel);
   }
 
+  @After
+  public void tearDown() {
+    KernelHandlerWrapper.setSuppressSyncBusyIdle(false);
+  }
+
+  @Test
+  public void handleMessage_recordsLatencyForCommTarget() throws Exception {
+    //given
+    String target = kernel.getComm((String) message.getContent().get(Comm.COMM_ID)).getTargetName();
+    //when
+    commMsgHandler.handle(message);
+    commMsgHandler.handle(message);
+    //then
+    Assertions.assertThat(commMsgHandler.getLatencyByTarget().get(target).getCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void handleSyncMessageWithSuppression_shouldNotSendBusyIdle() throws Exception {
+    //given
+    KernelHandlerWrapper.setSuppressSyncBusyIdle(true);
+    HashMap<String, Serializable> data = new HashMap<>();
+    data.put(Comm.METHOD, Comm.UPDATE);
+    message.getContent().put(Comm.DATA, data);
+    //when
+    commMsgHandler.handle(message);
+    //then
+    Assertions.assertThat(kernel.getPublishedMessages()).isEmpty();
+  }
+
+  @Test
+  public void handleNotSyncMessageWithSuppression_shouldSendBusyIdle() throws Exception {
+    //given
+    KernelHandlerWrapper.setSuppressSyncBusyIdle(true);
+    //when
+    commMsgHandler.handle(message);
+    //then
+    Assertions.assertThat(kernel.getPublishedMessages().size()).isEqualTo(2);
+  }
+
   @Test
   public void handleMessage_shouldSendTwoMessages() throws Exception {
     //when
@@ -0,0 +1,172 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jupyter.handler;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.MessageFactoryTestMock;
+import com.twosigma.beakerx.TryResult;
+import com.twosigma.beakerx.evaluator.EvaluatorTest;
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.kernel.GroupName;
+import com.twosigma.beakerx.kernel.handler.ExecuteRequestHandler;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandConfigurationMock;
+import com.twosigma.beakerx.kernel.msg.MessageCreator;
+import com.twosigma.beakerx.message.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecuteRequestHandlerSchedulingTest {
+
+  private static final String BLOCK = "block";
+
+  private BlockingKernel kernel;
+  private EvaluatorTest evaluator;
+  private ExecuteRequestHandler executeRequestHandler;
+
+  @Before
+  public void setUp() {
+    evaluator = new EvaluatorTest();
+    kernel = new BlockingKernel(evaluator);
+    executeRequestHandler = new ExecuteRequestHandler(kernel);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    kernel.release.countDown();
+    kernel.clearMessages();
+    evaluator.exit();
+  }
+
+  @Test
+  public void shouldRunInteractiveCellsAheadOfQueuedBatchCells() throws Exception {
+    //given
+    executeRequestHandler.handle(cell(BLOCK, null));
+    kernel.blocked.await(10, TimeUnit.SECONDS);
+    executeRequestHandler.handle(cell("batch", metadata(ExecuteRequestHandler.PRIORITY, "batch")));
+    executeRequestHandler.handle(cell("interactive", null));
+    //when
+    kernel.release.countDown();
+    //then
+    waitForCells(3);
+    assertThat(kernel.executed).isEqualTo(asList(BLOCK, "interactive", "batch"));
+    assertThat(executeRequestHandler.getQueueWait().getCount()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldCancelQueuedCellBeforeItStarts() throws Exception {
+    //given
+    executeRequestHandler.handle(cell(BLOCK, null));
+    kernel.blocked.await(10, TimeUnit.SECONDS);
+    executeRequestHandler.handle(cell("cancelled", metadata(ExecuteRequestHandler.GROUP, "group1")));
+    executeRequestHandler.handle(cell("next", null));
+    //when
+    boolean cancelled = executeRequestHandler.cancelQueued(GroupName.of("group1"));
+    kernel.release.countDown();
+    //then
+    waitForCells(2);
+    assertThat(cancelled).isTrue();
+    assertThat(kernel.executed).isEqualTo(asList(BLOCK, "next"));
+    assertThat(kernel.getSentMessages()).isNotEmpty();
+  }
+
+  @Test
+  public void shouldRunConcurrentCellNextToBlockedQueue() throws Exception {
+    //given
+    executeRequestHandler.handle(cell(BLOCK, null));
+    kernel.blocked.await(10, TimeUnit.SECONDS);
+    //when
+    executeRequestHandler.handle(cell("concurrent", metadata(ExecuteRequestHandler.CONCURRENT, true)));
+    //then
+    waitForCells(2);
+    assertThat(kernel.executed).isEqualTo(asList(BLOCK, "concurrent"));
+    assertThat(executeRequestHandler.getRunningCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void interruptShouldAbortQueuedCellsWithoutWaitingForRunningOnes() throws Exception {
+    //given
+    executeRequestHandler.handle(cell(BLOCK, null));
+    kernel.blocked.await(10, TimeUnit.SECONDS);
+    executeRequestHandler.handle(cell("queued", null));
+    kernel.clearSentMessages();
+    //when
+    executeRequestHandler.interruptKernel();
+    //then
+    assertThat(executeRequestHandler.getQueueSize()).isEqualTo(0);
+    assertThat(executeRequestHandler.getRunningCount()).isEqualTo(1);
+    assertThat(kernel.getSentMessages()).hasSize(1);
+    kernel.release.countDown();
+    waitForCells(1);
+    assertThat(kernel.executed).isEqualTo(asList(BLOCK));
+  }
+
+  private void waitForCells(int count) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 10_000;
+    while (kernel.executed.size() < count && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  private static Message cell(String code, HashMap<String, Serializable> metadata) {
+    Message message = MessageFactoryTestMock.createExecuteRequestMessage(code);
+    if (metadata != null) {
+      message.setMetadata(metadata);
+    }
+    return message;
+  }
+
+  private static HashMap<String, Serializable> metadata(String key, Serializable value) {
+    HashMap<String, Serializable> metadata = new HashMap<>();
+    metadata.put(key, value);
+    return metadata;
+  }
+
+  static class BlockingKernel extends KernelTest {
+
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> executed = new CopyOnWriteArrayList<>();
+
+    BlockingKernel(EvaluatorTest evaluator) {
+      super("sid", evaluator, MessageCreator.get(), new MagicCommandConfigurationMock());
+    }
+
+    @Override
+    public TryResult executeCode(String code, EvaluationObject seo) {
+      executed.add(code);
+      if (BLOCK.equals(code)) {
+        blocked.countDown();
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return super.executeCode(code, seo);
+    }
+  }
+}
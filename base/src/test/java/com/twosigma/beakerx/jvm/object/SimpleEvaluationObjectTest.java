@@ -266,6 +266,92 @@ public class SimpleEvaluationObjectTest {
     Assertions.assertThat(stdErr.payload).contains("test");
   }
 
+  @Test
+  public void appendOutputOfManyLines_coalescesUpdates() throws Exception {
+    //when
+    for (int i = 0; i < 10_000; i++) {
+      seo.appendOutput("line " + i + "\n");
+    }
+    //then
+    Assertions.assertThat(senderMock.getObjectList().size()).isLessThan(10_000);
+    SimpleEvaluationObject.EvaluationStdOutput stdOut =
+            (SimpleEvaluationObject.EvaluationStdOutput) seo.getOutputdata().get(0);
+    Assertions.assertThat(stdOut.payload.split("\n").length).isEqualTo(10_000);
+  }
+
+  @Test
+  public void outputAppendedRightAfterFlush_isPublishedAfterFlushInterval() throws Exception {
+    //given
+    seo.started();
+    seo.appendOutput("first\n");
+    int updates = senderMock.getObjectList().size();
+    //when
+    seo.appendOutput("second\n");
+    //then
+    long deadline = System.currentTimeMillis() + 5000;
+    while (senderMock.getObjectList().size() == updates && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    Assertions.assertThat(senderMock.getObjectList().size()).isEqualTo(updates + 1);
+    SimpleEvaluationObject.EvaluationStdOutput stdOut =
+            (SimpleEvaluationObject.EvaluationStdOutput) seo.getOutputdata().get(0);
+    Assertions.assertThat(stdOut.payload).isEqualTo("first\nsecond\n");
+  }
+
+  @Test
+  public void appendOutputAfterError_rebuildsOnlyTheLastSegment() throws Exception {
+    //given
+    seo.appendOutput("out\n");
+    seo.appendError("err\n");
+    seo.appendOutput("more\n");
+    Object first = seo.getOutputdata().get(0);
+    Object error = seo.getOutputdata().get(1);
+    //when
+    seo.appendOutput("last\n");
+    //then
+    Assertions.assertThat(seo.getOutputdata()).hasSize(3);
+    Assertions.assertThat(seo.getOutputdata().get(0)).isSameAs(first);
+    Assertions.assertThat(seo.getOutputdata().get(1)).isSameAs(error);
+    SimpleEvaluationObject.EvaluationStdOutput stdOut =
+            (SimpleEvaluationObject.EvaluationStdOutput) seo.getOutputdata().get(2);
+    Assertions.assertThat(stdOut.payload).isEqualTo("more\nlast\n");
+  }
+
+  @Test
+  public void finished_appendsPartialLine() throws Exception {
+    //given
+    seo.appendOutput("no newline");
+    //when
+    seo.finished("ok");
+    //then
+    SimpleEvaluationObject.EvaluationStdOutput stdOut =
+            (SimpleEvaluationObject.EvaluationStdOutput) seo.getOutputdata().get(0);
+    Assertions.assertThat(stdOut.payload).isEqualTo("no newline\n");
+  }
+
+  @Test
+  public void outputOverMaxPerCell_keepsNewestOutputWithTruncationMarker() throws Exception {
+    //given
+    long max = SimpleEvaluationObject.getMaxOutputPerCell();
+    SimpleEvaluationObject.setMaxOutputPerCell(1000);
+    try {
+      SimpleEvaluationObject object = new SimpleEvaluationObject("code", new SeoConfigurationFactoryMock(kernel, MessageCreator.get(), new MagicCommandConfigurationMock()));
+      //when
+      for (int i = 0; i < 1000; i++) {
+        object.appendOutput("line " + i + "\n");
+      }
+      //then
+      SimpleEvaluationObject.EvaluationStdOutput stdOut =
+              (SimpleEvaluationObject.EvaluationStdOutput) object.getOutputdata().get(0);
+      Assertions.assertThat(stdOut.payload).startsWith("... ").contains("characters of earlier output truncated");
+      Assertions.assertThat(stdOut.payload).endsWith("line 999\n").doesNotContain("line 0\n");
+      Assertions.assertThat(stdOut.payload.length()).isLessThan(1200);
+      Assertions.assertThat(object.getTruncatedOutputLength()).isGreaterThan(0);
+    } finally {
+      SimpleEvaluationObject.setMaxOutputPerCell(max);
+    }
+  }
+
   @Test
   public void structuredUpdate_shouldPublishMessages() throws Exception {
     //when
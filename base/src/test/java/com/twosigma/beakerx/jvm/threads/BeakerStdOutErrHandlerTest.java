@@ -53,6 +53,7 @@ public class BeakerStdOutErrHandlerTest {
     //given
     //when
     System.out.print("Hello");
+    System.out.flush();
     //then
     assertThat(stdout.text).isNotEmpty();
   }
@@ -62,10 +63,29 @@ public class BeakerStdOutErrHandlerTest {
     //given
     //when
     System.err.print("Error");
+    System.err.flush();
     //then
     assertThat(stderr.text).isNotEmpty();
   }
 
+  @Test
+  public void shouldCloseContextOpenedForThreadWithoutCellExecutor() throws Exception {
+    //given
+    CellExecutionContext[] contexts = new CellExecutionContext[2];
+    Thread thread = new Thread(CellExecutionContext.detached(() -> {
+      seo.setOutputHandler();
+      contexts[0] = CellExecutionContext.current();
+      seo.clrOutputHandler();
+      contexts[1] = CellExecutionContext.current();
+    }));
+    //when
+    thread.start();
+    thread.join();
+    //then
+    assertThat(contexts[0]).isNotNull();
+    assertThat(contexts[1]).isNull();
+  }
+
   static class SimpleOutputHandlerMock implements BeakerOutputHandler {
 
     private String text;
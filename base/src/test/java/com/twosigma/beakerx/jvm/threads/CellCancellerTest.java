@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.kernel.GroupName;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CellCancellerTest {
+
+  @After
+  public void tearDown() {
+    CellCanceller.setEscalation(CellCanceller.Step.STOP_THREAD);
+  }
+
+  @Test
+  public void shouldInterruptAllThreadsWithinOneDeadline() throws Exception {
+    //given
+    CellCanceller canceller = new CellCanceller(5000);
+    List<Thread> threads = startThreads(10, () -> {
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+      }
+    });
+    //when
+    CellCanceller.Step step = canceller.cancel(Collections.emptyList(), threads, Thread::isAlive);
+    //then
+    assertThat(step).isEqualTo(CellCanceller.Step.INTERRUPT);
+    assertThat(threads.stream().noneMatch(Thread::isAlive)).isTrue();
+    assertThat(canceller.getInterruptLatency().getCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldStopCooperativeCodeThroughToken() throws Exception {
+    //given
+    CellCanceller canceller = new CellCanceller(5000);
+    CellExecutionContext context = new CellExecutionContext(GroupName.generate());
+    AtomicBoolean listenerCalled = new AtomicBoolean();
+    context.getCancellationToken().onCancel(() -> listenerCalled.set(true));
+    List<Thread> threads = startThreads(1, () -> {
+      try {
+        context.call(() -> {
+          while (!CancellationToken.current().isCancelled()) {
+            Thread.onSpinWait();
+          }
+          return null;
+        });
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+    //when
+    canceller.cancel(singletonList(context.getCancellationToken()), threads, Thread::isAlive);
+    //then
+    assertThat(threads.stream().noneMatch(Thread::isAlive)).isTrue();
+    assertThat(listenerCalled.get()).isTrue();
+  }
+
+  @Test
+  public void shouldEscalateWhenThreadsIgnoreInterrupt() throws Exception {
+    //given
+    CellCanceller.setEscalation(CellCanceller.Step.ISOLATE_CLASSLOADER, CellCanceller.Step.RESTART_EVALUATOR);
+    CellCanceller canceller = new CellCanceller(20);
+    AtomicInteger isolated = new AtomicInteger();
+    AtomicBoolean release = new AtomicBoolean();
+    canceller.setCancellationEscalation(new CancellationEscalation() {
+      @Override
+      public void isolateClassLoader() {
+        isolated.incrementAndGet();
+      }
+
+      @Override
+      public void restartEvaluator() {
+        release.set(true);
+      }
+    });
+    List<Thread> threads = startThreads(5, () -> {
+      while (!release.get()) {
+        Thread.onSpinWait();
+      }
+    });
+    //when
+    CellCanceller.Step step = canceller.cancel(Collections.emptyList(), threads, Thread::isAlive);
+    //then
+    assertThat(step).isEqualTo(CellCanceller.Step.RESTART_EVALUATOR);
+    assertThat(isolated.get()).isEqualTo(1);
+    assertThat(canceller.getStoppedBy(CellCanceller.Step.RESTART_EVALUATOR)).isEqualTo(1);
+    assertThat(canceller.getInterruptLatency().getCount()).isZero();
+  }
+
+  @Test
+  public void shouldLeaveOutStopThreadWhenJvmDoesNotSupportIt() {
+    //when
+    CellCanceller.setEscalation(CellCanceller.Step.STOP_THREAD, CellCanceller.Step.RESTART_EVALUATOR);
+    //then
+    assertThat(CellCanceller.getEscalation().contains(CellCanceller.Step.STOP_THREAD))
+            .isEqualTo(Runtime.version().feature() < 20);
+    assertThat(CellCanceller.getEscalation().get(0)).isEqualTo(CellCanceller.Step.INTERRUPT);
+    assertThat(CellCanceller.getEscalation()).endsWith(CellCanceller.Step.RESTART_EVALUATOR);
+  }
+
+  private List<Thread> startThreads(int count, Runnable body) throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(count);
+    List<Thread> threads = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      Thread thread = new Thread(() -> {
+        started.countDown();
+        body.run();
+      });
+      thread.setDaemon(true);
+      thread.start();
+      threads.add(thread);
+    }
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    return threads;
+  }
+}
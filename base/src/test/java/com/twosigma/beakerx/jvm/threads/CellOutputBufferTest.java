@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.kernel.GroupName;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CellOutputBufferTest {
+
+  private List<String> delivered;
+  private List<CellOutputBuffer> waiting;
+  private CellOutputBuffer buffer;
+  private CellExecutionContext context;
+
+  @Before
+  public void setUp() {
+    delivered = new ArrayList<>();
+    waiting = new ArrayList<>();
+    context = new CellExecutionContext(GroupName.generate());
+    buffer = new CellOutputBuffer(true, new CellOutputBuffer.Sink() {
+      @Override
+      public void deliver(boolean isOut, CellExecutionContext context, String text) {
+        delivered.add(text);
+      }
+
+      @Override
+      public void flushLater(CellOutputBuffer buffer) {
+        waiting.add(buffer);
+      }
+    });
+  }
+
+  @Test
+  public void shouldDecodeCodePointSplitAcrossWrites() {
+    //given
+    byte[] bytes = "zażółć €\n".getBytes(StandardCharsets.UTF_8);
+    //when
+    for (byte b : bytes) {
+      buffer.write(b, context);
+    }
+    //then
+    assertThat(delivered).containsExactly("zażółć €\n");
+  }
+
+  @Test
+  public void shouldFlushOnNewLineOnly() {
+    //given
+    byte[] bytes = "first ".getBytes(StandardCharsets.UTF_8);
+    //when
+    buffer.write(bytes, 0, bytes.length, context);
+    buffer.write("second", context);
+    //then
+    assertThat(delivered).isEmpty();
+    assertThat(waiting).containsExactly(buffer);
+    buffer.writeLine("", context);
+    assertThat(delivered).containsExactly("first second" + System.lineSeparator());
+  }
+
+  @Test
+  public void shouldNotKeepContextAfterFinalFlush() throws Exception {
+    //given
+    WeakReference<CellExecutionContext> finished = writeLineInNewContext("done");
+    //when
+    for (int i = 0; i < 50 && finished.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    //then
+    assertThat(delivered).containsExactly("done" + System.lineSeparator());
+    assertThat(finished.get()).isNull();
+  }
+
+  private WeakReference<CellExecutionContext> writeLineInNewContext(String text) {
+    CellExecutionContext cell = new CellExecutionContext(GroupName.generate());
+    buffer.writeLine(text, cell);
+    return new WeakReference<>(cell);
+  }
+
+  @Test
+  public void shouldFlushWhenBufferIsFull() {
+    //given
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < CellOutputBuffer.FLUSH_SIZE; i++) {
+      text.append('x');
+    }
+    //when
+    buffer.write(text, context);
+    //then
+    assertThat(delivered).hasSize(1);
+    assertThat(delivered.get(0)).hasSize(CellOutputBuffer.FLUSH_SIZE);
+  }
+
+  @Test
+  public void shouldFlushPendingTextByTimer() {
+    //given
+    buffer.write("no new line", context);
+    //when
+    boolean stillWaiting = buffer.flushIfOlderThan(0);
+    //then
+    assertThat(stillWaiting).isFalse();
+    assertThat(delivered).containsExactly("no new line");
+  }
+
+  @Test
+  public void shouldFlushWhenThreadMovesToAnotherCell() {
+    //given
+    buffer.write("cell 1", context);
+    //when
+    buffer.write("cell 2", new CellExecutionContext(GroupName.generate()));
+    //then
+    assertThat(delivered).containsExactly("cell 1");
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.kernel.GroupName;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class ExecutionResourcesTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+  }
+
+  @Test
+  public void shouldRejectWhenThreadsAndQueueAreFull() throws Exception {
+    //given
+    BoundedThreadPool pool = new BoundedThreadPool("test", 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    pool.execute(() -> block(started));
+    started.await(10, TimeUnit.SECONDS);
+    pool.execute(() -> block(new CountDownLatch(1)));
+    //when
+    RejectedExecutionException rejection = rejectionOf(pool);
+    //then
+    assertThat(rejection.getMessage()).contains("'test' is saturated");
+    assertThat(pool.getActiveCount()).isEqualTo(1);
+    assertThat(pool.getQueuedCount()).isEqualTo(1);
+    assertThat(pool.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void poolThreadsShouldNotKeepContextOfCellThatStartedThem() throws Exception {
+    //given
+    BoundedThreadPool pool = new BoundedThreadPool("test", 1, 1);
+    CellExecutionContext.open(GroupName.generate());
+    //when
+    Future<CellExecutionContext> seen;
+    try {
+      seen = pool.submit(CellExecutionContext::current);
+    } finally {
+      CellExecutionContext.remove();
+    }
+    //then
+    assertThat(seen.get(10, TimeUnit.SECONDS)).isNull();
+  }
+
+  @Test
+  public void shouldLimitRunningTasksOfVirtualThreadExecutor() throws Exception {
+    //given
+    ExecutorService perTask = Executors.newCachedThreadPool();
+    BoundedVirtualThreadExecutor executor = new BoundedVirtualThreadExecutor("virtual", perTask, 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    executor.execute(() -> block(started));
+    started.await(10, TimeUnit.SECONDS);
+    executor.execute(() -> block(new CountDownLatch(1)));
+    //when
+    RejectedExecutionException rejection = rejectionOf(executor);
+    //then
+    assertThat(rejection.getMessage()).contains("'virtual' is saturated");
+    assertThat(executor.getActiveCount()).isEqualTo(1);
+    assertThat(executor.getQueuedCount()).isEqualTo(1);
+    release.countDown();
+    perTask.shutdown();
+    perTask.awaitTermination(10, TimeUnit.SECONDS);
+    assertThat(executor.getCompletedCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldShareNamedExecutorsAcrossTheKernel() {
+    //given
+    ExecutionResources.configure("shared-test", 2, 4);
+    //when
+    ManagedExecutor executor = ExecutionResources.executor("shared-test");
+    executor.shutdownNow();
+    //then
+    assertThat(ExecutionResources.executor("shared-test")).isSameAs(executor);
+    assertThat(executor.isShutdown()).isFalse();
+    assertThat(executor.getMaxThreads()).isEqualTo(2);
+    assertThat(executor.getQueueCapacity()).isEqualTo(4);
+    assertThat(ExecutionResources.getExecutors()).contains(executor);
+  }
+
+  @Test
+  public void terminateShouldStopPoolAndInterruptRunningTasks() throws Exception {
+    //given
+    BoundedThreadPool pool = new BoundedThreadPool("terminate-test", 1, 1);
+    CountDownLatch started = new CountDownLatch(1);
+    pool.execute(() -> block(started));
+    started.await(10, TimeUnit.SECONDS);
+    //when
+    pool.terminate();
+    //then
+    assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  private RejectedExecutionException rejectionOf(ExecutorService executor) {
+    try {
+      executor.execute(() -> {
+      });
+    } catch (RejectedExecutionException e) {
+      return e;
+    }
+    fail("task should be rejected");
+    return null;
+  }
+
+  private void block(CountDownLatch started) {
+    started.countDown();
+    try {
+      release.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.jvm.threads;
+
+import com.twosigma.beakerx.TryResult;
+import com.twosigma.beakerx.kernel.ExecutionOptions;
+import com.twosigma.beakerx.kernel.GroupName;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PooledCellExecutorTest {
+
+  private PooledCellExecutor executor;
+
+  @Before
+  public void setUp() {
+    BeakerStdInOutErrHandler.init();
+    executor = new PooledCellExecutor("test", 1);
+  }
+
+  @After
+  public void tearDown() {
+    BeakerStdInOutErrHandler.fini();
+  }
+
+  @Test
+  public void shouldReturnResultAndReleaseGroupWhenCellEnds() {
+    //given
+    GroupName groupName = GroupName.generate();
+    //when
+    TryResult result = executor.executeTask(() -> TryResult.createResult(
+            CellExecutionContext.current().getGroupName()), new ExecutionOptions(groupName));
+    //then
+    assertThat(result.result()).isEqualTo(groupName);
+    assertThat(executor.runningGroupCount()).isZero();
+  }
+
+  @Test
+  public void shouldRouteOutputOfCellAndItsThreadsToCellHandler() {
+    //given
+    StringBuilder out = new StringBuilder();
+    //when
+    executor.executeTask(() -> {
+      BeakerStdInOutErrHandler.setOutputHandler(out::append, text -> {
+      }, () -> 0);
+      System.out.print("cell");
+      System.out.flush();
+      Thread child = new Thread(() -> {
+        System.out.print(" child");
+        System.out.flush();
+      });
+      child.start();
+      child.join();
+      return TryResult.createResult(null);
+    }, new ExecutionOptions(GroupName.generate()));
+    //then
+    assertThat(out.toString()).isEqualTo("cell child");
+  }
+
+  @Test
+  public void shouldCancelCellByGroupName() throws Exception {
+    //given
+    GroupName groupName = GroupName.generate();
+    CountDownLatch started = new CountDownLatch(1);
+    CompletableFuture<TryResult> result = CompletableFuture.supplyAsync(() ->
+            executor.executeTask(() -> {
+              started.countDown();
+              Thread.sleep(60_000);
+              return TryResult.createResult("finished");
+            }, new ExecutionOptions(groupName)));
+    assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+    //when
+    executor.cancelExecution(groupName);
+    //then
+    assertThat(result.get(10, TimeUnit.SECONDS).isError()).isTrue();
+    assertThat(executor.runningGroupCount()).isZero();
+  }
+
+  @Test
+  public void shouldNotLeakThreadGroupsOfFinishedCells() {
+    //given
+    BeakerCellExecutor beakerCellExecutor = new BeakerCellExecutor("test", 1);
+    //when
+    for (int i = 0; i < 5; i++) {
+      beakerCellExecutor.executeTask(() -> TryResult.createResult(null), new ExecutionOptions(GroupName.generate()));
+    }
+    //then
+    assertThat(beakerCellExecutor.threadGroupCount()).isLessThan(5);
+  }
+}
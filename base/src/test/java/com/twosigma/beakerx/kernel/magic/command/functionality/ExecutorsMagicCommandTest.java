@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.magic.command.functionality;
+
+import com.twosigma.beakerx.jvm.threads.BoundedThreadPool;
+import com.twosigma.beakerx.jvm.threads.ExecutionResources;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandExecutionParam;
+import com.twosigma.beakerx.kernel.magic.command.outcome.MagicCommandOutcomeItem;
+import com.twosigma.beakerx.kernel.magic.command.outcome.MagicCommandOutput;
+import org.junit.After;
+import org.junit.Test;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExecutorsMagicCommandTest {
+
+  private BoundedThreadPool pool = new BoundedThreadPool("report-test", 3, 7);
+
+  @After
+  public void tearDown() {
+    pool.terminate();
+  }
+
+  @Test
+  public void shouldReportCountersAndLimitsOfEachExecutor() {
+    //when
+    String report = ExecutorsMagicCommand.report(singletonList(pool));
+    //then
+    String[] lines = report.split("\\R");
+    assertThat(lines[0].split("\\s+")).containsExactly("executor", "active", "queued", "completed", "rejected", "maxThreads", "maxQueued");
+    assertThat(lines[1].split("\\s+")).containsExactly("report-test", "0", "0", "0", "0", "3", "7");
+  }
+
+  @Test
+  public void shouldReportThatNoExecutorStartedYet() {
+    //when
+    String report = ExecutorsMagicCommand.report(emptyList());
+    //then
+    assertThat(report).isEqualTo("No executors started yet.");
+  }
+
+  @Test
+  public void shouldListExecutorsOfKernel() {
+    //given
+    ExecutionResources.executor("magic-test");
+    //when
+    MagicCommandOutcomeItem outcome = new ExecutorsMagicCommand().execute(new MagicCommandExecutionParam(ExecutorsMagicCommand.EXECUTORS, "", 1, null, true));
+    //then
+    assertThat(outcome.getStatus()).isEqualTo(MagicCommandOutput.Status.OK);
+    assertThat((String) outcome.getMIMEContainer().get().getData()).contains("magic-test");
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.msg;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTest.SeoConfigurationFactoryMock;
+import com.twosigma.beakerx.jvm.object.ConsoleOutput;
+import com.twosigma.beakerx.jvm.object.SimpleEvaluationObject;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandConfigurationMock;
+import com.twosigma.beakerx.message.Message;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MessageCreatorTest {
+
+  private SimpleEvaluationObject seo;
+
+  @Before
+  public void setUp() throws Exception {
+    KernelTest kernel = new KernelTest(MessageCreator.get(), new MagicCommandConfigurationMock());
+    seo = new SimpleEvaluationObject("code", new SeoConfigurationFactoryMock(kernel, MessageCreator.get(), new MagicCommandConfigurationMock()));
+  }
+
+  @Test
+  public void consecutiveWritesToTheSameStreamAreMergedIntoOneMessage() {
+    //given
+    seo.getConsoleOutput().add(new ConsoleOutput(false, "a"));
+    seo.getConsoleOutput().add(new ConsoleOutput(false, "b"));
+    seo.getConsoleOutput().add(new ConsoleOutput(true, "c"));
+    seo.getConsoleOutput().add(new ConsoleOutput(false, "d"));
+    //when
+    List<MessageHolder> messages = MessageCreator.get().createMessage(seo);
+    //then
+    assertThat(messages).hasSize(3);
+    assertStream(messages.get(0).getMessage(), MessageCreator.STDOUT, "ab");
+    assertStream(messages.get(1).getMessage(), MessageCreator.STDERR, "c");
+    assertStream(messages.get(2).getMessage(), MessageCreator.STDOUT, "d");
+    assertThat(seo.getConsoleOutput()).isEmpty();
+  }
+
+  @Test
+  public void onlyTextQueuedSinceThePreviousUpdateIsPublished() {
+    //given
+    seo.getConsoleOutput().add(new ConsoleOutput(false, "first"));
+    MessageCreator.get().createMessage(seo);
+    seo.getConsoleOutput().add(new ConsoleOutput(false, "second"));
+    //when
+    List<MessageHolder> messages = MessageCreator.get().createMessage(seo);
+    //then
+    assertThat(messages).hasSize(1);
+    assertStream(messages.get(0).getMessage(), MessageCreator.STDOUT, "second");
+  }
+
+  private void assertStream(Message message, String name, String text) {
+    assertThat(message.type()).isEqualTo(JupyterMessages.STREAM);
+    assertThat(message.getContent().get(MessageCreator.NAME)).isEqualTo(name);
+    assertThat(message.getContent().get(MessageCreator.TEXT)).isEqualTo(text);
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.kernel.threads;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTest.SeoConfigurationFactoryMock;
+import com.twosigma.beakerx.jvm.object.ConsoleOutput;
+import com.twosigma.beakerx.jvm.object.EvaluationObject;
+import com.twosigma.beakerx.jvm.object.SimpleEvaluationObject;
+import com.twosigma.beakerx.kernel.magic.command.MagicCommandConfigurationMock;
+import com.twosigma.beakerx.kernel.msg.MessageCreator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncExecutionResultSenderTest {
+
+  private RecordingSender recorder;
+  private AsyncExecutionResultSender sender;
+  private SimpleEvaluationObject seo;
+
+  @Before
+  public void setUp() throws Exception {
+    KernelTest kernel = new KernelTest(MessageCreator.get(), new MagicCommandConfigurationMock());
+    seo = new SimpleEvaluationObject("code", new SeoConfigurationFactoryMock(kernel, MessageCreator.get(), new MagicCommandConfigurationMock()));
+    recorder = new RecordingSender();
+    sender = new AsyncExecutionResultSender(recorder);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    recorder.release.countDown();
+    sender.exit();
+  }
+
+  @Test
+  public void shouldSendOnCallingThreadUnlessSwitchedOn() {
+    //when
+    ResultSender wrapped = AsyncExecutionResultSender.wrap(recorder);
+    //then
+    assertThat(wrapped).isSameAs(recorder);
+  }
+
+  @Test
+  public void shouldCoalesceOutputWhileSenderIsBusy() throws Exception {
+    //given
+    write("a");
+    assertThat(recorder.entered.await(5, TimeUnit.SECONDS)).isTrue();
+    //when
+    write("b");
+    write("c");
+    recorder.release.countDown();
+    seo.finished("done");
+    sender.update(seo);
+    //then
+    assertThat(recorder.updates).containsExactly("RUNNING:a", "RUNNING:bc", "FINISHED:");
+    assertThat(sender.getCoalescedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldSendResultOnceAndOutputWrittenAfterItAsOutputOnly() throws Exception {
+    //given
+    recorder.release.countDown();
+    seo.finished("done");
+    sender.update(seo);
+    //when
+    write("late");
+    sender.update(seo);
+    sender.exit();
+    //then
+    assertThat(recorder.updates).containsExactly("FINISHED:", "RUNNING:late");
+  }
+
+  private void write(String text) {
+    seo.getConsoleOutput().add(new ConsoleOutput(false, text));
+    sender.update(seo);
+  }
+
+  private static class RecordingSender implements ResultSender {
+    private final List<String> updates = new CopyOnWriteArrayList<>();
+    private final CountDownLatch entered = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Override
+    public void update(EvaluationObject seo) {
+      entered.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      StringBuilder text = new StringBuilder();
+      ConsoleOutput co;
+      while ((co = seo.getConsoleOutput().poll()) != null) {
+        text.append(co.getText());
+      }
+      updates.add(seo.getStatus() + ":" + text);
+    }
+
+    @Override
+    public void exit() {
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.commons.codec.binary.Hex.encodeHexString;
+
+/**
+ * Messages signed per second with a new {@link Mac} per message versus
+ * {@link HashedMessageAuthenticationCode}. Run with {@code gradle :base:jmh -PjmhIncludes=HashedMessageAuthenticationCode}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HashedMessageAuthenticationCodeBenchmark {
+
+  private static final String KEY = "a0436f6c-1916-498b-8eb9-e81ab9368e84";
+
+  private HashedMessageAuthenticationCode hmac;
+  private SecretKeySpec spec;
+  private List<byte[]> message;
+
+  @Setup
+  public void setUp() {
+    hmac = new HashedMessageAuthenticationCode(KEY);
+    spec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    message = Arrays.asList(
+            bytes("{\"msg_id\":\"2f2e7a86-5b4b-4ff6-8a5c-1f1b3f0d4f52\",\"username\":\"kernel\",\"session\":\"sessionId\",\"msg_type\":\"stream\",\"version\":\"5.3\"}"),
+            bytes("{\"msg_id\":\"8b0b3b5e-0d38-4a9e-9d53-d2c7f0e0a1b7\",\"username\":\"user\",\"session\":\"sessionId\",\"msg_type\":\"execute_request\",\"version\":\"5.3\"}"),
+            bytes("{}"),
+            bytes("{\"name\":\"stdout\",\"text\":\"value of x = 42\\n\"}"));
+  }
+
+  @Benchmark
+  public String signWithNewMac() throws Exception {
+    Mac mac = Mac.getInstance("HmacSHA256");
+    mac.init(spec);
+    message.forEach(mac::update);
+    return encodeHexString(mac.doFinal());
+  }
+
+  @Benchmark
+  public byte[] signWithThreadLocalMac() {
+    return hmac.signToHex(message);
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(HashedMessageAuthenticationCodeBenchmark.class.getSimpleName()).build()).run();
+  }
+}
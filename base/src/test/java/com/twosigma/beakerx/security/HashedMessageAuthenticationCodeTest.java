@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.security;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashedMessageAuthenticationCodeTest {
+
+  private static final String EXPECTED = "f7bc83f430538424b13298e6aa6fb143ef4d59a14946175997479dbc2d1a3cd8";
+
+  private HashedMessageAuthenticationCode hmac;
+
+  @Before
+  public void setUp() {
+    hmac = new HashedMessageAuthenticationCode("key");
+  }
+
+  @Test
+  public void shouldSignMessageParts() {
+    //when
+    String signature = hmac.sign(Arrays.asList("The quick brown fox ", "jumps over the lazy dog"));
+    //then
+    assertThat(signature).isEqualTo(EXPECTED);
+  }
+
+  @Test
+  public void shouldReuseMacBetweenMessages() {
+    //given
+    List<byte[]> msg = singletonList(bytes("The quick brown fox jumps over the lazy dog"));
+    hmac.signToHex(singletonList(bytes("other message")));
+    //when
+    byte[] signature = hmac.signToHex(msg);
+    //then
+    assertThat(signature).isEqualTo(bytes(EXPECTED));
+  }
+
+  @Test
+  public void shouldVerifySignature() {
+    //given
+    List<byte[]> msg = singletonList(bytes("The quick brown fox jumps over the lazy dog"));
+    //when
+    //then
+    assertThat(hmac.verify(bytes(EXPECTED), msg)).isTrue();
+    assertThat(hmac.verify(bytes(EXPECTED.replace('f', '0')), msg)).isFalse();
+  }
+
+  private static byte[] bytes(String text) {
+    return text.getBytes(StandardCharsets.UTF_8);
+  }
+}
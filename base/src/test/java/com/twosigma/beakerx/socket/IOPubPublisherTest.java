@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.socket;
+
+import com.twosigma.beakerx.message.Header;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.message.MessageSerializer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.twosigma.beakerx.kernel.msg.JupyterMessages.STATUS;
+import static com.twosigma.beakerx.kernel.msg.JupyterMessages.STREAM;
+import static com.twosigma.beakerx.socket.IOPubPublisher.Backpressure.BLOCK;
+import static com.twosigma.beakerx.socket.IOPubPublisher.Backpressure.COALESCE;
+import static com.twosigma.beakerx.socket.IOPubPublisher.Backpressure.DROP_OLDEST_STREAM;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IOPubPublisherTest {
+
+  private List<Message> sent;
+  private Header parent;
+
+  @Before
+  public void setUp() {
+    sent = Collections.synchronizedList(new ArrayList<>());
+    parent = new Header(STREAM, "sessionId");
+  }
+
+  @Test
+  public void shouldCoalesceQueuedStreamMessagesOfTheSameCell() {
+    //given
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> m, sent::add, 10, COALESCE);
+    //when
+    publisher.publish(asList(stream("a"), stream("b"), stream("c")));
+    publisher.start();
+    publisher.close();
+    //then
+    assertThat(sent).hasSize(1);
+    assertThat(sent.get(0).getContent().get("text")).isEqualTo("abc");
+    assertThat(publisher.getCoalescedCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldDropOldestStreamMessageWhenQueueIsFull() {
+    //given
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> m, sent::add, 2, DROP_OLDEST_STREAM);
+    Message status = new Message(new Header(STATUS, "sessionId"));
+    //when
+    publisher.publish(asList(status, stream("a"), stream("b")));
+    publisher.start();
+    publisher.close();
+    //then
+    assertThat(sent).hasSize(2);
+    assertThat(sent.get(0).getHeader()).isSameAs(status.getHeader());
+    assertThat(sent.get(1).getContent().get("text")).isEqualTo("b");
+    assertThat(publisher.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldPublishInOrder() {
+    //given
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> m, sent::add, 4, BLOCK);
+    publisher.start();
+    List<Header> headers = new ArrayList<>();
+    //when
+    for (int i = 0; i < 100; i++) {
+      Message message = stream(String.valueOf(i));
+      headers.add(message.getHeader());
+      publisher.publish(Collections.singletonList(message));
+    }
+    publisher.close();
+    //then
+    assertThat(sent.stream().map(Message::getHeader).collect(Collectors.toList())).containsExactlyElementsOf(headers);
+    assertThat(publisher.getQueueDepth()).isEqualTo(0);
+    assertThat(publisher.getPublishLatency().getCount()).isEqualTo(100);
+  }
+
+  @Test
+  public void awaitCapacityShouldTimeOutWhileQueueIsAboveLowWaterMark() {
+    //given
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> m, sent::add, 4, BLOCK);
+    publisher.publish(asList(stream("a"), stream("b"), stream("c")));
+    //when
+    boolean congested = publisher.awaitCapacity(10);
+    publisher.start();
+    boolean drained = publisher.awaitCapacity(5000);
+    publisher.close();
+    //then
+    assertThat(congested).isFalse();
+    assertThat(drained).isTrue();
+  }
+
+  @Test
+  public void shouldEncodeSnapshotsOnWriterThread() {
+    //given
+    List<String> encoded = Collections.synchronizedList(new ArrayList<>());
+    List<String> encodingThreads = Collections.synchronizedList(new ArrayList<>());
+    IOPubPublisher<String> publisher = new IOPubPublisher<>(m -> {
+      encodingThreads.add(Thread.currentThread().getName());
+      return MessageSerializer.toJson(m.getContent());
+    }, encoded::add, 4, BLOCK);
+    Message status = new Message(new Header(STATUS, "sessionId"));
+    status.setContent(new HashMap<>());
+    status.getContent().put("execution_state", "busy");
+    Message first = stream("a");
+    //when
+    publisher.publish(asList(status, first, stream("b")));
+    status.getContent().put("execution_state", "idle");
+    first.getContent().put("text", "changed");
+    publisher.start();
+    publisher.close();
+    //then
+    assertThat(encoded).hasSize(3);
+    assertThat(encoded.get(0)).contains("busy");
+    assertThat(encoded.get(1)).contains("\"a\"");
+    assertThat(encodingThreads).containsOnly("beakerx-iopub");
+  }
+
+  @Test
+  public void coalescedTextShouldNotSeeLaterChanges() {
+    //given
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> m, sent::add, 10, COALESCE);
+    Message first = stream("a");
+    //when
+    publisher.publish(asList(first, stream("b")));
+    first.getContent().put("text", "changed");
+    publisher.start();
+    publisher.close();
+    //then
+    assertThat(sent).hasSize(1);
+    assertThat(sent.get(0).getContent().get("text")).isEqualTo("ab");
+    assertThat(first.getContent().get("text")).isEqualTo("changed");
+  }
+
+  @Test
+  public void coalescedMessagesShouldBeEncodedOnce() {
+    //given
+    List<Message> encoded = Collections.synchronizedList(new ArrayList<>());
+    IOPubPublisher<Message> publisher = new IOPubPublisher<>(m -> {
+      encoded.add(m);
+      return m;
+    }, sent::add, 10, COALESCE);
+    //when
+    publisher.publish(asList(stream("a"), stream("b"), stream("c")));
+    publisher.start();
+    publisher.close();
+    //then
+    assertThat(encoded).hasSize(1);
+    assertThat(encoded.get(0).getContent().get("text")).isEqualTo("abc");
+  }
+
+  private Message stream(String text) {
+    Message message = new Message(new Header(STREAM, "sessionId"));
+    message.setParentHeader(parent);
+    message.setContent(new HashMap<>());
+    message.getContent().put("name", "stdout");
+    message.getContent().put("text", text);
+    return message;
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.socket;
+
+import com.twosigma.beakerx.message.Header;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.message.MessageSerializer;
+import com.twosigma.beakerx.security.HashedMessageAuthenticationCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.zeromq.ZFrame;
+import org.zeromq.ZMsg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+import static com.twosigma.beakerx.kernel.msg.JupyterMessages.STREAM;
+import static com.twosigma.beakerx.message.MessageSerializer.toJson;
+
+/**
+ * Compares the String based message encoding previously used by {@link KernelSocketsZMQ}
+ * with {@link MessageCodec}. Run with {@code gradle :base:jmh -PjmhIncludes=MessageCodecBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MessageCodecBenchmark {
+
+  private HashedMessageAuthenticationCode hmac;
+  private MessageCodec codec;
+  private Message message;
+  private ZMsg encoded;
+
+  @Setup
+  public void setUp() {
+    hmac = new HashedMessageAuthenticationCode("a0436f6c-1916-498b-8eb9-e81ab9368e84");
+    codec = new MessageCodec(hmac);
+    message = new Message(new Header(STREAM, "sessionId"));
+    message.getIdentities().add("identity".getBytes(StandardCharsets.UTF_8));
+    message.setParentHeader(new Header(STREAM, "sessionId"));
+    message.setMetadata(new HashMap<>());
+    message.setContent(new HashMap<>());
+    message.getContent().put("name", "stdout");
+    message.getContent().put("text", "value of x = 42, value of y = 3.141592653589793\n");
+    encoded = codec.encode(message);
+  }
+
+  @Benchmark
+  public ZMsg encodeWithStrings() {
+    String header = toJson(message.getHeader());
+    String parent = toJson(message.getParentHeader());
+    String meta = toJson(message.getMetadata());
+    String content = toJson(message.getContent());
+    String digest = hmac.sign(Arrays.asList(header, parent, meta, content));
+    ZMsg zmsg = new ZMsg();
+    message.getIdentities().forEach(zmsg::add);
+    zmsg.add(KernelSocketsZMQ.DELIM);
+    zmsg.add(digest.getBytes(StandardCharsets.UTF_8));
+    zmsg.add(header.getBytes(StandardCharsets.UTF_8));
+    zmsg.add(parent.getBytes(StandardCharsets.UTF_8));
+    zmsg.add(meta.getBytes(StandardCharsets.UTF_8));
+    zmsg.add(content.getBytes(StandardCharsets.UTF_8));
+    return zmsg;
+  }
+
+  @Benchmark
+  public ZMsg encodeWithCodec() {
+    return codec.encode(message);
+  }
+
+  @Benchmark
+  public Message decodeWithStrings() {
+    byte[][] parts = parts();
+    hmac.signBytes(Arrays.asList(parts[MessageParts.HEADER], parts[MessageParts.PARENT], parts[MessageParts.METADATA], parts[MessageParts.CONTENT]));
+    Message decoded = new Message(MessageSerializer.parse(new String(parts[MessageParts.HEADER], StandardCharsets.UTF_8), Header.class));
+    decoded.setParentHeader(MessageSerializer.parse(new String(parts[MessageParts.PARENT], StandardCharsets.UTF_8), Header.class));
+    decoded.setMetadata(MessageSerializer.parse(new String(parts[MessageParts.METADATA], StandardCharsets.UTF_8), LinkedHashMap.class));
+    decoded.setContent(MessageSerializer.parse(new String(parts[MessageParts.CONTENT], StandardCharsets.UTF_8), LinkedHashMap.class));
+    return decoded;
+  }
+
+  @Benchmark
+  public Message decodeWithCodec() {
+    return codec.decode(encoded);
+  }
+
+  private byte[][] parts() {
+    byte[][] parts = new byte[encoded.size()][];
+    int i = 0;
+    for (ZFrame frame : encoded) {
+      parts[i++] = frame.getData();
+    }
+    return parts;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(MessageCodecBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,79 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.socket;
+
+import com.twosigma.beakerx.message.Header;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.security.HashedMessageAuthenticationCode;
+import org.junit.Before;
+import org.junit.Test;
+import org.zeromq.ZFrame;
+import org.zeromq.ZMsg;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+
+import static com.twosigma.beakerx.kernel.msg.JupyterMessages.EXECUTE_REQUEST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+public class MessageCodecTest {
+
+  private MessageCodec codec;
+  private Message message;
+
+  @Before
+  public void setUp() {
+    codec = new MessageCodec(new HashedMessageAuthenticationCode("secret"));
+    message = new Message(new Header(EXECUTE_REQUEST, "sessionId"));
+    message.getIdentities().add("identity".getBytes(StandardCharsets.UTF_8));
+    message.setParentHeader(new Header(EXECUTE_REQUEST, "sessionId"));
+    message.setMetadata(new HashMap<>());
+    message.setContent(new HashMap<>());
+    message.getContent().put("code", "println \"zażółć\"");
+  }
+
+  @Test
+  public void shouldDecodeEncodedMessage() {
+    //when
+    Message decoded = codec.decode(codec.encode(message));
+    //then
+    assertThat(decoded.getHeader().getId()).isEqualTo(message.getHeader().getId());
+    assertThat(decoded.type()).isEqualTo(EXECUTE_REQUEST);
+    assertThat(decoded.getParentHeader().getId()).isEqualTo(message.getParentHeader().getId());
+    assertThat(decoded.getContent()).isEqualTo(message.getContent());
+    assertThat(decoded.getIdentities().get(0)).isEqualTo(message.getIdentities().get(0));
+  }
+
+  @Test
+  public void shouldRejectMessageWithWrongSignature() {
+    //given
+    ZMsg zmsg = codec.encode(message);
+    ZMsg tampered = new ZMsg();
+    int i = 0;
+    for (ZFrame frame : zmsg) {
+      tampered.add(i++ == MessageParts.HMAC ? "0000".getBytes(StandardCharsets.UTF_8) : frame.getData());
+    }
+    //when
+    try {
+      codec.decode(tampered);
+      fail("signature should not match");
+    } catch (RuntimeException e) {
+      //then
+      assertThat(e.getMessage()).isEqualTo("Signatures do not match.");
+    }
+  }
+}
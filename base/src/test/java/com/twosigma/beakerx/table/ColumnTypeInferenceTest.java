@@ -0,0 +1,157 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer;
+import com.twosigma.beakerx.kernel.KernelManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnTypeInferenceTest {
+
+  private KernelTest kernel;
+  private AtomicInteger lookups = new AtomicInteger();
+  private ColumnTypeInference inference;
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    inference = new ColumnTypeInference(new BasicObjectSerializer() {
+      @Override
+      public String convertType(String tn) {
+        lookups.incrementAndGet();
+        return super.convertType(tn);
+      }
+    });
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+    ColumnTypeInference.setSampling(ColumnTypeInference.Sampling.FULL_SCAN, 1000);
+    ColumnTypeInference.setParallelColumnThreshold(64);
+  }
+
+  @Test
+  public void shouldUseLastValueTypeUnlessStringFound() {
+    //given
+    List<Map<String, Object>> rows = asList(row("a", 1, "b", 1), row("a", 2.5, "b", "x"), row("a", null, "b", 3));
+    //when
+    List<String> types = inference.inferTypes(rows, asList("a", "b"));
+    //then
+    assertThat(types).containsExactly("double", "string");
+  }
+
+  @Test
+  public void shouldLookUpTypeOncePerClass() {
+    //given
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      rows.add(row("a", i, "b", (double) i));
+    }
+    //when
+    inference.inferTypes(rows, asList("a", "b"));
+    //then
+    assertThat(lookups.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldOnlyLookAtFirstRowsWithFirstNSampling() {
+    //given
+    ColumnTypeInference.setSampling(ColumnTypeInference.Sampling.FIRST_N, 2);
+    List<Map<String, Object>> rows = asList(row("a", 1, "b", 1), row("a", 2, "b", 2), row("a", "late", "b", 3));
+    //when
+    List<String> types = inference.inferTypes(rows, asList("a", "b"));
+    //then
+    assertThat(types).containsExactly("integer", "integer");
+  }
+
+  @Test
+  public void shouldInferWideTablesInParallelInColumnOrder() {
+    //given
+    ColumnTypeInference.setParallelColumnThreshold(4);
+    Map<String, Object> row = new LinkedHashMap<>();
+    List<String> columns = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      columns.add("c" + i);
+      row.put("c" + i, i % 2 == 0 ? (Object) i : "s" + i);
+    }
+    //when
+    List<String> types = inference.inferTypes(asList(row), columns);
+    //then
+    assertThat(types).hasSize(100);
+    assertThat(types.get(0)).isEqualTo("integer");
+    assertThat(types.get(99)).isEqualTo("string");
+  }
+
+  @Test
+  public void shouldKeepColumnsOfFirstPageAndIgnoreLaterColumns() {
+    //given
+    List<Map<String, Object>> rows = new ArrayList<>();
+    for (int i = 0; i < TableDisplay.PAGE_SIZE; i++) {
+      rows.add(row("a", i, "b", i));
+    }
+    Map<String, Object> late = row("a", 0, "b", 0);
+    late.put("c", "new");
+    rows.add(late);
+    TableDisplay.setLoadingMode(TableDisplayLoadingMode.ENDLESS);
+    try {
+      TableDisplay tableDisplay = new TableDisplay(rows.stream());
+      assertThat(tableDisplay.getColumnNames()).containsExactly("a", "b");
+      //when
+      tableDisplay.takeNextPage();
+      //then
+      assertThat(tableDisplay.getColumnNames()).containsExactly("a", "b");
+      assertThat(tableDisplay.getTypes()).containsExactly("integer", "integer");
+      assertThat((List<Object>) tableDisplay.getValues().get(TableDisplay.PAGE_SIZE)).containsExactly(0, 0);
+    } finally {
+      TableDisplay.setLoadingMode(TableDisplayLoadingMode.ALL);
+    }
+  }
+
+  @Test
+  public void shouldTakeColumnsOfAllRowsOfFirstPage() {
+    //given
+    Map<String, Object> second = row("a", 2, "b", 2);
+    second.put("c", 1.5);
+    //when
+    TableDisplay tableDisplay = new TableDisplay(asList(row("a", 1, "b", 1), second).stream());
+    //then
+    assertThat(tableDisplay.getColumnNames()).containsExactly("a", "b", "c");
+    assertThat(tableDisplay.getTypes()).containsExactly("integer", "integer", "double");
+    assertThat((List<Object>) tableDisplay.getValues().get(0)).containsExactly(1, 1, null);
+  }
+
+  private Map<String, Object> row(String k1, Object v1, String k2, Object v2) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put(k1, v1);
+    row.put(k2, v2);
+    return row;
+  }
+}
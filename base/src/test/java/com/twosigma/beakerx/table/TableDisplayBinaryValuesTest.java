@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.message.Message;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+import static com.twosigma.beakerx.kernel.comm.Comm.BUFFER_PATHS;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.BINARY;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.BINARY_VALUES;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.COLUMNS;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.DICTIONARY;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.ENCODING;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.VALUES_ENCODING;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.VALUES;
+import static com.twosigma.beakerx.widget.BeakerxWidgetInfo.MODEL;
+import static com.twosigma.beakerx.widget.TestWidgetUtils.getData;
+import static com.twosigma.beakerx.widget.TestWidgetUtils.getState;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableDisplayBinaryValuesTest {
+
+  private KernelTest kernel;
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+    TableDisplay.setValuesEncoding(TableDisplayValuesEncoding.JSON);
+  }
+
+  @Test
+  public void shouldEncodeColumnsAsLittleEndianArrays() {
+    //given
+    List<List<?>> values = asList(asList(1.5, 7, "a", true), asList(null, 8, "b", false), asList(3.0, 9, "a", true));
+    //when
+    TableDisplayBinaryValues encoded = TableDisplayBinaryValues.encode(values, asList("double", "integer", "string", "boolean"), singletonList(MODEL));
+    //then
+    List<byte[]> buffers = encoded.getBuffer().getBuffers();
+    ByteBuffer doubles = ByteBuffer.wrap(buffers.get(0)).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(doubles.getDouble(0)).isEqualTo(1.5);
+    assertThat(doubles.getDouble(16)).isEqualTo(3.0);
+    assertThat(buffers.get(1)).containsExactly(2);
+    ByteBuffer ints = ByteBuffer.wrap(buffers.get(2)).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(ints.getInt(4)).isEqualTo(8);
+    ByteBuffer codes = ByteBuffer.wrap(buffers.get(3)).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(asList(codes.getInt(0), codes.getInt(4), codes.getInt(8))).containsExactly(0, 1, 0);
+    assertThat(buffers.get(4)).containsExactly(1, 0, 1);
+    assertThat(encoded.getBuffer().getBufferPaths().get(1)).containsExactly(MODEL, BINARY_VALUES, COLUMNS, "0", "nulls");
+    List<Map> columns = (List<Map>) encoded.getMetadata().get(COLUMNS);
+    assertThat(columns.get(2).get(DICTIONARY)).isEqualTo(asList("a", "b"));
+  }
+
+  @Test
+  public void shouldKeepColumnAsJsonWhenValuesDoNotMatchType() {
+    //given
+    List<List<?>> values = asList(singletonList("not a number"), singletonList(2.0));
+    //when
+    TableDisplayBinaryValues encoded = TableDisplayBinaryValues.encode(values, singletonList("double"), singletonList(MODEL));
+    //then
+    List<Map> columns = (List<Map>) encoded.getMetadata().get(COLUMNS);
+    assertThat(columns.get(0).get(ENCODING)).isEqualTo("json");
+    assertThat(encoded.getBuffer().isEmpty()).isTrue();
+  }
+
+  @Test
+  public void shouldSendValuesAsCommBuffers() {
+    //given
+    TableDisplay.setValuesEncoding(TableDisplayValuesEncoding.BINARY);
+    TableDisplay tableDisplay = new TableDisplay(
+            asList(asList(1.0, 2), asList(3.0, 4)),
+            asList("a", "b"),
+            asList("double", "integer"));
+    kernel.clearMessages();
+    //when
+    tableDisplay.display();
+    //then
+    Message update = kernel.getPublishedMessages().get(0);
+    Map model = (Map) getState(update).get(MODEL);
+    assertThat(model.get(VALUES_ENCODING)).isEqualTo(BINARY);
+    assertThat(model.containsKey(VALUES)).isFalse();
+    assertThat(model.get(BINARY_VALUES)).isNotNull();
+    assertThat(update.getBuffers()).hasSize(2);
+    assertThat((List) getData(update).get(BUFFER_PATHS)).hasSize(2);
+  }
+}
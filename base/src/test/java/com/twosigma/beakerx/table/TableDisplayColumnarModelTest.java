@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.chart.Color;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.table.column.BooleanColumn;
+import com.twosigma.beakerx.table.column.DoubleColumn;
+import com.twosigma.beakerx.table.column.LongColumn;
+import com.twosigma.beakerx.table.column.NullBitmap;
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.table.column.TableDisplayColumn;
+import com.twosigma.beakerx.table.highlight.TableDisplayCellHighlighter;
+import com.twosigma.beakerx.table.highlight.ValueHighlighter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Map;
+
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.COLUMNS;
+import static com.twosigma.beakerx.table.TableDisplayBinaryValues.DICTIONARY;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.VALUES;
+import static com.twosigma.beakerx.widget.BeakerxWidgetInfo.MODEL;
+import static com.twosigma.beakerx.widget.TestWidgetUtils.getState;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableDisplayColumnarModelTest {
+
+  private KernelTest kernel;
+  private TableDisplay tableDisplay;
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    NullBitmap nulls = new NullBitmap(3);
+    nulls.setNull(1);
+    tableDisplay = new TableDisplay(
+            asList("price", "volume", "ticker", "active"),
+            asList(new DoubleColumn(new double[]{1.5, 0, 3.5}, nulls),
+                    new LongColumn(new long[]{10, 20, 30}),
+                    new StringDictionaryColumn(new String[]{"A", "B", "A"}),
+                    new BooleanColumn(new boolean[]{true, false, true})));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+  }
+
+  @Test
+  public void shouldExposeColumnsAsRows() {
+    //given
+    //when
+    List<List<?>> values = tableDisplay.getValues();
+    //then
+    assertThat(tableDisplay.getTypes()).containsExactly("double", "int64", "string", "boolean");
+    assertThat(tableDisplay.getRowCount()).isEqualTo(3);
+    assertThat(values).hasSize(3);
+    assertThat(values.get(0)).isEqualTo(asList(1.5, "10", "A", true));
+    assertThat(values.get(1)).isEqualTo(asList(null, "20", "B", false));
+  }
+
+  @Test
+  public void shouldSerializeValuesFromColumns() {
+    //given
+    kernel.clearMessages();
+    //when
+    tableDisplay.display();
+    //then
+    Message message = kernel.getPublishedMessages().get(0);
+    Map model = (Map) getState(message).get(MODEL);
+    assertThat((List) model.get(VALUES)).containsExactly(
+            asList(1.5, "10", "A", true),
+            asList(null, "20", "B", false),
+            asList(3.5, "30", "A", true));
+  }
+
+  @Test
+  public void shouldUpdateCellInColumn() {
+    //given
+    //when
+    tableDisplay.updateCell(1, "price", 2.5);
+    tableDisplay.updateCell(2, "ticker", "C");
+    //then
+    TableDisplayColumn price = tableDisplay.getColumn("price");
+    assertThat(price.isNull(1)).isFalse();
+    assertThat(price.getDouble(1)).isEqualTo(2.5);
+    StringDictionaryColumn ticker = (StringDictionaryColumn) tableDisplay.getColumn("ticker");
+    assertThat(ticker.getDictionary()).containsExactly("A", "B", "C");
+    assertThat(tableDisplay.getValues().get(2).get(2)).isEqualTo("C");
+  }
+
+  @Test
+  public void shouldFilterAndHighlightThroughColumns() {
+    //given
+    TableDisplayColumn active = tableDisplay.getColumn("active");
+    //when
+    tableDisplay.setRowFilter((row, values) -> active.getBoolean(row));
+    tableDisplay.addCellHighlighter((row, col, table) -> col == 0 && row == 2 ? Color.RED : null);
+    //then
+    assertThat(tableDisplay.getFilteredValues()).hasSize(2);
+    List<TableDisplayCellHighlighter> highlighters = tableDisplay.getCellHighlighters();
+    assertThat(highlighters).hasSize(1);
+    assertThat(((ValueHighlighter) highlighters.get(0)).getColors()).containsExactly(null, null, Color.RED);
+  }
+
+  @Test
+  public void shouldEncodePrimitiveColumnsWithoutBoxing() {
+    //given
+    List<TableDisplayColumn> columns = asList(tableDisplay.getColumn("price"), tableDisplay.getColumn("ticker"));
+    //when
+    TableDisplayBinaryValues encoded = TableDisplayBinaryValues.encode(columns, 1, 3, singletonList(MODEL));
+    //then
+    List<byte[]> buffers = encoded.getBuffer().getBuffers();
+    ByteBuffer doubles = ByteBuffer.wrap(buffers.get(0)).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(doubles.getDouble(8)).isEqualTo(3.5);
+    assertThat(buffers.get(1)).containsExactly(1);
+    ByteBuffer codes = ByteBuffer.wrap(buffers.get(2)).order(ByteOrder.LITTLE_ENDIAN);
+    assertThat(asList(codes.getInt(0), codes.getInt(4))).containsExactly(1, 0);
+    List<Map> encodedColumns = (List<Map>) encoded.getMetadata().get(COLUMNS);
+    assertThat(encodedColumns.get(1).get(DICTIONARY)).isEqualTo(asList("A", "B"));
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.jvm.serialization.BasicObjectSerializer;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.table.serializer.TableDisplaySerializer;
+import com.twosigma.beakerx.table.stream.PagedRows;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.twosigma.beakerx.widget.BeakerxWidgetInfo.MODEL;
+import static com.twosigma.beakerx.widget.TestWidgetUtils.getState;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableDisplayStreamingModelTest {
+
+  private KernelTest kernel;
+  private AtomicInteger rowsRead = new AtomicInteger();
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    TableDisplayStreamingModel.setMaxPagesInMemory(2);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+    TableDisplayStreamingModel.setMaxPagesInMemory(10);
+  }
+
+  @Test
+  public void shouldShowFirstPageAndTakeNextPage() {
+    //given
+    TableDisplay tableDisplay = new TableDisplay(rows(Integer.MAX_VALUE));
+    //when
+    List<List<?>> nextPage = tableDisplay.takeNextPage();
+    //then
+    assertThat(tableDisplay.getColumnNames()).containsExactly("id", "name");
+    assertThat(nextPage).hasSize(TableDisplay.PAGE_SIZE);
+    assertThat(nextPage.get(0).get(0)).isEqualTo(TableDisplay.PAGE_SIZE);
+    assertThat(tableDisplay.getValues()).hasSize(2 * TableDisplay.PAGE_SIZE);
+    tableDisplay.close();
+  }
+
+  @Test
+  public void displayShouldSendFirstPageOfUnboundedSourceInAllMode() {
+    //given
+    TableDisplay.setLoadingMode(TableDisplayLoadingMode.ALL);
+    TableDisplay tableDisplay = new TableDisplay(rows(Integer.MAX_VALUE));
+    kernel.clearMessages();
+    //when
+    tableDisplay.display();
+    //then
+    Map model = (Map) getState(kernel.getPublishedMessages().get(0)).get(MODEL);
+    assertThat(model.get(TableDisplaySerializer.LOADING_MODE)).isEqualTo(TableDisplayLoadingMode.ENDLESS.name());
+    assertThat((List) model.get(TableDisplaySerializer.VALUES)).hasSize(TableDisplay.PAGE_SIZE);
+    assertThat(rowsRead.get()).isLessThanOrEqualTo(2 * TableDisplay.PAGE_SIZE);
+    tableDisplay.close();
+  }
+
+  @Test
+  public void shouldKeepBoundedPagesAndReadSpilledPagesBack() {
+    //given
+    TableDisplayStreamingModel model = new TableDisplayStreamingModel(rows(5 * TableDisplay.PAGE_SIZE + 10), new BasicObjectSerializer());
+    model.initValues();
+    //when
+    List<List<?>> all = model.takeAllData();
+    //then
+    PagedRows rows = model.getRows();
+    assertThat(all).hasSize(5 * TableDisplay.PAGE_SIZE + 10);
+    assertThat(rows.getPagesInMemory()).isLessThanOrEqualTo(2);
+    assertThat(all.get(1).get(0)).isEqualTo(1);
+    assertThat(all.get(1).get(1)).isEqualTo("name1");
+    assertThat(rows.getPageReads()).isEqualTo(1);
+    assertThat(rowsRead.get()).isEqualTo(5 * TableDisplay.PAGE_SIZE + 10);
+    model.close();
+  }
+
+  @Test
+  public void shouldKeepUpdatedCellsOfSpilledPages() {
+    //given
+    TableDisplay tableDisplay = new TableDisplay(rows(4 * TableDisplay.PAGE_SIZE));
+    tableDisplay.updateCell(5, "name", "changed");
+    //when
+    tableDisplay.takeAllData();
+    //then
+    assertThat(tableDisplay.getValues().get(5).get(1)).isEqualTo("changed");
+    tableDisplay.close();
+  }
+
+  private Iterator<Map<String, Object>> rows(int count) {
+    return new Iterator<Map<String, Object>>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < count;
+      }
+
+      @Override
+      public Map<String, Object> next() {
+        rowsRead.incrementAndGet();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", next);
+        row.put("name", "name" + next);
+        next++;
+        return row;
+      }
+    };
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.table.TableDisplay;
+import com.twosigma.beakerx.table.column.IntColumn;
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableDisplayIndexTest {
+
+  private KernelTest kernel;
+  private TableDisplay tableDisplay;
+  private TableDisplayIndex index;
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    tableDisplay = new TableDisplay(
+            asList("size", "name"),
+            asList(new IntColumn(new int[]{3, 1, 3, 2}),
+                    new StringDictionaryColumn(new String[]{"Apple", "banana", "apricot", null})));
+    index = new TableDisplayIndex(tableDisplay);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+  }
+
+  @Test
+  public void shouldKeepRowOrderForEqualValuesInBothDirections() {
+    //given
+    //when
+    int[] ascending = index.sorted("size", true, null);
+    int[] descending = index.sorted("size", false, null);
+    //then
+    assertThat(ascending).containsExactly(1, 3, 0, 2);
+    assertThat(descending).containsExactly(0, 2, 3, 1);
+  }
+
+  @Test
+  public void shouldSelectOnlyGivenRows() {
+    //given
+    BitSet rows = new BitSet();
+    rows.set(0);
+    rows.set(3);
+    //when
+    int[] sorted = index.sorted("size", true, rows);
+    //then
+    assertThat(sorted).containsExactly(3, 0);
+  }
+
+  @Test
+  public void shouldSearchAllColumnsIgnoringCase() {
+    //given
+    //when
+    BitSet ap = index.search("AP");
+    BitSet apr = index.search("apr");
+    BitSet two = index.search("2");
+    //then
+    assertThat(ap.stream().toArray()).containsExactly(0, 2);
+    assertThat(apr.stream().toArray()).containsExactly(2);
+    assertThat(two.stream().toArray()).containsExactly(3);
+  }
+
+  @Test
+  public void shouldUpdateIndexesOnUpdateCell() {
+    //given
+    TableDisplayRowSelection selection = new TableDisplayRowSelection(tableDisplay);
+    RowRangeRequest byName = new RowRangeRequest(null, 0, 4, singletonList(new SortKey("name", true)), emptyList());
+    RowRangeRequest searchCherry = new RowRangeRequest(null, 0, 4, emptyList(), emptyList(), "cherry", true);
+    assertThat(selection.window(byName).getRowIds()).containsExactly(0, 2, 1, 3);
+    assertThat(selection.window(searchCherry).getRowCount()).isZero();
+    //when
+    tableDisplay.updateCell(3, "name", "Cherry");
+    selection.cellUpdated(3, "name", true);
+    //then
+    assertThat(selection.window(byName).getRowIds()).containsExactly(0, 3, 2, 1);
+    assertThat(selection.window(searchCherry).getRowIds()).containsExactly(3);
+    assertThat(selection.window(searchCherry).getValues()).isNull();
+  }
+
+  @Test
+  public void shouldMatchRebuiltIndexAfterRandomUpdates() {
+    //given
+    int rows = 20_000;
+    Random random = new Random(42);
+    int[] values = new int[rows];
+    for (int i = 0; i < rows; i++) {
+      values[i] = random.nextInt(100);
+    }
+    TableDisplay large = new TableDisplay(singletonList("x"), singletonList(new IntColumn(values)));
+    TableDisplayIndex updated = new TableDisplayIndex(large);
+    updated.sorted("x", true, null);
+    //when
+    for (int i = 0; i < 500; i++) {
+      int row = random.nextInt(rows);
+      large.getColumn("x").set(row, random.nextInt(100));
+      updated.update(row, "x", false);
+    }
+    //then
+    TableDisplayIndex rebuilt = new TableDisplayIndex(large);
+    assertThat(updated.sorted("x", true, null)).isEqualTo(rebuilt.sorted("x", true, null));
+    assertThat(updated.sorted("x", false, null)).isEqualTo(rebuilt.sorted("x", false, null));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.paging;
+
+import com.twosigma.beakerx.KernelTest;
+import com.twosigma.beakerx.KernelTestFactory;
+import com.twosigma.beakerx.kernel.KernelManager;
+import com.twosigma.beakerx.kernel.handler.CommMsgHandler;
+import com.twosigma.beakerx.kernel.msg.JupyterMessages;
+import com.twosigma.beakerx.message.Message;
+import com.twosigma.beakerx.table.TableDisplay;
+import com.twosigma.beakerx.table.column.DoubleColumn;
+import com.twosigma.beakerx.table.column.NullBitmap;
+import com.twosigma.beakerx.table.column.StringDictionaryColumn;
+import com.twosigma.beakerx.widget.CommActions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.twosigma.beakerx.MessageFactoryTestMock.initHeader;
+import static com.twosigma.beakerx.kernel.comm.Comm.COMM_ID;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROW_COUNT;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.ROW_WINDOW;
+import static com.twosigma.beakerx.table.serializer.TableDisplaySerializer.VALUES;
+import static com.twosigma.beakerx.widget.BeakerxWidgetInfo.MODEL_UPDATE;
+import static com.twosigma.beakerx.widget.TestWidgetUtils.getState;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TableDisplayRowSelectionTest {
+
+  private KernelTest kernel;
+  private TableDisplay tableDisplay;
+
+  @Before
+  public void setUp() throws Exception {
+    kernel = KernelTestFactory.getKernel();
+    KernelManager.register(kernel);
+    NullBitmap nulls = new NullBitmap(5);
+    nulls.setNull(3);
+    tableDisplay = new TableDisplay(
+            asList("price", "ticker"),
+            asList(new DoubleColumn(new double[]{3.0, 1.0, 5.0, 0, 2.0}, nulls),
+                    new StringDictionaryColumn(new String[]{"c", "a", "e", "d", "b"})));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    KernelManager.register(null);
+    TableDisplay.setWindowedPaging(false);
+  }
+
+  @Test
+  public void shouldReturnUnsortedWindow() {
+    //given
+    //when
+    RowWindow window = tableDisplay.getRowWindow(new RowRangeRequest(1, 3));
+    //then
+    assertThat(window.getRowIds()).containsExactly(1, 2);
+    assertThat(window.getRowCount()).isEqualTo(5);
+    assertThat(window.getValues().get(0).get(1)).isEqualTo("a");
+  }
+
+  @Test
+  public void shouldSortOnKernelWithNullsLast() {
+    //given
+    RowRangeRequest ascending = new RowRangeRequest(null, 0, 10, singletonList(new SortKey("price", true)), emptyList());
+    RowRangeRequest descending = new RowRangeRequest(null, 0, 10, singletonList(new SortKey("price", false)), emptyList());
+    //when
+    RowWindow ascendingWindow = tableDisplay.getRowWindow(ascending);
+    RowWindow descendingWindow = tableDisplay.getRowWindow(descending);
+    //then
+    assertThat(ascendingWindow.getRowIds()).containsExactly(1, 4, 0, 2, 3);
+    assertThat(descendingWindow.getRowIds()).containsExactly(2, 0, 4, 1, 3);
+  }
+
+  @Test
+  public void shouldFilterOnKernel() {
+    //given
+    List<ColumnFilter> filters = asList(
+            new ColumnFilter("price", FilterOperator.GE, 2),
+            new ColumnFilter("ticker", FilterOperator.NE, "e"));
+    RowRangeRequest request = new RowRangeRequest(null, 0, 10, singletonList(new SortKey("ticker", true)), filters);
+    //when
+    RowWindow window = tableDisplay.getRowWindow(request);
+    //then
+    assertThat(window.getRowCount()).isEqualTo(2);
+    assertThat(window.getRowIds()).containsExactly(4, 0);
+  }
+
+  @Test
+  public void shouldSortLargeTableStable() {
+    //given
+    int rows = 10_000;
+    double[] values = new double[rows];
+    for (int i = 0; i < rows; i++) {
+      values[i] = i % 7;
+    }
+    TableDisplay large = new TableDisplay(singletonList("x"), singletonList(new DoubleColumn(values)));
+    //when
+    RowWindow window = large.getRowWindow(new RowRangeRequest(null, 0, rows, singletonList(new SortKey("x", true)), emptyList()));
+    //then
+    int[] ids = window.getRowIds();
+    for (int i = 1; i < rows; i++) {
+      double previous = values[ids[i - 1]];
+      double current = values[ids[i]];
+      assertThat(previous < current || (previous == current && ids[i - 1] < ids[i])).isTrue();
+    }
+  }
+
+  @Test
+  public void shouldAnswerRowRangeRequestOverComm() throws Exception {
+    //given
+    TableDisplay.setWindowedPaging(true);
+    tableDisplay.display();
+    kernel.clearMessages();
+    //when
+    new CommMsgHandler(kernel).handle(rowRangeMessage());
+    //then
+    Map rowWindow = rowWindow(kernel.getPublishedMessages());
+    assertThat(rowWindow.get(ROW_COUNT)).isEqualTo(5);
+    assertThat((List) rowWindow.get(VALUES)).containsExactly(asList(5.0, "e"), asList(3.0, "c"));
+  }
+
+  @Test
+  public void shouldIgnoreMalformedRowRangeRequest() {
+    //given
+    TableDisplay.setWindowedPaging(true);
+    tableDisplay.display();
+    kernel.clearMessages();
+    Message missingEnd = rowRangeMessage("price");
+    dataContent(missingEnd).remove(RowRangeRequest.END);
+    Message textStart = rowRangeMessage("price");
+    dataContent(textStart).put(RowRangeRequest.START, "0");
+    //when
+    new CommMsgHandler(kernel).handle(missingEnd);
+    new CommMsgHandler(kernel).handle(textStart);
+    new CommMsgHandler(kernel).handle(rowRangeMessage("unknown"));
+    //then
+    assertThat(hasRowWindow(kernel.getPublishedMessages())).isFalse();
+  }
+
+  private boolean hasRowWindow(List<Message> messages) {
+    for (Message message : messages) {
+      Map state = getState(message);
+      if (state != null && state.containsKey(MODEL_UPDATE)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Map dataContent(Message message) {
+    return (Map) ((Map) message.getContent().get("data")).get("content");
+  }
+
+  private Map rowWindow(List<Message> messages) {
+    for (Message message : messages) {
+      Map state = getState(message);
+      if (state != null && state.containsKey(MODEL_UPDATE)) {
+        return (Map) ((Map) state.get(MODEL_UPDATE)).get(ROW_WINDOW);
+      }
+    }
+    throw new AssertionError("No row window sent");
+  }
+
+  private Message rowRangeMessage() {
+    return rowRangeMessage("price");
+  }
+
+  private Message rowRangeMessage(String sortColumn) {
+    Message message = new Message(initHeader(JupyterMessages.COMM_MSG));
+    Map<String, Serializable> content = new LinkedHashMap<>();
+    content.put(COMM_ID, tableDisplay.getComm().getCommId());
+    Map<String, Serializable> sortKey = new LinkedHashMap<>();
+    sortKey.put(RowRangeRequest.COLUMN, sortColumn);
+    sortKey.put(RowRangeRequest.ASCENDING, false);
+    Map<String, Serializable> dataContent = new LinkedHashMap<>();
+    dataContent.put("event", CommActions.ROW_RANGE.getAction());
+    dataContent.put(RowRangeRequest.START, 0);
+    dataContent.put(RowRangeRequest.END, 2);
+    dataContent.put(RowRangeRequest.SORT, new ArrayList<>(singletonList(sortKey)));
+    Map<String, Serializable> data = new LinkedHashMap<>();
+    data.put("content", (Serializable) dataContent);
+    content.put("data", (Serializable) data);
+    message.setContent(content);
+    return message;
+  }
+}
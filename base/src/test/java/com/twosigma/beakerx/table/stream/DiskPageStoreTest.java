@@ -0,0 +1,90 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.table.stream;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DiskPageStoreTest {
+
+  private DiskPageStore store;
+
+  @After
+  public void tearDown() {
+    if (store != null) {
+      store.close();
+    }
+  }
+
+  @Test
+  public void shouldRewritePageInItsOldSlot() {
+    //given
+    store = new DiskPageStore();
+    store.write(0, asList(asList(1, "a"), asList(2, "b")));
+    store.write(1, singletonList(asList(3, "c")));
+    long size = store.size();
+    //when
+    for (int i = 0; i < 100; i++) {
+      store.write(0, asList(asList(i, "a"), asList(i, "b")));
+    }
+    //then
+    assertThat(store.size()).isEqualTo(size);
+    assertThat(store.read(0)).containsExactly(asList(99, "a"), asList(99, "b"));
+    assertThat(store.read(1)).containsExactly(asList(3, "c"));
+  }
+
+  @Test
+  public void shouldReuseSlotFreedByGrownPage() {
+    //given
+    store = new DiskPageStore();
+    store.write(0, singletonList(singletonList(1)));
+    store.write(0, asList(asList(1, "a", "grown"), asList(2, "b", "grown")));
+    long size = store.size();
+    //when
+    store.write(1, singletonList(singletonList(2)));
+    //then
+    assertThat(store.size()).isEqualTo(size);
+    assertThat(store.read(1)).containsExactly(singletonList(2));
+    assertThat(store.read(0)).hasSize(2);
+  }
+
+  @Test
+  public void shouldReadRowsWithClassesOfStoreClassLoader() throws Exception {
+    //given
+    URL classes = Cell.class.getProtectionDomain().getCodeSource().getLocation();
+    try (URLClassLoader notebook = new URLClassLoader(new URL[]{classes}, null)) {
+      Object cell = notebook.loadClass(Cell.class.getName()).getDeclaredConstructor().newInstance();
+      store = new DiskPageStore(notebook);
+      store.write(0, singletonList(singletonList(cell)));
+      //when
+      List<List<?>> rows = store.read(0);
+      //then
+      assertThat(rows.get(0).get(0).getClass().getClassLoader()).isSameAs(notebook);
+    }
+  }
+
+  public static class Cell implements Serializable {
+  }
+}
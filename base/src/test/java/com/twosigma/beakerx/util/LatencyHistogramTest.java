@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2020 TWO SIGMA OPEN SOURCE, LLC
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.twosigma.beakerx.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void shouldCountSamplesAndComputePercentiles() {
+    //given
+    LatencyHistogram histogram = new LatencyHistogram("shell");
+    //when
+    for (int i = 0; i < 99; i++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(10));
+    }
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(5));
+    //then
+    assertThat(histogram.getCount()).isEqualTo(100);
+    assertThat(histogram.getPercentileMicros(50)).isEqualTo(15);
+    assertThat(histogram.getPercentileMicros(100)).isEqualTo(5000);
+    assertThat(histogram.getMaxMicros()).isEqualTo(5000);
+  }
+
+  @Test
+  public void shouldClearSamplesOnReset() {
+    //given
+    LatencyHistogram histogram = new LatencyHistogram("heartbeat");
+    histogram.record(1000);
+    //when
+    histogram.reset();
+    //then
+    assertThat(histogram.getCount()).isEqualTo(0);
+    assertThat(histogram.getPercentileMicros(99)).isEqualTo(0);
+  }
+}
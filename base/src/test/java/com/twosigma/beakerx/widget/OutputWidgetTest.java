@@ -96,6 +96,58 @@ public class OutputWidgetTest {
     assertThat(streamMessage.getContent().get(Output.TEXT)).isEqualTo("Error 1\n");
   }
 
+  @Test
+  public void batchingShouldPublishOneStreamMessagePerFlush() throws Exception {
+    //given
+    Output output = new Output();
+    output.enableBatching(60_000, 1_000_000);
+    groovyKernel.clearPublishedMessages();
+    //when
+    for (int i = 0; i < 100; i++) {
+      output.appendStdout("line " + i);
+    }
+    assertThat(groovyKernel.getPublishedMessages()).isEmpty();
+    output.flush();
+    //then
+    List<Message> messages = groovyKernel.getPublishedMessages();
+    assertThat(messages).hasSize(3);
+    Message streamMessage = EvaluatorResultTestWatcher.getStreamMessage(groovyKernel).get();
+    assertThat(((String) streamMessage.getContent().get(Output.TEXT)).split("\n")).hasSize(100);
+    assertThat(output.getFlushStatistics().getWriteCount()).isEqualTo(100);
+    assertThat(output.getFlushStatistics().getFlushCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void batchingShouldFlushWhenSizeIsReached() throws Exception {
+    //given
+    Output output = new Output();
+    output.enableBatching(60_000, 10);
+    groovyKernel.clearPublishedMessages();
+    //when
+    output.appendStdout("0123456789");
+    //then
+    assertThat(groovyKernel.getPublishedMessages()).hasSize(3);
+    assertThat(output.getFlushStatistics().getFlushedChars()).isEqualTo(11);
+  }
+
+  @Test
+  public void batchingShouldFlushOnInterval() throws Exception {
+    //given
+    Output output = new Output();
+    output.enableBatching(10, 1_000_000);
+    groovyKernel.clearPublishedMessages();
+    //when
+    output.appendStderr("Error 1");
+    //then
+    long deadline = System.currentTimeMillis() + 5000;
+    while (output.getFlushStatistics().getFlushCount() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    Message streamMessage = EvaluatorResultTestWatcher.getStreamMessage(groovyKernel).get();
+    assertThat(streamMessage.getContent().get(Output.NAME)).isEqualTo(Output.STDERR);
+    assertThat(streamMessage.getContent().get(Output.TEXT)).isEqualTo("Error 1\n");
+  }
+
   @Test
   public void shouldSendCommMsgClear() throws Exception {
     //given